@@ -0,0 +1,39 @@
+package Group9.benchmarks;
+
+import Group9.Game;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.GameMap;
+import Group9.map.MapTemplate;
+import Group9.map.parser.Parser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The bundled maps the benchmarks run on. All benchmarks are run from the root of the repository, and every game is
+ * created with the same seed, so two runs of a benchmark measure the exact same work.
+ */
+final class BenchmarkMaps {
+
+    final static long _SEED = 42;
+
+    private final static Map<String, MapTemplate> templates = new HashMap<>();
+
+    private BenchmarkMaps() {}
+
+    /**
+     * @param name The name of the map in src/main/java/Group9/map/maps without the extension, e.g. "mazy".
+     * @return
+     */
+    static synchronized MapTemplate template(String name)
+    {
+        return templates.computeIfAbsent(name,
+                key -> Parser.parseTemplateFile(String.format("./src/main/java/Group9/map/maps/%s.map", key)));
+    }
+
+    static Game game(String name)
+    {
+        return new Game(new GameMap(template(name)), new ShallowSpaceAgentFactory(), false, _SEED);
+    }
+
+}
@@ -0,0 +1,100 @@
+package Group9.benchmarks;
+
+import Group9.map.objects.MapObject;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PointContainer#intersect(PointContainer, PointContainer)} and
+ * {@link PointContainer#intersectionPoints(PointContainer, PointContainer.Line)} against all map objects of a map. Every
+ * invocation tests the next one of a fixed set of random agents (circles) or lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+    private final static int _SAMPLES = 1024;
+
+    @Param({ "test_2", "mazy", "test_tunnel_objects" })
+    public String map;
+
+    private PointContainer[] containers;
+    private PointContainer.Circle[] circles;
+    private PointContainer.Line[] lines;
+    private double[] buffer;
+    private int index = 0;
+
+    @Setup
+    public void setup()
+    {
+        List<MapObject> objects = BenchmarkMaps.template(map).getObjects();
+        containers = objects.stream().map(MapObject::getContainer).toArray(PointContainer[]::new);
+
+        int points = 2;
+        for(PointContainer container : containers)
+        {
+            if(container instanceof PointContainer.Polygon)
+            {
+                points = Math.max(points, container.getAsPolygon().getPoints().length);
+            }
+        }
+        buffer = new double[points * 2];
+
+        final double width = BenchmarkMaps.template(map).getGameSettings().getWidth();
+        final double height = BenchmarkMaps.template(map).getGameSettings().getHeight();
+        Random random = new Random(BenchmarkMaps._SEED);
+        circles = new PointContainer.Circle[_SAMPLES];
+        lines = new PointContainer.Line[_SAMPLES];
+        for(int i = 0; i < _SAMPLES; i++)
+        {
+            Vector2 start = new Vector2(random.nextDouble() * width, random.nextDouble() * height);
+            // --- rays as long as the normal view range of the agents
+            Vector2 end = start.add(new Vector2(0, 20).rotated(random.nextDouble() * Math.PI * 2));
+            circles[i] = new PointContainer.Circle(start, 0.5);
+            lines[i] = new PointContainer.Line(start, end, false);
+        }
+    }
+
+    @Benchmark
+    public void intersect(Blackhole blackhole)
+    {
+        final PointContainer.Circle circle = circles[index++ & (_SAMPLES - 1)];
+        for(PointContainer container : containers)
+        {
+            blackhole.consume(PointContainer.intersect(container, circle));
+        }
+    }
+
+    @Benchmark
+    public void intersectionPoints(Blackhole blackhole)
+    {
+        final PointContainer.Line line = lines[index++ & (_SAMPLES - 1)];
+        for(PointContainer container : containers)
+        {
+            blackhole.consume(PointContainer.intersectionPoints(container, line));
+        }
+    }
+
+    @Benchmark
+    public void intersectionPointsBuffer(Blackhole blackhole)
+    {
+        final PointContainer.Line line = lines[index++ & (_SAMPLES - 1)];
+        final double x1 = line.getStart().getX(), y1 = line.getStart().getY();
+        final double x2 = line.getEnd().getX(), y2 = line.getEnd().getY();
+        for(PointContainer container : containers)
+        {
+            blackhole.consume(PointContainer.intersectionPoints(container, x1, y1, x2, y2, buffer));
+        }
+    }
+
+}
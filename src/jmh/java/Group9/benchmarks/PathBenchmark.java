@@ -0,0 +1,109 @@
+package Group9.benchmarks;
+
+import Group9.agent.odyssey.GridMap;
+import Group9.map.MapTemplate;
+import Group9.map.objects.MapObject;
+import Group9.map.objects.Spawn;
+import Group9.map.objects.TargetArea;
+import Group9.math.Vector2;
+import Group9.math.graph.Graph;
+import Group9.math.graph.Vertex;
+import Group9.tree.PointContainer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Graph#shortestPath(Vertex, Vertex)} across a square grid graph, and {@link GridMap#path(Vector2, Vector2)}
+ * from the guard spawn to the target area of a map whose walls have been rasterised into the grid. - Note: On test_2 the
+ * target area can not be reached through the grid, so the search explores every reachable cell.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+
+    @Param({ "test_2", "mazy", "test_tunnel_objects" })
+    public String map;
+
+    @Param({ "10", "20" })
+    public int graphSize;
+
+    private Graph<Integer> graph;
+    private Vertex<Integer> source, target;
+
+    private GridMap gridMap;
+    private Vector2 start, end;
+
+    @Setup
+    public void setup()
+    {
+        // --- grid graph with edges to the right and upper neighbour, from one corner to the opposite one
+        graph = new Graph<>();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Vertex<Integer>[] vertices = new Vertex[graphSize * graphSize];
+        for(int i = 0; i < vertices.length; i++)
+        {
+            vertices[i] = new Vertex<>(i);
+            graph.add(vertices[i]);
+        }
+        for(int y = 0; y < graphSize; y++)
+        {
+            for(int x = 0; x < graphSize; x++)
+            {
+                if(x + 1 < graphSize) graph.add(vertices[y * graphSize + x], vertices[y * graphSize + x + 1], 1, true);
+                if(y + 1 < graphSize) graph.add(vertices[y * graphSize + x], vertices[(y + 1) * graphSize + x], 1, true);
+            }
+        }
+        source = vertices[0];
+        target = vertices[vertices.length - 1];
+
+        // --- the grid map is centred around the origin, so it is made (a bit more than) twice as large as the map to fit
+        //  it without growing
+        MapTemplate template = BenchmarkMaps.template(map);
+        gridMap = new GridMap(1, template.getGameSettings().getWidth() * 2 + 4, template.getGameSettings().getHeight() * 2 + 4);
+        for(MapObject object : template.getObjects())
+        {
+            if(object.getType().isSolid())
+            {
+                for(PointContainer.Line line : object.getContainer().getAsPolygon().getLines())
+                {
+                    gridMap.ray(line.getStart(), line.getEnd());
+                }
+            }
+        }
+        start = middleOf(template.getObjects().stream().filter(e -> e instanceof Spawn.Guard).findFirst().get());
+        end = middleOf(template.getObjects().stream().filter(e -> e instanceof TargetArea).findFirst().get());
+    }
+
+    /**
+     * Note: The mean of the corners, {@link PointContainer.Polygon#getCenter()} depends on the orientation of the polygon.
+     */
+    private static Vector2 middleOf(MapObject object)
+    {
+        Vector2 sum = new Vector2.Origin();
+        final Vector2[] points = object.getContainer().getAsPolygon().getPoints();
+        for(Vector2 point : points)
+        {
+            sum = sum.add(point);
+        }
+        return sum.mul(1D / points.length);
+    }
+
+    @Benchmark
+    public List<Vertex<Integer>> shortestPath()
+    {
+        return graph.shortestPath(source, target);
+    }
+
+    @Benchmark
+    public List<GridMap.Cell> gridMapPath()
+    {
+        return gridMap.path(start, end);
+    }
+
+}
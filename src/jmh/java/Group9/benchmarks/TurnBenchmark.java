@@ -0,0 +1,42 @@
+package Group9.benchmarks;
+
+import Group9.Game;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full {@link Game#turn()}, perception, decisions of the agents and the execution of their actions included. Every
+ * iteration starts a new game with the same seed, and a game that has been won is replaced by a new one, so all runs
+ * play the same sequence of turns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnBenchmark {
+
+    @Param({ "test_2", "mazy", "test_tunnel_objects" })
+    public String map;
+
+    private Game game;
+
+    @Setup(Level.Iteration)
+    public void setup()
+    {
+        game = BenchmarkMaps.game(map);
+    }
+
+    @Benchmark
+    public Game.Team turn()
+    {
+        if(game.getWinner() != null)
+        {
+            game = BenchmarkMaps.game(map);
+        }
+        return game.turn();
+    }
+
+}
@@ -0,0 +1,69 @@
+package Group9.benchmarks;
+
+import Group9.Game;
+import Group9.agent.container.AgentContainer;
+import Group9.map.GameMap;
+import Group9.map.VisionMode;
+import Interop.Percept.Vision.FieldOfView;
+import Interop.Percept.Vision.ObjectPercept;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameMap#getObjectPerceptsForAgent(AgentContainer, FieldOfView, Group9.map.ViewRange)} and
+ * {@link GameMap#getEffectAreas(AgentContainer)} for the agents of a freshly spawned game, one agent per invocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisionBenchmark {
+
+    @Param({ "test_2", "mazy", "test_tunnel_objects" })
+    public String map;
+
+    @Param({ "BRUTE_FORCE", "GRID", "VISIBILITY_POLYGON" })
+    public VisionMode visionMode;
+
+    private GameMap gameMap;
+    private AgentContainer<?>[] agents;
+    private FieldOfView[] fovs;
+    private int index = 0;
+
+    @Setup
+    public void setup()
+    {
+        Game game = BenchmarkMaps.game(map);
+        gameMap = game.getGameMap();
+        gameMap.setVisionMode(visionMode);
+
+        List<AgentContainer<?>> containers = new ArrayList<>(game.getGuards());
+        containers.addAll(game.getIntruders());
+        agents = containers.toArray(new AgentContainer<?>[0]);
+        fovs = new FieldOfView[agents.length];
+        for(int i = 0; i < agents.length; i++)
+        {
+            fovs[i] = agents[i].getFOV(gameMap.getEffectAreas(agents[i]));
+        }
+    }
+
+    @Benchmark
+    public Set<ObjectPercept> getObjectPerceptsForAgent()
+    {
+        final int i = index++ % agents.length;
+        return gameMap.getObjectPerceptsForAgent(agents[i], fovs[i], null);
+    }
+
+    @Benchmark
+    public Object getEffectAreas()
+    {
+        return gameMap.getEffectAreas(agents[index++ % agents.length]);
+    }
+
+}
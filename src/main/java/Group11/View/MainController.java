@@ -34,7 +34,7 @@ public class MainController implements Runnable {
     public MainController(Gui gui, File mapFile, boolean generateHistory){
         this.gui = gui;
         this.generateHistory = generateHistory;
-        game = new Game(Parser.parseFile(mapFile.getAbsolutePath()), new CoolAgentFactory(), false, 15, new Callback<Game>() {
+        game = new Game(Parser.parseFile(mapFile.getAbsolutePath()), new CoolAgentFactory(), true, 15, new Callback<Game>() {
             @Override
             public void call(Game game) {
                 if(generateHistory){
@@ -110,10 +110,9 @@ public class MainController implements Runnable {
                 }
                 else
                 {
-                    game.query((lock) -> {
-                        gui.drawMovables(new ArrayList<>(game.getGuards()), new ArrayList<>(game.getIntruders()),
-                                new ArrayList<>(game.getGameMap().getDynamicObjects()));
-                    }, true);
+                    game.query((snapshot) -> {
+                        gui.drawMovables(snapshot.getGuards(), snapshot.getIntruders(), snapshot.getDynamicObjects());
+                    });
                 }
         }};
         animator.start();
@@ -1,19 +1,27 @@
 package Group9;
 
 import Group9.agent.container.AgentContainer;
+import Group9.agent.container.AgentGrid;
+import Group9.agent.container.AgentList;
 import Group9.agent.container.GuardContainer;
 import Group9.agent.container.IntruderContainer;
 import Group9.agent.factories.DefaultAgentFactory;
 import Group9.agent.factories.IAgentFactory;
+import Group9.agent.watchdog.DecisionBudget;
+import Group9.agent.watchdog.DecisionWatchdog;
+import Group9.event.GameEvent;
 import Group9.map.GameMap;
 import Group9.map.GameSettings;
 import Group9.map.ViewRange;
 import Group9.map.area.*;
 import Group9.map.dynamic.DynamicObject;
+import Group9.map.dynamic.DynamicObjectGrid;
 import Group9.map.dynamic.Pheromone;
 import Group9.map.dynamic.Sound;
 import Group9.map.objects.*;
+import Group9.math.Geometry;
 import Group9.math.Vector2;
+import Group9.metrics.GameMetrics;
 import Group9.tree.PointContainer;
 import Interop.Action.*;
 import Interop.Agent.Guard;
@@ -32,46 +40,85 @@ import Interop.Percept.Sound.SoundPercept;
 import Interop.Percept.Sound.SoundPerceptType;
 import Interop.Percept.Sound.SoundPercepts;
 import Interop.Percept.Vision.FieldOfView;
+import Interop.Percept.Vision.ObjectPercept;
 import Interop.Percept.Vision.ObjectPercepts;
 import Interop.Percept.Vision.VisionPrecepts;
 import Interop.Utils.Utils;
 
 import java.util.*;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class Game implements Runnable {
 
-    public final static Random _RANDOM;
-    public final static long _RANDOM_SEED = 201402367609800L; // System.nanoTime();
-    static {
-        System.out.println("seed: " + _RANDOM_SEED);
-        _RANDOM = new Random(_RANDOM_SEED);
-    }
-
     private GameMap gameMap;
     private ScenarioPercepts scenarioPercepts;
     private GameSettings settings;
 
-    private List<GuardContainer> guards = new ArrayList<>();
-    private List<IntruderContainer> intruders = new ArrayList<>();
+    // --- Note: The lists keep the agent grid up to date, see AgentList.
+    private final AgentGrid agentGrid;
+    private final List<GuardContainer> guards;
+    private final List<IntruderContainer> intruders;
 
     private Map<AgentContainer<?>, Boolean> actionSuccess = new HashMap<>();
     private Set<AgentContainer<?>> justTeleported = new HashSet<>();
 
     private Team winner = null;
+    private DrawReason drawReason = null;
+    private int turns = 0;
+
+    // --- Note: The win conditions are counted whenever an intruder is captured or its zone counter changes, so checking
+    //  for a winner after every action does not have to look at all intruders. See Game#recountWinConditions.
+    private int capturedIntruders = 0;
+    private int intrudersInTargetLongEnough = 0;
+
+    // --- Note: Null if the settings do not ask for it, see GameSettings#getStalemateTurns.
+    private StalemateDetector stalemateDetector = null;
 
     private AtomicBoolean runningLoop = new AtomicBoolean(false);
     private final AtomicInteger ticks;
     private long lastTick = System.nanoTime();
     private final Callback<Game> turnTickCallback;
 
+    // --- Note: Every game owns its random source, so games running in parallel do not contend on a shared seed and
+    //  every game can be reproduced from its seed.
+    private final long seed;
+    private final SplittableRandom random;
+    // --- Note: The percepts draw from their own random source, so a replay that does not generate any percepts (see
+    //  Game#replayTurn) still places the agents (e.g. when teleporting) exactly like the recorded game.
+    private final SplittableRandom perceptRandom;
+
+    // --- Note: Null if nobody is listening, see Game#setActionListener.
+    private ActionListener actionListener = null;
+    private final List<GameEvent.Listener> eventListeners = new CopyOnWriteArrayList<>();
+
     //---
+    // --- Note: Readers on other threads only ever see the snapshot of the last finished turn, it is swapped once per turn
+    //  so the game itself never has to wait for them.
     private final boolean queryIntent;
-    private Semaphore lock = new Semaphore(1);
+    private final AtomicReference<GameSnapshot> snapshot = new AtomicReference<>();
+
+    private final GameMetrics metrics = new GameMetrics();
+
+    // --- Note: Without a budget the agents are called directly on the game thread.
+    private DecisionWatchdog watchdog = null;
+
+    // --- Note: Null for sequential turns. The workers of a simultaneous turn record into metrics of their own, which
+    //  are added to the game's metrics at the end of every turn.
+    private ForkJoinPool simultaneousPool = null;
+    private final Map<Thread, GameMetrics> workerMetrics = new ConcurrentHashMap<>();
+    // --- Note: Null outside of the actions of a simultaneous turn, the guards that try to capture are collected in here
+    //  and only capture once everybody has moved.
+    private List<AgentContainer<?>> deferredCaptures = null;
 
     public Game(GameMap gameMap, final boolean queryIntent)
     {
@@ -83,30 +130,56 @@ public class Game implements Runnable {
         this(gameMap, agentFactory, queryIntent, -1, null);
     }
 
+    public Game(GameMap gameMap, IAgentFactory agentFactory, final boolean queryIntent, long seed)
+    {
+        this(gameMap, agentFactory, queryIntent, -1, null, seed);
+    }
 
     public Game(GameMap gameMap, IAgentFactory agentFactory, final boolean queryIntent, int ticks,
                 Callback<Game> turnTickCallback)
+    {
+        this(gameMap, agentFactory, queryIntent, ticks, turnTickCallback, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @param gameMap
+     * @param agentFactory
+     * @param queryIntent
+     * @param ticks
+     * @param turnTickCallback
+     * @param seed The seed of the game's random source, the same seed and map will result in the same game as long as
+     *             the agents do not use any other source of randomness.
+     */
+    public Game(GameMap gameMap, IAgentFactory agentFactory, final boolean queryIntent, int ticks,
+                Callback<Game> turnTickCallback, long seed)
     {
         gameMap.setGame(this);
         this.turnTickCallback = turnTickCallback;
         this.ticks = new AtomicInteger(ticks);
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.perceptRandom = this.random.split();
 
 
         this.queryIntent = queryIntent;
         this.gameMap = gameMap;
         this.scenarioPercepts = gameMap.getGameSettings().getScenarioPercepts();
         this.settings = gameMap.getGameSettings();
+        this.agentGrid = createAgentGrid(this.settings);
+        this.guards = new AgentList<>(this.agentGrid);
+        this.intruders = new AgentList<>(this.agentGrid);
         List<MapObject> solids = this.getGameMap().getObjects().stream().filter(e -> e.getType().isSolid()).collect(Collectors.toList());
 
         {
 
             Spawn.Guard guardSpawn = gameMap.getObjects(Spawn.Guard.class).get(0);
             List<PointContainer.Circle> usedSpawns = new ArrayList<>();
-            agentFactory.createGuards(settings.getNumGuards()).forEach(a -> {
+            agentFactory.createGuards(settings.getNumGuards(), this.random.split()).forEach(a -> {
                 Vector2 spawn = generateRandomSpawnLocation(guardSpawn.getArea().getAsPolygon(),
-                        new PointContainer.Circle(new Vector2.Origin(), AgentContainer._RADIUS), solids, usedSpawns);
+                        new PointContainer.Circle(new Vector2.Origin(), AgentContainer._RADIUS), solids, usedSpawns, this.random);
                 GuardContainer guardContainer = new GuardContainer(a, spawn, new Vector2(0, 1).normalise(),
                         new FieldOfView(settings.getGuardViewRangeNormal(), settings.getViewAngle()));
+                guardContainer.setGame(this);
                 this.guards.add(guardContainer);
                 usedSpawns.add(guardContainer.getShape());
             });
@@ -115,15 +188,149 @@ public class Game implements Runnable {
         {
             Spawn.Intruder intruderSpawn = gameMap.getObjects(Spawn.Intruder.class).get(0);
             List<PointContainer.Circle> usedSpawns = new ArrayList<>();
-            agentFactory.createIntruders(settings.getNumIntruders()).forEach(e -> {
+            agentFactory.createIntruders(settings.getNumIntruders(), this.random.split()).forEach(e -> {
                 Vector2 spawn = generateRandomSpawnLocation(intruderSpawn.getArea().getAsPolygon(),
-                        new PointContainer.Circle(new Vector2.Origin(), AgentContainer._RADIUS), solids, usedSpawns);
+                        new PointContainer.Circle(new Vector2.Origin(), AgentContainer._RADIUS), solids, usedSpawns, this.random);
                 IntruderContainer intruderContainer = new IntruderContainer(e, spawn, new Vector2(0, 1).normalise(),
                         new FieldOfView(settings.getIntruderViewRangeNormal(), settings.getViewAngle()));
+                intruderContainer.setGame(this);
                 this.intruders.add(intruderContainer);
                 usedSpawns.add(intruderContainer.getShape());
             });
         }
+        recountWinConditions();
+
+        if(settings.getStalemateTurns() > 0)
+        {
+            this.stalemateDetector = new StalemateDetector(settings.getStalemateTurns(), this.intruders.size());
+        }
+
+        if(this.queryIntent)
+        {
+            this.snapshot.set(GameSnapshot.of(this));
+        }
+    }
+
+    /**
+     * {@link Game#fork(long, IAgentFactory)}
+     */
+    private Game(Game original, long seed, IAgentFactory agentFactory)
+    {
+        this.gameMap = original.gameMap.fork();
+        this.gameMap.setGame(this);
+        this.scenarioPercepts = original.scenarioPercepts;
+        this.settings = original.settings;
+        this.agentGrid = createAgentGrid(this.settings);
+        this.guards = new AgentList<>(this.agentGrid);
+        this.intruders = new AgentList<>(this.agentGrid);
+        this.turnTickCallback = null;
+        this.ticks = new AtomicInteger(-1);
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.perceptRandom = this.random.split();
+        this.queryIntent = false;
+
+        this.winner = original.winner;
+        this.drawReason = original.drawReason;
+        this.turns = original.turns;
+        this.stalemateDetector = original.stalemateDetector == null ? null : new StalemateDetector(original.stalemateDetector);
+        this.watchdog = original.watchdog == null ? null : new DecisionWatchdog(original.watchdog.getBudget());
+        this.simultaneousPool = original.simultaneousPool;
+
+        final List<Guard> guardAgents = agentFactory == null ? null :
+                agentFactory.createGuards(original.guards.size(), this.random.split());
+        final List<Intruder> intruderAgents = agentFactory == null ? null :
+                agentFactory.createIntruders(original.intruders.size(), this.random.split());
+
+        final Map<AgentContainer<?>, AgentContainer<?>> containers = new IdentityHashMap<>();
+        for(int i = 0; i < original.guards.size(); i++)
+        {
+            final GuardContainer guard = original.guards.get(i);
+            final GuardContainer cloned = guard.clone(guardAgents == null ? guard.getAgent() : guardAgents.get(i));
+            cloned.setGame(this);
+            this.guards.add(cloned);
+            containers.put(guard, cloned);
+        }
+        for(int i = 0; i < original.intruders.size(); i++)
+        {
+            final IntruderContainer intruder = original.intruders.get(i);
+            final IntruderContainer cloned = intruder.clone(intruderAgents == null ? intruder.getAgent() : intruderAgents.get(i));
+            cloned.setGame(this);
+            this.intruders.add(cloned);
+            containers.put(intruder, cloned);
+        }
+        recountWinConditions();
+
+        original.actionSuccess.forEach((agent, success) -> this.actionSuccess.put(containers.get(agent), success));
+        original.justTeleported.forEach(agent -> this.justTeleported.add(containers.get(agent)));
+        for(DynamicObject<?> dynamicObject : original.gameMap.getDynamicObjects())
+        {
+            // --- Note: All dynamic objects are made by agents (sounds and pheromones).
+            @SuppressWarnings("unchecked")
+            final DynamicObject<AgentContainer<?>> object = (DynamicObject<AgentContainer<?>>) dynamicObject;
+            this.gameMap.getDynamicObjects().add(object.clone(containers.getOrDefault(object.getSource(), object.getSource())));
+        }
+    }
+
+    private static AgentGrid createAgentGrid(GameSettings settings)
+    {
+        // --- Note: About as large as the normal view range, so a ray only covers a handful of cells.
+        final double cellSize = Math.max(4, Math.max(settings.getGuardViewRangeNormal().getValue(),
+                settings.getIntruderViewRangeNormal().getValue()));
+        return new AgentGrid(settings.getWidth(), settings.getHeight(), cellSize);
+    }
+
+    /**
+     * {@link Game#fork(long, IAgentFactory)} with the same agents and a random seed.
+     * @return
+     */
+    public Game fork()
+    {
+        return fork(new SplittableRandom().nextLong(), null);
+    }
+
+    /**
+     * {@link Game#fork(long, IAgentFactory)} with the same agents.
+     * @param seed
+     * @return
+     */
+    public Game fork(long seed)
+    {
+        return fork(seed, null);
+    }
+
+    /**
+     * Creates an independent copy of the game in its current state, e.g. for planners that play out a couple of turns
+     * to see what happens. The copy shares the map, its objects and indices with this game, and only copies what
+     * changes while the game is running: the poses, cooldowns and counters of the agents, the dynamic objects, the
+     * turn and the winner. Playing the copy does not change this game.
+     *
+     * The copy has its own random source, it does not publish snapshots and it has no tick limit or callback, but it
+     * plays by the same rules (decision budget and simultaneous moves) as this game.
+     *
+     * Note: Without a factory the copy is played by the same agent instances as this game, and agents that remember
+     *  things will remember the turns of the copy as well. Pass a factory to play the copy with agents of its own.
+     *
+     * @param seed The seed of the copy's random source.
+     * @param agentFactory The factory creating the agents of the copy, or null to keep the agents of this game.
+     * @return
+     */
+    public Game fork(long seed, IAgentFactory agentFactory)
+    {
+        return new Game(this, seed, agentFactory);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * The random source of this game. It is not thread-safe and should only be used by the thread running the game,
+     * other threads should not touch it.
+     * @return
+     */
+    public SplittableRandom getRandom() {
+        return random;
     }
 
     public AtomicInteger getTicks() {
@@ -134,6 +341,113 @@ public class Game implements Runnable {
         return actionSuccess;
     }
 
+    /**
+     * @return The instrumentation of this game, it is updated while the game is running.
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Limits the time every agent has to decide on its action, an agent that runs out of time does nothing in that turn.
+     * Should be set before the game is started.
+     * @param budget The budget, or null to call the agents without any limit.
+     */
+    public void setDecisionBudget(DecisionBudget budget)
+    {
+        this.watchdog = budget == null ? null : new DecisionWatchdog(budget);
+    }
+
+    /**
+     * @return The watchdog enforcing the decision budget, it knows the CPU time and the violations of every agent. Null
+     *  if there is no budget.
+     */
+    public DecisionWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    /**
+     * In a simultaneous turn all agents perceive the same state of the world and decide in parallel, only then the
+     * actions are executed. The actions that would depend on the order they are executed in are resolved like this:
+     *  - Captures are checked once every agent has moved, against where the agents ended up. An intruder that moves out
+     *    of reach gets away, and a guard that moves into reach captures it right away.
+     *  - Pheromones of the same team that would overlap each other are dropped by neither agent, both actions fail. A
+     *    drop still fails if it overlaps a pheromone that was there before the turn.
+     * Everything else does not depend on the other agents (agents do not collide with each other), and the winner is
+     * only checked once all actions have been executed. The game stays deterministic for a seed, no matter how many
+     * threads the pool has.
+     *
+     * Sounds and pheromones expire after the agents decided, not at the start of the turn as in a sequential turn. A
+     * sound is perceived in the turn after it has been made, by every agent, just like the agents that act after its
+     * source perceive it in a sequential turn. Everything with a lifetime of n turns is perceived for n turns.
+     *
+     * Note: The agents decide at the same time, so they must not share any mutable state.
+     *
+     * @param pool The pool the agents perceive and decide on, or null for sequential turns.
+     */
+    public void setSimultaneousMoves(ForkJoinPool pool)
+    {
+        this.simultaneousPool = pool;
+    }
+
+    /**
+     * {@link Game#setSimultaneousMoves(ForkJoinPool)} on the common pool.
+     * @param simultaneous
+     */
+    public void setSimultaneousMoves(boolean simultaneous)
+    {
+        setSimultaneousMoves(simultaneous ? ForkJoinPool.commonPool() : null);
+    }
+
+    public boolean isSimultaneousMoves()
+    {
+        return this.simultaneousPool != null;
+    }
+
+    /**
+     * The listener is called with the action of every agent in the order the agents are asked for them, before the
+     * actions are executed. Together with the seed this is enough to play the game again, see {@link Game#replayTurn}.
+     * @param listener The listener, or null to stop listening.
+     */
+    public void setActionListener(ActionListener listener)
+    {
+        this.actionListener = listener;
+    }
+
+    /**
+     * @param listener Is called with every event of the game from now on.
+     */
+    public void addEventListener(GameEvent.Listener listener)
+    {
+        this.eventListeners.add(listener);
+    }
+
+    public void removeEventListener(GameEvent.Listener listener)
+    {
+        this.eventListeners.remove(listener);
+    }
+
+    private boolean hasEventListeners()
+    {
+        return !this.eventListeners.isEmpty();
+    }
+
+    private void emit(GameEvent event)
+    {
+        for(GameEvent.Listener listener : this.eventListeners)
+        {
+            listener.call(event);
+        }
+    }
+
+    /**
+     * @return The amount of decisions that ran out of time.
+     */
+    public long getBudgetViolations()
+    {
+        return metrics.get(GameMetrics.Counter.BUDGET_VIOLATIONS);
+    }
+
     /**
      * Generates a random point within the area. The circle is the one that is supposed to be placed inside. If the
      * circle is not intersecting with anything in the avoid list, it might be placed along the border of the area.
@@ -141,10 +455,12 @@ public class Game implements Runnable {
      * @param circle The circle that should be placed.
      * @param avoid The objects the circle is not allowed to intersect with.
      * @param occupied The circles that already have been placed, if no other objects need to be placed just pass an EmptyList.
+     * @param random The random source the locations are sampled from.
      * @return A point where the circle can be placed without conflicts.
      */
     public static Vector2 generateRandomSpawnLocation(PointContainer.Polygon area, PointContainer.Circle circle,
-                                                      List<MapObject> avoid, List<PointContainer.Circle> occupied)
+                                                      List<MapObject> avoid, List<PointContainer.Circle> occupied,
+                                                      SplittableRandom random)
     {
 
         final Vector2[] point = new Vector2[] { circle.getCenter() };
@@ -179,7 +495,7 @@ public class Game implements Runnable {
                             "of agents.\n", i);
                 }
 
-                point[0] = area.generateRandomLocation();
+                point[0] = area.generateRandomLocation(random);
             }
             while (occupied.stream().anyMatch(e -> e.getCenter().distance(point[0]) <= radius * 2D));
 
@@ -191,33 +507,31 @@ public class Game implements Runnable {
     }
 
     /**
-     * This method is mainly used for UI updates or for other threads accessing any data structures in an async manner.
-     * The method will acquire a mutex, and stop the game controller from updating during the method call.
+     * This method is mainly used for UI updates or for other threads accessing the state of the game in an async manner.
+     * The callback is called with the latest snapshot, it never blocks the game.
      *
-     * @param callback The method which should be called once the lock has been acquired.
+     * @param callback The method which should be called with the snapshot.
+     */
+    public void query(QueryUpdate callback)
+    {
+        callback.call(this.snapshot.get());
+    }
+
+    /**
+     * @deprecated The game does not lock itself anymore, both kinds of reads get the latest snapshot. {@link #query(QueryUpdate)}
      */
+    @Deprecated
     public void query(QueryUpdate callback, boolean safeRead)
     {
-        if(safeRead)
-        {
-            callback.call(null);
-            return;
-        }
-        else
-        {
-            if(!this.queryIntent)
-            {
-                throw new IllegalArgumentException("queryIntent=false and safeRead=false. Please indicate a queryIntent " +
-                        "so that the controller can properly lock itself or perform a safe-read operation.");
-            }
-        }
+        query(callback);
+    }
 
-        try {
-            lock.acquireUninterruptibly();
-            callback.call(lock);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    /**
+     * @return The state of the game after the last finished turn, or null if the game has been created without a queryIntent.
+     */
+    public GameSnapshot getSnapshot()
+    {
+        return this.snapshot.get();
     }
 
     public List<GuardContainer> getGuards() {
@@ -228,6 +542,13 @@ public class Game implements Runnable {
         return intruders;
     }
 
+    /**
+     * @return The spatial index of all guards and intruders, it is kept up to date as they move.
+     */
+    public AgentGrid getAgentGrid() {
+        return agentGrid;
+    }
+
     public GameMap getGameMap()
     {
         return gameMap;
@@ -238,13 +559,29 @@ public class Game implements Runnable {
     }
 
     /**
-     * @return Returns the winner of the match, otherwise null.
+     * @return The amount of turns that have been started so far.
+     */
+    public int getTurns()
+    {
+        return turns;
+    }
+
+    /**
+     * @return Returns the winner of the match, {@link Team#DRAW} if nobody won, otherwise null.
      */
     public Team getWinner()
     {
         return winner;
     }
 
+    /**
+     * @return Why the game ended in a draw, otherwise null.
+     */
+    public DrawReason getDrawReason()
+    {
+        return drawReason;
+    }
+
     /**
      * Runs the game controller in a loop.
      */
@@ -291,10 +628,7 @@ public class Game implements Runnable {
      */
     private Team checkForWinner()
     {
-        final long intrudersCaptured = intruders.stream().filter(IntruderContainer::isCaptured).count();
-        final long intrudersWins = intruders.stream().filter(e -> e.getZoneCounter() >= settings.getTurnsInTargetAreaToWin()).count();
-
-        if(intrudersWins > 0)
+        if(intrudersInTargetLongEnough > 0)
         {
             return Team.INTRUDERS;
         }
@@ -302,14 +636,14 @@ public class Game implements Runnable {
         switch (settings.getScenarioPercepts().getGameMode())
         {
             case CaptureOneIntruder:
-                if(intrudersCaptured > 0)
+                if(capturedIntruders > 0)
                 {
                     return Team.GUARDS;
                 }
 
                 break;
             case CaptureAllIntruders:
-                if(intrudersCaptured == intruders.size() && !intruders.isEmpty())
+                if(capturedIntruders == intruders.size() && !intruders.isEmpty())
                 {
                     return Team.GUARDS;
                 }
@@ -318,24 +652,157 @@ public class Game implements Runnable {
         return null;
     }
 
+    /**
+     * Checks at the end of a turn whether the game has reached the turn limit or has become a stalemate.
+     * @return {@link Team#DRAW} if it ends in a draw, otherwise null.
+     */
+    private Team checkForDraw()
+    {
+        if(settings.getMaxTurns() > 0 && turns >= settings.getMaxTurns())
+        {
+            drawReason = DrawReason.TURN_LIMIT;
+        }
+        else if(stalemateDetector != null)
+        {
+            drawReason = stalemateDetector.update(this);
+        }
+        return drawReason == null ? null : (winner = Team.DRAW);
+    }
+
+    /**
+     * Counts the win conditions from scratch, for a game that starts with agents of another one.
+     */
+    private void recountWinConditions()
+    {
+        this.capturedIntruders = (int) intruders.stream().filter(IntruderContainer::isCaptured).count();
+        this.intrudersInTargetLongEnough = (int) intruders.stream()
+                .filter(e -> e.getZoneCounter() >= settings.getTurnsInTargetAreaToWin()).count();
+    }
+
+    /**
+     * @return The amount of intruders that have been captured so far.
+     */
+    public int getCapturedIntruders()
+    {
+        return capturedIntruders;
+    }
+
+    /**
+     * @return The agents of the list that are part of the subset, in the order of the list.
+     */
+    private static <A> List<A> inListOrder(List<A> list, Collection<A> subset)
+    {
+        final Set<A> members = Collections.newSetFromMap(new IdentityHashMap<>());
+        members.addAll(subset);
+        return list.stream().filter(members::contains).collect(Collectors.toList());
+    }
+
+    private void capture(AgentContainer<?> guard, IntruderContainer intruder)
+    {
+        if(intruder.isCaptured())
+        {
+            return;
+        }
+        intruder.setCaptured(true);
+        this.capturedIntruders++;
+        if(hasEventListeners())
+        {
+            emit(new GameEvent.Captured(turns, guard, intruder));
+        }
+    }
+
+    private void setZoneCounter(IntruderContainer intruder, int zoneCounter)
+    {
+        final int previous = intruder.getZoneCounter();
+        intruder.setZoneCounter(zoneCounter);
+
+        final int threshold = settings.getTurnsInTargetAreaToWin();
+        this.intrudersInTargetLongEnough += (zoneCounter >= threshold ? 1 : 0) - (previous >= threshold ? 1 : 0);
+
+        if(hasEventListeners())
+        {
+            if(previous == 0 && zoneCounter > 0)
+            {
+                emit(new GameEvent.ZoneEntered(turns, intruder));
+            }
+            else if(previous > 0 && zoneCounter == 0)
+            {
+                emit(new GameEvent.ZoneLeft(turns, intruder, previous));
+            }
+        }
+    }
+
+    private void addSound(AgentContainer<?> agent, Sound sound)
+    {
+        gameMap.getDynamicObjects().add(sound);
+        if(hasEventListeners())
+        {
+            emit(new GameEvent.SoundEmitted(turns, agent, sound));
+        }
+    }
+
     /**
      * Executes one full turn of the game.
      * @return
      */
     public final Team turn()
     {
-        lockin(this::cooldown);
+        return turn(null);
+    }
+
+    /**
+     * Executes one full turn of the game, but instead of asking the agents every agent gets the next action of the
+     * source, e.g. the actions recorded by an {@link ActionListener}. No percepts are generated and no agent is called,
+     * so with the same map, seed and mode (sequential or simultaneous moves) this plays the recorded game again.
+     * @param actions Returns the action of an agent, it is called in the same order as the {@link ActionListener}.
+     * @return
+     */
+    public final Team replayTurn(Function<AgentContainer<?>, Action> actions)
+    {
+        return turn(actions);
+    }
+
+    private Team turn(Function<AgentContainer<?>, Action> actions)
+    {
+        final long start = metrics.start();
+        Team team = this.simultaneousPool == null ? playTurn(actions) : playSimultaneousTurn(actions);
+        if(team == null)
+        {
+            team = checkForDraw();
+        }
+        metrics.stop(GameMetrics.Phase.TURN, start);
+        if(this.queryIntent)
+        {
+            this.snapshot.set(GameSnapshot.of(this));
+        }
+        return team;
+    }
+
+    /**
+     * @param actions The source of the actions, or null to ask the agents.
+     */
+    private Action nextAction(AgentContainer<?> agent, Function<AgentContainer<?>, Action> actions)
+    {
+        final Action action = actions == null ? perceiveAndDecide(agent, this.perceptRandom) : actions.apply(agent);
+        if(this.actionListener != null)
+        {
+            this.actionListener.call(agent, action);
+        }
+        return action;
+    }
+
+    private Team playTurn(Function<AgentContainer<?>, Action> actions)
+    {
+        turns++;
+        expireDynamicObjects();
 
         // Note: Intruders move first.
         for(IntruderContainer intruder : this.intruders)
         {
             if(!(intruder.isCaptured()))
             {
-
-                lockin(() -> {
-                    final IntruderAction action = intruder.getAgent().getAction(this.generateIntruderPercepts(intruder));
-                    actionSuccess.put(intruder, executeAction(intruder, action));
-                });
+                final Action action = nextAction(intruder, actions);
+                actionSuccess.put(intruder, timedExecuteAction(intruder, action));
 
                 if((winner = checkForWinner()) != null)
                 {
@@ -346,11 +813,8 @@ public class Game implements Runnable {
 
         for(GuardContainer guard : this.guards)
         {
-
-            lockin(() -> {
-                final GuardAction action = guard.getAgent().getAction(this.generateGuardPercepts(guard));
-                actionSuccess.put(guard, executeAction(guard, action));
-            });
+            final Action action = nextAction(guard, actions);
+            actionSuccess.put(guard, timedExecuteAction(guard, action));
 
             if((winner = checkForWinner()) != null)
             {
@@ -361,23 +825,220 @@ public class Game implements Runnable {
         return null;
     }
 
-    private void lockin(Runnable callable)
+    private Team playSimultaneousTurn(Function<AgentContainer<?>, Action> source)
     {
-        if(this.queryIntent)
+        turns++;
+        // --- Note: The dynamic objects only expire once everybody has perceived them, otherwise the sounds of the last
+        //  turn (which only live for a single turn) would never be heard. The cooldowns of the agents run with the turns
+        //  on their own.
+
+        final List<AgentContainer<?>> agents = new ArrayList<>(this.intruders.size() + this.guards.size());
+        this.intruders.stream().filter(e -> !e.isCaptured()).forEach(agents::add);
+        agents.addAll(this.guards);
+
+        final Action[] actions = new Action[agents.size()];
+        if(source == null)
+        {
+            // --- Note: The random sources are split off in the order of the agents, so the percepts do not depend on the
+            //  order the workers run in.
+            final SplittableRandom[] randoms = new SplittableRandom[agents.size()];
+            for(int i = 0; i < randoms.length; i++)
+            {
+                randoms[i] = this.perceptRandom.split();
+            }
+
+            // --- the indices are built lazily, they have to be ready before the workers read them
+            this.gameMap.getObjectTree();
+            this.gameMap.getGridRayCaster();
+
+            this.simultaneousPool.invoke(new Decisions(agents, randoms, actions, 0, agents.size()));
+            for(GameMetrics worker : this.workerMetrics.values())
+            {
+                this.metrics.add(worker);
+                worker.reset();
+            }
+        }
+        else
+        {
+            for(int i = 0; i < actions.length; i++)
+            {
+                actions[i] = source.apply(agents.get(i));
+            }
+        }
+
+        if(this.actionListener != null)
+        {
+            for(int i = 0; i < actions.length; i++)
+            {
+                this.actionListener.call(agents.get(i), actions[i]);
+            }
+        }
+
+        // --- Note: Other than in a sequential turn, see Game#setSimultaneousMoves.
+        expireDynamicObjects();
+
+        final boolean[] conflicting = conflictingPheromones(agents, actions);
+        this.deferredCaptures = new ArrayList<>();
+        try {
+            for(int i = 0; i < actions.length; i++)
+            {
+                final AgentContainer<?> agent = agents.get(i);
+                actionSuccess.put(agent, conflicting[i] ? recordAction(agent, actions[i], false) :
+                        timedExecuteAction(agent, actions[i]));
+            }
+            for(AgentContainer<?> guard : this.deferredCaptures)
+            {
+                captureIntruders(guard);
+            }
+        } finally {
+            this.deferredCaptures = null;
+        }
+
+        return (winner = checkForWinner());
+    }
+
+    /**
+     * @return For every agent of a simultaneous turn, whether it tries to drop a pheromone that overlaps one dropped by
+     *  another agent of its team in the same turn.
+     */
+    private boolean[] conflictingPheromones(List<AgentContainer<?>> agents, Action[] actions)
+    {
+        final boolean[] conflicting = new boolean[actions.length];
+        final double radius = scenarioPercepts.getRadiusPheromone().getValue();
+        for(int i = 0; i < actions.length; i++)
+        {
+            final AgentContainer<?> a = agents.get(i);
+            if(!(actions[i] instanceof DropPheromone) || a.isCoolingDown())
+            {
+                continue;
+            }
+            for(int j = i + 1; j < actions.length; j++)
+            {
+                final AgentContainer<?> b = agents.get(j);
+                if(actions[j] instanceof DropPheromone && !b.isCoolingDown()
+                        && DynamicObjectGrid.Layer.pheromones(a) == DynamicObjectGrid.Layer.pheromones(b)
+                        && Geometry.circlesIntersect(a.getPosition().getX(), a.getPosition().getY(), radius,
+                                b.getPosition().getX(), b.getPosition().getY(), radius))
+                {
+                    conflicting[i] = true;
+                    conflicting[j] = true;
+                }
+            }
+        }
+        return conflicting;
+    }
+
+    private Action perceiveAndDecide(AgentContainer<?> agent, SplittableRandom random)
+    {
+        if(agent instanceof IntruderContainer)
         {
-            try {
-                this.lock.acquire();
-                callable.run();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            } finally {
-                this.lock.release();
+            final IntruderContainer intruder = (IntruderContainer) agent;
+            final IntruderPercepts percepts = this.generateIntruderPercepts(intruder, random);
+            return decide(intruder, () -> intruder.getAgent().getAction(percepts),
+                    new NoAction(), GameMetrics.Phase.INTRUDER_DECISION);
+        }
+
+        final GuardContainer guard = (GuardContainer) agent;
+        final GuardPercepts percepts = this.generateGuardPercepts(guard, random);
+        return decide(guard, () -> guard.getAgent().getAction(percepts),
+                new NoAction(), GameMetrics.Phase.GUARD_DECISION);
+    }
+
+    /**
+     * Perceives and decides for the agents [from, to) of a simultaneous turn, by splitting the range in halves until
+     * only a single agent is left.
+     */
+    private class Decisions extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<AgentContainer<?>> agents;
+        private final SplittableRandom[] randoms;
+        private final Action[] actions;
+        private final int from, to;
+
+        private Decisions(List<AgentContainer<?>> agents, SplittableRandom[] randoms, Action[] actions, int from, int to)
+        {
+            this.agents = agents;
+            this.randoms = randoms;
+            this.actions = actions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= 1)
+            {
+                if(to > from)
+                {
+                    final GameMetrics previous = GameMetrics.redirect(
+                            workerMetrics.computeIfAbsent(Thread.currentThread(), k -> new GameMetrics()));
+                    try {
+                        actions[from] = perceiveAndDecide(agents.get(from), randoms[from]);
+                    } finally {
+                        GameMetrics.redirect(previous);
+                    }
+                }
+                return;
             }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(new Decisions(agents, randoms, actions, from, middle), new Decisions(agents, randoms, actions, middle, to));
         }
-        else {
-            callable.run();
+
+    }
+
+    /**
+     * Asks the agent for its action, through the watchdog if there is a decision budget.
+     */
+    private <A extends Action> A decide(AgentContainer<?> agentContainer, Supplier<A> decision, A fallback,
+                                           GameMetrics.Phase phase)
+    {
+        final GameMetrics metrics = this.metrics.current();
+        final long start = metrics.start();
+        final A action;
+        if(this.watchdog == null)
+        {
+            action = decision.get();
+        }
+        else
+        {
+            final long budget = phase == GameMetrics.Phase.GUARD_DECISION ?
+                    watchdog.getBudget().getGuardNanos() : watchdog.getBudget().getIntruderNanos();
+            final long violations = watchdog.getUsage(agentContainer).getViolations();
+            action = watchdog.decide(agentContainer, budget, decision, fallback);
+            metrics.add(GameMetrics.Counter.BUDGET_VIOLATIONS, watchdog.getUsage(agentContainer).getViolations() - violations);
         }
+        metrics.stop(phase, start);
+        return action;
+    }
+
+    private <T> boolean timedExecuteAction(AgentContainer<T> agentContainer, Action action)
+    {
+        final long start = metrics.start();
+        final boolean success = executeAction(agentContainer, action);
+        metrics.stop(GameMetrics.Phase.EXECUTE_ACTION, start);
+        return recordAction(agentContainer, action, success);
+    }
 
+    /**
+     * Counts the action and lets the listeners know whether it has been executed.
+     * @return The success of the action.
+     */
+    private boolean recordAction(AgentContainer<?> agentContainer, Action action, boolean success)
+    {
+        metrics.increment(GameMetrics.Counter.ACTIONS);
+        if(!success)
+        {
+            metrics.increment(GameMetrics.Counter.FAILED_ACTIONS);
+        }
+        if(hasEventListeners())
+        {
+            emit(success ? new GameEvent.ActionExecuted(turns, agentContainer, action) :
+                    new GameEvent.ActionFailed(turns, agentContainer, action));
+        }
+        return success;
     }
 
     private <T> boolean executeAction(AgentContainer<T> agentContainer, Action action)
@@ -410,22 +1071,25 @@ public class Game implements Runnable {
         if(isIntruder)
         {
             IntruderContainer intruderContainer = (IntruderContainer) agentContainer;
-            if(gameMap.getObjects(TargetArea.class).stream().anyMatch(e -> PointContainer.intersect(e.getContainer(), agentContainer.getShape())))
+            if(gameMap.isInMapObject(agentContainer, TargetArea.class))
             {
-                intruderContainer.setZoneCounter(intruderContainer.getZoneCounter() + 1);
+                setZoneCounter(intruderContainer, intruderContainer.getZoneCounter() + 1);
             }
             else
             {
-                intruderContainer.setZoneCounter(0);
+                setZoneCounter(intruderContainer, 0);
             }
         } else
         //--- check if guard is close enough to capture
         {
-            FieldOfView fov = agentContainer.getFOV(this.getGameMap().getEffectAreas(agentContainer));
-            this.intruders.stream()
-                    .filter(e -> e.getPosition().distance(agentContainer.getPosition()) <= settings.getScenarioPercepts().getCaptureDistance().getValue())
-                    .filter(e -> Math.abs(e.getDirection().angle(agentContainer.getDirection())) <= fov.getViewAngle().getRadians() / 2)
-                    .forEach(e -> e.setCaptured(true));
+            if(this.deferredCaptures == null)
+            {
+                captureIntruders(agentContainer);
+            }
+            else
+            {
+                this.deferredCaptures.add(agentContainer);
+            }
         }
 
         if(action instanceof Move || action instanceof Sprint)
@@ -455,19 +1119,32 @@ public class Game implements Runnable {
                 // + the radius of the agent; because the center of the agent is moved
                 final double length = distance + agentContainer.getShape().getRadius();
 
-
-                final Vector2 end = agentContainer.getPosition().add(agentContainer.getDirection().mul(length));
-                PointContainer.Line line = new PointContainer.Line(agentContainer.getPosition(), end);
-
-                final Vector2 move = agentContainer.getDirection().mul(length);
-
-                Vector2 pointA = agentContainer.getPosition().add(line.getNormal());
-                Vector2 pointB = pointA.add(move);
-                Vector2 pointD = agentContainer.getPosition().sub(line.getNormal());
-                Vector2 pointC = pointD.add(move);
-
-                PointContainer.Polygon quadrilateral = new PointContainer.Polygon(pointA, pointB, pointC, pointD);
-                if(gameMap.isMoveIntersecting(agentContainer, quadrilateral))
+                // --- Note: This builds the same quadrilateral as
+                //  Polygon(position + normal, position + normal + move, position - normal + move, position - normal)
+                //  but without allocating any objects.
+                final Vector2 position = agentContainer.getPosition();
+                final Vector2 direction = agentContainer.getDirection();
+                final double moveX = direction.getX() * length;
+                final double moveY = direction.getY() * length;
+                final double endX = position.getX() + moveX;
+                final double endY = position.getY() + moveY;
+
+                // --- the normal of the line from the position to the end, the line is oriented from left to right
+                double normalX = position.getX() <= endX ? -(endY - position.getY()) : -(position.getY() - endY);
+                double normalY = position.getX() <= endX ? endX - position.getX() : position.getX() - endX;
+                final double normalLength = Math.sqrt(normalX * normalX + normalY * normalY);
+                normalX = normalLength == 0 ? 0 : normalX / normalLength;
+                normalY = normalLength == 0 ? 0 : normalY / normalLength;
+
+                final double[] xs = {
+                        position.getX() + normalX, (position.getX() + normalX) + moveX,
+                        (position.getX() + -normalX) + moveX, position.getX() + -normalX
+                };
+                final double[] ys = {
+                        position.getY() + normalY, (position.getY() + normalY) + moveY,
+                        (position.getY() + -normalY) + moveY, position.getY() + -normalY
+                };
+                if(gameMap.isMoveIntersecting(agentContainer, xs, ys))
                 {
                     return false;
                 }
@@ -479,7 +1156,7 @@ public class Game implements Runnable {
             }
 
             //--- move and then get new effects
-            gameMap.getDynamicObjects().add(new Sound(SoundPerceptType.Noise, agentContainer, settings.getMoveMaxSoundRadius().getValue(), 1));
+            addSound(agentContainer, new Sound(SoundPerceptType.Noise, agentContainer, settings.getMoveMaxSoundRadius().getValue(), 1));
             agentContainer.move(distance);
             Set<EffectArea> movedEffectAreas = gameMap.getEffectAreas(agentContainer);
             soundEffect = movedEffectAreas.stream().filter(e -> e instanceof SoundEffect).findAny();
@@ -495,9 +1172,14 @@ public class Game implements Runnable {
                     List<MapObject> solids = this.getGameMap().getObjects().stream().filter(e -> e.getType().isSolid()).collect(Collectors.toList());
 
                     final Vector2 position = generateRandomSpawnLocation(connectedArea, agentContainer.getShape(), solids,
-                            new ArrayList<>());
+                            new ArrayList<>(), this.random);
+                    final Vector2 from = agentContainer.getPosition();
                     agentContainer.moveTo(position);
                     justTeleported.add(agentContainer);
+                    if(hasEventListeners())
+                    {
+                        emit(new GameEvent.Teleported(turns, agentContainer, from, position));
+                    }
                 }
             }
             else if(justTeleported.contains(agentContainer) && !locationEffect.isPresent())
@@ -507,7 +1189,7 @@ public class Game implements Runnable {
 
             soundEffect.ifPresent(effectArea -> {
                 SoundEffect s = (SoundEffect) effectArea;
-                gameMap.getDynamicObjects().add(new Sound(s.getType(), agentContainer,
+                addSound(agentContainer, new Sound(s.getType(), agentContainer,
                         s.get(agentContainer) * (distance / maxSprint),
                         1
                 ));
@@ -529,7 +1211,7 @@ public class Game implements Runnable {
         }
         else if(action instanceof Yell)
         {
-            gameMap.getDynamicObjects().add(new Sound(
+            addSound(agentContainer, new Sound(
                     SoundPerceptType.Yell,
                     agentContainer,
                     settings.getYellSoundRadius().getValue(),
@@ -540,11 +1222,13 @@ public class Game implements Runnable {
         else if(action instanceof DropPheromone)
         {
 
-            //--- check whether there is already one in this place
-            if(gameMap.getDynamicObjects(Pheromone.class).stream()
-                    .filter(e -> e.getSource().getClass().isAssignableFrom(agentContainer.getClass()))
-                    .anyMatch(e -> PointContainer.intersect(e.getAsCircle(),
-                            new PointContainer.Circle(agentContainer.getPosition(), scenarioPercepts.getRadiusPheromone().getValue())))
+            //--- check whether there is already one of the same team in this place
+            final Vector2 position = agentContainer.getPosition();
+            final double radius = scenarioPercepts.getRadiusPheromone().getValue();
+            if(gameMap.getDynamicObjectGrid().anyMatch(DynamicObjectGrid.Layer.pheromones(agentContainer),
+                    position.getX(), position.getY(), radius,
+                    e -> Geometry.circlesIntersect(e.getCenter().getX(), e.getCenter().getY(), e.getRadius(),
+                            position.getX(), position.getY(), radius))
             )
             {
                 return false;
@@ -554,13 +1238,18 @@ public class Game implements Runnable {
 
             DropPheromone dropPheromone = (DropPheromone) action;
 
-            gameMap.getDynamicObjects().add(new Pheromone(
+            final Pheromone pheromone = new Pheromone(
                     dropPheromone.getType(),
                     agentContainer,
                     agentContainer.getPosition(),
                     scenarioPercepts.getRadiusPheromone().getValue(),
                     settings.getPheromoneExpireRounds()
-            ));
+            );
+            gameMap.getDynamicObjects().add(pheromone);
+            if(hasEventListeners())
+            {
+                emit(new GameEvent.PheromoneDropped(turns, agentContainer, pheromone));
+            }
             return true;
         }
 
@@ -568,39 +1257,37 @@ public class Game implements Runnable {
 
     }
 
-    private void cooldown()
+    /**
+     * Captures the intruders that are close enough to the guard and in front of it.
+     */
+    private void captureIntruders(AgentContainer<?> guard)
     {
-        // --- iterate over dynamic objects (sounds) and adjust lifetime or remove
-        {
-            Iterator<DynamicObject<?>> iterator = gameMap.getDynamicObjects().iterator();
-            while (iterator.hasNext()) {
-                DynamicObject<?> e = iterator.next();
-                e.setLifetime(e.getLifetime() - 1);
-                if(e.getLifetime() <= 0)
-                {
-                    iterator.remove();
-                }
-                else if(e instanceof Pheromone)
-                {
-                    Pheromone p = (Pheromone)e;
-                    e.setRadius(p.getInitialRadius() * (p.getLifetime() / (double) p.getInitialLifetime()));
-                }
-            }
-        }
-
-        // --- sprint cooldown
-        {
-            this.intruders.forEach(AgentContainer::cooldown);
-            this.guards.forEach(AgentContainer::cooldown);
-        }
+        FieldOfView fov = guard.getFOV(this.getGameMap().getEffectAreas(guard));
+        final Vector2 position = guard.getPosition();
+        final double captureDistance = settings.getScenarioPercepts().getCaptureDistance().getValue();
+        final List<IntruderContainer> close = new ArrayList<>();
+        agentGrid.forEach(AgentGrid.Layer.INTRUDERS, position.getX(), position.getY(), captureDistance,
+                e -> close.add((IntruderContainer) e));
+        // --- Note: The grid does not keep the order of the intruders, but they have to be captured in it.
+        final List<IntruderContainer> candidates = close.size() <= 1 ? close : inListOrder(this.intruders, close);
+        candidates.stream()
+                .filter(e -> e.getPosition().distance(position) <= captureDistance)
+                .filter(e -> Math.abs(e.getDirection().angle(guard.getDirection())) <= fov.getViewAngle().getRadians() / 2)
+                .forEach(e -> capture(guard, e));
+    }
 
+    private void expireDynamicObjects()
+    {
+        // --- Note: Only the sounds and pheromones that run out in this turn are touched, the cooldowns of the agents end
+        //  with the turns on their own.
+        gameMap.expireDynamicObjects();
     }
 
-    private GuardPercepts generateGuardPercepts(GuardContainer guard)
+    private GuardPercepts generateGuardPercepts(GuardContainer guard, SplittableRandom random)
     {
         return new GuardPercepts(
                 generateVisionPercepts(guard),
-                generateSoundPercepts(guard),
+                generateSoundPercepts(guard, random),
                 generateSmellPercepts(guard),
                 generateAreaPercepts(guard),
                 new ScenarioGuardPercepts(this.settings.getScenarioPercepts(), this.settings.getGuardMaxMoveDistance()),
@@ -608,7 +1295,7 @@ public class Game implements Runnable {
         );
     }
 
-    private IntruderPercepts generateIntruderPercepts(IntruderContainer intruder)
+    private IntruderPercepts generateIntruderPercepts(IntruderContainer intruder, SplittableRandom random)
     {
 
         final double angle = intruder.getDirection().angle(
@@ -618,7 +1305,7 @@ public class Game implements Runnable {
         return new IntruderPercepts(
                 Direction.fromRadians(angle),
                 generateVisionPercepts(intruder),
-                generateSoundPercepts(intruder),
+                generateSoundPercepts(intruder, random),
                 generateSmellPercepts(intruder),
                 generateAreaPercepts(intruder),
                 new ScenarioIntruderPercepts(
@@ -634,6 +1321,8 @@ public class Game implements Runnable {
 
     private <T> VisionPrecepts generateVisionPercepts(AgentContainer<T> agentContainer)
     {
+        final GameMetrics metrics = this.metrics.current();
+        final long start = metrics.start();
         Set<EffectArea> effectAreas = gameMap.getEffectAreas(agentContainer);
         final FieldOfView fov = agentContainer.getFOV(effectAreas);
 
@@ -647,30 +1336,41 @@ public class Game implements Runnable {
             viewRange = viewRangeEffect.get().get(agentContainer);
         }
 
+        final Set<ObjectPercept> objectPercepts = gameMap.getObjectPerceptsForAgent(agentContainer, fov, viewRange);
+        metrics.add(GameMetrics.Counter.PERCEPTS_EMITTED, objectPercepts.size());
+        metrics.stop(GameMetrics.Phase.VISION, start);
         return new VisionPrecepts(
                 fov,
-                new ObjectPercepts(gameMap.getObjectPerceptsForAgent(agentContainer, fov, viewRange))
+                new ObjectPercepts(objectPercepts)
         );
     }
 
     private <T> AreaPercepts generateAreaPercepts(AgentContainer<T> agentContainer)
     {
-        return new AreaPercepts(
+        final GameMetrics metrics = this.metrics.current();
+        final long start = metrics.start();
+        final AreaPercepts areaPercepts = new AreaPercepts(
                 gameMap.isInMapObject(agentContainer, Window.class),
                 gameMap.isInMapObject(agentContainer, Door.class),
                 gameMap.isInMapObject(agentContainer, SentryTower.class),
                 justTeleported.contains(agentContainer)
         );
+        metrics.stop(GameMetrics.Phase.AREA, start);
+        return areaPercepts;
     }
 
-    private <T> SoundPercepts generateSoundPercepts(AgentContainer<T> agentContainer)
+    private <T> SoundPercepts generateSoundPercepts(AgentContainer<T> agentContainer, SplittableRandom random)
     {
-        return new SoundPercepts(this.gameMap.getDynamicObjects().stream()
-                .filter(e -> e instanceof Sound)
+        final GameMetrics metrics = this.metrics.current();
+        final long start = metrics.start();
+        // --- Note: The grid returns the sounds in the same order as the list of dynamic objects, so the deviations are
+        //  drawn in the same order as well.
+        final Set<SoundPercept> soundPercepts = this.gameMap.getDynamicObjectGrid()
+                .at(DynamicObjectGrid.Layer.SOUNDS, agentContainer.getPosition()).stream()
                 .filter(e -> agentContainer.getPosition().distance(e.getCenter()) <= e.getRadius())
                 .map(dynamicObject -> {
                     Sound sound = (Sound) dynamicObject;
-                    double deviation = (_RANDOM.nextBoolean() ? 1 : -1) * (0.174533 * _RANDOM.nextDouble());
+                    double deviation = (random.nextBoolean() ? 1 : -1) * (0.174533 * random.nextDouble());
                     double angle = (agentContainer.getDirection().angle(sound.getCenter().sub(agentContainer.getPosition())) + deviation);
                     if(angle < 0)
                     {
@@ -681,13 +1381,18 @@ public class Game implements Runnable {
                             sound.getType(),
                             Direction.fromRadians(angle)
                     );
-                }).collect(Collectors.toUnmodifiableSet()));
+                }).collect(Collectors.toUnmodifiableSet());
+        metrics.add(GameMetrics.Counter.PERCEPTS_EMITTED, soundPercepts.size());
+        metrics.stop(GameMetrics.Phase.SOUND, start);
+        return new SoundPercepts(soundPercepts);
     }
 
     private <T> SmellPercepts generateSmellPercepts(AgentContainer<T> agentContainer)
     {
-        return new SmellPercepts(this.gameMap.getDynamicObjects().stream()
-                .filter(e -> e instanceof Pheromone && agentContainer.getClass().isAssignableFrom(e.getSource().getClass()))
+        final GameMetrics metrics = this.metrics.current();
+        final long start = metrics.start();
+        final Set<SmellPercept> smellPercepts = this.gameMap.getDynamicObjectGrid()
+                .at(DynamicObjectGrid.Layer.pheromones(agentContainer), agentContainer.getPosition()).stream()
                 .filter(e -> PointContainer.intersect(e.getAsCircle(), agentContainer.getShape()))
                 .map(dynamicObject -> {
                     Pheromone pheromone = (Pheromone) dynamicObject;
@@ -695,24 +1400,55 @@ public class Game implements Runnable {
                             pheromone.getType(),
                             new Distance(dynamicObject.getCenter().distance(agentContainer.getPosition()))
                     );
-                }).collect(Collectors.toUnmodifiableSet()));
+                }).collect(Collectors.toUnmodifiableSet());
+        metrics.add(GameMetrics.Counter.PERCEPTS_EMITTED, smellPercepts.size());
+        metrics.stop(GameMetrics.Phase.SMELL, start);
+        return new SmellPercepts(smellPercepts);
     }
 
     public enum Team
     {
         INTRUDERS,
-        GUARDS
+        GUARDS,
+        /**
+         * Nobody won, see {@link Game#getDrawReason()}.
+         */
+        DRAW
+    }
+
+    public enum DrawReason
+    {
+        /**
+         * The game has been played for {@link GameSettings#getMaxTurns()} turns.
+         */
+        TURN_LIMIT,
+        /**
+         * The agents kept on going back to the same states, see {@link StalemateDetector}.
+         */
+        REPETITION,
+        /**
+         * The game did not get any closer to an end, see {@link StalemateDetector}.
+         */
+        NO_PROGRESS
+    }
+
+    public interface ActionListener
+    {
+        /**
+         * Is called on the thread running the game, before the action is executed.
+         * @param agent
+         * @param action The action, the fallback action if the agent ran out of time.
+         */
+        void call(AgentContainer<?> agent, Action action);
     }
 
     public interface QueryUpdate
     {
         /**
-         * Is called once the game logic thread has been locked, and operations can be sable performed. -
-         *  Note (!!!): It is the responsibility of the caller to release {@link Semaphore#release()} the lock once
-         *  it has completed its operations.
-         * @param lock
+         * Is called with the latest snapshot of the game, it can be read without any locking.
+         * @param snapshot The snapshot, or null if the game has been created without a queryIntent.
          */
-        void call(Semaphore lock);
+        void call(GameSnapshot snapshot);
     }
 
 }
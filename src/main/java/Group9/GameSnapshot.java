@@ -0,0 +1,102 @@
+package Group9;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.GuardContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.map.dynamic.DynamicObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of a game at the end of a turn, as it is published to other threads (e.g. the GUI). The agents and the
+ * dynamic objects are copies, so the game can keep on running while a snapshot is being read, and a snapshot never
+ * changes once it has been created.
+ */
+public final class GameSnapshot {
+
+    private final int turn;
+    private final Game.Team winner;
+
+    private final List<GuardContainer> guards;
+    private final List<IntruderContainer> intruders;
+    private final List<DynamicObject<?>> dynamicObjects;
+
+    private GameSnapshot(int turn, Game.Team winner, List<GuardContainer> guards, List<IntruderContainer> intruders,
+                         List<DynamicObject<?>> dynamicObjects)
+    {
+        this.turn = turn;
+        this.winner = winner;
+        this.guards = Collections.unmodifiableList(guards);
+        this.intruders = Collections.unmodifiableList(intruders);
+        this.dynamicObjects = Collections.unmodifiableList(dynamicObjects);
+    }
+
+    /**
+     * Copies the current state of the game. - Note: This has to be called by the thread running the game.
+     * @param game
+     * @return
+     */
+    static GameSnapshot of(Game game)
+    {
+        // --- Note: The dynamic objects are made by the copies of their agents, so the snapshot does not refer to the
+        //  running game.
+        final Map<AgentContainer<?>, AgentContainer<?>> containers = new IdentityHashMap<>();
+
+        List<GuardContainer> guards = new ArrayList<>(game.getGuards().size());
+        for(GuardContainer guard : game.getGuards())
+        {
+            GuardContainer cloned = guard.clone(game);
+            containers.put(guard, cloned);
+            guards.add(cloned);
+        }
+
+        List<IntruderContainer> intruders = new ArrayList<>(game.getIntruders().size());
+        for(IntruderContainer intruder : game.getIntruders())
+        {
+            IntruderContainer cloned = intruder.clone(game);
+            containers.put(intruder, cloned);
+            intruders.add(cloned);
+        }
+
+        List<DynamicObject<?>> dynamicObjects = new ArrayList<>(game.getGameMap().getDynamicObjects().size());
+        for(DynamicObject<?> dynamicObject : game.getGameMap().getDynamicObjects())
+        {
+            @SuppressWarnings("unchecked")
+            final DynamicObject<AgentContainer<?>> object = (DynamicObject<AgentContainer<?>>) dynamicObject;
+            dynamicObjects.add(object.clone(containers.getOrDefault(object.getSource(), object.getSource())));
+        }
+
+        return new GameSnapshot(game.getTurns(), game.getWinner(), guards, intruders, dynamicObjects);
+    }
+
+    /**
+     * @return The turn this snapshot has been taken after, 0 if it has been taken before the first turn.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * @return The winner, otherwise null.
+     */
+    public Game.Team getWinner() {
+        return winner;
+    }
+
+    public List<GuardContainer> getGuards() {
+        return guards;
+    }
+
+    public List<IntruderContainer> getIntruders() {
+        return intruders;
+    }
+
+    public List<DynamicObject<?>> getDynamicObjects() {
+        return dynamicObjects;
+    }
+
+}
@@ -9,8 +9,13 @@ public class Main {
     public static void main(String[] args) {
 
         Game game = new Game(Parser.parseFile("./src/main/java/Group9/map/maps/test_2.map"), new DefaultAgentFactory(), false);
-        game.run();
-        System.out.printf("The winner is: %s\n", game.getWinner());
+        System.out.println("seed: " + game.getSeed());
+        try {
+            game.run();
+            System.out.printf("The winner is: %s\n", game.getWinner());
+        } finally {
+            game.getMetrics().dump(System.out);
+        }
 
     }
 
@@ -0,0 +1,166 @@
+package Group9;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.GuardContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.math.Vector2;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detects games that are not going to end on their own, see {@link Group9.map.GameSettings#getStalemateTurns()}.
+ *
+ * After every turn the compact state of the world is hashed: the cell every agent is in (a cell is as large as an
+ * agent), the captured intruders and the zone counters. Directions and dynamic objects are left out on purpose, an agent
+ * that only turns around or yells is not getting anywhere. A game is a stalemate if, for a whole window of turns,
+ *  - every state has already been seen in the window before, i.e. the agents are going in circles, or
+ *  - nothing has happened that brings it closer to an end: no intruder has been captured, no zone counter went up and
+ *    no intruder reached a cell it has never been in before.
+ */
+public class StalemateDetector {
+
+    private final static double _CELL_SIZE = AgentContainer._RADIUS * 2;
+
+    private final static long _OFFSET_BASIS = 0xCBF29CE484222325L;
+    private final static long _PRIME = 0x100000001B3L;
+
+    private final int window;
+
+    // --- the hashes of the last window turns, and how often each of them is in there
+    private final long[] hashes;
+    private final Map<Long, Integer> counts;
+    private int recorded = 0;
+
+    private int repeating = 0;
+    private int withoutProgress = 0;
+
+    private int captured = 0;
+    private final int[] zoneCounters;
+    // --- Note: (intruder, cell) pairs, see StalemateDetector#visit.
+    private final Set<Long> visited;
+
+    /**
+     * @param window The amount of turns without progress that make a stalemate.
+     * @param intruders The amount of intruders of the game.
+     */
+    public StalemateDetector(int window, int intruders)
+    {
+        if(window < 1)
+        {
+            throw new IllegalArgumentException(String.format("Invalid stalemate window of %d turns.", window));
+        }
+        this.window = window;
+        this.hashes = new long[window];
+        this.counts = new HashMap<>();
+        this.zoneCounters = new int[intruders];
+        this.visited = new HashSet<>();
+    }
+
+    /**
+     * A copy of the detector that continues where it left off, for a forked game.
+     * @param original
+     */
+    public StalemateDetector(StalemateDetector original)
+    {
+        this.window = original.window;
+        this.hashes = original.hashes.clone();
+        this.counts = new HashMap<>(original.counts);
+        this.recorded = original.recorded;
+        this.repeating = original.repeating;
+        this.withoutProgress = original.withoutProgress;
+        this.captured = original.captured;
+        this.zoneCounters = original.zoneCounters.clone();
+        this.visited = new HashSet<>(original.visited);
+    }
+
+    /**
+     * Records the state at the end of a turn.
+     * @param game
+     * @return Why the game is a stalemate, otherwise null.
+     */
+    public Game.DrawReason update(Game game)
+    {
+        final List<IntruderContainer> intruders = game.getIntruders();
+
+        long hash = _OFFSET_BASIS;
+        boolean progress = false;
+        for(GuardContainer guard : game.getGuards())
+        {
+            hash = hash(hash, cellOf(guard.getPosition()));
+        }
+        for(int i = 0; i < intruders.size(); i++)
+        {
+            final IntruderContainer intruder = intruders.get(i);
+            final long cell = cellOf(intruder.getPosition());
+            hash = hash(hash, cell);
+            hash = hash(hash, intruder.isCaptured() ? 1 : 0);
+            hash = hash(hash, intruder.getZoneCounter());
+
+            if(intruder.getZoneCounter() > this.zoneCounters[i])
+            {
+                progress = true;
+            }
+            this.zoneCounters[i] = intruder.getZoneCounter();
+            if(!intruder.isCaptured() && visit(i, cell))
+            {
+                progress = true;
+            }
+        }
+        if(game.getCapturedIntruders() != this.captured)
+        {
+            this.captured = game.getCapturedIntruders();
+            progress = true;
+        }
+
+        this.withoutProgress = progress ? 0 : this.withoutProgress + 1;
+        this.repeating = this.counts.containsKey(hash) ? this.repeating + 1 : 0;
+        record(hash);
+
+        if(this.repeating >= this.window)
+        {
+            return Game.DrawReason.REPETITION;
+        }
+        if(this.withoutProgress >= this.window)
+        {
+            return Game.DrawReason.NO_PROGRESS;
+        }
+        return null;
+    }
+
+    private void record(long hash)
+    {
+        final int slot = this.recorded % this.window;
+        if(this.recorded >= this.window)
+        {
+            this.counts.computeIfPresent(this.hashes[slot], (key, count) -> count == 1 ? null : count - 1);
+        }
+        this.hashes[slot] = hash;
+        this.counts.merge(hash, 1, Integer::sum);
+        this.recorded++;
+    }
+
+    /**
+     * @return True, if the intruder has never been in the cell before.
+     */
+    private boolean visit(int intruder, long cell)
+    {
+        return this.visited.add(((long) intruder << 48) ^ cell);
+    }
+
+    private static long cellOf(Vector2 position)
+    {
+        final long x = (long) Math.floor(position.getX() / _CELL_SIZE);
+        final long y = (long) Math.floor(position.getY() / _CELL_SIZE);
+        return ((x & 0xFFFFFF) << 24) | (y & 0xFFFFFF);
+    }
+
+    private static long hash(long hash, long value)
+    {
+        return (hash ^ value) * _PRIME;
+    }
+
+}
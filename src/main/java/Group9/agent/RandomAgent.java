@@ -1,6 +1,5 @@
 package Group9.agent;
 
-import Group9.Game;
 import Interop.Action.*;
 import Interop.Agent.Guard;
 import Interop.Agent.Intruder;
@@ -11,20 +10,30 @@ import Interop.Percept.IntruderPercepts;
 import Interop.Percept.Scenario.SlowDownModifiers;
 import Interop.Percept.Smell.SmellPerceptType;
 
+import java.util.SplittableRandom;
+
 public class RandomAgent implements Guard {
 
-    public RandomAgent() {}
+    private final SplittableRandom random;
+
+    public RandomAgent() {
+        this(new SplittableRandom());
+    }
+
+    public RandomAgent(SplittableRandom random) {
+        this.random = random;
+    }
 
     @Override
     public GuardAction getAction(GuardPercepts percepts) {
 
         if(!percepts.wasLastActionExecuted())
         {
-            if(Math.random() < 0.1)
+            if(random.nextDouble() < 0.1)
             {
-                return new DropPheromone(SmellPerceptType.values()[(int) (Math.random() * SmellPerceptType.values().length)]);
+                return new DropPheromone(SmellPerceptType.values()[random.nextInt(SmellPerceptType.values().length)]);
             }
-            return new Rotate(Angle.fromRadians(percepts.getScenarioGuardPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * Game._RANDOM.nextDouble()));
+            return new Rotate(Angle.fromRadians(percepts.getScenarioGuardPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * random.nextDouble()));
         }
         else
         {
@@ -1,6 +1,5 @@
 package Group9.agent;
 
-import Group9.Game;
 import Interop.Action.IntruderAction;
 import Interop.Action.Move;
 import Interop.Action.NoAction;
@@ -12,9 +11,20 @@ import Interop.Percept.GuardPercepts;
 import Interop.Percept.IntruderPercepts;
 import Interop.Percept.Scenario.SlowDownModifiers;
 
+import java.util.SplittableRandom;
+
 public class RandomIntruderAgent implements Intruder {
 
     private int counter = 0;
+    private final SplittableRandom random;
+
+    public RandomIntruderAgent() {
+        this(new SplittableRandom());
+    }
+
+    public RandomIntruderAgent(SplittableRandom random) {
+        this.random = random;
+    }
 
     private double getSpeedModifier(IntruderPercepts guardPercepts)
     {
@@ -39,7 +49,7 @@ public class RandomIntruderAgent implements Intruder {
     public IntruderAction getAction(IntruderPercepts percepts) {
         if(!percepts.wasLastActionExecuted())
         {
-            return new Rotate(Angle.fromRadians(percepts.getScenarioIntruderPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * Game._RANDOM.nextDouble()));
+            return new Rotate(Angle.fromRadians(percepts.getScenarioIntruderPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * random.nextDouble()));
         }
         else
         {
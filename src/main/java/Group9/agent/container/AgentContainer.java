@@ -10,6 +10,7 @@ import Interop.Geometry.Distance;
 import Interop.Percept.Vision.FieldOfView;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 public abstract class AgentContainer<T> {
 
@@ -20,7 +21,14 @@ public abstract class AgentContainer<T> {
     private PointContainer.Circle shape = null;
     private Vector2 direction = null;
 
-    public Map<Cooldown, Integer> cooldowns = new HashMap<>();
+    // --- Note: While the container is part of a game this is the turn every cooldown ends in, so the cooldowns do not
+    //  have to be counted down every turn, otherwise it is the remaining amount of rounds.
+    private final int[] cooldowns = new int[Cooldown.values().length];
+    private Game game = null;
+
+    // --- Note: Maintained by the grid, see AgentGrid#add.
+    AgentGrid grid = null;
+    int cell = -1;
 
     public AgentContainer(T agent, Vector2 position, Vector2 direction, FieldOfView normalFOV)
     {
@@ -52,6 +60,14 @@ public abstract class AgentContainer<T> {
         return direction;
     }
 
+    /**
+     * @return The field of view of the agent outside of any area that modifies it.
+     */
+    public FieldOfView getNormalFOV()
+    {
+        return this.normalFOV;
+    }
+
     public FieldOfView getFOV(Set<EffectArea> areas)
     {
         Optional<ModifyViewRangeEffect> viewRangeEffect = areas.stream()
@@ -79,11 +95,19 @@ public abstract class AgentContainer<T> {
     public void moveTo(Vector2 position)
     {
         this.shape.translate(position.sub(this.getPosition()));
+        if(this.grid != null)
+        {
+            this.grid.moved(this);
+        }
     }
 
     public void move(double distance)
     {
         this.shape.translate(this.direction.mul(distance, distance));
+        if(this.grid != null)
+        {
+            this.grid.moved(this);
+        }
     }
 
     /**
@@ -97,40 +121,69 @@ public abstract class AgentContainer<T> {
         return this.direction;
     }
 
+    /**
+     * @return The turn of the game the cooldowns run with, 0 if the container is not part of a game.
+     */
+    private int now()
+    {
+        return this.game == null ? 0 : this.game.getTurns();
+    }
+
+    /**
+     * Lets the cooldowns run with the turns of the game, the remaining rounds of every cooldown stay the same.
+     * @param game The game the container is part of, or null to keep the remaining rounds as they are now.
+     */
+    public void setGame(Game game)
+    {
+        final int[] remaining = new int[this.cooldowns.length];
+        for(Cooldown cooldown : Cooldown.values())
+        {
+            remaining[cooldown.ordinal()] = getCooldown(cooldown);
+        }
+        this.game = game;
+        for(int i = 0; i < remaining.length; i++)
+        {
+            this.cooldowns[i] = now() + remaining[i];
+        }
+    }
+
     public int getCooldown(Cooldown cooldown)
     {
-        return this.cooldowns.getOrDefault(cooldown, 0);
+        return Math.max(0, this.cooldowns[cooldown.ordinal()] - now());
     }
 
     public boolean isCoolingDown()
     {
-        return !this.cooldowns.isEmpty();
+        final int now = now();
+        for(int end : this.cooldowns)
+        {
+            if(end > now)
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean hasCooldown(Cooldown cooldown)
     {
-        return this.cooldowns.containsKey(cooldown);
+        return this.cooldowns[cooldown.ordinal()] > now();
     }
 
     public void addCooldown(Cooldown cooldown, int rounds)
     {
-        this.cooldowns.put(cooldown, rounds);
+        this.cooldowns[cooldown.ordinal()] = now() + rounds;
     }
 
-    public void cooldown()
+    /**
+     * Copies the remaining rounds of every cooldown to the other container.
+     * @param to
+     */
+    protected void copyCooldowns(AgentContainer<?> to)
     {
-        Iterator<Map.Entry<Cooldown, Integer>> iterator = this.cooldowns.entrySet().iterator();
-        while (iterator.hasNext())
+        for(Cooldown cooldown : Cooldown.values())
         {
-            Map.Entry<Cooldown, Integer> entry = iterator.next();
-            if(entry.getValue() - 1 <= 0)
-            {
-                iterator.remove();
-            }
-            else
-            {
-                this.cooldowns.put(entry.getKey(), entry.getValue() - 1);
-            }
+            to.addCooldown(cooldown, getCooldown(cooldown));
         }
     }
 
@@ -147,9 +200,17 @@ public abstract class AgentContainer<T> {
                 ", normalFOV=" + String.format("FieldOfView{range=%.16f, viewAngle=%.16f (rad)}", normalFOV.getRange().getValue(), normalFOV.getViewAngle().getRadians()) +
                 ", shape=" + shape +
                 ", direction=" + direction +
-                ", cooldowns=" + cooldowns +
+                ", cooldowns=" + Arrays.stream(Cooldown.values()).filter(this::hasCooldown)
+                        .collect(Collectors.toMap(e -> e, this::getCooldown, (a, b) -> a, () -> new EnumMap<>(Cooldown.class))) +
                 '}';
     }
 
     public abstract AgentContainer<T> clone(Game game);
+
+    /**
+     * Copies the pose, the cooldowns and the state of the container, but with another agent deciding for it.
+     * @param agent
+     * @return
+     */
+    public abstract AgentContainer<T> clone(T agent);
 }
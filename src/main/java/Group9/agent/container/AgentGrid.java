@@ -0,0 +1,173 @@
+package Group9.agent.container;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A spatial hash of the agents of a game, so vision and captures only have to look at the agents close to an agent
+ * instead of all of them.
+ *
+ * Every agent is stored in the cell its centre is in, separately for guards and intruders. The grid is updated by the
+ * agents themselves whenever they move (see {@link AgentContainer#moveTo(Group9.math.Vector2)}), an agent that stays in
+ * its cell costs nothing.
+ *
+ * Note: A query returns the agents in no particular order, and captured intruders stay in the grid.
+ */
+public class AgentGrid {
+
+    public enum Layer
+    {
+        GUARDS,
+        INTRUDERS;
+
+        public static Layer of(AgentContainer<?> agent)
+        {
+            return agent instanceof IntruderContainer ? INTRUDERS : GUARDS;
+        }
+    }
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+
+    // --- [layer][row * columns + column], a cell is only allocated once an agent enters it
+    private final List<AgentContainer<?>>[][] cells;
+
+    /**
+     * @param width The width of the map, agents outside of it are stored in the cells along the border.
+     * @param height
+     * @param cellSize
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AgentGrid(double width, double height, double cellSize)
+    {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new List[Layer.values().length][this.columns * this.rows];
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    private int column(double x)
+    {
+        return Math.max(0, Math.min(this.columns - 1, (int) Math.floor(x / this.cellSize)));
+    }
+
+    private int row(double y)
+    {
+        return Math.max(0, Math.min(this.rows - 1, (int) Math.floor(y / this.cellSize)));
+    }
+
+    private int cellOf(AgentContainer<?> agent)
+    {
+        return row(agent.getPosition().getY()) * this.columns + column(agent.getPosition().getX());
+    }
+
+    /**
+     * Adds the agent to the grid, from now on it keeps the grid up to date when it moves.
+     * @param agent
+     */
+    public void add(AgentContainer<?> agent)
+    {
+        if(agent.grid != null)
+        {
+            throw new IllegalArgumentException("The agent has already been added to a grid.");
+        }
+        agent.grid = this;
+        agent.cell = cellOf(agent);
+        insert(agent);
+    }
+
+    public void remove(AgentContainer<?> agent)
+    {
+        if(agent.grid != this)
+        {
+            return;
+        }
+        erase(agent);
+        agent.grid = null;
+        agent.cell = -1;
+    }
+
+    /**
+     * Is called by the agent after it has moved.
+     */
+    void moved(AgentContainer<?> agent)
+    {
+        final int cell = cellOf(agent);
+        if(cell != agent.cell)
+        {
+            erase(agent);
+            agent.cell = cell;
+            insert(agent);
+        }
+    }
+
+    private void insert(AgentContainer<?> agent)
+    {
+        final List<AgentContainer<?>>[] cells = this.cells[Layer.of(agent).ordinal()];
+        if(cells[agent.cell] == null)
+        {
+            cells[agent.cell] = new ArrayList<>(4);
+        }
+        cells[agent.cell].add(agent);
+    }
+
+    private void erase(AgentContainer<?> agent)
+    {
+        final List<AgentContainer<?>> cell = this.cells[Layer.of(agent).ordinal()][agent.cell];
+        for(int i = cell.size() - 1; i >= 0; i--)
+        {
+            if(cell.get(i) == agent)
+            {
+                cell.remove(i);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer with every agent of the layer whose circle might overlap the box. The box has to be checked by
+     * the exact condition.
+     * @param layer
+     * @param minX
+     * @param minY
+     * @param maxX
+     * @param maxY
+     * @param consumer
+     */
+    public void forEach(Layer layer, double minX, double minY, double maxX, double maxY, Consumer<AgentContainer<?>> consumer)
+    {
+        final List<AgentContainer<?>>[] cells = this.cells[layer.ordinal()];
+        final double margin = AgentContainer._RADIUS;
+        final int toRow = row(maxY + margin), toColumn = column(maxX + margin);
+        for(int row = row(minY - margin); row <= toRow; row++)
+        {
+            for(int column = column(minX - margin); column <= toColumn; column++)
+            {
+                final List<AgentContainer<?>> cell = cells[row * this.columns + column];
+                if(cell == null)
+                {
+                    continue;
+                }
+                for(int i = 0; i < cell.size(); i++)
+                {
+                    consumer.accept(cell.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link AgentGrid#forEach(Layer, double, double, double, double, Consumer)} for the box around a circle.
+     */
+    public void forEach(Layer layer, double x, double y, double radius, Consumer<AgentContainer<?>> consumer)
+    {
+        forEach(layer, x - radius, y - radius, x + radius, y + radius, consumer);
+    }
+
+}
@@ -0,0 +1,66 @@
+package Group9.agent.container;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The guards or intruders of a game. Every change to the list is applied to the {@link AgentGrid} of the game as well,
+ * so an agent that is removed from the game is not seen anymore.
+ * @param <A>
+ */
+public class AgentList<A extends AgentContainer<?>> extends AbstractList<A> implements RandomAccess {
+
+    private final List<A> agents = new ArrayList<>();
+    private final AgentGrid grid;
+
+    public AgentList(AgentGrid grid)
+    {
+        this.grid = grid;
+    }
+
+    @Override
+    public A get(int index) {
+        return this.agents.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.agents.size();
+    }
+
+    @Override
+    public void add(int index, A agent) {
+        this.grid.add(agent);
+        this.agents.add(index, agent);
+        this.modCount++;
+    }
+
+    @Override
+    public A set(int index, A agent) {
+        this.grid.add(agent);
+        final A previous = this.agents.set(index, agent);
+        this.grid.remove(previous);
+        return previous;
+    }
+
+    @Override
+    public A remove(int index) {
+        final A removed = this.agents.remove(index);
+        this.grid.remove(removed);
+        this.modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        for(A agent : this.agents)
+        {
+            this.grid.remove(agent);
+        }
+        this.agents.clear();
+        this.modCount++;
+    }
+
+}
@@ -13,12 +13,13 @@ public class GuardContainer extends AgentContainer<Guard> {
 
     @Override
     public GuardContainer clone(Game game) {
-        GuardContainer cloned =  new GuardContainer(getAgent(), getPosition().clone(), getDirection().clone(),
-                getFOV(game.getGameMap().getEffectAreas(this)));
-        for(Cooldown cooldown : Cooldown.values())
-        {
-            cloned.addCooldown(cooldown, this.getCooldown(cooldown));
-        }
+        return clone(getAgent());
+    }
+
+    @Override
+    public GuardContainer clone(Guard agent) {
+        GuardContainer cloned = new GuardContainer(agent, getPosition().clone(), getDirection().clone(), getNormalFOV());
+        copyCooldowns(cloned);
         return cloned;
     }
 
@@ -36,14 +36,15 @@ public class IntruderContainer extends AgentContainer<Intruder> {
 
     @Override
     public IntruderContainer clone(Game game) {
-        IntruderContainer cloned = new IntruderContainer(getAgent(), getPosition().clone(), getDirection().clone(),
-                getFOV(game.getGameMap().getEffectAreas(this)));
+        return clone(getAgent());
+    }
+
+    @Override
+    public IntruderContainer clone(Intruder agent) {
+        IntruderContainer cloned = new IntruderContainer(agent, getPosition().clone(), getDirection().clone(), getNormalFOV());
         cloned.setZoneCounter(getZoneCounter());
         cloned.setCaptured(isCaptured());
-        for(Cooldown cooldown : Cooldown.values())
-        {
-            cloned.addCooldown(cooldown, this.getCooldown(cooldown));
-        }
+        copyCooldowns(cloned);
         return cloned;
     }
 }
@@ -1,6 +1,5 @@
 package Group9.agent.deepspace;
 
-import Group9.Game;
 import Group9.math.Vector2;
 import Group9.math.graph.Graph;
 import Group9.math.graph.Vertex;
@@ -49,7 +48,14 @@ public class DeepSpace implements Guard {
     private boolean insideTeleportArea = false;
     protected boolean firstActionAfterTeleport = false;
 
+    private final SplittableRandom random;
+
     public DeepSpace() {
+        this(new SplittableRandom());
+    }
+
+    public DeepSpace(SplittableRandom random) {
+        this.random = random;
         this.graphs.add(currentGraph);
 
         curState = StateType.INITIAL;
@@ -220,7 +226,7 @@ public class DeepSpace implements Guard {
                     return move;
                 }
             }
-        Angle newRotation = Angle.fromRadians(percepts.getScenarioGuardPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * Game._RANDOM.nextDouble());
+        Angle newRotation = Angle.fromRadians(percepts.getScenarioGuardPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * random.nextDouble());
                if(newRotation.getDegrees() > 360){
             newRotation = Angle.fromDegrees(rotation.getDegrees() - 360);
         } else if(newRotation.getDegrees() < 0){
@@ -7,23 +7,34 @@ import Interop.Agent.Intruder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 public class DeepSpaceAgentFactory implements IAgentFactory {
 
     public List<Intruder> createIntruders(int number) {
+        return createIntruders(number, new SplittableRandom());
+    }
+
+    public List<Guard> createGuards(int number) {
+        return createGuards(number, new SplittableRandom());
+    }
+
+    @Override
+    public List<Intruder> createIntruders(int number, SplittableRandom random) {
         List<Intruder> intruders = new ArrayList<>();
         for(int i = 0; i < number; i++)
         {
-            intruders.add(new RandomIntruderAgent());
+            intruders.add(new RandomIntruderAgent(random.split()));
         }
         return intruders;
     }
 
-    public List<Guard> createGuards(int number) {
+    @Override
+    public List<Guard> createGuards(int number, SplittableRandom random) {
         List<Guard> guards = new ArrayList<>();
         for(int i = 0; i < number; i++)
         {
-            guards.add(new DeepSpace());
+            guards.add(new DeepSpace(random.split()));
         }
         return guards;
     }
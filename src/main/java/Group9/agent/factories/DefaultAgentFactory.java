@@ -9,6 +9,7 @@ import Interop.Agent.Intruder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * This class provides common way to build agents for the competition.
@@ -21,20 +22,30 @@ import java.util.List;
 public class DefaultAgentFactory implements IAgentFactory {
 
     public List<Intruder> createIntruders(int number) {
+        return createIntruders(number, new SplittableRandom());
+    }
+
+    public List<Guard> createGuards(int number) {
+        return createGuards(number, new SplittableRandom());
+    }
+
+    @Override
+    public List<Intruder> createIntruders(int number, SplittableRandom random) {
         List<Intruder> intruders = new ArrayList<>();
         for(int i = 0; i < number; i++)
         {
             intruders.add(new Intruder1());
-            //intruders.add(new RandomIntruderAgent());
+            //intruders.add(new RandomIntruderAgent(random.split()));
         }
         return intruders;
     }
 
-    public List<Guard> createGuards(int number) {
+    @Override
+    public List<Guard> createGuards(int number, SplittableRandom random) {
         List<Guard> guards = new ArrayList<>();
         for(int i = 0; i < number; i++)
         {
-            guards.add(new RandomAgent());
+            guards.add(new RandomAgent(random.split()));
         }
         return guards;
     }
@@ -4,10 +4,35 @@ import Interop.Agent.Guard;
 import Interop.Agent.Intruder;
 
 import java.util.List;
+import java.util.SplittableRandom;
 
 public interface IAgentFactory {
 
     List<Intruder> createIntruders(int amount);
     List<Guard> createGuards(int amount);
 
+    /**
+     * Creates the intruders for a game. Factories whose agents make random decisions should override this method and
+     * hand every agent its own {@link SplittableRandom#split()} of the game's random source, so that a game can be
+     * reproduced from its seed.
+     * @param amount
+     * @param random The random source of the game, owned by the factory for the duration of the call.
+     * @return
+     */
+    default List<Intruder> createIntruders(int amount, SplittableRandom random)
+    {
+        return createIntruders(amount);
+    }
+
+    /**
+     * {@link IAgentFactory#createIntruders(int, SplittableRandom)}
+     * @param amount
+     * @param random
+     * @return
+     */
+    default List<Guard> createGuards(int amount, SplittableRandom random)
+    {
+        return createGuards(amount);
+    }
+
 }
@@ -7,22 +7,33 @@ import Interop.Agent.Intruder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
 
 public class ShallowSpaceAgentFactory implements IAgentFactory {
     @Override
     public List<Intruder> createIntruders(int amount) {
+        return createIntruders(amount, new SplittableRandom());
+    }
+
+    @Override
+    public List<Guard> createGuards(int amount) {
+        return createGuards(amount, new SplittableRandom());
+    }
+
+    @Override
+    public List<Intruder> createIntruders(int amount, SplittableRandom random) {
         List<Intruder> intruders = new ArrayList<>();
         for (int i = 0; i < amount; i++) {
-            intruders.add(new RandomIntruderAgent());
+            intruders.add(new RandomIntruderAgent(random.split()));
         }
         return intruders;
     }
 
     @Override
-    public List<Guard> createGuards(int amount) {
+    public List<Guard> createGuards(int amount, SplittableRandom random) {
         List<Guard> guards = new ArrayList<>();
         for (int i = 0; i < amount; i++) {
-            guards.add(new ShallowSpaceAgent());
+            guards.add(new ShallowSpaceAgent(random.split()));
         }
         return guards;
     }
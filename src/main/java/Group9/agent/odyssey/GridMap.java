@@ -87,7 +87,6 @@ public class GridMap {
 
             if(current.equals(targetCell))
             {
-                System.out.println("done");
                 List<Cell> total_path = new LinkedList<>();
                 total_path.add(current);
                 while (cameFrom.containsKey(current))
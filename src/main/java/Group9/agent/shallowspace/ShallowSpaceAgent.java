@@ -1,5 +1,4 @@
 package Group9.agent.shallowspace;
-import Group9.Game;
 import Group9.agent.deepspace.ActionContainer;
 import Group9.math.Vector2;
 import Interop.Action.*;
@@ -23,7 +22,15 @@ public class ShallowSpaceAgent implements Guard {
     private Queue<ActionContainer<GuardAction>> followIntruder = new LinkedList<>();
     private Queue<ActionContainer<GuardAction>> targetAreaGuarding = new LinkedList<>();
 
-    public ShallowSpaceAgent() { }
+    private final SplittableRandom random;
+
+    public ShallowSpaceAgent() {
+        this(new SplittableRandom());
+    }
+
+    public ShallowSpaceAgent(SplittableRandom random) {
+        this.random = random;
+    }
 
     @Override
     public GuardAction getAction(GuardPercepts percepts) {
@@ -73,7 +80,7 @@ public class ShallowSpaceAgent implements Guard {
         if(!percepts.wasLastActionExecuted())
         {
             Angle newRotation = Angle.fromRadians(
-                    percepts.getScenarioGuardPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * Game._RANDOM.nextDouble()
+                    percepts.getScenarioGuardPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * random.nextDouble()
             );
             return new Rotate(newRotation);
         }
@@ -180,7 +187,7 @@ public class ShallowSpaceAgent implements Guard {
             return moveTowardsPoint(percepts, new Vector2(0 ,1), new Vector2.Origin(), max);
         }
 
-        Angle newRotation = Angle.fromRadians(percepts.getScenarioGuardPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * Game._RANDOM.nextDouble());
+        Angle newRotation = Angle.fromRadians(percepts.getScenarioGuardPercepts().getScenarioPercepts().getMaxRotationAngle().getRadians() * random.nextDouble());
         rotation = Angle.fromRadians(rotation.getRadians()+newRotation.getRadians());
         if(rotation.getDegrees() > 360){
             rotation = Angle.fromDegrees(rotation.getDegrees() - 360);
@@ -0,0 +1,47 @@
+package Group9.agent.watchdog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time every single agent has to decide on its next action, one budget for the guards and one for the intruders.
+ * An agent that takes longer does nothing in that turn, see {@link DecisionWatchdog}.
+ */
+public final class DecisionBudget {
+
+    private final long guardNanos;
+    private final long intruderNanos;
+
+    public DecisionBudget(long guard, long intruder, TimeUnit unit)
+    {
+        if(guard <= 0 || intruder <= 0)
+        {
+            throw new IllegalArgumentException(String.format("The budgets have to be positive, got %d and %d.", guard, intruder));
+        }
+
+        this.guardNanos = unit.toNanos(guard);
+        this.intruderNanos = unit.toNanos(intruder);
+    }
+
+    /**
+     * @param budget
+     * @param unit
+     * @return The same budget for guards and intruders.
+     */
+    public static DecisionBudget of(long budget, TimeUnit unit)
+    {
+        return new DecisionBudget(budget, budget, unit);
+    }
+
+    public long getGuardNanos() {
+        return guardNanos;
+    }
+
+    public long getIntruderNanos() {
+        return intruderNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DecisionBudget{guard=%.3fms, intruder=%.3fms}", guardNanos / 1E+6D, intruderNanos / 1E+6D);
+    }
+}
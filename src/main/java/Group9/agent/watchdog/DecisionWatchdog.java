@@ -0,0 +1,218 @@
+package Group9.agent.watchdog;
+
+import Group9.agent.container.AgentContainer;
+import Interop.Action.Action;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs the decisions of the agents on a separate thread and waits at most for the agent's budget. If the agent does
+ * not answer in time it gets the fallback action (a NoAction) instead, and the decision is interrupted. An agent whose
+ * previous decision is still running is not asked again until that decision is done, it gets the fallback right away,
+ * so an agent never runs on two threads at the same time.
+ *
+ * The CPU time every agent uses is measured on the decision thread through the {@link ThreadMXBean}, it also includes
+ * the time of decisions that ran over their budget.
+ *
+ * Note: All games share one cached pool of daemon threads. A stuck agent only blocks its own thread, the next decision
+ *  simply runs on another one, and idle threads go away on their own.
+ */
+public final class DecisionWatchdog {
+
+    private final static ThreadMXBean _THREADS = ManagementFactory.getThreadMXBean();
+    private final static boolean _CPU_TIME = _THREADS.isCurrentThreadCpuTimeSupported() && _THREADS.isThreadCpuTimeEnabled();
+
+    private final static ExecutorService _EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, String.format("DecisionWatchdog-%d", count.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final DecisionBudget budget;
+    private final Map<AgentContainer<?>, Usage> usages = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public DecisionWatchdog(DecisionBudget budget)
+    {
+        this.budget = budget;
+    }
+
+    public DecisionBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Asks the agent for its action.
+     * @param agent The agent that decides.
+     * @param budget The time the agent has, in nanoseconds.
+     * @param decision The call to the agent.
+     * @param fallback The action that is used if the agent runs out of time.
+     * @return The action of the agent, or the fallback.
+     */
+    public <A extends Action> A decide(AgentContainer<?> agent, long budget, Supplier<A> decision, A fallback)
+    {
+        final Usage usage = getUsage(agent);
+        usage.decisions++;
+
+        // --- Note: A cancelled future is done right away, even if the agent ignores the interrupt and keeps on running,
+        //  so the decision itself has to tell when it is over.
+        if(usage.running.get())
+        {
+            usage.violations++;
+            return fallback;
+        }
+        usage.running.set(true);
+        synchronized (usage)
+        {
+            usage.abandoned = false;
+        }
+
+        final long start = System.nanoTime();
+        final Future<A> future = _EXECUTOR.submit(() -> {
+            synchronized (usage)
+            {
+                if(usage.abandoned)
+                {
+                    usage.running.set(false);
+                    return fallback;
+                }
+                usage.thread = Thread.currentThread();
+            }
+            final long cpu = _CPU_TIME ? _THREADS.getCurrentThreadCpuTime() : 0;
+            try {
+                return decision.get();
+            } finally {
+                if(_CPU_TIME)
+                {
+                    usage.cpuNanos.addAndGet(_THREADS.getCurrentThreadCpuTime() - cpu);
+                }
+                synchronized (usage)
+                {
+                    usage.thread = null;
+                    // --- an interrupt that came in after the agent returned must not hit the next task of the thread
+                    Thread.interrupted();
+                    usage.running.set(false);
+                }
+            }
+        });
+
+        try {
+            return future.get(budget, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandon(usage);
+            usage.violations++;
+            return fallback;
+        } catch (InterruptedException e) {
+            abandon(usage);
+            Thread.currentThread().interrupt();
+            return fallback;
+        } catch (ExecutionException e) {
+            // --- Note: The agent failed on its own, this is passed on just like a direct call would.
+            if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if(e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            usage.maxWallNanos = Math.max(usage.maxWallNanos, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Gives up on the running decision: it is interrupted, or skipped if it has not started yet. The agent stays
+     * running until the decision actually returns.
+     */
+    private static void abandon(Usage usage)
+    {
+        synchronized (usage)
+        {
+            usage.abandoned = true;
+            if(usage.thread != null)
+            {
+                usage.thread.interrupt();
+            }
+        }
+    }
+
+    public Usage getUsage(AgentContainer<?> agent)
+    {
+        return this.usages.computeIfAbsent(agent, k -> new Usage());
+    }
+
+    /**
+     * @return The amount of decisions of all agents that ran out of time.
+     */
+    public long getViolations()
+    {
+        synchronized (this.usages)
+        {
+            return this.usages.values().stream().mapToLong(Usage::getViolations).sum();
+        }
+    }
+
+    /**
+     * @return The CPU time all agents used, in nanoseconds.
+     */
+    public long getCpuNanos()
+    {
+        synchronized (this.usages)
+        {
+            return this.usages.values().stream().mapToLong(Usage::getCpuNanos).sum();
+        }
+    }
+
+    /**
+     * What a single agent has used so far.
+     */
+    public static final class Usage {
+
+        private long decisions = 0;
+        private long violations = 0;
+        private long maxWallNanos = 0;
+        // --- written by the decision threads, a decision that ran over its budget might still add to it later
+        private final AtomicLong cpuNanos = new AtomicLong();
+        // --- Note: The decision thread and the game thread hand these over while holding the lock of the usage.
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private Thread thread = null;
+        private boolean abandoned = false;
+
+        private Usage() {}
+
+        public long getDecisions() {
+            return decisions;
+        }
+
+        /**
+         * @return The amount of decisions that ran out of time or were skipped because the previous one was still running.
+         */
+        public long getViolations() {
+            return violations;
+        }
+
+        public long getMaxWallNanos() {
+            return maxWallNanos;
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Usage{decisions=%d, violations=%d, cpu=%.3fms, maxWall=%.3fms}", decisions, violations,
+                    getCpuNanos() / 1E+6D, maxWallNanos / 1E+6D);
+        }
+    }
+
+}
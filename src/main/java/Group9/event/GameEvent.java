@@ -0,0 +1,228 @@
+package Group9.event;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.dynamic.Sound;
+import Group9.math.Vector2;
+import Interop.Action.Action;
+
+/**
+ * Something that happened in a game, see {@link Group9.Game#addEventListener(Listener)}. Events are only created if
+ * anybody is listening.
+ *
+ * The events caused by an action (e.g. a capture or a sound) are emitted while it is executed, followed by
+ * {@link ActionExecuted} or {@link ActionFailed} once it is done.
+ *
+ * Note: The agents and dynamic objects of an event are the ones of the game, they keep on changing after the event has
+ * been emitted.
+ */
+public abstract class GameEvent {
+
+    private final int turn;
+    private final AgentContainer<?> agent;
+
+    protected GameEvent(int turn, AgentContainer<?> agent)
+    {
+        this.turn = turn;
+        this.agent = agent;
+    }
+
+    /**
+     * @return The turn the event happened in.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * @return The agent whose action caused the event.
+     */
+    public AgentContainer<?> getAgent() {
+        return agent;
+    }
+
+    public interface Listener
+    {
+        /**
+         * Is called on the thread running the game, right when the event happens.
+         * @param event
+         */
+        void call(GameEvent event);
+    }
+
+    public static class ActionExecuted extends GameEvent {
+
+        private final Action action;
+
+        public ActionExecuted(int turn, AgentContainer<?> agent, Action action)
+        {
+            super(turn, agent);
+            this.action = action;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ActionExecuted{turn=%d, action=%s}", getTurn(), action);
+        }
+    }
+
+    public static class ActionFailed extends GameEvent {
+
+        private final Action action;
+
+        public ActionFailed(int turn, AgentContainer<?> agent, Action action)
+        {
+            super(turn, agent);
+            this.action = action;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ActionFailed{turn=%d, action=%s}", getTurn(), action);
+        }
+    }
+
+    /**
+     * The agent is the guard that captured the intruder.
+     */
+    public static class Captured extends GameEvent {
+
+        private final IntruderContainer intruder;
+
+        public Captured(int turn, AgentContainer<?> guard, IntruderContainer intruder)
+        {
+            super(turn, guard);
+            this.intruder = intruder;
+        }
+
+        public IntruderContainer getIntruder() {
+            return intruder;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Captured{turn=%d}", getTurn());
+        }
+    }
+
+    /**
+     * The intruder started a turn in the target area, after it has been outside of it.
+     */
+    public static class ZoneEntered extends GameEvent {
+
+        public ZoneEntered(int turn, IntruderContainer intruder)
+        {
+            super(turn, intruder);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ZoneEntered{turn=%d}", getTurn());
+        }
+    }
+
+    /**
+     * The intruder started a turn outside of the target area, after it has been in it.
+     */
+    public static class ZoneLeft extends GameEvent {
+
+        private final int zoneCounter;
+
+        public ZoneLeft(int turn, IntruderContainer intruder, int zoneCounter)
+        {
+            super(turn, intruder);
+            this.zoneCounter = zoneCounter;
+        }
+
+        /**
+         * @return The amount of turns the intruder has been in the target area.
+         */
+        public int getZoneCounter() {
+            return zoneCounter;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ZoneLeft{turn=%d, zoneCounter=%d}", getTurn(), zoneCounter);
+        }
+    }
+
+    public static class Teleported extends GameEvent {
+
+        private final Vector2 from;
+        private final Vector2 to;
+
+        public Teleported(int turn, AgentContainer<?> agent, Vector2 from, Vector2 to)
+        {
+            super(turn, agent);
+            this.from = from;
+            this.to = to;
+        }
+
+        public Vector2 getFrom() {
+            return from;
+        }
+
+        public Vector2 getTo() {
+            return to;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Teleported{turn=%d, from=%s, to=%s}", getTurn(), from, to);
+        }
+    }
+
+    public static class PheromoneDropped extends GameEvent {
+
+        private final Pheromone pheromone;
+
+        public PheromoneDropped(int turn, AgentContainer<?> agent, Pheromone pheromone)
+        {
+            super(turn, agent);
+            this.pheromone = pheromone;
+        }
+
+        public Pheromone getPheromone() {
+            return pheromone;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PheromoneDropped{turn=%d, type=%s}", getTurn(), pheromone.getType());
+        }
+    }
+
+    /**
+     * A sound made by the agent, by moving, in an area that makes sounds, or by yelling.
+     */
+    public static class SoundEmitted extends GameEvent {
+
+        private final Sound sound;
+
+        public SoundEmitted(int turn, AgentContainer<?> agent, Sound sound)
+        {
+            super(turn, agent);
+            this.sound = sound;
+        }
+
+        public Sound getSound() {
+            return sound;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SoundEmitted{turn=%d, type=%s}", getTurn(), sound.getType());
+        }
+    }
+
+}
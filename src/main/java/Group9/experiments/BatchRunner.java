@@ -0,0 +1,412 @@
+package Group9.experiments;
+
+import Group9.Game;
+import Group9.agent.factories.DefaultAgentFactory;
+import Group9.agent.factories.IAgentFactory;
+import Group9.agent.watchdog.DecisionBudget;
+import Group9.map.GameMap;
+import Group9.map.MapTemplate;
+import Group9.map.parser.Parser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a batch of headless games in parallel. The map is parsed once into a {@link MapTemplate} that is shared by all
+ * games, and every game gets its own {@link GameMap} on top of it and the seed `seed + index`, so every single game of a
+ * batch can be replayed. The games are split up on a {@link ForkJoinPool}, and every finished game is
+ * written to the results file as soon as it is done, one line per game:
+ *
+ *  seed,winner,turns,captures,nanos
+ *
+ * The winner is DRAW if the game hit the turn limit of the map or has been detected as a stalemate, see
+ * {@link Group9.map.GameSettings#getMaxTurns()} and {@link Group9.map.GameSettings#getStalemateTurns()}.
+ *
+ * If the batch has a {@link DecisionBudget}, the decisions that ran out of time are counted in the {@link Result}s and
+ * the {@link Summary}.
+ *
+ * While the batch is running the throughput and the win rates (with their 95% confidence intervals) are printed.
+ */
+public class BatchRunner {
+
+    private final static long _REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+
+    private final MapTemplate template;
+    private final IAgentFactory agentFactory;
+    private final int games;
+    private final int parallelism;
+    private final long seed;
+    private final DecisionBudget budget;
+
+    /**
+     * @param mapPath The map every game is played on, a text map or a compiled one.
+     * @param agentFactory The factory creating the agents, it is shared between all threads and has to be thread-safe.
+     * @param games The amount of games.
+     * @param parallelism The amount of games running at the same time.
+     * @param seed The seed of the first game.
+     * @throws IOException If the map cannot be read.
+     */
+    public BatchRunner(String mapPath, IAgentFactory agentFactory, int games, int parallelism, long seed) throws IOException
+    {
+        this(mapPath, agentFactory, games, parallelism, seed, null);
+    }
+
+    /**
+     * @param mapPath The map every game is played on, a text map or a compiled one.
+     * @param agentFactory The factory creating the agents, it is shared between all threads and has to be thread-safe.
+     * @param games The amount of games.
+     * @param parallelism The amount of games running at the same time.
+     * @param seed The seed of the first game.
+     * @param budget The time every agent has per decision, or null for no limit.
+     * @throws IOException If the map cannot be read.
+     */
+    public BatchRunner(String mapPath, IAgentFactory agentFactory, int games, int parallelism, long seed,
+                       DecisionBudget budget) throws IOException
+    {
+        if(games < 0 || parallelism < 1)
+        {
+            throw new IllegalArgumentException(String.format("Invalid batch: %d games with a parallelism of %d.", games, parallelism));
+        }
+
+        // --- Note: Parser#parseTemplateFile does not report a file that is missing, so that is checked up front.
+        if(!Files.isReadable(Paths.get(mapPath)))
+        {
+            throw new IOException(String.format("The map %s cannot be read.", mapPath));
+        }
+        this.template = Parser.parseTemplateFile(mapPath);
+        this.agentFactory = agentFactory;
+        this.games = games;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.budget = budget;
+    }
+
+    /**
+     * Runs all games and blocks until they are done.
+     * @param results The file the results are written to, it is overwritten.
+     * @return The summary of all games.
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public Summary run(Path results) throws IOException, InterruptedException
+    {
+        final BlockingQueue<Result> queue = new LinkedBlockingQueue<>();
+        final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        final Summary summary = new Summary(System.nanoTime());
+
+        try (BufferedWriter writer = Files.newBufferedWriter(results))
+        {
+            pool.execute(new Games(0, this.games, queue));
+
+            writer.write("seed,winner,turns,captures,nanos");
+            writer.newLine();
+
+            long lastReport = System.nanoTime();
+            for(int i = 0; i < this.games; i++)
+            {
+                final Result result = queue.take();
+                writer.write(result.toString());
+                writer.newLine();
+                summary.add(result);
+
+                if(System.nanoTime() - lastReport >= _REPORT_INTERVAL)
+                {
+                    lastReport = System.nanoTime();
+                    writer.flush();
+                    System.out.println(summary);
+                }
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        summary.finish(System.nanoTime());
+        System.out.println(summary);
+        return summary;
+    }
+
+    private Result play(long seed)
+    {
+        final long start = System.nanoTime();
+        Game game = null;
+        try {
+            game = new Game(new GameMap(this.template), this.agentFactory, false, seed);
+            game.setDecisionBudget(this.budget);
+            game.run();
+        } catch (Throwable e) {
+            // --- Note: A broken game should not take down a batch of thousands of games, it is recorded without a winner.
+            //  Errors (e.g. a StackOverflowError of an agent) are caught as well, otherwise the game would never end up in
+            //  the queue and the batch would wait for it forever.
+            System.err.printf("BatchRunner: game with seed %d failed.\n", seed);
+            e.printStackTrace();
+        }
+
+        final long nanos = System.nanoTime() - start;
+        if(game == null)
+        {
+            return new Result(seed, null, 0, 0, nanos);
+        }
+        return new Result(seed, game.getWinner(), game.getTurns(), game.getCapturedIntruders(), nanos,
+                game.getBudgetViolations());
+    }
+
+    /**
+     * Plays the games [from, to) by splitting the range in halves until only a single game is left, so idle threads can
+     * steal the other halves.
+     */
+    private class Games extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final BlockingQueue<Result> queue;
+
+        private Games(int from, int to, BlockingQueue<Result> queue)
+        {
+            this.from = from;
+            this.to = to;
+            this.queue = queue;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= 1)
+            {
+                if(to > from)
+                {
+                    queue.add(play(seed + from));
+                }
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(new Games(from, middle, queue), new Games(middle, to, queue));
+        }
+
+    }
+
+    public static class Result {
+
+        private final long seed;
+        private final Game.Team winner;
+        private final int turns;
+        private final int captures;
+        private final long nanos;
+        private final long violations;
+
+        public Result(long seed, Game.Team winner, int turns, int captures, long nanos)
+        {
+            this(seed, winner, turns, captures, nanos, 0);
+        }
+
+        /**
+         * @param seed
+         * @param winner
+         * @param turns
+         * @param captures
+         * @param nanos
+         * @param violations The amount of decisions that ran out of their budget.
+         */
+        public Result(long seed, Game.Team winner, int turns, int captures, long nanos, long violations)
+        {
+            this.seed = seed;
+            this.winner = winner;
+            this.turns = turns;
+            this.captures = captures;
+            this.nanos = nanos;
+            this.violations = violations;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return The winner, or null if the game did not finish.
+         */
+        public Game.Team getWinner() {
+            return winner;
+        }
+
+        public int getTurns() {
+            return turns;
+        }
+
+        public int getCaptures() {
+            return captures;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getViolations() {
+            return violations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d,%s,%d,%d,%d", seed, winner == null ? "NONE" : winner.name(), turns, captures, nanos);
+        }
+    }
+
+    /**
+     * Aggregates the results as they come in, all values are running totals so the summary never holds on to the
+     * results themselves.
+     */
+    public static class Summary {
+
+        // --- z-value of the 95% confidence interval
+        private final static double _Z = 1.959964;
+
+        private final long start;
+        private long end = -1;
+
+        private int games = 0;
+        private int intruderWins = 0;
+        private int guardWins = 0;
+        private int draws = 0;
+        private long turns = 0;
+        private long captures = 0;
+        private long nanos = 0;
+        private long violations = 0;
+
+        public Summary(long start)
+        {
+            this.start = start;
+        }
+
+        public void add(Result result)
+        {
+            this.games++;
+            if(result.getWinner() == Game.Team.INTRUDERS) this.intruderWins++;
+            if(result.getWinner() == Game.Team.GUARDS) this.guardWins++;
+            if(result.getWinner() == Game.Team.DRAW) this.draws++;
+            this.turns += result.getTurns();
+            this.captures += result.getCaptures();
+            this.nanos += result.getNanos();
+            this.violations += result.getViolations();
+        }
+
+        public void finish(long end)
+        {
+            this.end = end;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        /**
+         * @param team The team, or {@link Game.Team#DRAW} for the amount of games nobody won.
+         * @return
+         */
+        public int getWins(Game.Team team)
+        {
+            switch (team)
+            {
+                case INTRUDERS: return intruderWins;
+                case GUARDS: return guardWins;
+                default: return draws;
+            }
+        }
+
+        public double getWinRate(Game.Team team)
+        {
+            return games == 0 ? 0 : getWins(team) / (double) games;
+        }
+
+        /**
+         * Wilson score interval of the win rate, it behaves well for small batches and win rates close to 0 or 1.
+         * @param team
+         * @return {lower, upper}
+         */
+        public double[] getConfidenceInterval(Game.Team team)
+        {
+            if(games == 0)
+            {
+                return new double[] { 0, 1 };
+            }
+
+            final double p = getWinRate(team);
+            final double z2 = _Z * _Z;
+            final double denominator = 1 + z2 / games;
+            final double centre = (p + z2 / (2 * games)) / denominator;
+            final double spread = (_Z * Math.sqrt(p * (1 - p) / games + z2 / (4D * games * games))) / denominator;
+            return new double[] { Math.max(0, centre - spread), Math.min(1, centre + spread) };
+        }
+
+        /**
+         * @return The amount of decisions of all games that ran out of their budget.
+         */
+        public long getViolations() {
+            return violations;
+        }
+
+        public double getAverageTurns()
+        {
+            return games == 0 ? 0 : turns / (double) games;
+        }
+
+        public double getAverageCaptures()
+        {
+            return games == 0 ? 0 : captures / (double) games;
+        }
+
+        /**
+         * @return Games per second of wall time since the batch has been started.
+         */
+        public double getThroughput()
+        {
+            final long elapsed = (end == -1 ? System.nanoTime() : end) - start;
+            return elapsed <= 0 ? 0 : games / (elapsed / 1E+9D);
+        }
+
+        /**
+         * @return The average time a single game took, in milliseconds.
+         */
+        public double getAverageGameTime()
+        {
+            return games == 0 ? 0 : (nanos / (double) games) / 1E+6D;
+        }
+
+        @Override
+        public String toString() {
+            final double[] intruders = getConfidenceInterval(Game.Team.INTRUDERS);
+            final double[] guards = getConfidenceInterval(Game.Team.GUARDS);
+            return String.format("%d games, %.2f games/s, %.2f ms/game, %.1f turns/game, %.2f captures/game | " +
+                            "intruders %.3f [%.3f, %.3f] | guards %.3f [%.3f, %.3f] | %d draws | %d budget violations",
+                    games, getThroughput(), getAverageGameTime(), getAverageTurns(), getAverageCaptures(),
+                    getWinRate(Game.Team.INTRUDERS), intruders[0], intruders[1],
+                    getWinRate(Game.Team.GUARDS), guards[0], guards[1], draws, violations);
+        }
+    }
+
+    /**
+     * Usage: BatchRunner <map> <games> <parallelism> <results> [seed] [budget in ms]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        if(args.length < 4)
+        {
+            System.err.println("Usage: BatchRunner <map> <games> <parallelism> <results> [seed] [budget in ms]");
+            return;
+        }
+
+        BatchRunner runner = new BatchRunner(args[0], new DefaultAgentFactory(), Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]), args.length > 4 ? Long.parseLong(args[4]) : 0,
+                args.length > 5 ? DecisionBudget.of(Long.parseLong(args[5]), TimeUnit.MILLISECONDS) : null);
+        runner.run(Paths.get(args[3]));
+
+    }
+
+}
@@ -0,0 +1,392 @@
+package Group9.experiments;
+
+import Group9.Game;
+import Group9.agent.factories.IAgentFactory;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.GameMap;
+import Group9.map.MapTemplate;
+import Group9.map.parser.Builder;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import Interop.Percept.Scenario.GameMode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Measures how the whole engine scales: full games are played on generated maps, and the ticks (turns) per second, the
+ * percepts per second and the allocation rate are recorded. Starting from a baseline scenario, one parameter at a time
+ * is swept (guards, intruders, map size and wall density), which gives one scaling curve per parameter.
+ *
+ * All maps and games are seeded, so the same build always plays the same turns. The results are written as CSV, one
+ * line per scenario, and the label (e.g. the commit hash) is written to every line, so the files of two commits can be
+ * concatenated and compared directly:
+ *
+ *  label,curve,size,wall_density,guards,intruders,map_objects,turns,games,seconds,ticks_per_s,percepts_per_s,alloc_mb_per_s,alloc_bytes_per_tick
+ */
+public class ScalingBenchmark {
+
+    private final static long _SEED = 42;
+
+    private final static Scenario _BASELINE = new Scenario("baseline", 120, 0.05, 4, 3);
+    private final static int[] _GUARDS = { 1, 2, 4, 8, 16, 32 };
+    private final static int[] _INTRUDERS = { 1, 3, 6, 12, 24 };
+    private final static int[] _SIZES = { 60, 120, 240, 480 };
+    private final static double[] _WALL_DENSITIES = { 0, 0.05, 0.1, 0.2 };
+
+    private final IAgentFactory agentFactory;
+    private final int turns;
+
+    /**
+     * @param agentFactory The factory creating the agents, use one that is cheap so the engine dominates the measurements.
+     * @param turns The amount of turns every scenario is played for, games that end earlier are replaced by new ones.
+     */
+    public ScalingBenchmark(IAgentFactory agentFactory, int turns)
+    {
+        this.agentFactory = agentFactory;
+        this.turns = turns;
+    }
+
+    /**
+     * @return The baseline followed by the curves of all parameters.
+     */
+    public static List<Scenario> sweep()
+    {
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(_BASELINE);
+        for(int guards : _GUARDS)
+        {
+            scenarios.add(new Scenario("guards", _BASELINE.size, _BASELINE.wallDensity, guards, _BASELINE.intruders));
+        }
+        for(int intruders : _INTRUDERS)
+        {
+            scenarios.add(new Scenario("intruders", _BASELINE.size, _BASELINE.wallDensity, _BASELINE.guards, intruders));
+        }
+        for(int size : _SIZES)
+        {
+            scenarios.add(new Scenario("size", size, _BASELINE.wallDensity, _BASELINE.guards, _BASELINE.intruders));
+        }
+        for(double density : _WALL_DENSITIES)
+        {
+            scenarios.add(new Scenario("wall_density", _BASELINE.size, density, _BASELINE.guards, _BASELINE.intruders));
+        }
+        return scenarios;
+    }
+
+    /**
+     * Plays the scenario for the configured amount of turns on the calling thread.
+     * @param scenario
+     * @return
+     */
+    public Result run(Scenario scenario)
+    {
+        final MapTemplate template = scenario.buildTemplate(_SEED);
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        long percepts = 0;
+        int games = 0;
+        int played = 0;
+
+        final long allocatedBefore = allocatedBytes(threads);
+        final long start = System.nanoTime();
+        while (played < this.turns)
+        {
+            Game game = new Game(new GameMap(template), this.agentFactory, false, _SEED + games);
+            games++;
+            try {
+                while (played < this.turns && game.getWinner() == null)
+                {
+                    game.turn();
+                    played++;
+                }
+            } catch (RuntimeException e) {
+                // --- Note: Some agents throw in rare situations, the turns until then still count.
+                System.err.printf("ScalingBenchmark: game with seed %d failed in %s.\n", game.getSeed(), scenario);
+            }
+            percepts += game.getMetrics().getPerceptsEmitted();
+        }
+        final long nanos = System.nanoTime() - start;
+        final long allocatedAfter = allocatedBytes(threads);
+
+        return new Result(scenario, template.getObjects().size(), played, games, nanos, percepts,
+                allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore);
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far, or -1 if the JVM does not support measuring it.
+     */
+    private static long allocatedBytes(ThreadMXBean threads)
+    {
+        if(threads instanceof com.sun.management.ThreadMXBean)
+        {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if(hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled())
+            {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A square map with a border, a guard spawn in the lower left and an intruder spawn in the upper right corner, the
+     * target area in the middle of the right border, and randomly placed wall segments (1 unit thick) covering the given
+     * fraction of the map.
+     */
+    public static class Scenario {
+
+        private final String curve;
+        private final int size;
+        private final double wallDensity;
+        private final int guards;
+        private final int intruders;
+
+        public Scenario(String curve, int size, double wallDensity, int guards, int intruders)
+        {
+            this.curve = curve;
+            this.size = size;
+            this.wallDensity = wallDensity;
+            this.guards = guards;
+            this.intruders = intruders;
+        }
+
+        public String getCurve() {
+            return curve;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getWallDensity() {
+            return wallDensity;
+        }
+
+        public int getGuards() {
+            return guards;
+        }
+
+        public int getIntruders() {
+            return intruders;
+        }
+
+        public MapTemplate buildTemplate(long seed)
+        {
+            // --- same settings as mazy.map
+            Builder builder = new Builder()
+                    .width(size).height(size)
+                    .numGuards(guards).numIntruders(intruders)
+                    .gameMode(GameMode.CaptureAllIntruders)
+                    .captureDistance(0.5)
+                    .winConditionIntruderRounds(1)
+                    .maxRotationAngle(45)
+                    .intruderMaxMoveDistance(1.4)
+                    .intruderMaxSprintDistance(4)
+                    .guardMaxMoveDistance(1.4)
+                    .sprintCooldown(2)
+                    .pheromoneCooldown(3)
+                    .pheromoneRadius(5)
+                    .windowSlowdownModifier(0.5)
+                    .doorSlowdownModifier(0.5)
+                    .sentrySlowdownModifier(0.1)
+                    .viewAngle(45)
+                    .viewRays(45)
+                    .intruderViewRangeNormal(7.5)
+                    .intruderViewRangeShaded(4)
+                    .guardViewRangeNormal(6)
+                    .guardViewRangeShaded(3.5)
+                    .sentryViewRange(2, 20)
+                    .yellSoundRadius(30)
+                    .moveMaxSoundRadius(10)
+                    .windowSoundRadius(10)
+                    .doorSoundRadius(5)
+                    .pheromoneExpireRounds(5);
+
+            builder.wall(rectangle(0, 0, size, 1));
+            builder.wall(rectangle(0, size - 1, size, size));
+            builder.wall(rectangle(0, 1, 1, size - 1));
+            builder.wall(rectangle(size - 1, 1, size, size - 1));
+
+            // --- the spawns are large enough to keep the packing density of the agents low
+            final int guardSpawn = spawnSize(guards);
+            final int intruderSpawn = spawnSize(intruders);
+            final double middle = size / 2D;
+            List<PointContainer.Polygon> reserved = new ArrayList<>();
+            reserved.add(rectangle(2, 2, 2 + guardSpawn, 2 + guardSpawn));
+            reserved.add(rectangle(size - 2 - intruderSpawn, size - 2 - intruderSpawn, size - 2, size - 2));
+            reserved.add(rectangle(size - 4, middle - 1, size - 2, middle + 1));
+            builder.spawnAreaGuards(reserved.get(0));
+            builder.spawnAreaIntruders(reserved.get(1));
+            builder.targetArea(reserved.get(2));
+
+            // --- Note: The reserved areas are grown by one unit, so the agents can always leave them.
+            List<PointContainer.Polygon> keepFree = new ArrayList<>();
+            keepFree.add(rectangle(1, 1, 3 + guardSpawn, 3 + guardSpawn));
+            keepFree.add(rectangle(size - 3 - intruderSpawn, size - 3 - intruderSpawn, size - 1, size - 1));
+            keepFree.add(rectangle(size - 5, middle - 2, size - 1, middle + 2));
+
+            final SplittableRandom random = new SplittableRandom(seed);
+            final double inner = (size - 2) * (size - 2);
+            final int maxLength = Math.max(3, size / 6);
+            double covered = 0;
+            int attempts = 0;
+            while (covered < wallDensity * inner && attempts++ < 100000)
+            {
+                final int length = 3 + random.nextInt(maxLength - 2);
+                final boolean horizontal = random.nextBoolean();
+                final double x = 1 + random.nextInt(size - 2 - (horizontal ? length : 1));
+                final double y = 1 + random.nextInt(size - 2 - (horizontal ? 1 : length));
+                final PointContainer.Polygon wall = horizontal ? rectangle(x, y, x + length, y + 1) :
+                        rectangle(x, y, x + 1, y + length);
+
+                if(keepFree.stream().noneMatch(e -> PointContainer.intersect(e, wall)))
+                {
+                    builder.wall(wall);
+                    covered += length;
+                }
+            }
+
+            return builder.buildTemplate();
+        }
+
+        private static int spawnSize(int agents)
+        {
+            return Math.max(4, (int) Math.ceil(Math.sqrt(agents) * 2));
+        }
+
+        private static PointContainer.Polygon rectangle(double x1, double y1, double x2, double y2)
+        {
+            return new PointContainer.Polygon(new Vector2(x1, y1), new Vector2(x1, y2), new Vector2(x2, y2), new Vector2(x2, y1));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(size=%d, walls=%.2f, guards=%d, intruders=%d)", curve, size, wallDensity, guards, intruders);
+        }
+    }
+
+    public static class Result {
+
+        private final Scenario scenario;
+        private final int mapObjects;
+        private final int turns;
+        private final int games;
+        private final long nanos;
+        private final long percepts;
+        private final long allocatedBytes;
+
+        public Result(Scenario scenario, int mapObjects, int turns, int games, long nanos, long percepts, long allocatedBytes)
+        {
+            this.scenario = scenario;
+            this.mapObjects = mapObjects;
+            this.turns = turns;
+            this.games = games;
+            this.nanos = nanos;
+            this.percepts = percepts;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public Scenario getScenario() {
+            return scenario;
+        }
+
+        public int getTurns() {
+            return turns;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public double getTicksPerSecond()
+        {
+            return turns / (nanos / 1E+9D);
+        }
+
+        public double getPerceptsPerSecond()
+        {
+            return percepts / (nanos / 1E+9D);
+        }
+
+        /**
+         * @return The allocated megabytes per second, or -1 if the allocations could not be measured.
+         */
+        public double getAllocationRate()
+        {
+            return allocatedBytes < 0 ? -1 : (allocatedBytes / 1E+6D) / (nanos / 1E+9D);
+        }
+
+        /**
+         * @return The allocated bytes per turn, or -1 if the allocations could not be measured.
+         */
+        public double getAllocatedBytesPerTick()
+        {
+            return allocatedBytes < 0 || turns == 0 ? -1 : allocatedBytes / (double) turns;
+        }
+
+        public String toCsv(String label)
+        {
+            return String.format(Locale.ROOT, "%s,%s,%d,%.3f,%d,%d,%d,%d,%d,%.3f,%.2f,%.2f,%.2f,%.0f",
+                    label, scenario.curve, scenario.size, scenario.wallDensity, scenario.guards, scenario.intruders,
+                    mapObjects, turns, games, nanos / 1E+9D, getTicksPerSecond(), getPerceptsPerSecond(),
+                    getAllocationRate(), getAllocatedBytesPerTick());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f ticks/s, %.0f percepts/s, %.1f MB/s, %.0f B/tick (%d turns, %d games)", scenario,
+                    getTicksPerSecond(), getPerceptsPerSecond(), getAllocationRate(), getAllocatedBytesPerTick(), turns, games);
+        }
+    }
+
+    /**
+     * Usage: ScalingBenchmark <results> [label] [turns]
+     */
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 1)
+        {
+            System.err.println("Usage: ScalingBenchmark <results> [label] [turns]");
+            return;
+        }
+
+        final Path results = Paths.get(args[0]);
+        final String label = args.length > 1 ? args[1] : "local";
+        final ScalingBenchmark benchmark = new ScalingBenchmark(new ShallowSpaceAgentFactory(),
+                args.length > 2 ? Integer.parseInt(args[2]) : 500);
+
+        // --- warm up the JIT on every scenario, so the first ones are not penalised
+        final ScalingBenchmark warmUp = new ScalingBenchmark(benchmark.agentFactory, Math.max(20, benchmark.turns / 5));
+        for(Scenario scenario : sweep())
+        {
+            warmUp.run(scenario);
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(results))
+        {
+            writer.write("label,curve,size,wall_density,guards,intruders,map_objects,turns,games,seconds,ticks_per_s," +
+                    "percepts_per_s,alloc_mb_per_s,alloc_bytes_per_tick");
+            writer.newLine();
+
+            for(Scenario scenario : sweep())
+            {
+                final Result result = benchmark.run(scenario);
+                System.out.println(result);
+                writer.write(result.toCsv(label));
+                writer.newLine();
+                writer.flush();
+            }
+        }
+
+    }
+
+}
@@ -13,10 +13,8 @@ import javafx.animation.AnimationTimer;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 public class MainController implements Runnable {
 
@@ -25,8 +23,8 @@ public class MainController implements Runnable {
 
     private AtomicInteger historyViewIndex = new AtomicInteger(-1);
 
-    private int historyIndex = -1;
-    private final List<History> history = new LinkedList<>();
+    // --- Note: A new keyframe every 64 turns and at most ~256MB, after that the oldest turns are dropped.
+    private final Timeline timeline = new Timeline(64, 256L << 20);
 
     private AnimationTimer animator;
     private final boolean generateHistory;
@@ -34,29 +32,17 @@ public class MainController implements Runnable {
     public MainController(Gui gui, File mapFile,boolean generateHistory){
         this.gui = gui;
         this.generateHistory = generateHistory;
-        game = new Game(Parser.parseFile(mapFile.getAbsolutePath()), new ShallowSpaceAgentFactory(), false, 15, new Callback<Game>() {
+        game = new Game(Parser.parseFile(mapFile.getAbsolutePath()), new ShallowSpaceAgentFactory(), true, 15, new Callback<Game>() {
             @Override
             public void call(Game game) {
                 if(generateHistory){
-                    synchronized (history)
-                    {
-                        historyIndex++;
-                        History entry = new History();
-                        history.add(historyIndex, entry);
-
-                        entry.guardContainers = game.getGuards().stream().map(e -> e.clone(game)).collect(Collectors.toList());
-                        entry.intruderContainers = game.getIntruders().stream().map(e -> e.clone(game)).collect(Collectors.toList());
-
-
-                        entry.dynamicObjects = game.getGameMap().getDynamicObjects().stream()
-                                .map(DynamicObject::clone)
-                                .collect(Collectors.toList());
-
-                    }
+                    timeline.append(game.getSnapshot());
                 }
             }
         });
 
+        game.getMetrics().register(String.format("gui2-%d", game.getSeed()));
+
         Thread gameThread = new Thread(game);
         gameThread.start();
     }
@@ -65,14 +51,21 @@ public class MainController implements Runnable {
         return game;
     }
 
+    /**
+     * @return The turn selected in the history, or the latest one. Null if there is no history yet.
+     */
     public History getCurrentHistory() {
-        int index = historyViewIndex.get() == -1 ? (historyIndex == history.size() ? historyIndex - 1 : historyIndex) :
-                (historyViewIndex.get() == history.size() ? historyViewIndex.get() - 1 : historyViewIndex.get());
-        return history.get(index).clone();
+        int index = historyViewIndex.get() == -1 ? timeline.getLastFrame() : historyViewIndex.get();
+        return timeline.get(index);
+    }
+
+    public Timeline getTimeline() {
+        return timeline;
     }
 
     public void kill(){
         game.getRunningLoop().set(false);
+        game.getMetrics().unregister();
         if(animator!=null){
             animator.stop();
         }
@@ -86,7 +79,14 @@ public class MainController implements Runnable {
     }
 
     public int getHistoryIndex() {
-        return historyIndex;
+        return timeline.getLastFrame();
+    }
+
+    /**
+     * @return The oldest turn that is still in the history, older ones are dropped to stay within the memory limit.
+     */
+    public int getHistoryStart() {
+        return timeline.getFirstFrame();
     }
 
     @Override
@@ -99,21 +99,17 @@ public class MainController implements Runnable {
                     if(game.getWinner()!=null){
                         gui.activateHistory();
                     }
-                    synchronized (history)
+                    History entry = getCurrentHistory();
+                    if(entry != null)
                     {
-                        if(!history.isEmpty())
-                        {
-                            History entry = getCurrentHistory();
-                            gui.drawMovables(entry.guardContainers, entry.intruderContainers, entry.dynamicObjects);
-                        }
+                        gui.drawMovables(entry.guardContainers, entry.intruderContainers, entry.dynamicObjects);
                     }
                 }
                 else
                 {
-                    game.query((lock) -> {
-                        gui.drawMovables(new ArrayList<>(game.getGuards()), new ArrayList<>(game.getIntruders()),
-                                new ArrayList<>(game.getGameMap().getDynamicObjects()));
-                    }, true);
+                    game.query((snapshot) -> {
+                        gui.drawMovables(snapshot.getGuards(), snapshot.getIntruders(), snapshot.getDynamicObjects());
+                    });
                 }
         }};
         animator.start();
@@ -320,7 +320,7 @@ public class MainScene extends Scene {
             }
             else if(event.getCode() == KeyCode.LEFT)
             {
-                slider.setValue(Math.max((int) (slider.getValue() - (1 + shiftModifier)), 0));
+                slider.setValue(Math.max((int) (slider.getValue() - (1 + shiftModifier)), gui.getMainController().getHistoryStart()));
             }
         });
         slider.valueProperty().addListener((observableValue, number, t1) -> {
@@ -348,6 +348,10 @@ public class MainScene extends Scene {
                     .mul(1D / mapScale);
 
             MainController.History entry = gui.getMainController().getCurrentHistory();
+            if(entry == null)
+            {
+                return;
+            }
             Optional<IntruderContainer> intruder = entry.intruderContainers.stream()
                     .filter(e -> e.getPosition().distance(scene) < 15).findAny();
             Optional<GuardContainer> guard = entry.guardContainers.stream()
@@ -429,7 +433,7 @@ public class MainScene extends Scene {
         int age = gui.getMainController().getHistoryIndex();
         slider.setMax(age);
         slider.setValue(age);
-        slider.setMin(0);
+        slider.setMin(gui.getMainController().getHistoryStart());
         play.setDisable(false);
     }
     public void rescale(){
@@ -678,14 +682,17 @@ public class MainScene extends Scene {
 
                         Thread generateFramesThread = new Thread(() -> {
                             renderButton.setDisable(true);
-                            for(int i = 0; i <= gui.getMainController().getHistoryIndex() && rendering.get(); i++)
+                            // --- Note: ffmpeg expects the frames to start at 0, even if the oldest turns have been dropped.
+                            final int start = gui.getMainController().getHistoryStart();
+                            for(int i = start; i <= gui.getMainController().getHistoryIndex() && rendering.get(); i++)
                             {
                                 gui.getMainController().getHistoryViewIndex().set(i);
                                 MainController.History entry = gui.getMainController().getCurrentHistory();
 
                                 generateScreenshot(rendering, entry, new File(String.format("%s%s%d.png", tempDirectory.getAbsolutePath(),
-                                        File.separator, i)));
-                                progressBar.setProgress((i / (double) gui.getMainController().getHistoryIndex()) * 0.9D);
+                                        File.separator, i - start)));
+                                final int frames = gui.getMainController().getHistoryIndex() - start;
+                                progressBar.setProgress((frames == 0 ? 1 : (i - start) / (double) frames) * 0.9D);
                             };
                             renderVideoThread.start();
 
@@ -0,0 +1,354 @@
+package Group9.gui2;
+
+import Group9.GameSnapshot;
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.GuardContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.map.dynamic.DynamicObject;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.dynamic.Sound;
+import Group9.math.Vector2;
+import Interop.Percept.Smell.SmellPerceptType;
+import Interop.Percept.Sound.SoundPerceptType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The history of a game as it is shown by the GUI: one frame per turn, stored in chunks of
+ * {@link Timeline#getKeyframeInterval()} frames.
+ *
+ * The first frame of every chunk is a keyframe which keeps the agents of the snapshot (their agent, field of view and
+ * exact position). All frames of the chunk, including the keyframe, only store what changes from turn to turn in
+ * primitive arrays: the position relative to the keyframe, the direction, the cooldowns and the state of the intruders,
+ * as well as the dynamic objects. A frame is therefore always rebuilt from its keyframe and its own entries, no matter
+ * how long the game has been running.
+ *
+ * Once the timeline takes more than its memory limit, the oldest chunks are dropped, see
+ * {@link Timeline#getFirstFrame()}. The newest chunk is always kept.
+ *
+ * Note: The timeline is written by the thread running the game and read by the JavaFX thread, all public methods are
+ * synchronized.
+ */
+public class Timeline {
+
+    // --- rough sizes of the objects kept by a keyframe, only used to enforce the memory limit
+    private final static int _KEYFRAME_AGENT_BYTES = 256;
+    private final static int _CHUNK_BYTES = 256;
+
+    // --- Note: The direction is stored in 1/65536 of a turn, which is far below what can be seen on the screen.
+    private final static int _ANGLE_STEPS = 1 << 16;
+    private final static int _CAPTURED = 1 << 31;
+    private final static int _PHEROMONE = 0x80;
+
+    private final int keyframeInterval;
+    private final long memoryLimit;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    // --- the number of the first chunk in the list, the chunks before have been dropped
+    private int firstChunk = 0;
+    private int frames = 0;
+    private long bytes = 0;
+
+    /**
+     * @param keyframeInterval The amount of frames per chunk.
+     * @param memoryLimit The amount of bytes the timeline may take, roughly.
+     */
+    public Timeline(int keyframeInterval, long memoryLimit)
+    {
+        if(keyframeInterval < 1)
+        {
+            throw new IllegalArgumentException(String.format("The keyframe interval has to be positive, got %d.", keyframeInterval));
+        }
+        this.keyframeInterval = keyframeInterval;
+        this.memoryLimit = memoryLimit;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * @return The amount of bytes the timeline takes, roughly.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized boolean isEmpty()
+    {
+        return this.frames == 0;
+    }
+
+    /**
+     * @return The oldest frame that is still stored.
+     */
+    public synchronized int getFirstFrame()
+    {
+        return this.firstChunk * this.keyframeInterval;
+    }
+
+    /**
+     * @return The newest frame, -1 if the timeline is empty.
+     */
+    public synchronized int getLastFrame()
+    {
+        return this.frames - 1;
+    }
+
+    /**
+     * Adds the snapshot as the next frame.
+     * @param snapshot
+     */
+    public synchronized void append(GameSnapshot snapshot)
+    {
+        final int offset = this.frames % this.keyframeInterval;
+        if(offset == 0)
+        {
+            Chunk chunk = new Chunk(snapshot, this.keyframeInterval);
+            this.chunks.add(chunk);
+            this.bytes += chunk.bytes;
+        }
+
+        Chunk chunk = this.chunks.get(this.chunks.size() - 1);
+        final long before = chunk.bytes;
+        chunk.add(offset, snapshot);
+        this.bytes += chunk.bytes - before;
+        this.frames++;
+
+        while (this.bytes > this.memoryLimit && this.chunks.size() > 1)
+        {
+            this.bytes -= this.chunks.remove(0).bytes;
+            this.firstChunk++;
+        }
+    }
+
+    /**
+     * Rebuilds a frame, the agents and dynamic objects are new objects which can be used freely.
+     * @param frame The frame, it is clamped to the frames that are stored.
+     * @return The frame, or null if the timeline is empty.
+     */
+    public synchronized MainController.History get(int frame)
+    {
+        if(this.frames == 0)
+        {
+            return null;
+        }
+        frame = Math.max(getFirstFrame(), Math.min(frame, getLastFrame()));
+        return this.chunks.get(frame / this.keyframeInterval - this.firstChunk).get(frame % this.keyframeInterval);
+    }
+
+    private static int quantizeAngle(Vector2 direction)
+    {
+        return (int) Math.round(Math.atan2(direction.getY(), direction.getX()) / (Math.PI * 2) * _ANGLE_STEPS) & (_ANGLE_STEPS - 1);
+    }
+
+    private static Vector2 dequantizeAngle(int angle)
+    {
+        final double theta = angle / (double) _ANGLE_STEPS * Math.PI * 2;
+        return new Vector2(Math.cos(theta), Math.sin(theta)).normalise();
+    }
+
+    private static int clamp(int value)
+    {
+        return Math.max(0, Math.min(0xFFFF, value));
+    }
+
+    private final static class Chunk {
+
+        private final List<GuardContainer> guards;
+        private final List<IntruderContainer> intruders;
+        private final int agents;
+
+        // --- per frame and agent, at [frame * agents + agent]
+        private final float[] x, y;
+        private final char[] angle;
+        // --- sprinting cooldown in the lower, pheromone cooldown in the upper 16 bits
+        private final int[] cooldowns;
+        // --- zone counter, with the highest bit set if the intruder has been captured
+        private final int[] state;
+
+        // --- per dynamic object, the objects of a frame start at dynamicStart[frame]
+        private final int[] dynamicStart;
+        private int dynamicObjects = 0;
+        private byte[] kinds = new byte[16];
+        private char[] sources = new char[16];
+        private float[] dynamicX = new float[16], dynamicY = new float[16], radii = new float[16];
+        private int[] lifetimes = new int[16];
+
+        private long bytes;
+
+        Chunk(GameSnapshot keyframe, int frames)
+        {
+            this.guards = keyframe.getGuards();
+            this.intruders = keyframe.getIntruders();
+            this.agents = this.guards.size() + this.intruders.size();
+
+            this.x = new float[frames * agents];
+            this.y = new float[frames * agents];
+            this.angle = new char[frames * agents];
+            this.cooldowns = new int[frames * agents];
+            this.state = new int[frames * agents];
+            this.dynamicStart = new int[frames + 1];
+
+            this.bytes = _CHUNK_BYTES + (long) agents * _KEYFRAME_AGENT_BYTES + (long) frames * agents * (4 + 4 + 2 + 4 + 4)
+                    + (frames + 1) * 4L + dynamicBytes(this.kinds.length);
+        }
+
+        private static long dynamicBytes(int capacity)
+        {
+            return capacity * (1L + 2 + 4 + 4 + 4 + 4);
+        }
+
+        private AgentContainer<?> keyframeAgent(int agent)
+        {
+            return agent < this.guards.size() ? this.guards.get(agent) : this.intruders.get(agent - this.guards.size());
+        }
+
+        void add(int frame, GameSnapshot snapshot)
+        {
+            for(int agent = 0; agent < this.agents; agent++)
+            {
+                final AgentContainer<?> container = agent < this.guards.size() ? snapshot.getGuards().get(agent) :
+                        snapshot.getIntruders().get(agent - this.guards.size());
+                final Vector2 origin = keyframeAgent(agent).getPosition();
+                final int i = frame * this.agents + agent;
+                this.x[i] = (float) (container.getPosition().getX() - origin.getX());
+                this.y[i] = (float) (container.getPosition().getY() - origin.getY());
+                this.angle[i] = (char) quantizeAngle(container.getDirection());
+                this.cooldowns[i] = clamp(container.getCooldown(AgentContainer.Cooldown.SPRINTING)) |
+                        (clamp(container.getCooldown(AgentContainer.Cooldown.PHEROMONE)) << 16);
+                if(container instanceof IntruderContainer)
+                {
+                    final IntruderContainer intruder = (IntruderContainer) container;
+                    this.state[i] = (intruder.getZoneCounter() & ~_CAPTURED) | (intruder.isCaptured() ? _CAPTURED : 0);
+                }
+            }
+
+            final List<DynamicObject<?>> objects = snapshot.getDynamicObjects();
+            if(this.dynamicObjects + objects.size() > this.kinds.length)
+            {
+                final int capacity = Math.max(this.kinds.length * 2, this.dynamicObjects + objects.size());
+                this.bytes += dynamicBytes(capacity - this.kinds.length);
+                this.kinds = Arrays.copyOf(this.kinds, capacity);
+                this.sources = Arrays.copyOf(this.sources, capacity);
+                this.dynamicX = Arrays.copyOf(this.dynamicX, capacity);
+                this.dynamicY = Arrays.copyOf(this.dynamicY, capacity);
+                this.radii = Arrays.copyOf(this.radii, capacity);
+                this.lifetimes = Arrays.copyOf(this.lifetimes, capacity);
+            }
+
+            // --- Note: Every snapshot has copies of its own of the agents, so the sources are looked up per frame.
+            final Map<AgentContainer<?>, Integer> sources = objects.isEmpty() ? null : sources(snapshot);
+            for(DynamicObject<?> object : objects)
+            {
+                final int i = this.dynamicObjects++;
+                if(object instanceof Pheromone)
+                {
+                    this.kinds[i] = (byte) (_PHEROMONE | ((Pheromone) object).getType().ordinal());
+                }
+                else if(object instanceof Sound)
+                {
+                    this.kinds[i] = (byte) ((Sound) object).getType().ordinal();
+                }
+                else
+                {
+                    throw new IllegalArgumentException(String.format("Unsupported DynamicObject: %s", object.getClass().getName()));
+                }
+                final Integer source = sources.get(object.getSource());
+                if(source == null)
+                {
+                    throw new IllegalArgumentException("The source of a dynamic object has to be an agent of the snapshot.");
+                }
+                this.sources[i] = (char) source.intValue();
+                this.dynamicX[i] = (float) object.getCenter().getX();
+                this.dynamicY[i] = (float) object.getCenter().getY();
+                this.radii[i] = (float) object.getRadius();
+                this.lifetimes[i] = object.getLifetime();
+            }
+            this.dynamicStart[frame + 1] = this.dynamicObjects;
+        }
+
+        /**
+         * @return The index of every agent of the snapshot, guards first.
+         */
+        private static Map<AgentContainer<?>, Integer> sources(GameSnapshot snapshot)
+        {
+            final Map<AgentContainer<?>, Integer> sources = new IdentityHashMap<>(snapshot.getGuards().size() + snapshot.getIntruders().size());
+            for(int i = 0; i < snapshot.getGuards().size(); i++)
+            {
+                sources.put(snapshot.getGuards().get(i), i);
+            }
+            for(int i = 0; i < snapshot.getIntruders().size(); i++)
+            {
+                sources.put(snapshot.getIntruders().get(i), snapshot.getGuards().size() + i);
+            }
+            return sources;
+        }
+
+        MainController.History get(int frame)
+        {
+            MainController.History history = new MainController.History();
+            List<AgentContainer<?>> agents = new ArrayList<>(this.agents);
+            for(int agent = 0; agent < this.agents; agent++)
+            {
+                final AgentContainer<?> keyframe = keyframeAgent(agent);
+                final int i = frame * this.agents + agent;
+                final Vector2 position = keyframe.getPosition().add(new Vector2(this.x[i], this.y[i]));
+                final Vector2 direction = dequantizeAngle(this.angle[i]);
+
+                final AgentContainer<?> container;
+                if(keyframe instanceof GuardContainer)
+                {
+                    GuardContainer guard = new GuardContainer(((GuardContainer) keyframe).getAgent(), position, direction,
+                            keyframe.getNormalFOV());
+                    history.guardContainers.add(guard);
+                    container = guard;
+                }
+                else
+                {
+                    IntruderContainer intruder = new IntruderContainer(((IntruderContainer) keyframe).getAgent(), position,
+                            direction, keyframe.getNormalFOV());
+                    intruder.setZoneCounter(this.state[i] & ~_CAPTURED);
+                    intruder.setCaptured((this.state[i] & _CAPTURED) != 0);
+                    history.intruderContainers.add(intruder);
+                    container = intruder;
+                }
+
+                final int sprint = this.cooldowns[i] & 0xFFFF, pheromone = this.cooldowns[i] >>> 16;
+                if(sprint > 0) container.addCooldown(AgentContainer.Cooldown.SPRINTING, sprint);
+                if(pheromone > 0) container.addCooldown(AgentContainer.Cooldown.PHEROMONE, pheromone);
+                agents.add(container);
+            }
+
+            for(int i = this.dynamicStart[frame]; i < this.dynamicStart[frame + 1]; i++)
+            {
+                final AgentContainer<?> source = agents.get(this.sources[i]);
+                final Vector2 center = new Vector2(this.dynamicX[i], this.dynamicY[i]);
+                if((this.kinds[i] & _PHEROMONE) != 0)
+                {
+                    Pheromone pheromone = new Pheromone(SmellPerceptType.values()[this.kinds[i] & ~_PHEROMONE], source,
+                            center, this.radii[i], this.lifetimes[i]);
+                    history.dynamicObjects.add(pheromone);
+                }
+                else
+                {
+                    Sound sound = new Sound(SoundPerceptType.values()[this.kinds[i]], source, this.radii[i], this.lifetimes[i]);
+                    // --- Note: The sound is made where its source is now, it has to be moved to where it has been made.
+                    sound.translate(center.sub(sound.getCenter()));
+                    history.dynamicObjects.add(sound);
+                }
+            }
+            return history;
+        }
+
+    }
+
+}
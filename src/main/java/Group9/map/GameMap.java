@@ -3,119 +3,211 @@ package Group9.map;
 import Group9.Game;
 import Group9.PiMath;
 import Group9.agent.container.AgentContainer;
+import Group9.agent.container.AgentGrid;
 import Group9.agent.container.IntruderContainer;
 import Group9.map.area.EffectArea;
 import Group9.map.dynamic.DynamicObject;
+import Group9.map.dynamic.DynamicObjectGrid;
+import Group9.map.dynamic.DynamicObjectList;
 import Group9.map.objects.MapObject;
+import Group9.map.vision.GridRayCaster;
+import Group9.map.vision.HitConsumer;
+import Group9.map.vision.VisibilityPolygon;
+import Group9.math.Geometry;
 import Group9.math.Vector2;
+import Group9.metrics.GameMetrics;
+import Group9.tree.BoundingBox;
 import Group9.tree.PointContainer;
 import Group9.tree.QuadTree;
-import Interop.Agent.Guard;
 import Interop.Percept.Vision.FieldOfView;
 import Interop.Percept.Vision.ObjectPercept;
 import Interop.Percept.Vision.ObjectPerceptType;
 
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * The world of a single game. The static geometry is shared with all other games through the {@link MapTemplate}, while
+ * the map holds everything that belongs to one game: the dynamic objects, the back-reference to the game and the
+ * vision settings.
+ */
 public class GameMap {
 
     private final static boolean _OPTIMISE_RAYS = true;
     private final static boolean _OPTIMISED_FILTERED_OBJECTS = true;
+    private final static int _ADAPTIVE_STRIDE = 8;
+    private final static double _ADAPTIVE_DEPTH_RATIO = 0.25;
 
+    private final MapTemplate template;
     private final GameSettings gameSettings;
 
     private final double rayConstant;
-    private List<MapObject> mapObjects;
+    private final List<MapObject> mapObjects;
 
-    private List<DynamicObject<?>> dynamicObjects = new ArrayList<>();
+    private QuadTree<MapObject> objectTree;
+    private GridRayCaster gridRayCaster;
+    private int indexedObjects = -1;
+
+    private VisionMode visionMode = VisionMode.BRUTE_FORCE;
+    private boolean adaptiveRays = false;
+
+    // --- Note: Every change to the list of dynamic objects is applied to the grid as well.
+    private final DynamicObjectGrid dynamicObjectGrid;
+    private final DynamicObjectList dynamicObjects;
 
     private Game game;
+    // --- Note: Replaced by the metrics of the game once the map is used by one.
+    private GameMetrics metrics = new GameMetrics();
 
     public GameMap(GameSettings gameSettings, List<MapObject> mapObjects)
     {
-        this.gameSettings = gameSettings;
-        this.mapObjects = mapObjects;
+        this(new MapTemplate(gameSettings, mapObjects));
+    }
 
-        this.rayConstant = this.calculateRayConstant();
+    public GameMap(MapTemplate template)
+    {
+        this.template = template;
+        this.gameSettings = template.getGameSettings();
+        this.rayConstant = template.getRayConstant();
+
+        // --- Note: Only the list is copied, the map objects and the indices are shared with the template.
+        this.mapObjects = new ArrayList<>(template.getObjects());
+        this.objectTree = template.getObjectTree();
+        this.gridRayCaster = template.getGridRayCaster();
+        this.indexedObjects = this.mapObjects.size();
+        this.dynamicObjectGrid = createDynamicObjectGrid(this.gameSettings);
+        this.dynamicObjects = new DynamicObjectList(this.dynamicObjectGrid);
     }
 
-    public void setGame(Game game)
+    /**
+     * A copy of the other map that shares everything that cannot change while a game is running: the settings, the
+     * map objects and the indices. Only the list of map objects is copied, the dynamic objects are not copied at all,
+     * see {@link GameMap#fork()}.
+     */
+    private GameMap(GameMap other)
     {
-        this.game = game;
+        other.buildIndices();
+        this.template = other.template;
+        this.gameSettings = other.gameSettings;
+        this.rayConstant = other.rayConstant;
+        this.mapObjects = new ArrayList<>(other.mapObjects);
+        this.objectTree = other.objectTree;
+        this.gridRayCaster = other.gridRayCaster;
+        this.indexedObjects = other.indexedObjects;
+        this.visionMode = other.visionMode;
+        this.adaptiveRays = other.adaptiveRays;
+        this.dynamicObjectGrid = createDynamicObjectGrid(this.gameSettings);
+        this.dynamicObjects = new DynamicObjectList(this.dynamicObjectGrid);
     }
 
-    public GameSettings getGameSettings() {
-        return gameSettings;
+    private static DynamicObjectGrid createDynamicObjectGrid(GameSettings gameSettings)
+    {
+        // --- Note: Twice the radius of a pheromone, so most pheromones only cover a few cells and a loud sound (e.g. a
+        //  yell) still covers less than a hundred.
+        final double cellSize = Math.max(4, 2 * gameSettings.getScenarioPercepts().getRadiusPheromone().getValue());
+        return new DynamicObjectGrid(gameSettings.getWidth(), gameSettings.getHeight(), cellSize);
     }
 
     /**
-     * Calculates the amount of required rays based on the field of view. {@link GameMap#calculateRayConstant()}
-     * @param fov
-     * @return
+     * @return A map for a fork of the game, without any dynamic objects, the game copies them on its own since they
+     *  refer to its agents.
      */
-    public int calculateRequiredRays(FieldOfView fov)
+    public GameMap fork()
     {
-        return (int) Math.ceil(this.rayConstant * fov.getRange().getValue() * fov.getViewAngle().getRadians());
+        return new GameMap(this);
     }
 
     /**
-     * Note: The specifications let the user specify the amount of rays that should be casted every time when we generate
-     * the vision percepts for the agents, this is wasteful. There is a very efficient way to reduce the amount of rays,
-     * and this is simply achieved by doing the following:
-     *
-     *      ceil((2 * a * r) / d) = n
-     *          a -> view angle (rad)
-     *          r -> view distance
-     *          d -> width of smallest object divided by two
-     *          n -> amount of rays required
-     *
-     *  The code below figures out what the smallest object is, and generates a constant that can simply be multiplied
-     *  by a * r to get n. {@link GameMap#calculateRequiredRays(FieldOfView)}.
-     *  Performing tests by letting play the same agent 100k turns, the newer method yielded a gain of 51% faster simulation
-     *  computation.
-     *
-     * @return
+     * The indices of the template are used as long as the map objects are the same as the template's. Objects that are
+     * added later on through {@link GameMap#getObjects()} (e.g. in tests) will cause the indices to be rebuilt for this
+     * map only on the next query.
      */
-    private double calculateRayConstant()
+    private void buildIndices()
     {
-
-        double min = Math.min(AgentContainer._RADIUS,  // radius of agent
-                gameSettings.getScenarioPercepts().getRadiusPheromone().getValue() / gameSettings.getPheromoneExpireRounds());
-
-        Queue<PointContainer> containers = this.mapObjects.stream()
-                .map(e -> {
-                    List<PointContainer> pointContainers = new ArrayList<>();
-                    pointContainers.add(e.getContainer());
-                    pointContainers.addAll(e.getEffects().stream().map(EffectArea::getContainer).collect(Collectors.toList()));
-                    return pointContainers;
-                })
-                .flatMap(Collection::stream)
-                .collect(Collectors.toCollection(LinkedList::new));
-
-        for(PointContainer container : containers)
+        if(this.indexedObjects != this.mapObjects.size())
         {
-            if(container instanceof PointContainer.Circle)
+            if(this.mapObjects.equals(this.template.getObjects()))
             {
-                min = Math.min(min, container.getAsCircle().getRadius());
-            }
-            else if(container instanceof PointContainer.Polygon)
-            {
-                for(PointContainer.Line line : container.getAsPolygon().getLines())
-                {
-                    min = Math.min(min, line.getStart().distance(line.getEnd()) / 2);
-                }
+                this.objectTree = this.template.getObjectTree();
+                this.gridRayCaster = this.template.getGridRayCaster();
             }
             else
             {
-                throw new IllegalArgumentException(String.format("Unsupported PointContainer: %s", container.getClass().getName()));
+                this.objectTree = new QuadTree<>(this.mapObjects, MapObject::getContainer);
+                this.gridRayCaster = new GridRayCaster(this.mapObjects);
             }
+            this.indexedObjects = this.mapObjects.size();
         }
+    }
 
-        return 2D / min;
+    public MapTemplate getTemplate()
+    {
+        return template;
+    }
+
+    public QuadTree<MapObject> getObjectTree()
+    {
+        this.buildIndices();
+        return this.objectTree;
+    }
+
+    public GridRayCaster getGridRayCaster()
+    {
+        this.buildIndices();
+        return this.gridRayCaster;
+    }
+
+    public VisionMode getVisionMode() {
+        return visionMode;
+    }
+
+    public void setVisionMode(VisionMode visionMode) {
+        this.visionMode = visionMode;
+    }
+
+    public boolean isAdaptiveRays() {
+        return adaptiveRays;
+    }
+
+    /**
+     * {@link GameMap#getObjectPerceptsForAgentAdaptive(AgentContainer, FieldOfView, ViewRange)}
+     * @param adaptiveRays
+     */
+    public void setAdaptiveRays(boolean adaptiveRays) {
+        this.adaptiveRays = adaptiveRays;
+    }
+
+    public void setGame(Game game)
+    {
+        this.game = game;
+        this.metrics = game.getMetrics();
+    }
+
+    /**
+     * @return The metrics of the game, or the ones the current thread has been redirected to.
+     */
+    private GameMetrics currentMetrics()
+    {
+        return this.metrics.current();
+    }
+
+    public GameSettings getGameSettings() {
+        return gameSettings;
+    }
+
+    /**
+     * Calculates the amount of required rays based on the field of view. {@link MapTemplate#getRayConstant()}
+     * @param fov
+     * @return
+     */
+    public int calculateRequiredRays(FieldOfView fov)
+    {
+        return (int) Math.ceil(this.rayConstant * fov.getRange().getValue() * fov.getViewAngle().getRadians());
     }
 
     /**
@@ -127,15 +219,36 @@ public class GameMap {
      * @return
      */
     public List<MapObject> getFilteredObjects(AgentContainer<?> agentContainer, Predicate<MapObject> filter)
+    {
+        return filterObjects(this.mapObjects, agentContainer, filter);
+    }
+
+    /**
+     * Same as {@link GameMap#getFilteredObjects(AgentContainer, Predicate)} but only considers the objects that are
+     * within range of the origin according to the {@link GameMap#getObjectTree()}.
+     *
+     * @param agentContainer
+     * @param origin The point the agent is looking from.
+     * @param range The max distance the agent can see.
+     * @param filter
+     * @return
+     */
+    public List<MapObject> getFilteredObjects(AgentContainer<?> agentContainer, Vector2 origin, double range,
+                                              Predicate<MapObject> filter)
+    {
+        return filterObjects(getObjectTree().queryRange(BoundingBox.of(origin, range)), agentContainer, filter);
+    }
+
+    private List<MapObject> filterObjects(List<MapObject> mapObjects, AgentContainer<?> agentContainer, Predicate<MapObject> filter)
     {
 
         // --- If the field of view is greater than 180° (-> Pi) then this method does not work.
         if(gameSettings.getViewAngle().getRadians() >= Math.PI || !_OPTIMISED_FILTERED_OBJECTS) {
             if(filter == null)
             {
-                return this.mapObjects;
+                return mapObjects;
             }
-            return this.mapObjects.stream().filter(filter).collect(Collectors.toList());
+            return mapObjects.stream().filter(filter).collect(Collectors.toList());
         }
 
         // --- Create a line that is perpendicular to the direction vector
@@ -164,7 +277,7 @@ public class GameMap {
             return true;
         };
 
-        Stream<MapObject> stream = this.mapObjects
+        Stream<MapObject> stream = mapObjects
                 .stream();
 
         if(filter != null)
@@ -200,33 +313,74 @@ public class GameMap {
         return this.mapObjects;
     }
 
+    /**
+     * @return The dynamic objects, in the order they have been added. Changes to the list are applied to the
+     *  {@link GameMap#getDynamicObjectGrid()}.
+     */
     public List<DynamicObject<?>> getDynamicObjects() {
         return dynamicObjects;
     }
 
+    public DynamicObjectGrid getDynamicObjectGrid() {
+        return dynamicObjectGrid;
+    }
+
+    /**
+     * Moves the dynamic objects on to the next tick and removes those whose lifetime has run out.
+     * @return The amount of objects that have been removed.
+     */
+    public int expireDynamicObjects()
+    {
+        return this.dynamicObjects.expire();
+    }
+
     public <A extends DynamicObject<?>> List<DynamicObject> getDynamicObjects(Class<A> clazz) {
         return getDynamicObjects().stream().filter(e -> clazz.isAssignableFrom(e.getClass())).collect(Collectors.toList());
     }
 
     public <T, A extends MapObject> boolean isInMapObject(AgentContainer<T> agentContainer, Class<A> clazz) {
-        return this.mapObjects.stream()
-                .filter(e -> clazz.isAssignableFrom(e.getClass()))
-                .anyMatch(e -> PointContainer.intersect(agentContainer.getShape(), e.getContainer()));
+        return getObjectTree().queryCircle(agentContainer.getShape()).stream()
+                .anyMatch(e -> clazz.isAssignableFrom(e.getClass()));
     }
 
     public Set<EffectArea> getEffectAreas(AgentContainer<?> agent)
     {
-        return this.mapObjects.stream()
+        return getObjectTree().queryCircle(agent.getShape()).stream()
                 .filter(e -> !e.getEffects().isEmpty())
-                .filter(e -> PointContainer.intersect(agent.getShape(), e.getContainer()))
                 .flatMap((Function<MapObject, Stream<EffectArea>>) object -> object.getEffects().stream())
 
                 .collect(Collectors.toUnmodifiableSet());
     }
 
     public boolean isMoveIntersecting(AgentContainer<?> agentContainer, PointContainer.Polygon agentMove){
-        for (MapObject e : getFilteredObjects(agentContainer, e -> e.getType().isSolid())) {
-            if (PointContainer.intersect(e.getContainer(), agentMove)) {
+        return isMoveIntersecting(agentContainer, agentMove.getXs(), agentMove.getYs());
+    }
+
+    /**
+     * Same as {@link GameMap#isMoveIntersecting(AgentContainer, PointContainer.Polygon)} for a polygon given by its
+     * coordinates, see {@link Geometry}.
+     * @param agentContainer
+     * @param xs
+     * @param ys
+     * @return
+     */
+    public boolean isMoveIntersecting(AgentContainer<?> agentContainer, double[] xs, double[] ys){
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < xs.length; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        // --- Note: The exact check is done here, so there is no need to cull the objects behind the agent beforehand.
+        final GameMetrics metrics = currentMetrics();
+        for (MapObject e : getObjectTree().queryRange(minX, minY, maxX, maxY)) {
+            if (!e.getType().isSolid()) continue;
+            metrics.increment(GameMetrics.Counter.INTERSECTION_TESTS);
+            if (Geometry.polygonsIntersect(
+                    e.getContainer().getAsPolygon().getXs(), e.getContainer().getAsPolygon().getYs(), xs, ys)) {
                 return true;
             }
         }
@@ -242,12 +396,23 @@ public class GameMap {
         // --- all points where line and objects intersect sorted by proximity to start of line
         Map<Vector2, ObjectPerceptType> objectPoints = new HashMap<>();
 
+        final double x1 = line.getStart().getX(), y1 = line.getStart().getY();
+        final double x2 = line.getEnd().getX(), y2 = line.getEnd().getY();
+        final double clockDirection = agentContainer.getDirection().getClockDirection();
+        double[] points = new double[8];
+        final GameMetrics metrics = currentMetrics();
+        metrics.increment(GameMetrics.Counter.RAYS_CAST);
+        metrics.add(GameMetrics.Counter.INTERSECTION_TESTS, filteredObjects.size());
+
         // --- perceive map objects
         for (MapObject mo : filteredObjects) {
-            for (Vector2 point : PointContainer.intersectionPoints(mo.getContainer(), line)) {
-                Vector2 relative = point
-                        .sub(agentContainer.getPosition()) // move relative to agent
-                        .rotated(agentContainer.getDirection().getClockDirection()); //rotated back
+            points = ensureIntersectionBuffer(points, mo.getContainer());
+            final int count = PointContainer.intersectionPoints(mo.getContainer(), x1, y1, x2, y2, points);
+            for (int i = 0; i < count; i++) {
+                Vector2 relative = new Vector2(
+                        points[i * 2] - agentContainer.getPosition().getX(), // move relative to agent
+                        points[i * 2 + 1] - agentContainer.getPosition().getY()
+                ).rotated(clockDirection); //rotated back
                 if(relative.length() > 0 && fov.isInView(relative.toVexing()))
                 {
                     objectPoints.put(relative, mo.getType());
@@ -255,34 +420,150 @@ public class GameMap {
             }
         }
 
-        // --- perceive intruders
-        for (IntruderContainer intruder : this.game.getIntruders()) {
-            if(intruder == agentContainer || intruder.isCaptured()) continue;
-            for (Vector2 point : PointContainer.intersectionPoints(intruder.getShape(), line)) {
-                Vector2 relative = point
-                        .sub(agentContainer.getPosition()) // move relative to agent
-                        .rotated(agentContainer.getDirection().getClockDirection()); //rotated back
-                if(relative.length() > 0 && fov.isInView(relative.toVexing()))
+        addAgentPointsInLine(objectPoints, agentContainer, fov, line);
+        return toObjectPercepts(objectPoints, agentContainer, line);
+    }
+
+    /**
+     * Same as {@link GameMap#getObjectPerceptsInLine(List, AgentContainer, FieldOfView, PointContainer.Line)} but the
+     * map objects are found by walking the line through the {@link GameMap#getGridRayCaster()}.
+     * @param agentContainer
+     * @param fov
+     * @param line
+     * @return
+     */
+    public Set<ObjectPercept> getObjectPerceptsInLineGrid(AgentContainer<?> agentContainer, FieldOfView fov, PointContainer.Line line) {
+        Map<Vector2, ObjectPerceptType> objectPoints = new HashMap<>();
+        // --- Note: If two objects share a point, the brute force method reports the one that comes later in the list
+        //  of map objects. The grid reports them in a different order, so we need to keep track of the index.
+        Map<Vector2, Integer> objectIndices = new HashMap<>();
+        currentMetrics().increment(GameMetrics.Counter.RAYS_CAST);
+
+        getGridRayCaster().cast(line.getStart(), line.getEnd(), newHitConsumer(objectPoints, objectIndices, agentContainer, fov));
+
+        addAgentPointsInLine(objectPoints, agentContainer, fov, line);
+        return toObjectPercepts(objectPoints, agentContainer, line);
+    }
+
+    /**
+     * Same as {@link GameMap#getObjectPerceptsInLine(List, AgentContainer, FieldOfView, PointContainer.Line)} but the
+     * map objects are found through the visibility polygon. The line has to start at the origin of the polygon.
+     * @param visibilityPolygon
+     * @param agentContainer
+     * @param fov
+     * @param line
+     * @return
+     */
+    public Set<ObjectPercept> getObjectPerceptsInLineVisibility(VisibilityPolygon visibilityPolygon, AgentContainer<?> agentContainer,
+                                                                FieldOfView fov, PointContainer.Line line) {
+        Map<Vector2, ObjectPerceptType> objectPoints = new HashMap<>();
+        Map<Vector2, Integer> objectIndices = new HashMap<>();
+        currentMetrics().increment(GameMetrics.Counter.RAYS_CAST);
+
+        visibilityPolygon.cast(line.getEnd(), newHitConsumer(objectPoints, objectIndices, agentContainer, fov));
+
+        addAgentPointsInLine(objectPoints, agentContainer, fov, line);
+        return toObjectPercepts(objectPoints, agentContainer, line);
+    }
+
+    /**
+     * Creates a consumer that collects the hits the same way
+     * {@link GameMap#getObjectPerceptsInLine(List, AgentContainer, FieldOfView, PointContainer.Line)} does.
+     */
+    private HitConsumer newHitConsumer(Map<Vector2, ObjectPerceptType> objectPoints, Map<Vector2, Integer> objectIndices,
+                                       AgentContainer<?> agentContainer, FieldOfView fov)
+    {
+        final double clockDirection = agentContainer.getDirection().getClockDirection();
+        return new HitConsumer() {
+            @Override
+            public void hit(double x, double y, MapObject object, int index) {
+                Vector2 relative = new Vector2(
+                        x - agentContainer.getPosition().getX(), // move relative to agent
+                        y - agentContainer.getPosition().getY()
+                ).rotated(clockDirection); //rotated back
+                if(relative.length() > 0 && fov.isInView(relative.toVexing())
+                        && objectIndices.getOrDefault(relative, -1) < index)
                 {
-                    objectPoints.put(relative, ObjectPerceptType.Intruder);
+                    objectPoints.put(relative, object.getType());
+                    objectIndices.put(relative, index);
                 }
             }
-        }
+
+            @Override
+            public boolean isBlocked() {
+                return objectPoints.values().stream().anyMatch(ObjectPerceptType::isOpaque);
+            }
+        };
+    }
+
+    private void addAgentPointsInLine(Map<Vector2, ObjectPerceptType> objectPoints, AgentContainer<?> agentContainer,
+                                      FieldOfView fov, PointContainer.Line line)
+    {
+        final double x1 = line.getStart().getX(), y1 = line.getStart().getY();
+        final double x2 = line.getEnd().getX(), y2 = line.getEnd().getY();
+        final double clockDirection = agentContainer.getDirection().getClockDirection();
+        final double[] points = new double[4];
+        final GameMetrics metrics = currentMetrics();
+
+        // --- Note: Only the agents close to the line are tested, see AgentGrid.
+        final AgentGrid agentGrid = this.game.getAgentGrid();
+        final double minX = Math.min(x1, x2), minY = Math.min(y1, y2), maxX = Math.max(x1, x2), maxY = Math.max(y1, y2);
+
+        // --- perceive intruders
+        agentGrid.forEach(AgentGrid.Layer.INTRUDERS, minX, minY, maxX, maxY, intruder -> {
+            if(intruder == agentContainer || ((IntruderContainer) intruder).isCaptured()) return;
+            metrics.increment(GameMetrics.Counter.INTERSECTION_TESTS);
+            addAgentPoints(objectPoints, agentContainer, fov, clockDirection, ObjectPerceptType.Intruder,
+                    points, PointContainer.intersectionPoints(intruder.getShape(), x1, y1, x2, y2, points));
+        });
 
         // --- perceive guards
-        for (AgentContainer<Guard> guard : this.game.getGuards()) {
-            if(guard == agentContainer) continue;
-            for (Vector2 point : PointContainer.intersectionPoints(guard.getShape(), line)) {
-                Vector2 relative = point
-                        .sub(agentContainer.getPosition()) // move relative to agent
-                        .rotated(agentContainer.getDirection().getClockDirection()); //rotated bac
-                if(relative.length() > 0 && fov.isInView(relative.toVexing()))
-                {
-                    objectPoints.put(relative, ObjectPerceptType.Guard);
-                }
+        agentGrid.forEach(AgentGrid.Layer.GUARDS, minX, minY, maxX, maxY, guard -> {
+            if(guard == agentContainer) return;
+            metrics.increment(GameMetrics.Counter.INTERSECTION_TESTS);
+            addAgentPoints(objectPoints, agentContainer, fov, clockDirection, ObjectPerceptType.Guard,
+                    points, PointContainer.intersectionPoints(guard.getShape(), x1, y1, x2, y2, points));
+        });
+    }
+
+    /**
+     * Calls the consumer with all guards and intruders (including captured ones) whose circle might overlap the circle
+     * around the point, they still have to be checked by the exact condition.
+     */
+    private void forEachAgentNear(Vector2 point, double radius, Consumer<AgentContainer<?>> consumer)
+    {
+        final AgentGrid agentGrid = this.game.getAgentGrid();
+        agentGrid.forEach(AgentGrid.Layer.GUARDS, point.getX(), point.getY(), radius, consumer);
+        agentGrid.forEach(AgentGrid.Layer.INTRUDERS, point.getX(), point.getY(), radius, consumer);
+    }
+
+    private void addAgentPoints(Map<Vector2, ObjectPerceptType> objectPoints, AgentContainer<?> agentContainer, FieldOfView fov,
+                                double clockDirection, ObjectPerceptType type, double[] points, int count)
+    {
+        for (int i = 0; i < count; i++) {
+            Vector2 relative = new Vector2(
+                    points[i * 2] - agentContainer.getPosition().getX(), // move relative to agent
+                    points[i * 2 + 1] - agentContainer.getPosition().getY()
+            ).rotated(clockDirection); //rotated back
+            if(relative.length() > 0 && fov.isInView(relative.toVexing()))
+            {
+                objectPoints.put(relative, type);
             }
         }
+    }
 
+    /**
+     * @return A buffer that is large enough to hold all intersection points of the container and a line.
+     */
+    private static double[] ensureIntersectionBuffer(double[] buffer, PointContainer container)
+    {
+        final int required = container instanceof PointContainer.Polygon ? container.getAsPolygon().getXs().length * 2 : 4;
+        return buffer.length >= required ? buffer : new double[required];
+    }
+
+    private Set<ObjectPercept> toObjectPercepts(Map<Vector2, ObjectPerceptType> objectPoints, AgentContainer<?> agentContainer,
+                                                PointContainer.Line line)
+    {
         // --- sort by distance
         List<Map.Entry<Vector2, ObjectPerceptType>> entries = objectPoints.entrySet()
                 .stream()
@@ -327,11 +608,25 @@ public class GameMap {
      * @see Interop.Percept.Vision.FieldOfView
      */
     public <T> Set<ObjectPercept> getObjectPerceptsForAgent(AgentContainer<T> agentContainer, FieldOfView fov, ViewRange viewRange) {
+        if(this.visionMode == VisionMode.VISIBILITY_POLYGON)
+        {
+            return getObjectPerceptsForAgentVisibility(agentContainer, fov, viewRange);
+        }
+        if(this.adaptiveRays)
+        {
+            return getObjectPerceptsForAgentAdaptive(agentContainer, fov, viewRange);
+        }
+
         Set<ObjectPercept> objectsInSight = new HashSet<>();
         //System.out.println("angle-a: " + agentContainer.getDirection().getClockDirection());
-        List<MapObject> filteredObjects = getFilteredObjects(agentContainer, null);
+        List<MapObject> filteredObjects = this.visionMode != VisionMode.BRUTE_FORCE ? null :
+                getFilteredObjects(agentContainer, agentContainer.getPosition(),
+                        viewRange == null ? fov.getRange().getValue() : viewRange.getMax() + viewRange.getMin(), null);
         for (Vector2[] ray : getAgentVisionCone(agentContainer, fov, viewRange)) {
-            Set<ObjectPercept> objectPercepts = getObjectPerceptsInLine(filteredObjects, agentContainer, fov, new PointContainer.Line(ray[0], ray[1], false));
+            PointContainer.Line line = new PointContainer.Line(ray[0], ray[1], false);
+            Set<ObjectPercept> objectPercepts = this.visionMode == VisionMode.GRID ?
+                    getObjectPerceptsInLineGrid(agentContainer, fov, line) :
+                    getObjectPerceptsInLine(filteredObjects, agentContainer, fov, line);
             objectsInSight.addAll(
                     objectPercepts.stream()
                             .filter(e -> fov.isInView(e.getPoint()))
@@ -342,7 +637,207 @@ public class GameMap {
         return objectsInSight;
     }
 
-    public <T> Set<Vector2[]> getAgentVisionCone(AgentContainer<T> agentContainer, FieldOfView fov, ViewRange viewRange) {
+    /**
+     * Generates the vision percepts by sampling the visibility polygon of the agent. The polygon is sampled at the
+     * resolution the specifications ask for ({@link GameSettings#get___viewRays()}), plus one ray through the middle of
+     * every interval of the polygon and one ray through every agent in range. This way every visible object is hit at
+     * least once, no matter how small it is, and the amount of rays does not depend on the smallest object on the map.
+     * @param agentContainer
+     * @param fov
+     * @param viewRange
+     * @param <T>
+     * @return
+     */
+    private <T> Set<ObjectPercept> getObjectPerceptsForAgentVisibility(AgentContainer<T> agentContainer, FieldOfView fov, ViewRange viewRange) {
+        final double viewAngle = fov.getViewAngle().getRadians();
+        final Vector2[] cone = getAgentVisionConeStart(agentContainer, fov, viewRange);
+        final Vector2 startOfRay = cone[0];
+        final Vector2 ray = cone[1];
+        final double range = ray.length();
+
+        // --- Note: The tree returns the objects in the order of the map, so the indices still break ties the same way.
+        VisibilityPolygon visibilityPolygon = new VisibilityPolygon(getObjectTree().queryRange(BoundingBox.of(startOfRay, range)),
+                startOfRay, ray, viewAngle);
+
+        List<Double> angles = new ArrayList<>();
+        final int viewRays = gameSettings.get___viewRays();
+        final double stepAngle = viewAngle / viewRays;
+        for (int rayNum = 0; rayNum < viewRays; rayNum++) {
+            angles.add(stepAngle * rayNum);
+        }
+        for (double angle : visibilityPolygon.getSampleAngles()) {
+            angles.add(angle);
+        }
+        forEachAgentNear(startOfRay, range, agent -> {
+            if(agent != agentContainer && agent.getPosition().distance(startOfRay) <= range + AgentContainer._RADIUS)
+            {
+                final double angle = visibilityPolygon.angleOf(agent.getPosition());
+                if(angle <= viewAngle)
+                {
+                    angles.add(angle);
+                }
+            }
+        });
+
+        // --- Note: ObjectPercept does not implement equals, so every angle must only be cast once.
+        Set<ObjectPercept> objectsInSight = new HashSet<>();
+        angles.stream().sorted().distinct().forEach(angle -> {
+            PointContainer.Line line = new PointContainer.Line(startOfRay, startOfRay.add(ray.rotated(angle)), false);
+            objectsInSight.addAll(
+                    getObjectPerceptsInLineVisibility(visibilityPolygon, agentContainer, fov, line).stream()
+                            .filter(e -> fov.isInView(e.getPoint()))
+                            .collect(Collectors.toList())
+            );
+        });
+
+        return objectsInSight;
+    }
+
+    /**
+     * Casts the same rays as {@link GameMap#getAgentVisionCone(AgentContainer, FieldOfView, ViewRange)}, but only where
+     * they can make a difference. The cone is first sampled with a coarse fan (every {@link GameMap#_ADAPTIVE_STRIDE}th
+     * ray), and the rays in between two neighbouring rays are only cast if
+     *  - the two rays perceive different object types or hit something at very different depths, or
+     *  - there is a corner of a map object or an agent in between the two rays that is closer than what they hit.
+     *
+     * An object that lies between two rays, but is not hit by either of them, has a corner (or its centre in case of an
+     * agent) in between them. The only exception are edges that cut through the very end of the view range, but those
+     * are at most a sliver of the coarse fan's arc deep. The smallest step is still the one from
+     * {@link GameMap#calculateRequiredRays(FieldOfView)}.
+     * @param agentContainer
+     * @param fov
+     * @param viewRange
+     * @param <T>
+     * @return
+     */
+    private <T> Set<ObjectPercept> getObjectPerceptsForAgentAdaptive(AgentContainer<T> agentContainer, FieldOfView fov, ViewRange viewRange) {
+        final double viewAngle = fov.getViewAngle().getRadians();
+        final Vector2[] cone = getAgentVisionConeStart(agentContainer, fov, viewRange);
+        final Vector2 startOfRay = cone[0];
+        final Vector2 ray = cone[1];
+        final double range = ray.length();
+
+        final int viewRays = _OPTIMISE_RAYS ? this.calculateRequiredRays(fov) : gameSettings.get___viewRays();
+        final double stepAngle = viewAngle / viewRays;
+
+        final List<MapObject> filteredObjects = this.visionMode != VisionMode.BRUTE_FORCE ? null :
+                getFilteredObjects(agentContainer, agentContainer.getPosition(),
+                        viewRange == null ? fov.getRange().getValue() : viewRange.getMax() + viewRange.getMin(), null);
+
+        // --- corners of all objects and agents in the cone, sorted by their angle (measured from the first ray)
+        List<double[]> corners = new ArrayList<>();
+        final Vector2 first = ray.normalise();
+        final BiConsumer<Vector2, Double> addCorner = (point, radius) -> {
+            final Vector2 relative = point.sub(startOfRay);
+            final double distance = relative.length() - radius;
+            double angle = Math.atan2(first.getX() * relative.getY() - first.getY() * relative.getX(), first.dot(relative));
+            if(angle < 0) angle += Math.PI * 2;
+            if(distance <= range && angle <= viewAngle + stepAngle)
+            {
+                corners.add(new double[] { angle, distance });
+            }
+        };
+        for(MapObject mapObject : getObjectTree().queryRange(BoundingBox.of(startOfRay, range)))
+        {
+            for(Vector2 point : mapObject.getContainer().getAsPolygon().getPoints())
+            {
+                addCorner.accept(point, 0D);
+            }
+        }
+        forEachAgentNear(startOfRay, range, agent -> {
+            if(agent != agentContainer)
+            {
+                addCorner.accept(agent.getPosition(), AgentContainer._RADIUS);
+            }
+        });
+        corners.sort(Comparator.comparingDouble(e -> e[0]));
+
+        // --- cast the coarse fan and refine where necessary
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Set<ObjectPercept>[] percepts = new Set[viewRays];
+        final ObjectPerceptType[][] types = new ObjectPerceptType[viewRays][];
+        final double[] depths = new double[viewRays];
+
+        // --- Note: The field of view rejects some hits on the rays at the border of the cone due to rounding errors, so
+        //  those rays can not be trusted to represent their neighbours and the fan starts one ray further in.
+        Deque<int[]> queue = new ArrayDeque<>();
+        queue.add(new int[] { 0, Math.min(1, viewRays - 1) });
+        for(int rayNum = 1; rayNum < viewRays - 2; rayNum += _ADAPTIVE_STRIDE)
+        {
+            queue.add(new int[] { rayNum, Math.min(rayNum + _ADAPTIVE_STRIDE, viewRays - 2) });
+        }
+        queue.add(new int[] { Math.max(0, viewRays - 2), viewRays - 1 });
+
+        while (!queue.isEmpty())
+        {
+            final int[] pair = queue.poll();
+            for(int rayNum : pair)
+            {
+                if(percepts[rayNum] != null) continue;
+
+                PointContainer.Line line = new PointContainer.Line(startOfRay, startOfRay.add(ray.rotated(stepAngle * rayNum)), false);
+                percepts[rayNum] = this.visionMode == VisionMode.GRID ?
+                        getObjectPerceptsInLineGrid(agentContainer, fov, line) :
+                        getObjectPerceptsInLine(filteredObjects, agentContainer, fov, line);
+
+                List<ObjectPercept> sorted = percepts[rayNum].stream()
+                        .sorted(Comparator.comparingDouble(e -> e.getPoint().getDistanceFromOrigin().getValue()))
+                        .collect(Collectors.toList());
+                types[rayNum] = sorted.stream().map(ObjectPercept::getType).toArray(ObjectPerceptType[]::new);
+                depths[rayNum] = sorted.isEmpty() ? range : sorted.get(sorted.size() - 1).getPoint().getDistanceFromOrigin().getValue();
+            }
+
+            final int a = pair[0], b = pair[1];
+            if(b - a <= 1)
+            {
+                continue;
+            }
+
+            boolean refine = !Arrays.equals(types[a], types[b])
+                    || Math.abs(depths[a] - depths[b]) > _ADAPTIVE_DEPTH_RATIO * Math.min(depths[a], depths[b]);
+            if(!refine)
+            {
+                // --- Note: the depths are relative to the agent, the corners to the start of the ray, the difference is
+                //  at most the minimum of the view range which we simply add to be on the safe side.
+                final double depth = Math.max(depths[a], depths[b]) + (viewRange == null ? 0 : viewRange.getMin());
+                final double from = stepAngle * a, to = stepAngle * b;
+                int index = Collections.binarySearch(corners, new double[] { from }, Comparator.comparingDouble(e -> e[0]));
+                for(index = index < 0 ? -index - 1 : index; index < corners.size() && corners.get(index)[0] <= to; index++)
+                {
+                    if(corners.get(index)[1] <= depth)
+                    {
+                        refine = true;
+                        break;
+                    }
+                }
+            }
+
+            if(refine)
+            {
+                final int middle = (a + b) / 2;
+                queue.add(new int[] { a, middle });
+                queue.add(new int[] { middle, b });
+            }
+        }
+
+        Set<ObjectPercept> objectsInSight = new HashSet<>();
+        for(Set<ObjectPercept> rayPercepts : percepts)
+        {
+            if(rayPercepts == null) continue;
+            objectsInSight.addAll(
+                    rayPercepts.stream()
+                            .filter(e -> fov.isInView(e.getPoint()))
+                            .collect(Collectors.toList())
+            );
+        }
+        return objectsInSight;
+    }
+
+    /**
+     * @return The start of the rays and the first (clockwise-most) ray of the vision cone, the length of the ray is the
+     *  view range.
+     */
+    private Vector2[] getAgentVisionConeStart(AgentContainer<?> agentContainer, FieldOfView fov, ViewRange viewRange) {
         double range = fov.getRange().getValue();
         final double viewAngle = fov.getViewAngle().getRadians();
 
@@ -356,7 +851,14 @@ public class GameMap {
             range = viewRange.getMax();
         }
 
-        Vector2 ray = direction.mul(range).rotated(-viewAngle/2);
+        return new Vector2[] { startOfRay, direction.mul(range).rotated(-viewAngle/2) };
+    }
+
+    public <T> Set<Vector2[]> getAgentVisionCone(AgentContainer<T> agentContainer, FieldOfView fov, ViewRange viewRange) {
+        final double viewAngle = fov.getViewAngle().getRadians();
+        final Vector2[] cone = getAgentVisionConeStart(agentContainer, fov, viewRange);
+        final Vector2 startOfRay = cone[0];
+        final Vector2 ray = cone[1];
 
         int viewRays = _OPTIMISE_RAYS ? this.calculateRequiredRays(fov) : gameSettings.get___viewRays();
         double stepAngle = viewAngle / viewRays;
@@ -33,6 +33,10 @@ public class GameSettings {
 
     private int pheromoneExpireRounds;
 
+    // --- Note: 0 means no limit and no stalemate detection respectively.
+    private int maxTurns;
+    private int stalemateTurns;
+
     private int width, height;
 
     public GameSettings(ScenarioPercepts scenarioPercepts,
@@ -43,6 +47,23 @@ public class GameSettings {
                 Distance intruderViewRangeShaded, Distance guardViewRangeNormal, Distance guardViewRangeShaded,
                 ViewRange sentryViewRange, Distance yellSoundRadius, Distance moveMaxSoundRadius,
                 Distance windowSoundRadius, Distance doorSoundRadius, Angle viewAngle, int ___viewRays, int pheromoneExpireRounds
+    ) {
+        this(scenarioPercepts, width, height, guardMaxMoveDistance, turnsInTargetAreaToWin, intruderMaxMoveDistance,
+                intruderMaxSprintDistance, sprintCooldown, numGuards, numIntruders, intruderViewRangeNormal,
+                intruderViewRangeShaded, guardViewRangeNormal, guardViewRangeShaded, sentryViewRange, yellSoundRadius,
+                moveMaxSoundRadius, windowSoundRadius, doorSoundRadius, viewAngle, ___viewRays, pheromoneExpireRounds,
+                0, 0);
+    }
+
+    public GameSettings(ScenarioPercepts scenarioPercepts,
+                int width, int height,
+                Distance guardMaxMoveDistance,
+                int turnsInTargetAreaToWin, Distance intruderMaxMoveDistance, Distance intruderMaxSprintDistance,
+                int sprintCooldown, int numGuards, int numIntruders, Distance intruderViewRangeNormal,
+                Distance intruderViewRangeShaded, Distance guardViewRangeNormal, Distance guardViewRangeShaded,
+                ViewRange sentryViewRange, Distance yellSoundRadius, Distance moveMaxSoundRadius,
+                Distance windowSoundRadius, Distance doorSoundRadius, Angle viewAngle, int ___viewRays, int pheromoneExpireRounds,
+                int maxTurns, int stalemateTurns
     ) {
         this.scenarioPercepts = scenarioPercepts;
 
@@ -74,6 +95,9 @@ public class GameSettings {
         this.___viewRays = ___viewRays;
 
         this.pheromoneExpireRounds = pheromoneExpireRounds;
+
+        this.maxTurns = maxTurns;
+        this.stalemateTurns = stalemateTurns;
     }
 
     public ScenarioPercepts getScenarioPercepts() {
@@ -164,4 +188,19 @@ public class GameSettings {
         return  pheromoneExpireRounds;
     }
 
+    /**
+     * @return The amount of turns after which a game ends in a draw, 0 if there is no limit.
+     */
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    /**
+     * @return The amount of turns without any progress after which a game ends in a draw, 0 if stalemates are not
+     *         detected. See {@link Group9.StalemateDetector}.
+     */
+    public int getStalemateTurns() {
+        return stalemateTurns;
+    }
+
 }
@@ -0,0 +1,146 @@
+package Group9.map;
+
+import Group9.agent.container.AgentContainer;
+import Group9.map.area.EffectArea;
+import Group9.map.objects.MapObject;
+import Group9.map.vision.GridRayCaster;
+import Group9.tree.BoundingBox;
+import Group9.tree.PointContainer;
+import Group9.tree.QuadTree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.stream.Collectors;
+
+/**
+ * The static part of a map: the settings, the map objects and everything that can be derived from them (the ray
+ * constant and the spatial indices). A template is immutable once it has been created and can be shared by any amount
+ * of games, also if they run in parallel. Every game plays in its own {@link GameMap} that is created on top of the
+ * template and holds the state that changes during a game.
+ */
+public final class MapTemplate {
+
+    private final GameSettings gameSettings;
+    private final List<MapObject> mapObjects;
+
+    private final double rayConstant;
+    private final QuadTree<MapObject> objectTree;
+    private final GridRayCaster gridRayCaster;
+
+    public MapTemplate(GameSettings gameSettings, List<MapObject> mapObjects)
+    {
+        this.gameSettings = gameSettings;
+        this.mapObjects = Collections.unmodifiableList(new ArrayList<>(mapObjects));
+
+        this.rayConstant = calculateRayConstant(gameSettings, this.mapObjects);
+        this.objectTree = new QuadTree<>(this.mapObjects, MapObject::getContainer);
+        this.gridRayCaster = new GridRayCaster(this.mapObjects);
+    }
+
+    /**
+     * Creates a template from data that has been derived before, e.g. when loading a compiled map.
+     * @param gameSettings
+     * @param mapObjects
+     * @param rayConstant
+     * @param boxes The bounding boxes of the map objects, in the same order.
+     * @param gridRayCaster The grid over the same map objects.
+     */
+    public MapTemplate(GameSettings gameSettings, List<MapObject> mapObjects, double rayConstant, List<BoundingBox> boxes,
+                       GridRayCaster gridRayCaster)
+    {
+        this.gameSettings = gameSettings;
+        this.mapObjects = Collections.unmodifiableList(new ArrayList<>(mapObjects));
+
+        this.rayConstant = rayConstant;
+        this.objectTree = new QuadTree<>(this.mapObjects, boxes, MapObject::getContainer);
+        this.gridRayCaster = gridRayCaster;
+    }
+
+    public GameSettings getGameSettings() {
+        return gameSettings;
+    }
+
+    /**
+     * @return The map objects, the list cannot be modified.
+     */
+    public List<MapObject> getObjects() {
+        return mapObjects;
+    }
+
+    /**
+     * {@link GameMap#calculateRequiredRays(Interop.Percept.Vision.FieldOfView)}
+     * @return
+     */
+    public double getRayConstant() {
+        return rayConstant;
+    }
+
+    public QuadTree<MapObject> getObjectTree() {
+        return objectTree;
+    }
+
+    public GridRayCaster getGridRayCaster() {
+        return gridRayCaster;
+    }
+
+    /**
+     * Note: The specifications let the user specify the amount of rays that should be casted every time when we generate
+     * the vision percepts for the agents, this is wasteful. There is a very efficient way to reduce the amount of rays,
+     * and this is simply achieved by doing the following:
+     *
+     *      ceil((2 * a * r) / d) = n
+     *          a -> view angle (rad)
+     *          r -> view distance
+     *          d -> width of smallest object divided by two
+     *          n -> amount of rays required
+     *
+     *  The code below figures out what the smallest object is, and generates a constant that can simply be multiplied
+     *  by a * r to get n. {@link GameMap#calculateRequiredRays(Interop.Percept.Vision.FieldOfView)}.
+     *  Performing tests by letting play the same agent 100k turns, the newer method yielded a gain of 51% faster simulation
+     *  computation.
+     *
+     * @return
+     */
+    private static double calculateRayConstant(GameSettings gameSettings, Collection<MapObject> mapObjects)
+    {
+
+        double min = Math.min(AgentContainer._RADIUS,  // radius of agent
+                gameSettings.getScenarioPercepts().getRadiusPheromone().getValue() / gameSettings.getPheromoneExpireRounds());
+
+        Queue<PointContainer> containers = mapObjects.stream()
+                .map(e -> {
+                    List<PointContainer> pointContainers = new ArrayList<>();
+                    pointContainers.add(e.getContainer());
+                    pointContainers.addAll(e.getEffects().stream().map(EffectArea::getContainer).collect(Collectors.toList()));
+                    return pointContainers;
+                })
+                .flatMap(Collection::stream)
+                .collect(Collectors.toCollection(LinkedList::new));
+
+        for(PointContainer container : containers)
+        {
+            if(container instanceof PointContainer.Circle)
+            {
+                min = Math.min(min, container.getAsCircle().getRadius());
+            }
+            else if(container instanceof PointContainer.Polygon)
+            {
+                for(PointContainer.Line line : container.getAsPolygon().getLines())
+                {
+                    min = Math.min(min, line.getStart().distance(line.getEnd()) / 2);
+                }
+            }
+            else
+            {
+                throw new IllegalArgumentException(String.format("Unsupported PointContainer: %s", container.getClass().getName()));
+            }
+        }
+
+        return 2D / min;
+    }
+
+}
@@ -0,0 +1,28 @@
+package Group9.map;
+
+/**
+ * The different algorithms {@link GameMap#getObjectPerceptsForAgent} can use to generate the vision percepts. All of them
+ * produce the same kind of percepts, they only differ in how fast they are and in which rays are cast.
+ */
+public enum VisionMode {
+
+    /**
+     * Every ray is tested against every (not culled) map object and every agent.
+     */
+    BRUTE_FORCE,
+
+    /**
+     * Every ray walks through a uniform grid of the map object edges and stops at the first opaque hit.
+     * {@link Group9.map.vision.GridRayCaster}
+     */
+    GRID,
+
+    /**
+     * The visibility polygon of the agent is computed once, and then sampled at the resolution the specifications ask
+     * for plus one ray per interval of the polygon. Unlike the other modes, the amount of rays does not depend on the
+     * smallest object on the map.
+     * {@link Group9.map.vision.VisibilityPolygon}
+     */
+    VISIBILITY_POLYGON
+
+}
@@ -6,9 +6,13 @@ import Group9.tree.PointContainer;
 public abstract class DynamicObject<T> extends PointContainer.Circle implements Cloneable {
 
     private T source;
-    private int lifetime;
     private double radius;
 
+    // --- Note: While the object is part of a list of a map this is the tick it expires in, so it does not have to be
+    //  counted down every turn, otherwise it is the remaining lifetime.
+    private int lifetime;
+    DynamicObjectList list = null;
+
     public DynamicObject(T source, Vector2 center, double radius, int lifetime) {
         super(center, -1);
         this.radius = radius;
@@ -30,14 +34,55 @@ public abstract class DynamicObject<T> extends PointContainer.Circle implements
         this.radius = radius;
     }
 
+    /**
+     * @return The amount of ticks until the object expires.
+     */
     public int getLifetime() {
-        return lifetime;
+        return this.list == null ? this.lifetime : this.lifetime - this.list.getTick();
     }
 
     public void setLifetime(int lifetime) {
-        this.lifetime = lifetime;
+        if(this.list == null)
+        {
+            this.lifetime = lifetime;
+        }
+        else
+        {
+            this.lifetime = this.list.getTick() + lifetime;
+            this.list.reschedule(this);
+        }
+    }
+
+    /**
+     * @return The tick of the list the object expires in, only valid while it is part of one.
+     */
+    int getExpiryTick()
+    {
+        return this.lifetime;
+    }
+
+    void attach(DynamicObjectList list)
+    {
+        this.lifetime += list.getTick();
+        this.list = list;
+    }
+
+    void detach()
+    {
+        this.lifetime -= this.list.getTick();
+        this.list = null;
     }
 
     @Override
-    public abstract DynamicObject<T> clone();
+    public DynamicObject<T> clone()
+    {
+        return clone(getSource());
+    }
+
+    /**
+     * Copies the object, but with another source, e.g. the copy of the agent in a fork of the game.
+     * @param source
+     * @return
+     */
+    public abstract DynamicObject<T> clone(T source);
 }
@@ -0,0 +1,233 @@
+package Group9.map.dynamic;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.GuardContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.math.Vector2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A spatial hash of the sounds and pheromones of a map, so percepts only have to look at the objects close to an agent
+ * instead of all of them.
+ *
+ * Every object is put into all cells that its circle (grown by the radius of an agent) overlaps, separately for every
+ * {@link Layer}. The objects of a cell are kept in the order they have been added, so a query returns them in the same
+ * order as the list of all dynamic objects.
+ *
+ * Note: An object is stored with the circle it has when it is added. It may shrink (e.g. a pheromone that decays), but it
+ * must not grow or move while it is in the grid.
+ */
+public class DynamicObjectGrid {
+
+    // --- Note: Smells are perceived if the pheromone touches the agent, so every object covers the cells an agent could
+    //  touch it from.
+    private final static double _MARGIN = AgentContainer._RADIUS;
+
+    public enum Layer
+    {
+        SOUNDS,
+        GUARD_PHEROMONES,
+        INTRUDER_PHEROMONES;
+
+        /**
+         * @param object
+         * @return The layer of the object, or null if it is not stored in the grid.
+         */
+        public static Layer of(DynamicObject<?> object)
+        {
+            if(object instanceof Sound)
+            {
+                return SOUNDS;
+            }
+            else if(object instanceof Pheromone)
+            {
+                return pheromones(((Pheromone) object).getSource());
+            }
+            return null;
+        }
+
+        /**
+         * @param agent
+         * @return The layer of the pheromones the agent can smell, or null if the agent is not part of either team.
+         */
+        public static Layer pheromones(AgentContainer<?> agent)
+        {
+            if(agent instanceof GuardContainer)
+            {
+                return GUARD_PHEROMONES;
+            }
+            else if(agent instanceof IntruderContainer)
+            {
+                return INTRUDER_PHEROMONES;
+            }
+            return null;
+        }
+    }
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+
+    // --- [layer][row * columns + column], a cell is only allocated once something is added to it
+    private final List<DynamicObject<?>>[][] cells;
+    private final Map<DynamicObject<?>, int[]> registrations = new IdentityHashMap<>();
+
+    /**
+     * @param width The width of the map, objects outside of it are stored in the cells along the border.
+     * @param height
+     * @param cellSize
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DynamicObjectGrid(double width, double height, double cellSize)
+    {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new List[Layer.values().length][this.columns * this.rows];
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    private int column(double x)
+    {
+        return Math.max(0, Math.min(this.columns - 1, (int) Math.floor(x / this.cellSize)));
+    }
+
+    private int row(double y)
+    {
+        return Math.max(0, Math.min(this.rows - 1, (int) Math.floor(y / this.cellSize)));
+    }
+
+    /**
+     * Adds the object to the grid, objects that are not sounds or pheromones of one of the teams are ignored.
+     * @param object
+     */
+    public void add(DynamicObject<?> object)
+    {
+        final Layer layer = Layer.of(object);
+        if(layer == null)
+        {
+            return;
+        }
+
+        final Vector2 center = object.getCenter();
+        final double radius = object.getRadius() + _MARGIN;
+        final int[] registration = {
+                layer.ordinal(),
+                column(center.getX() - radius), row(center.getY() - radius),
+                column(center.getX() + radius), row(center.getY() + radius)
+        };
+        if(this.registrations.put(object, registration) != null)
+        {
+            throw new IllegalArgumentException("The object has already been added to the grid.");
+        }
+
+        final List<DynamicObject<?>>[] cells = this.cells[registration[0]];
+        for(int row = registration[2]; row <= registration[4]; row++)
+        {
+            for(int column = registration[1]; column <= registration[3]; column++)
+            {
+                final int cell = row * this.columns + column;
+                if(cells[cell] == null)
+                {
+                    cells[cell] = new ArrayList<>(4);
+                }
+                cells[cell].add(object);
+            }
+        }
+    }
+
+    public void remove(DynamicObject<?> object)
+    {
+        final int[] registration = this.registrations.remove(object);
+        if(registration == null)
+        {
+            return;
+        }
+
+        final List<DynamicObject<?>>[] cells = this.cells[registration[0]];
+        for(int row = registration[2]; row <= registration[4]; row++)
+        {
+            for(int column = registration[1]; column <= registration[3]; column++)
+            {
+                final List<DynamicObject<?>> cell = cells[row * this.columns + column];
+                for(int i = cell.size() - 1; i >= 0; i--)
+                {
+                    if(cell.get(i) == object)
+                    {
+                        cell.remove(i);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear()
+    {
+        this.registrations.clear();
+        for(List<DynamicObject<?>>[] layer : this.cells)
+        {
+            for(List<DynamicObject<?>> cell : layer)
+            {
+                if(cell != null)
+                {
+                    cell.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param layer
+     * @param point
+     * @return All objects of the layer that might touch an agent at the point, in the order they have been added. It
+     *  is a view that changes with the grid and has to be filtered by the exact condition.
+     */
+    public List<DynamicObject<?>> at(Layer layer, Vector2 point)
+    {
+        final List<DynamicObject<?>> cell = this.cells[layer.ordinal()][row(point.getY()) * this.columns + column(point.getX())];
+        return cell == null ? Collections.emptyList() : Collections.unmodifiableList(cell);
+    }
+
+    /**
+     * @param layer
+     * @param x
+     * @param y
+     * @param radius
+     * @param predicate The exact condition, it can be called more than once for the same object.
+     * @return Whether any object of the layer that might overlap the circle fulfills the predicate.
+     */
+    public boolean anyMatch(Layer layer, double x, double y, double radius, Predicate<DynamicObject<?>> predicate)
+    {
+        final List<DynamicObject<?>>[] cells = this.cells[layer.ordinal()];
+        for(int row = row(y - radius); row <= row(y + radius); row++)
+        {
+            for(int column = column(x - radius); column <= column(x + radius); column++)
+            {
+                final List<DynamicObject<?>> cell = cells[row * this.columns + column];
+                if(cell == null)
+                {
+                    continue;
+                }
+                for(int i = 0; i < cell.size(); i++)
+                {
+                    if(predicate.test(cell.get(i)))
+                    {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+}
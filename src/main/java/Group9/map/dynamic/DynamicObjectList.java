@@ -0,0 +1,151 @@
+package Group9.map.dynamic;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The dynamic objects of a map, in the order they have been added. Every change to the list is applied to the
+ * {@link DynamicObjectGrid} of the map as well.
+ *
+ * The list has its own clock: an object that is added stores the tick it expires in and is put into a
+ * {@link TimerWheel}, so {@link DynamicObjectList#expire()} only has to look at the objects that actually expire in a
+ * tick. Expired objects are dropped from the list in a single pass the next time it is read by index, or once they make
+ * up half of it.
+ */
+public class DynamicObjectList extends AbstractList<DynamicObject<?>> implements RandomAccess {
+
+    private final static int _SLOTS = 64;
+
+    private final List<DynamicObject<?>> objects = new ArrayList<>();
+    private final DynamicObjectGrid grid;
+    private final TimerWheel<DynamicObject<?>> wheel = new TimerWheel<>(_SLOTS, DynamicObject::getExpiryTick);
+
+    // --- the amount of expired objects that are still in the list of objects
+    private int expired = 0;
+
+    public DynamicObjectList(DynamicObjectGrid grid)
+    {
+        this.grid = grid;
+    }
+
+    /**
+     * @return The amount of times {@link DynamicObjectList#expire()} has been called.
+     */
+    public int getTick()
+    {
+        return this.wheel.getTick();
+    }
+
+    /**
+     * Moves on to the next tick and removes all objects whose lifetime has run out.
+     * @return The amount of objects that have been removed.
+     */
+    public int expire()
+    {
+        final int before = this.expired;
+        this.wheel.advance(object -> {
+            // --- Note: The wheel still contains objects that have been removed or rescheduled since.
+            if(object.list == this && object.getExpiryTick() <= getTick())
+            {
+                object.detach();
+                this.grid.remove(object);
+                this.expired++;
+            }
+        });
+
+        final int removed = this.expired - before;
+        if(removed > 0)
+        {
+            this.modCount++;
+            if(this.expired * 2 > this.objects.size())
+            {
+                compact();
+            }
+        }
+        return removed;
+    }
+
+    void reschedule(DynamicObject<?> object)
+    {
+        this.wheel.schedule(object);
+    }
+
+    private void compact()
+    {
+        if(this.expired > 0)
+        {
+            this.objects.removeIf(e -> e.list != this);
+            this.expired = 0;
+        }
+    }
+
+    private void attach(DynamicObject<?> object)
+    {
+        if(object.list != null)
+        {
+            throw new IllegalArgumentException("The object is already part of a list of dynamic objects.");
+        }
+        object.attach(this);
+        this.grid.add(object);
+        this.wheel.schedule(object);
+    }
+
+    private void detach(DynamicObject<?> object)
+    {
+        object.detach();
+        this.grid.remove(object);
+    }
+
+    @Override
+    public DynamicObject<?> get(int index) {
+        compact();
+        return this.objects.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.objects.size() - this.expired;
+    }
+
+    @Override
+    public void add(int index, DynamicObject<?> object) {
+        compact();
+        attach(object);
+        this.objects.add(index, object);
+        this.modCount++;
+    }
+
+    @Override
+    public DynamicObject<?> set(int index, DynamicObject<?> object) {
+        compact();
+        attach(object);
+        final DynamicObject<?> previous = this.objects.set(index, object);
+        detach(previous);
+        return previous;
+    }
+
+    @Override
+    public DynamicObject<?> remove(int index) {
+        compact();
+        final DynamicObject<?> removed = this.objects.remove(index);
+        detach(removed);
+        this.modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        compact();
+        for(DynamicObject<?> object : this.objects)
+        {
+            object.detach();
+        }
+        this.objects.clear();
+        this.grid.clear();
+        this.wheel.clear();
+        this.modCount++;
+    }
+
+}
@@ -11,12 +11,31 @@ public class Pheromone extends DynamicObject<AgentContainer<?>> {
     private final int initialLifetime;
 
     public Pheromone(SmellPerceptType type, AgentContainer<?> source, Vector2 center, double radius, int lifetime) {
-        super(source, center, radius, lifetime);
-        this.initialRadius = radius;
-        this.initialLifetime = lifetime;
+        this(type, source, center, lifetime, radius, lifetime);
+    }
+
+    private Pheromone(SmellPerceptType type, AgentContainer<?> source, Vector2 center, int lifetime,
+                      double initialRadius, int initialLifetime) {
+        super(source, center, initialRadius, lifetime);
+        this.initialRadius = initialRadius;
+        this.initialLifetime = initialLifetime;
         this.type = type;
     }
 
+    /**
+     * @return The radius shrinks with the lifetime of the pheromone, so it is computed when it is read instead of being
+     *  updated every turn.
+     */
+    @Override
+    public double getRadius()
+    {
+        if(this.initialLifetime <= 0)
+        {
+            return this.initialRadius;
+        }
+        return this.initialRadius * (getLifetime() / (double) this.initialLifetime);
+    }
+
     public double getInitialRadius()
     {
         return this.initialRadius;
@@ -32,6 +51,11 @@ public class Pheromone extends DynamicObject<AgentContainer<?>> {
 
     @Override
     public Pheromone clone() {
-        return new Pheromone(type, getSource(), getCenter(), getRadius(), getLifetime());
+        return clone(getSource());
+    }
+
+    @Override
+    public Pheromone clone(AgentContainer<?> source) {
+        return new Pheromone(type, source, getCenter(), getLifetime(), initialRadius, initialLifetime);
     }
 }
@@ -1,6 +1,7 @@
 package Group9.map.dynamic;
 
 import Group9.agent.container.AgentContainer;
+import Group9.math.Vector2;
 import Interop.Percept.Sound.SoundPerceptType;
 
 public class Sound extends DynamicObject<AgentContainer<?>> {
@@ -8,7 +9,11 @@ public class Sound extends DynamicObject<AgentContainer<?>> {
     private final SoundPerceptType type;
 
     public Sound(SoundPerceptType type, AgentContainer<?> source, double radius, int lifetime) {
-        super(source, source.getPosition(), radius, lifetime);
+        this(type, source, source.getPosition(), radius, lifetime);
+    }
+
+    private Sound(SoundPerceptType type, AgentContainer<?> source, Vector2 center, double radius, int lifetime) {
+        super(source, center, radius, lifetime);
         this.type = type;
     }
 
@@ -18,6 +23,12 @@ public class Sound extends DynamicObject<AgentContainer<?>> {
 
     @Override
     public Sound clone() {
-        return new Sound(type, getSource(), getRadius(), getLifetime());
+        return clone(getSource());
+    }
+
+    @Override
+    public Sound clone(AgentContainer<?> source) {
+        // --- Note: The sound stays where it has been made, even if the source has moved on since.
+        return new Sound(type, source, getCenter(), getRadius(), getLifetime());
     }
 }
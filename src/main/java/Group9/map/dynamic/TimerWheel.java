@@ -0,0 +1,134 @@
+package Group9.map.dynamic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * A hashed timer wheel: every tick has a slot with the items that expire in it, so advancing the wheel only looks at the
+ * items that actually expire and not at all items that are still alive.
+ *
+ * The wheel always has at least as many slots as an item is scheduled ahead, so a slot never contains items of a later
+ * round. If an item is scheduled further ahead the wheel grows.
+ *
+ * Note: Items are not removed from the wheel if they are cancelled, the consumer of {@link TimerWheel#advance(Consumer)}
+ * has to skip the ones that are not supposed to expire anymore.
+ * @param <T>
+ */
+public class TimerWheel<T> {
+
+    private final ToIntFunction<T> expiry;
+
+    private List<T>[] slots;
+    private List<T> spare = new ArrayList<>();
+    private int tick = 0;
+    private int size = 0;
+
+    /**
+     * @param slots The amount of slots the wheel starts with, it is rounded up to a power of two.
+     * @param expiry The tick an item expires in.
+     */
+    public TimerWheel(int slots, ToIntFunction<T> expiry)
+    {
+        this.expiry = expiry;
+        this.slots = createSlots(slots);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> List<T>[] createSlots(int slots)
+    {
+        return new List[Math.max(1, Integer.highestOneBit(Math.max(1, slots - 1)) << 1)];
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return The amount of items in the wheel, including the ones that have been cancelled.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules the item for the tick it expires in, items that already expired expire in the next tick.
+     * @param item
+     */
+    public void schedule(T item)
+    {
+        final int ticks = Math.max(1, this.expiry.applyAsInt(item) - this.tick);
+        if(ticks > this.slots.length)
+        {
+            grow(ticks);
+        }
+        put(this.slots, item, this.tick + ticks);
+        this.size++;
+    }
+
+    private static <T> void put(List<T>[] slots, T item, int tick)
+    {
+        final int slot = tick & (slots.length - 1);
+        if(slots[slot] == null)
+        {
+            slots[slot] = new ArrayList<>(4);
+        }
+        slots[slot].add(item);
+    }
+
+    private void grow(int ticks)
+    {
+        final List<T>[] slots = createSlots(ticks);
+        for(List<T> slot : this.slots)
+        {
+            if(slot == null)
+            {
+                continue;
+            }
+            for(T item : slot)
+            {
+                put(slots, item, this.tick + Math.max(1, this.expiry.applyAsInt(item) - this.tick));
+            }
+        }
+        this.slots = slots;
+    }
+
+    /**
+     * Moves on to the next tick.
+     * @param expired Called for every item scheduled for the new tick.
+     */
+    public void advance(Consumer<T> expired)
+    {
+        this.tick++;
+        final int index = this.tick & (this.slots.length - 1);
+        final List<T> slot = this.slots[index];
+        if(slot == null || slot.isEmpty())
+        {
+            return;
+        }
+
+        // --- Note: The slot is swapped out first, so items that are scheduled while it is drained end up in a fresh one.
+        this.slots[index] = this.spare;
+        this.size -= slot.size();
+        for(int i = 0; i < slot.size(); i++)
+        {
+            expired.accept(slot.get(i));
+        }
+        slot.clear();
+        this.spare = slot;
+    }
+
+    public void clear()
+    {
+        for(List<T> slot : this.slots)
+        {
+            if(slot != null)
+            {
+                slot.clear();
+            }
+        }
+        this.size = 0;
+    }
+
+}
@@ -7,6 +7,7 @@ import Group9.tree.PointContainer;
 import Interop.Percept.Vision.ObjectPerceptType;
 
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 public class TeleportArea extends MapObject {
 
@@ -25,7 +26,9 @@ public class TeleportArea extends MapObject {
                     new ModifyLocationEffect(this, getArea()) {
                         @Override
                         public Vector2 get(AgentContainer<?> agentContainer) {
-                            return TeleportArea.this.connected.getArea().getAsPolygon().generateRandomLocation();
+                            // --- Note: The game does not use this effect to teleport agents, it samples the location
+                            //  with its own random source, see Game#executeAction.
+                            return TeleportArea.this.connected.getArea().getAsPolygon().generateRandomLocation(new SplittableRandom());
                         }
                     }
             );
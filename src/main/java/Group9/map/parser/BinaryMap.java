@@ -0,0 +1,372 @@
+package Group9.map.parser;
+
+import Group9.map.GameSettings;
+import Group9.map.MapTemplate;
+import Group9.map.ViewRange;
+import Group9.map.objects.*;
+import Group9.map.vision.GridRayCaster;
+import Group9.math.Vector2;
+import Group9.tree.BoundingBox;
+import Group9.tree.PointContainer;
+import Interop.Geometry.Angle;
+import Interop.Geometry.Distance;
+import Interop.Percept.Scenario.GameMode;
+import Interop.Percept.Scenario.ScenarioPercepts;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled version of the text map format. Next to the settings and the map objects, a compiled map also stores all the
+ * data that {@link MapTemplate} derives from them: the ray constant, the bounding boxes of the objects, the grid of the
+ * {@link GridRayCaster} and the triangles of the spawn areas. Loading a compiled map therefore neither parses any text
+ * nor bins any edges, it is read straight from a memory-mapped file.
+ *
+ * Layout (big-endian):
+ *  - header: magic, version
+ *  - settings: every value the {@link Builder} accepts, absent distances are stored as NaN
+ *  - objects: count, then per object its kind and its polygon(s)
+ *  - derived: ray constant, bounding boxes, grid, spawn triangles
+ *
+ * Usage: BinaryMap <input.map> [output.bmap]
+ */
+public class BinaryMap {
+
+    public final static String _EXTENSION = ".bmap";
+
+    private final static int _MAGIC = 0x47394D50; // G9MP
+    private final static int _VERSION = 2;
+
+    private final static byte _WALL = 0;
+    private final static byte _TARGET_AREA = 1;
+    private final static byte _SPAWN_INTRUDERS = 2;
+    private final static byte _SPAWN_GUARDS = 3;
+    private final static byte _TELEPORT = 4;
+    private final static byte _SHADED = 5;
+    private final static byte _DOOR = 6;
+    private final static byte _WINDOW = 7;
+    private final static byte _SENTRY = 8;
+
+    /**
+     * Writes the template in the compiled format.
+     * @param template A template as created by the {@link Parser}.
+     * @param path
+     * @throws IOException
+     */
+    public static void write(MapTemplate template, Path path) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+        {
+            out.writeInt(_MAGIC);
+            out.writeInt(_VERSION);
+
+            writeSettings(out, template.getGameSettings());
+
+            // --- objects, a pair of connected teleports is stored as one entry just like in the text format
+            final List<MapObject> objects = template.getObjects();
+            int entries = 0;
+            for(int i = 0; i < objects.size(); i++, entries++)
+            {
+                if(isTeleportPair(objects, i)) i++;
+            }
+            out.writeInt(entries);
+            for(int i = 0; i < objects.size(); i++)
+            {
+                final MapObject object = objects.get(i);
+                if(isTeleportPair(objects, i))
+                {
+                    out.writeByte(_TELEPORT);
+                    writePolygon(out, object.getArea());
+                    writePolygon(out, objects.get(++i).getArea());
+                    continue;
+                }
+
+                out.writeByte(kindOf(object));
+                writePolygon(out, object.getArea());
+            }
+
+            // --- derived data
+            out.writeDouble(template.getRayConstant());
+
+            out.writeInt(objects.size());
+            for(MapObject object : objects)
+            {
+                BoundingBox box = BoundingBox.of(object.getContainer());
+                out.writeDouble(box.getMinX());
+                out.writeDouble(box.getMinY());
+                out.writeDouble(box.getMaxX());
+                out.writeDouble(box.getMaxY());
+            }
+
+            template.getGridRayCaster().write(out);
+
+            for(int i = 0; i < objects.size(); i++)
+            {
+                if(!(objects.get(i) instanceof Spawn)) continue;
+
+                final PointContainer.Polygon polygon = objects.get(i).getArea().getAsPolygon();
+                final List<Vector2[]> triangles = polygon.getTriangles();
+                out.writeInt(i);
+                out.writeInt(triangles.size());
+                for(Vector2[] triangle : triangles)
+                {
+                    for(Vector2 point : triangle)
+                    {
+                        out.writeInt(indexOf(polygon.getPoints(), point));
+                    }
+                }
+            }
+            out.writeInt(-1);
+        }
+    }
+
+    /**
+     * Loads a compiled map.
+     * @param path
+     * @return
+     * @throws IOException If the file cannot be read or is not a compiled map of this version.
+     */
+    public static MapTemplate read(Path path) throws IOException
+    {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if(buffer.getInt() != _MAGIC)
+        {
+            throw new IOException(String.format("%s is not a compiled map.", path));
+        }
+        final int version = buffer.getInt();
+        if(version != _VERSION)
+        {
+            throw new IOException(String.format("%s has version %d, but only version %d is supported.", path, version, _VERSION));
+        }
+
+        Builder builder = new Builder();
+        readSettings(buffer, builder);
+
+        final int entries = buffer.getInt();
+        for(int i = 0; i < entries; i++)
+        {
+            final byte kind = buffer.get();
+            final PointContainer.Polygon polygon = readPolygon(buffer);
+            switch (kind)
+            {
+                case _WALL: builder.wall(polygon); break;
+                case _TARGET_AREA: builder.targetArea(polygon); break;
+                case _SPAWN_INTRUDERS: builder.spawnAreaIntruders(polygon); break;
+                case _SPAWN_GUARDS: builder.spawnAreaGuards(polygon); break;
+                case _TELEPORT: builder.teleport(polygon, readPolygon(buffer)); break;
+                case _SHADED: builder.shaded(polygon); break;
+                case _DOOR: builder.door(polygon); break;
+                case _WINDOW: builder.window(polygon); break;
+                case _SENTRY: builder.sentry(null, polygon); break;
+                default:
+                    throw new IOException(String.format("%s contains an unknown object kind %d.", path, kind));
+            }
+        }
+        final List<MapObject> objects = builder.getObjects();
+
+        final double rayConstant = buffer.getDouble();
+
+        final int boxCount = buffer.getInt();
+        List<BoundingBox> boxes = new ArrayList<>(boxCount);
+        for(int i = 0; i < boxCount; i++)
+        {
+            boxes.add(new BoundingBox(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble()));
+        }
+
+        final GridRayCaster gridRayCaster = GridRayCaster.read(buffer, objects);
+
+        for(int index = buffer.getInt(); index != -1; index = buffer.getInt())
+        {
+            final PointContainer.Polygon polygon = objects.get(index).getArea().getAsPolygon();
+            final int count = buffer.getInt();
+            List<Vector2[]> triangles = new ArrayList<>(count);
+            for(int i = 0; i < count; i++)
+            {
+                triangles.add(new Vector2[] {
+                        polygon.getPoints()[buffer.getInt()], polygon.getPoints()[buffer.getInt()], polygon.getPoints()[buffer.getInt()]
+                });
+            }
+            polygon.setTriangles(triangles);
+        }
+
+        return new MapTemplate(builder.buildSettings(), objects, rayConstant, boxes, gridRayCaster);
+    }
+
+    private static boolean isTeleportPair(List<MapObject> objects, int i)
+    {
+        return objects.get(i) instanceof TeleportArea && i + 1 < objects.size()
+                && ((TeleportArea) objects.get(i)).getConnected() == objects.get(i + 1)
+                && ((TeleportArea) objects.get(i + 1)).getConnected() == objects.get(i);
+    }
+
+    private static byte kindOf(MapObject object)
+    {
+        if(object instanceof Wall) return _WALL;
+        if(object instanceof TargetArea) return _TARGET_AREA;
+        if(object instanceof Spawn.Intruder) return _SPAWN_INTRUDERS;
+        if(object instanceof Spawn.Guard) return _SPAWN_GUARDS;
+        if(object instanceof ShadedArea) return _SHADED;
+        if(object instanceof Door) return _DOOR;
+        if(object instanceof Window) return _WINDOW;
+        if(object instanceof SentryTower) return _SENTRY;
+
+        throw new IllegalArgumentException(String.format("Unsupported MapObject: %s", object.getClass().getName()));
+    }
+
+    private static int indexOf(Vector2[] points, Vector2 point)
+    {
+        for(int i = 0; i < points.length; i++)
+        {
+            if(points[i] == point) return i;
+        }
+        throw new IllegalArgumentException(String.format("%s is not a point of the polygon.", point));
+    }
+
+    private static void writePolygon(DataOutputStream out, PointContainer container) throws IOException
+    {
+        if(!(container instanceof PointContainer.Polygon))
+        {
+            throw new IllegalArgumentException(String.format("Unsupported PointContainer: %s", container.getClass().getName()));
+        }
+
+        final PointContainer.Polygon polygon = container.getAsPolygon();
+        out.writeInt(polygon.getPoints().length);
+        for(Vector2 point : polygon.getPoints())
+        {
+            out.writeDouble(point.getX());
+            out.writeDouble(point.getY());
+        }
+    }
+
+    private static PointContainer.Polygon readPolygon(ByteBuffer buffer)
+    {
+        Vector2[] points = new Vector2[buffer.getInt()];
+        for(int i = 0; i < points.length; i++)
+        {
+            points[i] = new Vector2(buffer.getDouble(), buffer.getDouble());
+        }
+        return new PointContainer.Polygon(points);
+    }
+
+    private static void writeSettings(DataOutputStream out, GameSettings settings) throws IOException
+    {
+        final ScenarioPercepts scenarioPercepts = settings.getScenarioPercepts();
+
+        out.writeInt(settings.getHeight());
+        out.writeInt(settings.getWidth());
+        out.writeInt(scenarioPercepts.getGameMode() == null ? -1 : scenarioPercepts.getGameMode().ordinal());
+        out.writeInt(settings.getTurnsInTargetAreaToWin());
+        out.writeInt(settings.getNumGuards());
+        out.writeInt(settings.getNumIntruders());
+
+        writeDistance(out, settings.getIntruderMaxMoveDistance());
+        writeDistance(out, settings.getIntruderMaxSprintDistance());
+        writeDistance(out, settings.getGuardMaxMoveDistance());
+
+        writeDistance(out, settings.getIntruderViewRangeNormal());
+        writeDistance(out, settings.getIntruderViewRangeShaded());
+        writeDistance(out, settings.getGuardViewRangeNormal());
+        writeDistance(out, settings.getGuardViewRangeShaded());
+        out.writeDouble(settings.getSentryViewRange() == null ? Double.NaN : settings.getSentryViewRange().getMin());
+        out.writeDouble(settings.getSentryViewRange() == null ? Double.NaN : settings.getSentryViewRange().getMax());
+        out.writeDouble(settings.getViewAngle() == null ? Double.NaN : settings.getViewAngle().getRadians());
+        out.writeInt(settings.get___viewRays());
+
+        writeDistance(out, settings.getYellSoundRadius());
+        writeDistance(out, settings.getMoveMaxSoundRadius());
+        writeDistance(out, settings.getWindowSoundRadius());
+        writeDistance(out, settings.getDoorSoundRadius());
+
+        writeDistance(out, scenarioPercepts.getCaptureDistance());
+        out.writeDouble(scenarioPercepts.getMaxRotationAngle() == null ? Double.NaN : scenarioPercepts.getMaxRotationAngle().getRadians());
+        out.writeDouble(scenarioPercepts.getSlowDownModifiers().getInWindow());
+        out.writeDouble(scenarioPercepts.getSlowDownModifiers().getInDoor());
+        out.writeDouble(scenarioPercepts.getSlowDownModifiers().getInSentryTower());
+
+        writeDistance(out, scenarioPercepts.getRadiusPheromone());
+        out.writeInt(scenarioPercepts.getPheromoneCooldown());
+        out.writeInt(settings.getSprintCooldown());
+        out.writeInt(settings.getPheromoneExpireRounds());
+        out.writeInt(settings.getMaxTurns());
+        out.writeInt(settings.getStalemateTurns());
+    }
+
+    private static void readSettings(ByteBuffer buffer, Builder builder)
+    {
+        builder.height(buffer.getInt());
+        builder.width(buffer.getInt());
+        final int gameMode = buffer.getInt();
+        if(gameMode != -1) builder.gameMode(GameMode.values()[gameMode]);
+        builder.winConditionIntruderRounds(buffer.getInt());
+        builder.numGuards(buffer.getInt());
+        builder.numIntruders(buffer.getInt());
+
+        double value;
+        if(!Double.isNaN(value = buffer.getDouble())) builder.intruderMaxMoveDistance(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.intruderMaxSprintDistance(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.guardMaxMoveDistance(value);
+
+        if(!Double.isNaN(value = buffer.getDouble())) builder.intruderViewRangeNormal(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.intruderViewRangeShaded(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.guardViewRangeNormal(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.guardViewRangeShaded(value);
+        final double sentryMin = buffer.getDouble();
+        final double sentryMax = buffer.getDouble();
+        if(!Double.isNaN(sentryMin)) builder.sentryViewRange(sentryMin, sentryMax);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.viewAngle(Angle.fromRadians(value));
+        builder.viewRays(buffer.getInt());
+
+        if(!Double.isNaN(value = buffer.getDouble())) builder.yellSoundRadius(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.moveMaxSoundRadius(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.windowSoundRadius(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.doorSoundRadius(value);
+
+        if(!Double.isNaN(value = buffer.getDouble())) builder.captureDistance(value);
+        if(!Double.isNaN(value = buffer.getDouble())) builder.maxRotationAngle(Angle.fromRadians(value));
+        builder.windowSlowdownModifier(buffer.getDouble());
+        builder.doorSlowdownModifier(buffer.getDouble());
+        builder.sentrySlowdownModifier(buffer.getDouble());
+
+        if(!Double.isNaN(value = buffer.getDouble())) builder.pheromoneRadius(value);
+        builder.pheromoneCooldown(buffer.getInt());
+        builder.sprintCooldown(buffer.getInt());
+        builder.pheromoneExpireRounds(buffer.getInt());
+        builder.maxTurns(buffer.getInt());
+        builder.stalemateTurns(buffer.getInt());
+    }
+
+    private static void writeDistance(DataOutputStream out, Distance distance) throws IOException
+    {
+        out.writeDouble(distance == null ? Double.NaN : distance.getValue());
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 1)
+        {
+            System.err.println("Usage: BinaryMap <input.map> [output.bmap]");
+            return;
+        }
+
+        final String output = args.length > 1 ? args[1] : args[0].replaceAll("\\.map$", "") + _EXTENSION;
+        write(Parser.parseTemplateFile(args[0]), Paths.get(output));
+        System.out.printf("Compiled %s to %s (%d bytes)\n", args[0], output, Files.size(Paths.get(output)));
+
+    }
+
+}
@@ -2,6 +2,7 @@ package Group9.map.parser;
 
 import Group9.map.GameMap;
 import Group9.map.GameSettings;
+import Group9.map.MapTemplate;
 import Group9.map.ViewRange;
 import Group9.map.objects.*;
 import Group9.tree.PointContainer;
@@ -52,6 +53,8 @@ public class Builder
     private int pheromoneCooldown;
     private int sprintCooldown;
     private int pheromoneExpireRounds;
+    private int maxTurns;
+    private int stalemateTurns;
 
     private List<MapObject> objects = new ArrayList<>();
 
@@ -131,7 +134,12 @@ public class Builder
 
     public Builder viewAngle(double angle)
     {
-        this.viewAngle = Angle.fromDegrees(angle);
+        return viewAngle(Angle.fromDegrees(angle));
+    }
+
+    public Builder viewAngle(Angle angle)
+    {
+        this.viewAngle = angle;
         return this;
     }
 
@@ -191,7 +199,12 @@ public class Builder
 
     public Builder maxRotationAngle(double maxRotationAngle)
     {
-        this.maxRotationAngle = Angle.fromDegrees(maxRotationAngle);
+        return maxRotationAngle(Angle.fromDegrees(maxRotationAngle));
+    }
+
+    public Builder maxRotationAngle(Angle maxRotationAngle)
+    {
+        this.maxRotationAngle = maxRotationAngle;
         return this;
     }
 
@@ -230,6 +243,18 @@ public class Builder
         return this;
     }
 
+    public Builder maxTurns(int turns)
+    {
+        this.maxTurns = turns;
+        return this;
+    }
+
+    public Builder stalemateTurns(int turns)
+    {
+        this.stalemateTurns = turns;
+        return this;
+    }
+
     public Builder wall(PointContainer.Polygon quadrilateral){
         this.object(new Wall(quadrilateral));
         return this;
@@ -295,17 +320,32 @@ public class Builder
 
 
     public GameMap build()
+    {
+        return new GameMap(buildTemplate());
+    }
+
+    public MapTemplate buildTemplate()
+    {
+        return new MapTemplate(buildSettings(), this.objects);
+    }
+
+    GameSettings buildSettings()
     {
         ScenarioPercepts scenarioPercepts = new ScenarioPercepts(gameMode, this.captureDistance, this.maxRotationAngle,
                 new SlowDownModifiers(this.windowSlowdownModifier, this.doorSlowdownModifier, this.sentrySlowdownModifier),
                 this.pheromoneRadius, this.pheromoneCooldown);
 
-        return new GameMap(new GameSettings(scenarioPercepts, this.width, this.height,
+        return new GameSettings(scenarioPercepts, this.width, this.height,
                 this.guardMaxMoveDistance, this.winRounds, this.intruderMaxMoveDistance, this.intruderMaxSprintDistance,
                 this.sprintCooldown, this.numGuards, this.numIntruders, this.intruderViewRangeNormal, this.intruderViewRangeShaded,
                 this.guardViewRangeNormal, this.guardViewRangeShaded, this.sentryViewRange, this.yellSoundRadius,
-                this.moveMaxSoundRadius, this.windowSoundRadius, this.doorSoundRadius, this.viewAngle, this.viewRays, this.pheromoneExpireRounds)
-        , this.objects);
+                this.moveMaxSoundRadius, this.windowSoundRadius, this.doorSoundRadius, this.viewAngle, this.viewRays, this.pheromoneExpireRounds,
+                this.maxTurns, this.stalemateTurns);
+    }
+
+    List<MapObject> getObjects()
+    {
+        return this.objects;
     }
 
 
@@ -0,0 +1,538 @@
+package Group9.map.parser;
+
+import Group9.map.MapTemplate;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import Interop.Percept.Scenario.GameMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Generates maze-like maps through the {@link Builder}. The map is a grid of square cells, and the walls between the
+ * cells are carved out by a randomised depth-first search, so every cell can be reached from every other cell. Some of
+ * the remaining walls are removed to create loops, and some of the openings get a door or a window.
+ *
+ * The guards spawn in a room in the lower left corner, the intruders in a room in the upper right corner and the target
+ * area is in the lower right cell. The rooms grow with the amount of agents. Sentry towers, teleports and shaded areas
+ * are placed in the middle of random cells, none of them is ever placed in a room or in the target cell.
+ *
+ * The same seed and parameters always generate the same map, so {@link MapGenerator#generate()} and
+ * {@link MapGenerator#write(Path)} describe the exact same map.
+ */
+public class MapGenerator {
+
+    // --- Note: The gaps of doors and windows take up half of the edge, so they are always wider than an agent.
+    private final static double _WALL_THICKNESS = 1;
+    private final static double _MIN_CELL_SIZE = 4;
+
+    private final long seed;
+
+    private int columns = 12;
+    private int rows = 12;
+    private double cellSize = 8;
+    private int guards = 4;
+    private int intruders = 3;
+
+    private double loopRate = 0.1;
+    private double doorRate = 0.1;
+    private double windowRate = 0.05;
+    private int sentryTowers = 2;
+    private int teleports = 1;
+    private int shadedAreas = 4;
+
+    public MapGenerator(long seed)
+    {
+        this.seed = seed;
+    }
+
+    public MapGenerator columns(int columns)
+    {
+        this.columns = columns;
+        return this;
+    }
+
+    public MapGenerator rows(int rows)
+    {
+        this.rows = rows;
+        return this;
+    }
+
+    public MapGenerator cellSize(double cellSize)
+    {
+        this.cellSize = cellSize;
+        return this;
+    }
+
+    public MapGenerator guards(int guards)
+    {
+        this.guards = guards;
+        return this;
+    }
+
+    public MapGenerator intruders(int intruders)
+    {
+        this.intruders = intruders;
+        return this;
+    }
+
+    /**
+     * @param loopRate The probability that a wall the maze does not need is removed anyway.
+     * @return
+     */
+    public MapGenerator loopRate(double loopRate)
+    {
+        this.loopRate = loopRate;
+        return this;
+    }
+
+    /**
+     * @param doorRate The probability that an opening gets a door.
+     * @return
+     */
+    public MapGenerator doorRate(double doorRate)
+    {
+        this.doorRate = doorRate;
+        return this;
+    }
+
+    /**
+     * @param windowRate The probability that an opening gets a window.
+     * @return
+     */
+    public MapGenerator windowRate(double windowRate)
+    {
+        this.windowRate = windowRate;
+        return this;
+    }
+
+    public MapGenerator sentryTowers(int sentryTowers)
+    {
+        this.sentryTowers = sentryTowers;
+        return this;
+    }
+
+    /**
+     * @param teleports The amount of connected pairs of teleport areas.
+     * @return
+     */
+    public MapGenerator teleports(int teleports)
+    {
+        this.teleports = teleports;
+        return this;
+    }
+
+    public MapGenerator shadedAreas(int shadedAreas)
+    {
+        this.shadedAreas = shadedAreas;
+        return this;
+    }
+
+    public double getWidth()
+    {
+        return columns * cellSize;
+    }
+
+    public double getHeight()
+    {
+        return rows * cellSize;
+    }
+
+    public MapTemplate generate()
+    {
+        Output output = new Output(true);
+        generate(output);
+        return output.builder.buildTemplate();
+    }
+
+    /**
+     * @return The lines of the map file.
+     */
+    public List<String> toLines()
+    {
+        Output output = new Output(false);
+        generate(output);
+        return output.lines;
+    }
+
+    /**
+     * Writes the map in the format of the {@link Parser}.
+     * @param path
+     * @throws IOException
+     */
+    public void write(Path path) throws IOException
+    {
+        Files.write(path, toLines());
+    }
+
+    private void generate(Output output)
+    {
+        if(cellSize < _MIN_CELL_SIZE)
+        {
+            throw new IllegalArgumentException(String.format("The cells have to be at least %.1f units wide.", _MIN_CELL_SIZE));
+        }
+
+        final int guardRoom = roomSize(guards);
+        final int intruderRoom = roomSize(intruders);
+        // --- the guard room in the lower left, the intruder room in the upper right and the target in the lower right
+        //  cell must not overlap
+        if(guardRoom >= columns || intruderRoom >= rows || (columns - intruderRoom < guardRoom && rows - intruderRoom < guardRoom))
+        {
+            throw new IllegalArgumentException(String.format("A %dx%d map is too small for %d guards and %d intruders.",
+                    columns, rows, guards, intruders));
+        }
+
+        final SplittableRandom random = new SplittableRandom(this.seed);
+        final boolean[][] reserved = new boolean[columns][rows];
+        for(int x = 0; x < guardRoom; x++) for(int y = 0; y < guardRoom; y++) reserved[x][y] = true;
+        for(int x = columns - intruderRoom; x < columns; x++) for(int y = rows - intruderRoom; y < rows; y++) reserved[x][y] = true;
+        reserved[columns - 1][0] = true;
+
+        settings(output);
+
+        // --- openEast[x][y]: between (x, y) and (x + 1, y), openNorth[x][y]: between (x, y) and (x, y + 1)
+        final boolean[][] openEast = new boolean[columns - 1][rows];
+        final boolean[][] openNorth = new boolean[columns][rows - 1];
+        carveMaze(random, openEast, openNorth);
+
+        for(int x = 0; x < columns - 1; x++)
+        {
+            for(int y = 0; y < rows; y++)
+            {
+                if(!openEast[x][y] && (random.nextDouble() < loopRate || (inRoom(x, y, guardRoom, intruderRoom) && inRoom(x + 1, y, guardRoom, intruderRoom))))
+                {
+                    openEast[x][y] = true;
+                }
+            }
+        }
+        for(int x = 0; x < columns; x++)
+        {
+            for(int y = 0; y < rows - 1; y++)
+            {
+                if(!openNorth[x][y] && (random.nextDouble() < loopRate || (inRoom(x, y, guardRoom, intruderRoom) && inRoom(x, y + 1, guardRoom, intruderRoom))))
+                {
+                    openNorth[x][y] = true;
+                }
+            }
+        }
+
+        // --- border
+        final double width = getWidth(), height = getHeight();
+        output.wall(rectangle(0, 0, width, _WALL_THICKNESS));
+        output.wall(rectangle(0, height - _WALL_THICKNESS, width, height));
+        output.wall(rectangle(0, _WALL_THICKNESS, _WALL_THICKNESS, height - _WALL_THICKNESS));
+        output.wall(rectangle(width - _WALL_THICKNESS, _WALL_THICKNESS, width, height - _WALL_THICKNESS));
+
+        // --- inner edges
+        final double half = _WALL_THICKNESS / 2;
+        for(int x = 0; x < columns - 1; x++)
+        {
+            for(int y = 0; y < rows; y++)
+            {
+                final double line = (x + 1) * cellSize;
+                edge(output, random, openEast[x][y] && !(inRoom(x, y, guardRoom, intruderRoom) && inRoom(x + 1, y, guardRoom, intruderRoom)),
+                        !openEast[x][y], line - half, y * cellSize, line + half, (y + 1) * cellSize, false);
+            }
+        }
+        for(int x = 0; x < columns; x++)
+        {
+            for(int y = 0; y < rows - 1; y++)
+            {
+                final double line = (y + 1) * cellSize;
+                edge(output, random, openNorth[x][y] && !(inRoom(x, y, guardRoom, intruderRoom) && inRoom(x, y + 1, guardRoom, intruderRoom)),
+                        !openNorth[x][y], x * cellSize, line - half, (x + 1) * cellSize, line + half, true);
+            }
+        }
+
+        // --- spawns and target, 1.5 units away from the cell borders so they do not touch any wall
+        final double margin = 1.5;
+        output.add("spawnAreaGuards", rectangle(margin, margin, guardRoom * cellSize - margin, guardRoom * cellSize - margin));
+        output.add("spawnAreaIntruders", rectangle((columns - intruderRoom) * cellSize + margin, (rows - intruderRoom) * cellSize + margin,
+                width - margin, height - margin));
+        output.add("targetArea", centred(columns - 1, 0, cellSize - 2 * margin));
+
+        // --- features in the middle of free cells
+        List<int[]> free = new ArrayList<>();
+        for(int x = 0; x < columns; x++)
+        {
+            for(int y = 0; y < rows; y++)
+            {
+                if(!reserved[x][y]) free.add(new int[] { x, y });
+            }
+        }
+
+        for(int i = 0; i < sentryTowers && !free.isEmpty(); i++)
+        {
+            final int[] cell = free.remove(random.nextInt(free.size()));
+            output.add("sentry", centred(cell[0], cell[1], 3), centred(cell[0], cell[1], 2));
+        }
+        for(int i = 0; i < teleports && free.size() >= 2; i++)
+        {
+            final int[] a = free.remove(random.nextInt(free.size()));
+            final int[] b = free.remove(random.nextInt(free.size()));
+            output.add("teleportArea", centred(a[0], a[1], 2), centred(b[0], b[1], 2));
+        }
+        for(int i = 0; i < shadedAreas && !free.isEmpty(); i++)
+        {
+            final int[] cell = free.remove(random.nextInt(free.size()));
+            output.add("shaded", centred(cell[0], cell[1], cellSize - 2 * margin));
+        }
+    }
+
+    /**
+     * Randomised depth-first search, which opens exactly the edges of a spanning tree over all cells.
+     */
+    private void carveMaze(SplittableRandom random, boolean[][] openEast, boolean[][] openNorth)
+    {
+        final boolean[][] visited = new boolean[columns][rows];
+        final Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[] { 0, 0 });
+        visited[0][0] = true;
+
+        final int[][] directions = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+        final int[] candidates = new int[4];
+        while (!stack.isEmpty())
+        {
+            final int[] cell = stack.peek();
+            int count = 0;
+            for(int i = 0; i < directions.length; i++)
+            {
+                final int nx = cell[0] + directions[i][0], ny = cell[1] + directions[i][1];
+                if(nx >= 0 && ny >= 0 && nx < columns && ny < rows && !visited[nx][ny])
+                {
+                    candidates[count++] = i;
+                }
+            }
+
+            if(count == 0)
+            {
+                stack.pop();
+                continue;
+            }
+
+            final int[] direction = directions[candidates[random.nextInt(count)]];
+            final int nx = cell[0] + direction[0], ny = cell[1] + direction[1];
+            if(direction[0] != 0)
+            {
+                openEast[Math.min(cell[0], nx)][ny] = true;
+            }
+            else
+            {
+                openNorth[nx][Math.min(cell[1], ny)] = true;
+            }
+            visited[nx][ny] = true;
+            stack.push(new int[] { nx, ny });
+        }
+    }
+
+    /**
+     * Adds the objects of a single edge between two cells: a wall if it is closed, otherwise nothing, a door or a
+     * window in the middle of it with walls on both sides.
+     */
+    private void edge(Output output, SplittableRandom random, boolean decorate, boolean closed, double x1, double y1,
+                      double x2, double y2, boolean horizontal)
+    {
+        if(closed)
+        {
+            output.wall(rectangle(x1, y1, x2, y2));
+            return;
+        }
+
+        if(!decorate)
+        {
+            return;
+        }
+
+        final double roll = random.nextDouble();
+        final String type = roll < doorRate ? "door" : (roll < doorRate + windowRate ? "window" : null);
+        if(type == null)
+        {
+            return;
+        }
+
+        final double quarter = cellSize / 4;
+        if(horizontal)
+        {
+            output.wall(rectangle(x1, y1, x1 + quarter, y2));
+            output.add(type, rectangle(x1 + quarter, y1, x2 - quarter, y2));
+            output.wall(rectangle(x2 - quarter, y1, x2, y2));
+        }
+        else
+        {
+            output.wall(rectangle(x1, y1, x2, y1 + quarter));
+            output.add(type, rectangle(x1, y1 + quarter, x2, y2 - quarter));
+            output.wall(rectangle(x1, y2 - quarter, x2, y2));
+        }
+    }
+
+    private boolean inRoom(int x, int y, int guardRoom, int intruderRoom)
+    {
+        return (x < guardRoom && y < guardRoom) || (x >= columns - intruderRoom && y >= rows - intruderRoom);
+    }
+
+    /**
+     * @return The amount of cells per side of a room, so that the agents cover at most ~30% of the spawn area.
+     */
+    private int roomSize(int agents)
+    {
+        final double side = Math.sqrt(agents * Math.PI * 0.25 / 0.3) + 3;
+        return Math.max(1, (int) Math.ceil(side / cellSize));
+    }
+
+    private PointContainer.Polygon centred(int x, int y, double size)
+    {
+        final double cx = (x + 0.5) * cellSize, cy = (y + 0.5) * cellSize;
+        return rectangle(cx - size / 2, cy - size / 2, cx + size / 2, cy + size / 2);
+    }
+
+    private static PointContainer.Polygon rectangle(double x1, double y1, double x2, double y2)
+    {
+        return new PointContainer.Polygon(new Vector2(x1, y1), new Vector2(x1, y2), new Vector2(x2, y2), new Vector2(x2, y1));
+    }
+
+    /**
+     * Same settings as mazy.map, with the size and the amount of agents of this map.
+     */
+    private void settings(Output output)
+    {
+        output.setting("gameMode", 0);
+        output.setting("height", (int) Math.ceil(getHeight()));
+        output.setting("width", (int) Math.ceil(getWidth()));
+        output.setting("numGuards", guards);
+        output.setting("numIntruders", intruders);
+        output.setting("captureDistance", 0.5);
+        output.setting("winConditionIntruderRounds", 1);
+        output.setting("maxRotationAngle", 45.0);
+        output.setting("maxMoveDistanceIntruder", 1.4);
+        output.setting("maxSprintDistanceIntruder", 4.0);
+        output.setting("maxMoveDistanceGuard", 1.4);
+        output.setting("sprintCooldown", 2);
+        output.setting("pheromoneCooldown", 3);
+        output.setting("radiusPheromone", 5.0);
+        output.setting("slowDownModifierWindow", 0.5);
+        output.setting("slowDownModifierDoor", 0.5);
+        output.setting("slowDownModifierSentryTower", 0.1);
+        output.setting("viewAngle", 45.0);
+        output.setting("viewRays", 45);
+        output.setting("viewRangeIntruderNormal", 7.5);
+        output.setting("viewRangeIntruderShaded", 4.0);
+        output.setting("viewRangeGuardNormal", 6.0);
+        output.setting("viewRangeGuardShaded", 3.5);
+        output.setting("viewRangeSentry", 2.0, 20.0);
+        output.setting("yellSoundRadius", 30.0);
+        output.setting("maxMoveSoundRadius", 10.0);
+        output.setting("windowSoundRadius", 10.0);
+        output.setting("doorSoundRadius", 5.0);
+        output.setting("pheromoneExpireRounds", 5);
+
+        output.builder.gameMode(GameMode.CaptureAllIntruders)
+                .height((int) Math.ceil(getHeight())).width((int) Math.ceil(getWidth()))
+                .numGuards(guards).numIntruders(intruders)
+                .captureDistance(0.5).winConditionIntruderRounds(1).maxRotationAngle(45)
+                .intruderMaxMoveDistance(1.4).intruderMaxSprintDistance(4).guardMaxMoveDistance(1.4)
+                .sprintCooldown(2).pheromoneCooldown(3).pheromoneRadius(5)
+                .windowSlowdownModifier(0.5).doorSlowdownModifier(0.5).sentrySlowdownModifier(0.1)
+                .viewAngle(45).viewRays(45)
+                .intruderViewRangeNormal(7.5).intruderViewRangeShaded(4)
+                .guardViewRangeNormal(6).guardViewRangeShaded(3.5).sentryViewRange(2, 20)
+                .yellSoundRadius(30).moveMaxSoundRadius(10).windowSoundRadius(10).doorSoundRadius(5)
+                .pheromoneExpireRounds(5);
+    }
+
+    /**
+     * Either feeds the objects to a {@link Builder} or writes them as lines of a map file.
+     */
+    private static class Output {
+
+        private final boolean build;
+        private final Builder builder = new Builder();
+        private final List<String> lines = new ArrayList<>();
+
+        private Output(boolean build)
+        {
+            this.build = build;
+        }
+
+        private void setting(String key, Object... values)
+        {
+            StringBuilder line = new StringBuilder(key).append(" = ");
+            for(int i = 0; i < values.length; i++)
+            {
+                if(i > 0) line.append(", ");
+                line.append(values[i]);
+            }
+            this.lines.add(line.toString());
+        }
+
+        private void wall(PointContainer.Polygon polygon)
+        {
+            add("wall", polygon);
+        }
+
+        private void add(String type, PointContainer.Polygon... polygons)
+        {
+            if(this.build)
+            {
+                switch (type)
+                {
+                    case "wall": builder.wall(polygons[0]); break;
+                    case "door": builder.door(polygons[0]); break;
+                    case "window": builder.window(polygons[0]); break;
+                    case "shaded": builder.shaded(polygons[0]); break;
+                    case "targetArea": builder.targetArea(polygons[0]); break;
+                    case "spawnAreaGuards": builder.spawnAreaGuards(polygons[0]); break;
+                    case "spawnAreaIntruders": builder.spawnAreaIntruders(polygons[0]); break;
+                    case "sentry": builder.sentry(polygons[0], polygons[1]); break;
+                    case "teleportArea": builder.teleport(polygons[0], polygons[1]); break;
+                    default: throw new IllegalArgumentException(String.format("Unsupported map object: %s", type));
+                }
+                return;
+            }
+
+            StringBuilder line = new StringBuilder(type).append(" = ");
+            boolean first = true;
+            for(PointContainer.Polygon polygon : polygons)
+            {
+                for(Vector2 point : polygon.getPoints())
+                {
+                    if(!first) line.append(',');
+                    line.append(String.format(Locale.ROOT, "%s,%s", point.getX(), point.getY()));
+                    first = false;
+                }
+            }
+            this.lines.add(line.toString());
+        }
+
+    }
+
+    /**
+     * Usage: MapGenerator <output> <columns> <rows> <guards> <intruders> [seed]
+     */
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 5)
+        {
+            System.err.println("Usage: MapGenerator <output> <columns> <rows> <guards> <intruders> [seed]");
+            return;
+        }
+
+        MapGenerator generator = new MapGenerator(args.length > 5 ? Long.parseLong(args[5]) : 0)
+                .columns(Integer.parseInt(args[1]))
+                .rows(Integer.parseInt(args[2]))
+                .guards(Integer.parseInt(args[3]))
+                .intruders(Integer.parseInt(args[4]));
+        generator.write(Paths.get(args[0]));
+        System.out.printf("Generated a %.0fx%.0f map with %d objects.\n", generator.getWidth(), generator.getHeight(),
+                generator.generate().getObjects().size());
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package Group9.map.parser;
 
 import Group9.map.GameMap;
+import Group9.map.MapTemplate;
 import Group9.math.Vector2;
 import Group9.tree.PointContainer;
 import Interop.Percept.Scenario.GameMode;
@@ -8,191 +9,234 @@ import Interop.Percept.Scenario.GameMode;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
 
 public class Parser {
 
     public static GameMap parseFile(String path)
     {
-        Builder builder = new Builder();
+        return new GameMap(parseTemplateFile(path));
+    }
 
+    /**
+     * Parses the map file into a template that can be shared by many games, see {@link MapTemplate}. Compiled maps
+     * ({@link BinaryMap#_EXTENSION}) are loaded directly.
+     * @param path
+     * @return
+     */
+    public static MapTemplate parseTemplateFile(String path)
+    {
         try {
-            Files.lines(Paths.get(path)).forEachOrdered(line -> {
+            if(path.endsWith(BinaryMap._EXTENSION))
+            {
+                return BinaryMap.read(Paths.get(path));
+            }
+            return parseTemplate(Files.readAllLines(Paths.get(path)));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
 
-                String trimmed = line.trim();
+        return new Builder().buildTemplate();
+    }
 
-                if(trimmed.isEmpty())
-                {
-                    return;
-                }
+    /**
+     * Parses a map that has already been read into memory.
+     * @param lines The lines of the map file.
+     * @return
+     */
+    public static GameMap parse(List<String> lines)
+    {
+        return new GameMap(parseTemplate(lines));
+    }
+
+    /**
+     * {@link Parser#parseTemplateFile(String)}
+     * @param lines The lines of the map file.
+     * @return
+     */
+    public static MapTemplate parseTemplate(List<String> lines)
+    {
+        Builder builder = new Builder();
+
+        lines.forEach(line -> {
+
+            String trimmed = line.trim();
+
+            if(trimmed.isEmpty())
+            {
+                return;
+            }
 
-                if(!trimmed.startsWith("//"))
+            if(!trimmed.startsWith("//"))
+            {
+                String[] split = trimmed.split("=");
+                String type = split[0].trim();
+                String[] data = split[1].trim().split(",");
+
+                switch (type.toLowerCase())
                 {
-                    String[] split = trimmed.split("=");
-                    String type = split[0].trim();
-                    String[] data = split[1].trim().split(",");
-
-                    switch (type.toLowerCase())
-                    {
-                        case "wall": {
-                            builder.wall((quadrilateralFromData(data)));
-                        } break;
+                    case "wall": {
+                        builder.wall((quadrilateralFromData(data)));
+                    } break;
 
-                        case "targetarea": {
-                            builder.targetArea(quadrilateralFromData(data));
-                        } break;
+                    case "targetarea": {
+                        builder.targetArea(quadrilateralFromData(data));
+                    } break;
 
-                        case "spawnareaintruders": {
-                            builder.spawnAreaIntruders(quadrilateralFromData(data));
-                        } break;
+                    case "spawnareaintruders": {
+                        builder.spawnAreaIntruders(quadrilateralFromData(data));
+                    } break;
 
-                        case "spawnareaguards": {
-                            builder.spawnAreaGuards(quadrilateralFromData(data));
-                        } break;
+                    case "spawnareaguards": {
+                        builder.spawnAreaGuards(quadrilateralFromData(data));
+                    } break;
 
-                        case "teleportarea": {
-                            builder.teleport(quadrilateralFromData(data), quadrilateralFromData(data, 8));
-                        } break;
+                    case "teleportarea": {
+                        builder.teleport(quadrilateralFromData(data), quadrilateralFromData(data, 8));
+                    } break;
 
-                        case "shaded": {
-                            builder.shaded(quadrilateralFromData(data));
-                        } break;
+                    case "shaded": {
+                        builder.shaded(quadrilateralFromData(data));
+                    } break;
 
-                        case "door": {
-                            builder.door(quadrilateralFromData(data));
-                        } break;
+                    case "door": {
+                        builder.door(quadrilateralFromData(data));
+                    } break;
 
-                        case "window": {
-                            builder.window(quadrilateralFromData(data));
-                        } break;
+                    case "window": {
+                        builder.window(quadrilateralFromData(data));
+                    } break;
 
-                        case "sentry": {
-                            builder.sentry(quadrilateralFromData(data), quadrilateralFromData(data, 8));
-                        } break;
+                    case "sentry": {
+                        builder.sentry(quadrilateralFromData(data), quadrilateralFromData(data, 8));
+                    } break;
 
-                        case "gamemode": {
-                            builder.gameMode(Integer.parseInt(data[0]) == 0 ? GameMode.CaptureAllIntruders : GameMode.CaptureOneIntruder);
-                        } break;
+                    case "gamemode": {
+                        builder.gameMode(Integer.parseInt(data[0]) == 0 ? GameMode.CaptureAllIntruders : GameMode.CaptureOneIntruder);
+                    } break;
 
-                        case "height": {
-                            builder.height(Integer.parseInt(data[0]));
-                        } break;
+                    case "height": {
+                        builder.height(Integer.parseInt(data[0]));
+                    } break;
 
-                        case "width": {
-                            builder.width(Integer.parseInt(data[0]));
-                        } break;
-
-                        case "numguards": {
-                            builder.numGuards(Integer.parseInt(data[0]));
-                        } break;
-
-                        case "numintruders": {
-                            builder.numIntruders(Integer.parseInt(data[0]));
-                        } break;
-
-                        case "capturedistance": {
-                            builder.captureDistance(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "winconditionintruderrounds": {
-                            builder.winConditionIntruderRounds(Integer.parseInt(data[0]));
-                        } break;
-
-                        case "maxrotationangle": {
-                            builder.maxRotationAngle(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "maxmovedistanceintruder": {
-                            builder.intruderMaxMoveDistance(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "maxsprintdistanceintruder": {
-                            builder.intruderMaxSprintDistance(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "maxmovedistanceguard": {
-                            builder.guardMaxMoveDistance(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "sprintcooldown": {
-                            builder.sprintCooldown(Integer.parseInt(data[0]));
-                        } break;
-
-                        case "pheromonecooldown": {
-                            builder.pheromoneCooldown(Integer.parseInt(data[0]));
-                        } break;
-
-                        case "radiuspheromone": {
-                            builder.pheromoneRadius(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "slowdownmodifierwindow": {
-                            builder.windowSlowdownModifier(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "slowdownmodifierdoor": {
-                            builder.doorSlowdownModifier(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "slowdownmodifiersentrytower": {
-                            builder.sentrySlowdownModifier(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "viewangle": {
-                            builder.viewAngle(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "viewrays": {
-                            builder.viewRays(Integer.parseInt(data[0]));
-                        } break;
-
-                        case "viewrangeintrudernormal": {
-                            builder.intruderViewRangeNormal(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "viewrangeintrudershaded": {
-                            builder.intruderViewRangeShaded(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "viewrangeguardnormal": {
-                            builder.guardViewRangeNormal(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "viewrangeguardshaded": {
-                            builder.guardViewRangeShaded(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "viewrangesentry": {
-                            builder.sentryViewRange(Double.parseDouble(data[0]),Double.parseDouble(data[1]));
-                        } break;
-
-                        case "yellsoundradius": {
-                            builder.yellSoundRadius(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "maxmovesoundradius": {
-                            builder.moveMaxSoundRadius(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "windowsoundradius": {
-                            builder.windowSoundRadius(Double.parseDouble(data[0]));
-                        } break;
-
-                        case "doorsoundradius": {
-                            builder.doorSoundRadius(Double.parseDouble(data[0]));
-                        } break;
-                        case "pheromoneexpirerounds": {
-                            builder.pheromoneExpireRounds(Integer.parseInt(data[0]));
-                        } break;
-                    }
+                    case "width": {
+                        builder.width(Integer.parseInt(data[0]));
+                    } break;
+
+                    case "numguards": {
+                        builder.numGuards(Integer.parseInt(data[0]));
+                    } break;
+
+                    case "numintruders": {
+                        builder.numIntruders(Integer.parseInt(data[0]));
+                    } break;
+
+                    case "capturedistance": {
+                        builder.captureDistance(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "winconditionintruderrounds": {
+                        builder.winConditionIntruderRounds(Integer.parseInt(data[0]));
+                    } break;
+
+                    case "maxrotationangle": {
+                        builder.maxRotationAngle(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "maxmovedistanceintruder": {
+                        builder.intruderMaxMoveDistance(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "maxsprintdistanceintruder": {
+                        builder.intruderMaxSprintDistance(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "maxmovedistanceguard": {
+                        builder.guardMaxMoveDistance(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "sprintcooldown": {
+                        builder.sprintCooldown(Integer.parseInt(data[0]));
+                    } break;
+
+                    case "pheromonecooldown": {
+                        builder.pheromoneCooldown(Integer.parseInt(data[0]));
+                    } break;
+
+                    case "radiuspheromone": {
+                        builder.pheromoneRadius(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "slowdownmodifierwindow": {
+                        builder.windowSlowdownModifier(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "slowdownmodifierdoor": {
+                        builder.doorSlowdownModifier(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "slowdownmodifiersentrytower": {
+                        builder.sentrySlowdownModifier(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "viewangle": {
+                        builder.viewAngle(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "viewrays": {
+                        builder.viewRays(Integer.parseInt(data[0]));
+                    } break;
+
+                    case "viewrangeintrudernormal": {
+                        builder.intruderViewRangeNormal(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "viewrangeintrudershaded": {
+                        builder.intruderViewRangeShaded(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "viewrangeguardnormal": {
+                        builder.guardViewRangeNormal(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "viewrangeguardshaded": {
+                        builder.guardViewRangeShaded(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "viewrangesentry": {
+                        builder.sentryViewRange(Double.parseDouble(data[0]),Double.parseDouble(data[1]));
+                    } break;
+
+                    case "yellsoundradius": {
+                        builder.yellSoundRadius(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "maxmovesoundradius": {
+                        builder.moveMaxSoundRadius(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "windowsoundradius": {
+                        builder.windowSoundRadius(Double.parseDouble(data[0]));
+                    } break;
+
+                    case "doorsoundradius": {
+                        builder.doorSoundRadius(Double.parseDouble(data[0]));
+                    } break;
+                    case "pheromoneexpirerounds": {
+                        builder.pheromoneExpireRounds(Integer.parseInt(data[0]));
+                    } break;
+                    case "maxturns": {
+                        builder.maxTurns(Integer.parseInt(data[0]));
+                    } break;
+                    case "stalemateturns": {
+                        builder.stalemateTurns(Integer.parseInt(data[0]));
+                    } break;
                 }
+            }
 
-            });
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        });
 
-        return builder.build();
+        return builder.buildTemplate();
 
     }
 
@@ -0,0 +1,367 @@
+package Group9.map.vision;
+
+import Group9.map.objects.MapObject;
+import Group9.math.Geometry;
+import Group9.math.Vector2;
+import Group9.tree.BoundingBox;
+import Group9.tree.PointContainer;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ray caster for the static map objects. When the caster is created, every edge of every map object is binned into all
+ * cells of a uniform grid that its bounding box overlaps. A ray is then traversed cell by cell (Amanatides & Woo, "A Fast
+ * Voxel Traversal Algorithm for Ray Tracing"), and only the edges in the visited cells are tested. The traversal stops
+ * at the end of the cell in which the first opaque hit has been found, so objects behind a wall are never tested.
+ *
+ * The grid is immutable after construction and can be shared between threads.
+ */
+public class GridRayCaster {
+
+    private final static double _EPSILON = 1E-9;
+
+    private final double minX, minY;
+    private final double maxX, maxY;
+    private final double cellSize;
+    private final int columns, rows;
+
+    // --- edges in struct-of-arrays layout, edge i goes from (ax[i], ay[i]) to (bx[i], by[i])
+    private final double[] ax, ay, bx, by;
+    private final MapObject[] owners;
+    private final int[] ownerIndices;
+
+    // --- edges of cell c are cellEdges[cellStart[c]] until (exclusive) cellEdges[cellStart[c + 1]]
+    private final int[] cellStart;
+    private final int[] cellEdges;
+
+    public GridRayCaster(List<MapObject> objects)
+    {
+        this(objects, -1);
+    }
+
+    /**
+     * @param objects The objects that should be binned into the grid.
+     * @param cellSize The width and height of a cell, if <= 0 it is chosen based on the amount of edges.
+     */
+    public GridRayCaster(List<MapObject> objects, double cellSize)
+    {
+        List<PointContainer.Line> lines = new ArrayList<>();
+        List<MapObject> owners = new ArrayList<>();
+        List<Integer> ownerIndices = new ArrayList<>();
+        BoundingBox bounds = null;
+        for(int index = 0; index < objects.size(); index++)
+        {
+            final MapObject object = objects.get(index);
+            if(!(object.getContainer() instanceof PointContainer.Polygon))
+            {
+                throw new IllegalArgumentException(String.format("Unsupported PointContainer: %s", object.getContainer().getClass().getName()));
+            }
+
+            for(PointContainer.Line line : object.getContainer().getAsPolygon().getLines())
+            {
+                lines.add(line);
+                owners.add(object);
+                ownerIndices.add(index);
+            }
+            BoundingBox box = BoundingBox.of(object.getContainer());
+            bounds = (bounds == null) ? box : bounds.union(box);
+        }
+
+        if(bounds == null)
+        {
+            bounds = new BoundingBox(0, 0, 0, 0);
+        }
+
+        if(cellSize <= 0)
+        {
+            // --- aim for a couple of edges per cell, but do not create absurdly small or large cells
+            final double area = Math.max(bounds.getWidth() * bounds.getHeight(), 1);
+            cellSize = Math.max(1, Math.min(16, Math.sqrt(area / Math.max(lines.size(), 1)) * 2));
+        }
+
+        this.cellSize = cellSize;
+        this.minX = bounds.getMinX();
+        this.minY = bounds.getMinY();
+        this.columns = Math.max(1, (int) Math.ceil(bounds.getWidth() / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(bounds.getHeight() / cellSize));
+        this.maxX = this.minX + this.columns * cellSize;
+        this.maxY = this.minY + this.rows * cellSize;
+
+        final int edges = lines.size();
+        this.ax = new double[edges];
+        this.ay = new double[edges];
+        this.bx = new double[edges];
+        this.by = new double[edges];
+        this.owners = owners.toArray(new MapObject[0]);
+        this.ownerIndices = ownerIndices.stream().mapToInt(Integer::intValue).toArray();
+
+        for(int i = 0; i < edges; i++)
+        {
+            PointContainer.Line line = lines.get(i);
+            this.ax[i] = line.getStart().getX();
+            this.ay[i] = line.getStart().getY();
+            this.bx[i] = line.getEnd().getX();
+            this.by[i] = line.getEnd().getY();
+        }
+
+        // --- two passes, first count the edges per cell then fill them in
+        this.cellStart = new int[this.columns * this.rows + 1];
+        for(int i = 0; i < edges; i++)
+        {
+            final int c0 = column(Math.min(ax[i], bx[i])), c1 = column(Math.max(ax[i], bx[i]));
+            final int r0 = row(Math.min(ay[i], by[i])), r1 = row(Math.max(ay[i], by[i]));
+            for(int r = r0; r <= r1; r++)
+            {
+                for(int c = c0; c <= c1; c++)
+                {
+                    this.cellStart[r * columns + c + 1]++;
+                }
+            }
+        }
+        for(int c = 0; c < this.columns * this.rows; c++)
+        {
+            this.cellStart[c + 1] += this.cellStart[c];
+        }
+
+        this.cellEdges = new int[this.cellStart[this.columns * this.rows]];
+        int[] fill = new int[this.columns * this.rows];
+        for(int i = 0; i < edges; i++)
+        {
+            final int c0 = column(Math.min(ax[i], bx[i])), c1 = column(Math.max(ax[i], bx[i]));
+            final int r0 = row(Math.min(ay[i], by[i])), r1 = row(Math.max(ay[i], by[i]));
+            for(int r = r0; r <= r1; r++)
+            {
+                for(int c = c0; c <= c1; c++)
+                {
+                    final int cell = r * columns + c;
+                    this.cellEdges[this.cellStart[cell] + fill[cell]++] = i;
+                }
+            }
+        }
+    }
+
+    private GridRayCaster(double minX, double minY, double cellSize, int columns, int rows,
+                          double[] ax, double[] ay, double[] bx, double[] by, MapObject[] owners, int[] ownerIndices,
+                          int[] cellStart, int[] cellEdges)
+    {
+        this.minX = minX;
+        this.minY = minY;
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.maxX = this.minX + this.columns * cellSize;
+        this.maxY = this.minY + this.rows * cellSize;
+        this.ax = ax;
+        this.ay = ay;
+        this.bx = bx;
+        this.by = by;
+        this.owners = owners;
+        this.ownerIndices = ownerIndices;
+        this.cellStart = cellStart;
+        this.cellEdges = cellEdges;
+    }
+
+    /**
+     * Writes the grid, so it can be restored with {@link GridRayCaster#read(ByteBuffer, List)} without binning the edges
+     * again. The map objects themselves are only referenced by their index.
+     * @param out
+     * @throws IOException
+     */
+    public void write(DataOutput out) throws IOException
+    {
+        out.writeDouble(this.minX);
+        out.writeDouble(this.minY);
+        out.writeDouble(this.cellSize);
+        out.writeInt(this.columns);
+        out.writeInt(this.rows);
+
+        out.writeInt(this.ax.length);
+        for(int i = 0; i < this.ax.length; i++)
+        {
+            out.writeDouble(this.ax[i]);
+            out.writeDouble(this.ay[i]);
+            out.writeDouble(this.bx[i]);
+            out.writeDouble(this.by[i]);
+            out.writeInt(this.ownerIndices[i]);
+        }
+
+        for(int start : this.cellStart)
+        {
+            out.writeInt(start);
+        }
+        for(int edge : this.cellEdges)
+        {
+            out.writeInt(edge);
+        }
+    }
+
+    /**
+     * Restores a grid written by {@link GridRayCaster#write(DataOutput)}.
+     * @param buffer
+     * @param objects The same objects (in the same order) the grid has been created with.
+     * @return
+     */
+    public static GridRayCaster read(ByteBuffer buffer, List<MapObject> objects)
+    {
+        final double minX = buffer.getDouble();
+        final double minY = buffer.getDouble();
+        final double cellSize = buffer.getDouble();
+        final int columns = buffer.getInt();
+        final int rows = buffer.getInt();
+
+        final int edges = buffer.getInt();
+        final double[] ax = new double[edges], ay = new double[edges], bx = new double[edges], by = new double[edges];
+        final MapObject[] owners = new MapObject[edges];
+        final int[] ownerIndices = new int[edges];
+        for(int i = 0; i < edges; i++)
+        {
+            ax[i] = buffer.getDouble();
+            ay[i] = buffer.getDouble();
+            bx[i] = buffer.getDouble();
+            by[i] = buffer.getDouble();
+            ownerIndices[i] = buffer.getInt();
+            owners[i] = objects.get(ownerIndices[i]);
+        }
+
+        final int[] cellStart = new int[columns * rows + 1];
+        buffer.asIntBuffer().get(cellStart);
+        buffer.position(buffer.position() + cellStart.length * Integer.BYTES);
+        final int[] cellEdges = new int[cellStart[columns * rows]];
+        buffer.asIntBuffer().get(cellEdges);
+        buffer.position(buffer.position() + cellEdges.length * Integer.BYTES);
+
+        return new GridRayCaster(minX, minY, cellSize, columns, rows, ax, ay, bx, by, owners, ownerIndices, cellStart, cellEdges);
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    private int column(double x)
+    {
+        return Math.max(0, Math.min(this.columns - 1, (int) Math.floor((x - this.minX) / this.cellSize)));
+    }
+
+    private int row(double y)
+    {
+        return Math.max(0, Math.min(this.rows - 1, (int) Math.floor((y - this.minY) / this.cellSize)));
+    }
+
+    /**
+     * Casts a ray from start to end and reports every intersection with an edge of a static map object to the consumer.
+     * Hits are reported cell by cell in the order in which the ray passes through the cells, but not necessarily
+     * sorted within a cell. The same point might be reported twice if it lies exactly on a cell border.
+     * The traversal stops after the first cell at the end of which the consumer reports that the ray is blocked.
+     *
+     * @param start Start of the ray.
+     * @param end End of the ray.
+     * @param consumer Receives the hits, and decides whether the ray is blocked after each cell.
+     */
+    public void cast(Vector2 start, Vector2 end, HitConsumer consumer)
+    {
+        final double sx = start.getX(), sy = start.getY();
+        final double ex = end.getX(), ey = end.getY();
+        final double dx = ex - sx, dy = ey - sy;
+        final double length = dx * dx + dy * dy;
+        final double[] point = new double[2];
+
+        // --- clip the ray against the grid bounds (Liang-Barsky)
+        double tEnter = 0, tExit = 1;
+        {
+            final double[] p = { -dx, dx, -dy, dy };
+            final double[] q = { sx - this.minX, this.maxX - sx, sy - this.minY, this.maxY - sy };
+            for(int i = 0; i < 4; i++)
+            {
+                if(p[i] == 0)
+                {
+                    if(q[i] < 0)
+                    {
+                        return;
+                    }
+                }
+                else
+                {
+                    final double r = q[i] / p[i];
+                    if(p[i] < 0)
+                    {
+                        tEnter = Math.max(tEnter, r);
+                    }
+                    else
+                    {
+                        tExit = Math.min(tExit, r);
+                    }
+                }
+            }
+            if(tEnter > tExit)
+            {
+                return;
+            }
+        }
+
+        // --- setup traversal
+        int column = column(sx + dx * tEnter);
+        int row = row(sy + dy * tEnter);
+
+        final int stepX = dx > 0 ? 1 : (dx < 0 ? -1 : 0);
+        final int stepY = dy > 0 ? 1 : (dy < 0 ? -1 : 0);
+        final double tDeltaX = stepX == 0 ? Double.POSITIVE_INFINITY : this.cellSize / Math.abs(dx);
+        final double tDeltaY = stepY == 0 ? Double.POSITIVE_INFINITY : this.cellSize / Math.abs(dy);
+        double tMaxX = stepX == 0 ? Double.POSITIVE_INFINITY :
+                ((this.minX + (column + (stepX > 0 ? 1 : 0)) * this.cellSize) - sx) / dx;
+        double tMaxY = stepY == 0 ? Double.POSITIVE_INFINITY :
+                ((this.minY + (row + (stepY > 0 ? 1 : 0)) * this.cellSize) - sy) / dy;
+
+        double tCell = tEnter;
+
+        while (column >= 0 && column < this.columns && row >= 0 && row < this.rows && tCell <= tExit)
+        {
+            final double tCellEnd = Math.min(Math.min(tMaxX, tMaxY), tExit);
+            final int cell = row * this.columns + column;
+
+            for(int i = this.cellStart[cell]; i < this.cellStart[cell + 1]; i++)
+            {
+                final int edge = this.cellEdges[i];
+                if(!Geometry.segmentIntersection(this.ax[edge], this.ay[edge], this.bx[edge], this.by[edge], sx, sy, ex, ey, point, 0))
+                {
+                    continue;
+                }
+
+                // --- only report the hit in the cell it is located in, otherwise edges spanning multiple cells would
+                //  report hits behind walls that have not been reached yet.
+                final double t = ((point[0] - sx) * dx + (point[1] - sy) * dy) / length;
+                if(t < tCell - _EPSILON || t > tCellEnd + _EPSILON)
+                {
+                    continue;
+                }
+
+                consumer.hit(point[0], point[1], this.owners[edge], this.ownerIndices[edge]);
+            }
+
+            // --- Note: An edge that goes through a point is in every cell that contains the point, so once a cell is
+            //  done all objects sharing a point have been reported and the consumer can tell which one is visible.
+            if(consumer.isBlocked())
+            {
+                return;
+            }
+
+            // --- advance to the next cell
+            tCell = tCellEnd;
+            if(tMaxX < tMaxY)
+            {
+                column += stepX;
+                tMaxX += tDeltaX;
+            }
+            else
+            {
+                row += stepY;
+                tMaxY += tDeltaY;
+            }
+        }
+
+    }
+
+}
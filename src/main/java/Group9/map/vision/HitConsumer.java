@@ -0,0 +1,27 @@
+package Group9.map.vision;
+
+import Group9.map.objects.MapObject;
+
+/**
+ * Receives the intersections of a ray with the edges of the static map objects.
+ * {@link GridRayCaster}
+ * {@link VisibilityPolygon}
+ */
+public interface HitConsumer {
+
+    /**
+     * Called for every intersection of the ray with an edge of a map object.
+     * @param x
+     * @param y
+     * @param object The object the edge belongs to.
+     * @param index The index of the object in the list the caster has been created with.
+     */
+    void hit(double x, double y, MapObject object, int index);
+
+    /**
+     * Called by casters that traverse the map in steps (e.g. {@link GridRayCaster}) after each step.
+     * @return true, if an opaque object has been hit and the traversal should stop, otherwise false.
+     */
+    boolean isBlocked();
+
+}
@@ -0,0 +1,357 @@
+package Group9.map.vision;
+
+import Group9.map.objects.MapObject;
+import Group9.math.Geometry;
+import Group9.math.Vector2;
+import Group9.tree.BoundingBox;
+import Group9.tree.PointContainer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The area that can be seen from a single point within a cone, computed with an angular sweep over the edges of the
+ * static map objects in range.
+ *
+ * Every edge covers an angular interval as seen from the origin. The start and end angles of all edges split the cone
+ * into intervals in which no edge starts or ends, so every ray inside of an interval crosses the same set of edges. For
+ * every interval only the edges that are not completely hidden behind an opaque edge spanning the whole interval are
+ * kept, which makes casting a ray a binary search plus a handful of intersection tests, independent of how many rays are
+ * cast or how small the objects on the map are.
+ *
+ * Angles are measured anticlockwise, starting at the first ray of the cone.
+ */
+public class VisibilityPolygon {
+
+    private final static double _EPSILON = 1E-9;
+    private final static double _BORDER = 1E-6;
+
+    private final double ox, oy;
+    private final double ux, uy;
+    private final double range;
+    private final double viewAngle;
+
+    // --- edges in struct-of-arrays layout, edge i goes from (ax[i], ay[i]) to (bx[i], by[i])
+    private final double[] ax, ay, bx, by;
+    private final MapObject[] owners;
+    private final int[] ownerIndices;
+
+    // --- interval i goes from angles[i] to angles[i + 1] and its edges are intervalEdges[intervalStart[i]] until
+    //  (exclusive) intervalEdges[intervalStart[i + 1]]
+    private final double[] angles;
+    private final int[] intervalStart;
+    private final int[] intervalEdges;
+
+    /**
+     * @param objects The static map objects, usually only the ones the object tree returns for the view range. Objects
+     *                out of range are skipped. Hits report the index into this list, so it has to keep the order of the map.
+     * @param origin The point the rays are cast from.
+     * @param firstRay The first (clockwise-most) ray of the cone, its length is the view range.
+     * @param viewAngle The angle of the cone in radians.
+     */
+    public VisibilityPolygon(List<MapObject> objects, Vector2 origin, Vector2 firstRay, double viewAngle)
+    {
+        this.ox = origin.getX();
+        this.oy = origin.getY();
+        this.range = firstRay.length();
+        this.ux = firstRay.getX() / this.range;
+        this.uy = firstRay.getY() / this.range;
+        this.viewAngle = viewAngle;
+
+        // --- collect all edges that are at least partially in range
+        final BoundingBox view = BoundingBox.of(origin, this.range);
+        List<PointContainer.Line> lines = new ArrayList<>();
+        List<MapObject> owners = new ArrayList<>();
+        List<Integer> ownerIndices = new ArrayList<>();
+        for(int index = 0; index < objects.size(); index++)
+        {
+            final MapObject object = objects.get(index);
+            if(!(object.getContainer() instanceof PointContainer.Polygon))
+            {
+                throw new IllegalArgumentException(String.format("Unsupported PointContainer: %s", object.getContainer().getClass().getName()));
+            }
+            if(!view.intersects(BoundingBox.of(object.getContainer())))
+            {
+                continue;
+            }
+
+            for(PointContainer.Line line : object.getContainer().getAsPolygon().getLines())
+            {
+                if(distance(line.getStart(), line.getEnd()) <= this.range + _EPSILON)
+                {
+                    lines.add(line);
+                    owners.add(object);
+                    ownerIndices.add(index);
+                }
+            }
+        }
+
+        final int edges = lines.size();
+        this.ax = new double[edges];
+        this.ay = new double[edges];
+        this.bx = new double[edges];
+        this.by = new double[edges];
+        this.owners = owners.toArray(new MapObject[0]);
+        this.ownerIndices = ownerIndices.stream().mapToInt(Integer::intValue).toArray();
+        final double[] near = new double[edges];
+
+        // --- the angular interval of every edge, an edge that crosses the first ray gets a second piece shifted by 2pi
+        int pieces = 0;
+        final int[] pieceEdge = new int[edges * 2];
+        final double[] pieceLow = new double[edges * 2];
+        final double[] pieceHigh = new double[edges * 2];
+        for(int i = 0; i < edges; i++)
+        {
+            PointContainer.Line line = lines.get(i);
+            this.ax[i] = line.getStart().getX();
+            this.ay[i] = line.getStart().getY();
+            this.bx[i] = line.getEnd().getX();
+            this.by[i] = line.getEnd().getY();
+            near[i] = distance(line.getStart(), line.getEnd());
+
+            double a = angleOf(this.ax[i] - this.ox, this.ay[i] - this.oy);
+            double b = angleOf(this.bx[i] - this.ox, this.by[i] - this.oy);
+            double delta = b - a;
+            if(delta > Math.PI) delta -= Math.PI * 2;
+            if(delta < -Math.PI) delta += Math.PI * 2;
+
+            final double low = delta >= 0 ? a : b;
+            final double high = low + Math.abs(delta);
+            for(double shift : new double[] { 0, -Math.PI * 2 })
+            {
+                if(high + shift >= -_EPSILON && low + shift <= this.viewAngle + _EPSILON)
+                {
+                    pieceEdge[pieces] = i;
+                    pieceLow[pieces] = low + shift;
+                    pieceHigh[pieces] = high + shift;
+                    pieces++;
+                }
+            }
+        }
+
+        // --- critical angles
+        // --- Note: The field of view might reject hits on the border of the cone due to rounding errors, in which case an
+        //  opaque edge does not block the ray. The borders get their own tiny intervals that are never culled.
+        double[] angles = new double[pieces * 2 + 4];
+        int count = 0;
+        angles[count++] = 0;
+        angles[count++] = Math.min(_BORDER, this.viewAngle / 2);
+        angles[count++] = Math.max(this.viewAngle - _BORDER, this.viewAngle / 2);
+        angles[count++] = this.viewAngle;
+        for(int p = 0; p < pieces; p++)
+        {
+            if(pieceLow[p] > 0 && pieceLow[p] < this.viewAngle) angles[count++] = pieceLow[p];
+            if(pieceHigh[p] > 0 && pieceHigh[p] < this.viewAngle) angles[count++] = pieceHigh[p];
+        }
+        Arrays.sort(angles, 0, count);
+        int unique = 1;
+        for(int i = 1; i < count; i++)
+        {
+            if(angles[i] != angles[unique - 1])
+            {
+                angles[unique++] = angles[i];
+            }
+        }
+        this.angles = Arrays.copyOf(angles, unique);
+        final int intervals = Math.max(1, unique - 1);
+
+        // --- the depth up to which every ray in an interval is guaranteed to be blocked by an opaque edge
+        final double[] blocked = new double[intervals];
+        Arrays.fill(blocked, Double.POSITIVE_INFINITY);
+        for(int p = 0; p < pieces; p++)
+        {
+            final int edge = pieceEdge[p];
+            if(!this.owners[edge].getType().isOpaque() || near[edge] <= _EPSILON)
+            {
+                continue;
+            }
+            for(int i = Math.max(1, interval(pieceLow[p] - _EPSILON)), last = Math.min(intervals - 2, interval(pieceHigh[p] + _EPSILON)); i <= last; i++)
+            {
+                if(pieceLow[p] <= this.angles[i] + _EPSILON && pieceHigh[p] >= this.angles[i + 1] - _EPSILON)
+                {
+                    blocked[i] = Math.min(blocked[i], Math.max(depth(edge, this.angles[i]), depth(edge, this.angles[i + 1])));
+                }
+            }
+        }
+
+        // --- two passes, first count the edges per interval then fill them in
+        this.intervalStart = new int[intervals + 1];
+        for(int p = 0; p < pieces; p++)
+        {
+            for(int i = interval(pieceLow[p] - _EPSILON), last = interval(pieceHigh[p] + _EPSILON); i <= last; i++)
+            {
+                if(near[pieceEdge[p]] <= blocked[i] + _EPSILON)
+                {
+                    this.intervalStart[i + 1]++;
+                }
+            }
+        }
+        for(int i = 0; i < intervals; i++)
+        {
+            this.intervalStart[i + 1] += this.intervalStart[i];
+        }
+
+        this.intervalEdges = new int[this.intervalStart[intervals]];
+        int[] fill = new int[intervals];
+        for(int p = 0; p < pieces; p++)
+        {
+            for(int i = interval(pieceLow[p] - _EPSILON), last = interval(pieceHigh[p] + _EPSILON); i <= last; i++)
+            {
+                if(near[pieceEdge[p]] <= blocked[i] + _EPSILON)
+                {
+                    this.intervalEdges[this.intervalStart[i] + fill[i]++] = pieceEdge[p];
+                }
+            }
+        }
+    }
+
+    /**
+     * @param point
+     * @return The angle of the point as seen from the origin, in [0, 2pi).
+     */
+    public double angleOf(Vector2 point)
+    {
+        return angleOf(point.getX() - this.ox, point.getY() - this.oy);
+    }
+
+    private double angleOf(double x, double y)
+    {
+        final double angle = Math.atan2(this.ux * y - this.uy * x, this.ux * x + this.uy * y);
+        return angle < 0 ? angle + Math.PI * 2 : angle;
+    }
+
+    /**
+     * @return The largest i for which angles[i] <= angle, clamped to the valid intervals.
+     */
+    private int interval(double angle)
+    {
+        int index = Arrays.binarySearch(this.angles, angle);
+        if(index < 0)
+        {
+            index = -index - 2;
+        }
+        return Math.max(0, Math.min(this.angles.length - 2, index));
+    }
+
+    /**
+     * @return The distance from the origin to the (infinite) line through the edge in the direction of the angle, or
+     *  infinity if the ray does not hit that line.
+     */
+    private double depth(int edge, double angle)
+    {
+        final double cos = Math.cos(angle), sin = Math.sin(angle);
+        final double vx = cos * this.ux - sin * this.uy, vy = sin * this.ux + cos * this.uy;
+        final double px = this.ax[edge] - this.ox, py = this.ay[edge] - this.oy;
+        final double ex = this.bx[edge] - this.ax[edge], ey = this.by[edge] - this.ay[edge];
+        final double denominator = vx * ey - vy * ex;
+        if(denominator == 0)
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+        final double t = (px * ey - py * ex) / denominator;
+        final double s = (px * vy - py * vx) / denominator;
+        return (t < 0 || s < -_EPSILON || s > 1 + _EPSILON) ? Double.POSITIVE_INFINITY : t;
+    }
+
+    /**
+     * @return The shortest distance between the origin and the line segment.
+     */
+    private double distance(Vector2 start, Vector2 end)
+    {
+        final double ex = end.getX() - start.getX(), ey = end.getY() - start.getY();
+        final double px = this.ox - start.getX(), py = this.oy - start.getY();
+        final double length = ex * ex + ey * ey;
+        final double t = length == 0 ? 0 : Math.max(0, Math.min(1, (px * ex + py * ey) / length));
+        final double dx = px - ex * t, dy = py - ey * t;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * @return One angle in the middle of every interval. Casting a ray at these angles is enough to hit every edge that
+     *  is visible from the origin at least once.
+     */
+    public double[] getSampleAngles()
+    {
+        double[] samples = new double[this.angles.length - 1];
+        for(int i = 0; i < samples.length; i++)
+        {
+            samples[i] = (this.angles[i] + this.angles[i + 1]) / 2;
+        }
+        return samples;
+    }
+
+    /**
+     * The outline of the visible area: the origin followed by the start and end point of every interval, where a point
+     * is either on the closest opaque edge or at the end of the view range. Arcs at the end of the view range are
+     * approximated by their chord.
+     * @return
+     */
+    public List<Vector2> getPolygon()
+    {
+        List<Vector2> points = new ArrayList<>();
+        points.add(new Vector2(this.ox, this.oy));
+        for(int i = 0; i < this.angles.length - 1; i++)
+        {
+            // --- find the closest opaque edge in the middle of the interval, it is the closest on the whole interval
+            final double middle = (this.angles[i] + this.angles[i + 1]) / 2;
+            int closest = -1;
+            double closestDepth = this.range;
+            for(int e = this.intervalStart[i]; e < this.intervalStart[i + 1]; e++)
+            {
+                final int edge = this.intervalEdges[e];
+                if(!this.owners[edge].getType().isOpaque())
+                {
+                    continue;
+                }
+                final double depth = depth(edge, middle);
+                if(depth < closestDepth)
+                {
+                    closest = edge;
+                    closestDepth = depth;
+                }
+            }
+
+            for(double angle : new double[] { this.angles[i], this.angles[i + 1] })
+            {
+                final double depth = closest == -1 ? this.range : Math.min(this.range, depth(closest, angle));
+                final double cos = Math.cos(angle), sin = Math.sin(angle);
+                points.add(new Vector2(
+                        this.ox + (cos * this.ux - sin * this.uy) * depth,
+                        this.oy + (sin * this.ux + cos * this.uy) * depth
+                ));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Casts a ray from the origin to end and reports every intersection with an edge that is not hidden behind an opaque
+     * edge. Hits are reported in no particular order, {@link HitConsumer#isBlocked()} is never called.
+     *
+     * @param end End of the ray, has to lie within the cone.
+     * @param consumer
+     */
+    public void cast(Vector2 end, HitConsumer consumer)
+    {
+        final double ex = end.getX(), ey = end.getY();
+        double angle = angleOf(ex - this.ox, ey - this.oy);
+        if(angle > this.viewAngle && angle > Math.PI * 2 - _EPSILON)
+        {
+            // --- the first ray can end up just below 2pi due to rounding
+            angle -= Math.PI * 2;
+        }
+
+        final int interval = interval(angle);
+        final double[] point = new double[2];
+        for(int i = this.intervalStart[interval]; i < this.intervalStart[interval + 1]; i++)
+        {
+            final int edge = this.intervalEdges[i];
+            if(Geometry.segmentIntersection(this.ax[edge], this.ay[edge], this.bx[edge], this.by[edge], this.ox, this.oy, ex, ey, point, 0))
+            {
+                consumer.hit(point[0], point[1], this.owners[edge], this.ownerIndices[edge]);
+            }
+        }
+    }
+
+}
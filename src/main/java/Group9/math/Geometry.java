@@ -0,0 +1,365 @@
+package Group9.math;
+
+import static Group9.PiMath.geq;
+import static Group9.PiMath.leq;
+
+/**
+ * Allocation-free versions of the intersection tests in {@link Group9.tree.PointContainer}. Everything works on plain
+ * doubles, and points are written into caller-provided buffers as (x, y) pairs.
+ *
+ * The tests follow the {@link Group9.tree.PointContainer} implementation operation by operation, so both produce the
+ * exact same results. This also includes their quirks (e.g. the special case for axis-aligned lines in
+ * {@link Geometry#circleSegmentIntersection(double, double, double, double, double, double, double, double[], int)}),
+ * since the simulation relies on them.
+ *
+ * Polygons are given as two coordinate arrays. Their edges go from point i to point i + 1 and are oriented from left to
+ * right, the same way {@link Group9.tree.PointContainer.Line#Line(Vector2, Vector2)} orients them.
+ */
+public final class Geometry {
+
+    private Geometry() {}
+
+    /**
+     * @return The distance between (x1, y1) and (x2, y2).
+     */
+    public static double distance(double x1, double y1, double x2, double y2)
+    {
+        final double dx = x1 - x2, dy = y1 - y2;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Calculates the intersection point of the line segments a (x1, y1) -> (x2, y2) and b (x3, y3) -> (x4, y4).
+     *
+     * @param out Receives the intersection point at out[offset] and out[offset + 1].
+     * @param offset
+     * @return true, if they intersect, otherwise false.
+     */
+    public static boolean segmentIntersection(double x1, double y1, double x2, double y2,
+                                              double x3, double y3, double x4, double y4,
+                                              double[] out, int offset)
+    {
+        //http://mathworld.wolfram.com/Line-LineIntersection.html
+        final double parallelDenominator = determinant(x1-x2, y1-y2, x3-x4, y3-y4);
+
+        if(parallelDenominator == 0.0)
+        {
+            // --- parallel, only relevant if they share the same y-intercept and overlap
+            final double _a_y_intercept = y1 - (y2 - y1) / (x2 - x1) * x1;
+            final double _b_y_intercept = y3 - (y4 - y3) / (x4 - x3) * x3;
+
+            if(_a_y_intercept != _b_y_intercept || Double.isInfinite(_a_y_intercept) || Double.isInfinite(_b_y_intercept))
+            {
+                return false;
+            }
+
+            if((x1 >= x3 && x2 <= x4) || (x1 >= x3 && x1 <= x4 && x2 >= x4))
+            {
+                return set(out, offset, x1, y1);
+            }
+            else if(x1 <= x3 && x2 >= x3 && x2 <= x4)
+            {
+                return set(out, offset, x4, y4);
+            }
+
+            if((x3 >= x1 && x4 <= x2) || (x3 >= x1 && x3 <= x2 && x4 >= x2))
+            {
+                return set(out, offset, x3, y3);
+            }
+            else if(x3 <= x1 && x4 >= x1 && x4 <= x2)
+            {
+                return set(out, offset, x4, y4);
+            }
+
+            return false;
+        }
+
+        final double determinantLine1 = determinant(x1, y1, x2, y2);
+        final double determinantLine2 = determinant(x3, y3, x4, y4);
+        final double xToCheck = determinant(determinantLine1, x1-x2, determinantLine2, x3-x4) / parallelDenominator;
+        final double yToCheck = determinant(determinantLine1, y1-y2, determinantLine2, y3-y4) / parallelDenominator;
+
+        if (((geq(x1, xToCheck) && leq(x2, xToCheck)) || (geq(x2, xToCheck) && leq(x1, xToCheck))) && ((geq(y1, yToCheck) && leq(y2, yToCheck)) || (geq(y2, yToCheck) && leq(y1, yToCheck))))
+        {
+            if (((geq(x3, xToCheck) && leq(x4, xToCheck)) || (geq(x4, xToCheck) && leq(x3, xToCheck))) && ((geq(y3, yToCheck) && leq(y4, yToCheck)) || (geq(y4, yToCheck) && leq(y3, yToCheck)))) {
+                return set(out, offset, xToCheck, yToCheck);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Calculates the intersection points of a circle and the line segment (x1, y1) -> (x2, y2).
+     *
+     * @param out Receives up to two points starting at out[offset].
+     * @param offset
+     * @return The amount of intersection points.
+     */
+    public static int circleSegmentIntersection(double cx, double cy, double radius,
+                                                double x1, double y1, double x2, double y2,
+                                                double[] out, int offset)
+    {
+        final double sx = x1 - cx, sy = y1 - cy;
+        final double ex = x2 - cx, ey = y2 - cy;
+
+        final double dx = ex - sx;
+        final double dy = ey - sy;
+
+        if(dx == 0 || dy == 0)
+        {
+            // --- Note: axis-aligned lines are only tested against the four radii pointing up, right, down and left. The
+            //  left radius is oriented from left to right, so its end is the centre of the circle.
+            if(segmentIntersection(x1, y1, x2, y2, cx, cy, cx + 0 * radius, cy + radius, out, offset))
+            {
+                set(out, offset, cx + 0 * radius, cy + radius);
+                return 1;
+            }
+            if(segmentIntersection(x1, y1, x2, y2, cx, cy, cx + radius, cy + 0 * radius, out, offset))
+            {
+                set(out, offset, cx + radius, cy + 0 * radius);
+                return 1;
+            }
+            if(segmentIntersection(x1, y1, x2, y2, cx, cy, cx + 0 * radius, cy - radius, out, offset))
+            {
+                set(out, offset, cx + 0 * radius, cy - radius);
+                return 1;
+            }
+            if(segmentIntersection(x1, y1, x2, y2, cx + -radius, cy + 0 * radius, cx, cy, out, offset))
+            {
+                set(out, offset, cx, cy);
+                return 1;
+            }
+            return 0;
+        }
+
+        final double dr = Math.sqrt(dx * dx + dy * dy);
+        final double dr2 = dr * dr;
+        final double D = (sx * ey) - (ex * sy);
+        final double discriminant = radius * radius * dr2 - D * D;
+
+        if(discriminant < 0)
+        {
+            return 0;
+        }
+
+        final double sgn = dy < 0 ? -1D : 1D;
+        final double root = Math.sqrt(discriminant);
+
+        final double ax = (D * dy + sgn * dx * root) / dr2 + cx;
+        final double ay = (-D * dx + Math.abs(dy) * root) / dr2 + cy;
+        if(discriminant == 0)
+        {
+            if(isPointOnSegment(x1, y1, x2, y2, ax, ay))
+            {
+                set(out, offset, ax, ay);
+                return 1;
+            }
+            return 0;
+        }
+
+        final double bx = (D * dy - sgn * dx * root) / dr2 + cx;
+        final double by = (-D * dx - Math.abs(dy) * root) / dr2 + cy;
+
+        int count = 0;
+        if(isPointOnSegment(x1, y1, x2, y2, ax, ay))
+        {
+            set(out, offset, ax, ay);
+            count++;
+        }
+        if(isPointOnSegment(x1, y1, x2, y2, bx, by))
+        {
+            set(out, offset + count * 2, bx, by);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return true, if (px, py) lies on the line segment (x1, y1) -> (x2, y2), allows 1E-9 delta.
+     */
+    public static boolean isPointOnSegment(double x1, double y1, double x2, double y2, double px, double py)
+    {
+        final double length = distance(x1, y1, x2, y2);
+        return Math.abs(distance(x1, y1, px, py) + distance(x2, y2, px, py) - length) < 1E-9;
+    }
+
+    /**
+     * Barycentric point in triangle test.
+     * @link https://blackpawn.com/texts/pointinpoly/default.html
+     */
+    public static boolean isPointInTriangle(double ax, double ay, double bx, double by, double cx, double cy,
+                                            double px, double py)
+    {
+        final double v0x = cx - ax, v0y = cy - ay;
+        final double v1x = bx - ax, v1y = by - ay;
+        final double v2x = px - ax, v2y = py - ay;
+
+        final double dot00 = (v0x * v0x) + (v0y * v0y);
+        final double dot01 = (v0x * v1x) + (v0y * v1y);
+        final double dot02 = (v0x * v2x) + (v0y * v2y);
+        final double dot11 = (v1x * v1x) + (v1y * v1y);
+        final double dot12 = (v1x * v2x) + (v1y * v2y);
+
+        final double invDenom = 1D / (dot00 * dot11 - dot01 * dot01);
+        final double u = (dot11 * dot02 - dot01 * dot12) * invDenom;
+        final double v = (dot00 * dot12 - dot01 * dot02) * invDenom;
+
+        return (u >= 0) && (v >= 0) && (u + v < 1);
+    }
+
+    /**
+     * Splits the polygon into a triangle fan around its first point and checks whether the point is inside one of them.
+     */
+    public static boolean isPointInPolygon(double[] xs, double[] ys, double px, double py)
+    {
+        for(int i = 1; i <= xs.length - 2; i++)
+        {
+            if(isPointInTriangle(xs[0], ys[0], xs[i], ys[i], xs[i + 1], ys[i + 1], px, py))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true, if the polygon and the line segment (x1, y1) -> (x2, y2) intersect or the segment starts or ends
+     *  inside of the polygon.
+     */
+    public static boolean polygonSegmentIntersect(double[] xs, double[] ys, double x1, double y1, double x2, double y2)
+    {
+        final double[] point = new double[2];
+        for(int i = 0; i < xs.length; i++)
+        {
+            final int s = edgeStart(xs, i), e = edgeEnd(xs, i);
+            if(segmentIntersection(xs[s], ys[s], xs[e], ys[e], x1, y1, x2, y2, point, 0))
+            {
+                return true;
+            }
+        }
+        return isPointInPolygon(xs, ys, x1, y1) || isPointInPolygon(xs, ys, x2, y2);
+    }
+
+    /**
+     * @return true, if the polygon and the circle intersect.
+     */
+    public static boolean polygonCircleIntersect(double[] xs, double[] ys, double cx, double cy, double radius)
+    {
+        if(isPointInPolygon(xs, ys, cx, cy))
+        {
+            return true;
+        }
+
+        final double[] points = new double[4];
+        for(int i = 0; i < xs.length; i++)
+        {
+            final int s = edgeStart(xs, i), e = edgeEnd(xs, i);
+            if(circleSegmentIntersection(cx, cy, radius, xs[s], ys[s], xs[e], ys[e], points, 0) != 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true, if the polygons intersect or one contains a point of the other.
+     */
+    public static boolean polygonsIntersect(double[] axs, double[] ays, double[] bxs, double[] bys)
+    {
+        final double[] point = new double[2];
+        for(int i = 0; i < axs.length; i++)
+        {
+            final int as = edgeStart(axs, i), ae = edgeEnd(axs, i);
+            for(int j = 0; j < bxs.length; j++)
+            {
+                final int bs = edgeStart(bxs, j), be = edgeEnd(bxs, j);
+                if(segmentIntersection(axs[as], ays[as], axs[ae], ays[ae], bxs[bs], bys[bs], bxs[be], bys[be], point, 0))
+                {
+                    return true;
+                }
+            }
+        }
+
+        for(int i = 0; i < axs.length; i++)
+        {
+            if(isPointInPolygon(bxs, bys, axs[i], ays[i]))
+            {
+                return true;
+            }
+        }
+        for(int i = 0; i < bxs.length; i++)
+        {
+            if(isPointInPolygon(axs, ays, bxs[i], bys[i]))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Note: This is not a proper circle-circle test, it checks whether the distance between the centres is smaller than
+     * the larger radius. Kept as is since the game rules have been balanced around it.
+     * @return true, if the circles intersect.
+     */
+    public static boolean circlesIntersect(double ax, double ay, double aRadius, double bx, double by, double bRadius)
+    {
+        return distance(ax, ay, bx, by) < Math.max(aRadius, bRadius);
+    }
+
+    /**
+     * Calculates all intersection points of the polygon's edges and the line segment (x1, y1) -> (x2, y2). A point in
+     * which two edges meet might be reported twice.
+     *
+     * @param out Receives the points, has to be able to hold at least 2 * xs.length values from offset on.
+     * @param offset
+     * @return The amount of intersection points.
+     */
+    public static int polygonSegmentIntersection(double[] xs, double[] ys, double x1, double y1, double x2, double y2,
+                                                 double[] out, int offset)
+    {
+        int count = 0;
+        for(int i = 0; i < xs.length; i++)
+        {
+            final int s = edgeStart(xs, i), e = edgeEnd(xs, i);
+            if(segmentIntersection(xs[s], ys[s], xs[e], ys[e], x1, y1, x2, y2, out, offset + count * 2))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The index of the start point of edge i, edges are oriented from left to right.
+     */
+    private static int edgeStart(double[] xs, int i)
+    {
+        final int next = (i + 1) % xs.length;
+        return xs[i] <= xs[next] ? i : next;
+    }
+
+    /**
+     * @return The index of the end point of edge i, edges are oriented from left to right.
+     */
+    private static int edgeEnd(double[] xs, int i)
+    {
+        final int next = (i + 1) % xs.length;
+        return xs[i] <= xs[next] ? next : i;
+    }
+
+    private static boolean set(double[] out, int offset, double x, double y)
+    {
+        out[offset] = x;
+        out[offset + 1] = y;
+        return true;
+    }
+
+    private static double determinant(double x1, double y1, double x2, double y2)
+    {
+        return (x1*y2)-(x2*y1);
+    }
+
+}
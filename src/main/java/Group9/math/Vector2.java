@@ -1,21 +1,24 @@
 package Group9.math;
 
-import Group9.Game;
 import Interop.Geometry.Point;
 import Interop.Utils.Utils;
 
 import java.util.Objects;
+import java.util.SplittableRandom;
 
 public class Vector2 {
 
     private final double x, y;
-    private final double length;
+
+    // --- Note: Most vectors are temporary and never need their length, so it is only calculated when requested. The
+    //  vectors of a map are shared by games on other threads, so the field is volatile: a plain double may be written in
+    //  two halves (JLS 17.7). With that, racing threads at worst calculate it twice.
+    private volatile double length = Double.NaN;
 
     public Vector2(double x, double y)
     {
         this.x = x;
         this.y = y;
-        this.length = Math.sqrt(Math.pow(this.x, 2) + Math.pow(this.y, 2));
     }
 
     public double getX()
@@ -30,16 +33,23 @@ public class Vector2 {
 
     public Vector2 normalise()
     {
-        if(this.length == 0)
+        final double length = this.length();
+        if(length == 0)
         {
             return new Vector2(0, 0);
         }
-        return new Vector2(this.x / this.length, this.y / this.length);
+        return new Vector2(this.x / length, this.y / length);
     }
 
     public double length()
     {
-        return this.length;
+        double length = this.length;
+        if(Double.isNaN(length))
+        {
+            length = Math.sqrt(this.x * this.x + this.y * this.y);
+            this.length = length;
+        }
+        return length;
     }
 
     public Vector2 mul(Vector2 other)
@@ -116,7 +126,7 @@ public class Vector2 {
 
     public double distance(Vector2 other)
     {
-        return Math.sqrt(Math.pow(this.x - other.getX(), 2) + Math.pow(this.y - other.getY(), 2));
+        return Geometry.distance(this.x, this.y, other.getX(), other.getY());
     }
 
     public double getAngle()
@@ -149,7 +159,7 @@ public class Vector2 {
         return "Vector2{" +
                 "x=" + x +
                 ", y=" + y +
-                ", length=" + length +
+                ", length=" + length() +
                 '}';
     }
 
@@ -174,8 +184,8 @@ public class Vector2 {
 
 
     public static class Random extends Vector2 {
-        public Random() {
-            super(Game._RANDOM.nextDouble(), Game._RANDOM.nextDouble());
+        public Random(SplittableRandom random) {
+            super(random.nextDouble(), random.nextDouble());
         }
     }
 
@@ -0,0 +1,277 @@
+package Group9.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The instrumentation of a single game: a {@link LatencyHistogram} for every {@link Phase} of a turn and a handful of
+ * counters. Timing a phase costs two {@link System#nanoTime()} calls, the counters are plain longs, so the metrics are
+ * always on.
+ *
+ * A phase is timed like this:
+ *
+ *      final long start = metrics.start();
+ *      ...
+ *      metrics.stop(GameMetrics.Phase.VISION, start);
+ *
+ * Note: The metrics are written by the thread running the game only. They can be read from other threads (e.g. through
+ *  JMX) at any time, but the values might lag behind a little. Code that records on other threads (e.g. the workers of a
+ *  simultaneous turn) records through {@link GameMetrics#current()} into metrics of their own, which are added to
+ *  the game's metrics afterwards, see {@link GameMetrics#redirect(GameMetrics)}.
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+
+    public enum Phase
+    {
+        TURN,
+        VISION,
+        SOUND,
+        SMELL,
+        AREA,
+        EXECUTE_ACTION,
+        // --- the time the agents themselves take to decide on an action
+        GUARD_DECISION,
+        INTRUDER_DECISION
+    }
+
+    public enum Counter
+    {
+        RAYS_CAST,
+        INTERSECTION_TESTS,
+        PERCEPTS_EMITTED,
+        ACTIONS,
+        FAILED_ACTIONS,
+        // --- decisions that ran out of time, see Game#setDecisionBudget
+        BUDGET_VIOLATIONS
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+    private final long[] counters = new long[Counter.values().length];
+
+    // --- the metrics the current thread records into instead, see GameMetrics#current
+    private final static ThreadLocal<GameMetrics> _REDIRECT = new ThreadLocal<>();
+
+    private ObjectName objectName = null;
+
+    public GameMetrics()
+    {
+        for(int i = 0; i < histograms.length; i++)
+        {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @return The metrics the current thread should record into: these ones, unless the thread has been redirected.
+     */
+    public GameMetrics current()
+    {
+        final GameMetrics redirect = _REDIRECT.get();
+        return redirect == null ? this : redirect;
+    }
+
+    /**
+     * Makes {@link GameMetrics#current()} return the given metrics on the current thread.
+     * @param metrics The metrics to record into, or null to record into the game's metrics again.
+     * @return The previous redirect of the thread, it should be restored once the thread is done.
+     */
+    public static GameMetrics redirect(GameMetrics metrics)
+    {
+        final GameMetrics previous = _REDIRECT.get();
+        if(metrics == null)
+        {
+            _REDIRECT.remove();
+        }
+        else
+        {
+            _REDIRECT.set(metrics);
+        }
+        return previous;
+    }
+
+    public long start()
+    {
+        return System.nanoTime();
+    }
+
+    public void stop(Phase phase, long start)
+    {
+        this.histograms[phase.ordinal()].record(System.nanoTime() - start);
+    }
+
+    public void increment(Counter counter)
+    {
+        this.counters[counter.ordinal()]++;
+    }
+
+    public void add(Counter counter, long amount)
+    {
+        this.counters[counter.ordinal()] += amount;
+    }
+
+    public long get(Counter counter)
+    {
+        return this.counters[counter.ordinal()];
+    }
+
+    public LatencyHistogram getHistogram(Phase phase)
+    {
+        return this.histograms[phase.ordinal()];
+    }
+
+    /**
+     * Adds all recordings of the other metrics to these ones, e.g. to sum up a batch of games.
+     * @param other
+     */
+    public void add(GameMetrics other)
+    {
+        for(int i = 0; i < histograms.length; i++)
+        {
+            this.histograms[i].add(other.histograms[i]);
+        }
+        for(int i = 0; i < counters.length; i++)
+        {
+            this.counters[i] += other.counters[i];
+        }
+    }
+
+    public void reset()
+    {
+        for(LatencyHistogram histogram : histograms)
+        {
+            histogram.reset();
+        }
+        Arrays.fill(counters, 0);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server as `Group9:type=GameMetrics,name=<name>`.
+     * @param name
+     * @throws IllegalStateException If the metrics could not be registered.
+     */
+    public void register(String name)
+    {
+        try {
+            ObjectName objectName = ObjectName.getInstance(String.format("Group9:type=GameMetrics,name=%s", ObjectName.quote(name)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException(String.format("Could not register the metrics as %s.", name), e);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they have been registered.
+     */
+    public void unregister()
+    {
+        if(this.objectName == null)
+        {
+            return;
+        }
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if(server.isRegistered(this.objectName))
+            {
+                server.unregisterMBean(this.objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        this.objectName = null;
+    }
+
+    @Override
+    public long getTurns() {
+        return getHistogram(Phase.TURN).getCount();
+    }
+
+    @Override
+    public long getRaysCast() {
+        return get(Counter.RAYS_CAST);
+    }
+
+    @Override
+    public long getIntersectionTests() {
+        return get(Counter.INTERSECTION_TESTS);
+    }
+
+    @Override
+    public long getPerceptsEmitted() {
+        return get(Counter.PERCEPTS_EMITTED);
+    }
+
+    @Override
+    public long getActions() {
+        return get(Counter.ACTIONS);
+    }
+
+    @Override
+    public long getFailedActions() {
+        return get(Counter.FAILED_ACTIONS);
+    }
+
+    @Override
+    public long getBudgetViolations() {
+        return get(Counter.BUDGET_VIOLATIONS);
+    }
+
+    @Override
+    public Map<String, Double> getMeanMicros() {
+        Map<String, Double> means = new LinkedHashMap<>();
+        for(Phase phase : Phase.values())
+        {
+            means.put(phase.name(), getHistogram(phase).getMean() / 1E+3D);
+        }
+        return means;
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for(Phase phase : Phase.values())
+        {
+            percentiles.put(phase.name(), getHistogram(phase).getPercentile(0.99) / 1E+3D);
+        }
+        return percentiles;
+    }
+
+    @Override
+    public String dump() {
+        return toString();
+    }
+
+    public void dump(PrintStream out)
+    {
+        out.print(toString());
+        out.flush();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%-18s %10s %12s %12s %12s %12s %12s\n", "phase", "count", "total (ms)",
+                "mean (us)", "p50 (us)", "p99 (us)", "max (us)"));
+        for(Phase phase : Phase.values())
+        {
+            final LatencyHistogram histogram = getHistogram(phase);
+            builder.append(String.format("%-18s %10d %12.2f %12.2f %12.2f %12.2f %12.2f\n", phase.name(),
+                    histogram.getCount(), histogram.getSum() / 1E+6D, histogram.getMean() / 1E+3D,
+                    histogram.getPercentile(0.5) / 1E+3D, histogram.getPercentile(0.99) / 1E+3D,
+                    histogram.getMax() / 1E+3D));
+        }
+        for(Counter counter : Counter.values())
+        {
+            builder.append(String.format("%-18s %10d\n", counter.name(), get(counter)));
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,39 @@
+package Group9.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link GameMetrics}, see {@link GameMetrics#register(String)}.
+ */
+public interface GameMetricsMXBean {
+
+    long getTurns();
+
+    long getRaysCast();
+
+    long getIntersectionTests();
+
+    long getPerceptsEmitted();
+
+    long getActions();
+
+    long getFailedActions();
+
+    long getBudgetViolations();
+
+    /**
+     * @return The mean duration of every phase in microseconds.
+     */
+    Map<String, Double> getMeanMicros();
+
+    /**
+     * @return The 99th percentile of every phase in microseconds.
+     */
+    Map<String, Double> getP99Micros();
+
+    /**
+     * @return The same report as {@link GameMetrics#toString()}.
+     */
+    String dump();
+
+}
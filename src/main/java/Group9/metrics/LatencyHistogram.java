@@ -0,0 +1,137 @@
+package Group9.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of durations in nanoseconds. Every power of two is split into {@link LatencyHistogram#_SUB_BUCKETS}
+ * linear buckets, so recording a value is a couple of bit operations and an array increment, and the percentiles are
+ * accurate to within 1/_SUB_BUCKETS of the value.
+ *
+ * Note: A histogram is written by a single thread (the one running the game). Other threads can read it at any time,
+ *  but might see values that are a few recordings behind.
+ */
+public final class LatencyHistogram {
+
+    private final static int _SUB_BUCKET_BITS = 3;
+    private final static int _SUB_BUCKETS = 1 << _SUB_BUCKET_BITS;
+    private final static int _BUCKETS = (64 - _SUB_BUCKET_BITS) * _SUB_BUCKETS + _SUB_BUCKETS;
+
+    private final long[] buckets = new long[_BUCKETS];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    public void record(long nanos)
+    {
+        if(nanos < 0)
+        {
+            nanos = 0;
+        }
+
+        this.buckets[indexOf(nanos)]++;
+        this.count++;
+        this.sum += nanos;
+        if(nanos > this.max)
+        {
+            this.max = nanos;
+        }
+    }
+
+    /**
+     * Adds all recordings of the other histogram to this one.
+     * @param other
+     */
+    public void add(LatencyHistogram other)
+    {
+        for(int i = 0; i < _BUCKETS; i++)
+        {
+            this.buckets[i] += other.buckets[i];
+        }
+        this.count += other.count;
+        this.sum += other.sum;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    public void reset()
+    {
+        Arrays.fill(this.buckets, 0);
+        this.count = 0;
+        this.sum = 0;
+        this.max = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The sum of all recorded durations in nanoseconds.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean()
+    {
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    /**
+     * @param percentile In [0, 1].
+     * @return The upper end of the bucket the percentile falls into, in nanoseconds.
+     */
+    public long getPercentile(double percentile)
+    {
+        if(count == 0)
+        {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for(int i = 0; i < _BUCKETS; i++)
+        {
+            seen += buckets[i];
+            if(seen >= rank)
+            {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * The first _SUB_BUCKETS values get a bucket each, after that every power of two [2^k, 2^(k+1)) is split into
+     * _SUB_BUCKETS buckets of the same width.
+     */
+    private static int indexOf(long value)
+    {
+        if(value < _SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - _SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) & (_SUB_BUCKETS - 1);
+        return (shift + 1) * _SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int index)
+    {
+        if(index < _SUB_BUCKETS)
+        {
+            return index;
+        }
+
+        final int shift = index / _SUB_BUCKETS - 1;
+        final long subBucket = index % _SUB_BUCKETS;
+        final long upper = ((_SUB_BUCKETS + subBucket + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+}
@@ -0,0 +1,143 @@
+package Group9.replay;
+
+import Group9.Game;
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.map.GameMap;
+import Group9.map.dynamic.DynamicObject;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.dynamic.Sound;
+import Group9.map.objects.MapObject;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+
+/**
+ * The constants and hashes shared by the {@link ActionLogWriter} and the {@link ActionLogPlayer}.
+ *
+ * Layout (big-endian):
+ *  - header: magic, version, seed, map identity, guards, intruders, simultaneous moves (byte)
+ *  - ticks: amount of actions, the actions, state hash after the turn (8 bytes)
+ *
+ * An action is a single byte with its kind in the lower 3 bits. Move, sprint and rotate are followed by their distance
+ * or angle as a raw double (so the replay executes exactly the same action), unless {@link ActionLogFormat#_REPEATED}
+ * is set, in which case the agent used the same value as in its last action of this kind. A pheromone stores its type
+ * in the upper bits.
+ */
+final class ActionLogFormat {
+
+    final static int _MAGIC = 0x4739414C; // G9AL
+    final static int _VERSION = 1;
+    final static int _HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 1;
+
+    final static int _NO_ACTION = 0;
+    final static int _MOVE = 1;
+    final static int _SPRINT = 2;
+    final static int _ROTATE = 3;
+    final static int _YELL = 4;
+    final static int _DROP_PHEROMONE = 5;
+
+    final static int _KIND = 0x07;
+    final static int _REPEATED = 0x08;
+    final static int _TYPE_SHIFT = 4;
+
+    // --- FNV-1a
+    private final static long _OFFSET_BASIS = 0xcbf29ce484222325L;
+    private final static long _PRIME = 0x100000001b3L;
+
+    private ActionLogFormat() {}
+
+    private static long hash(long hash, long value)
+    {
+        for(int i = 0; i < 8; i++)
+        {
+            hash ^= (value >>> (i * 8)) & 0xFF;
+            hash *= _PRIME;
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, double value)
+    {
+        return hash(hash, Double.doubleToLongBits(value));
+    }
+
+    private static long hash(long hash, Vector2 vector)
+    {
+        return hash(hash(hash, vector.getX()), vector.getY());
+    }
+
+    /**
+     * @return A hash of the size, the amount of agents and all objects of the map, to make sure a replay is played on the
+     * map it has been recorded on.
+     */
+    static long mapIdentity(GameMap gameMap)
+    {
+        long hash = _OFFSET_BASIS;
+        hash = hash(hash, gameMap.getGameSettings().getWidth());
+        hash = hash(hash, gameMap.getGameSettings().getHeight());
+        hash = hash(hash, gameMap.getGameSettings().getNumGuards());
+        hash = hash(hash, gameMap.getGameSettings().getNumIntruders());
+        for(MapObject object : gameMap.getObjects())
+        {
+            hash = hash(hash, object.getType().ordinal());
+            if(object.getArea() instanceof PointContainer.Polygon)
+            {
+                for(Vector2 point : object.getArea().getAsPolygon().getPoints())
+                {
+                    hash = hash(hash, point);
+                }
+            }
+            else
+            {
+                hash = hash(hash, object.getArea().getCenter());
+                hash = hash(hash, object.getArea().getArea());
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @return A hash of everything that changes while the game is running: the turn, the winner, the state of every
+     * agent and the dynamic objects.
+     */
+    static long stateHash(Game game)
+    {
+        long hash = _OFFSET_BASIS;
+        hash = hash(hash, game.getTurns());
+        hash = hash(hash, game.getWinner() == null ? -1 : game.getWinner().ordinal());
+        for(AgentContainer<?> agent : game.getGuards())
+        {
+            hash = hash(hash, agent);
+        }
+        for(IntruderContainer intruder : game.getIntruders())
+        {
+            hash = hash(hash, intruder);
+            hash = hash(hash, intruder.isCaptured() ? 1 : 0);
+            hash = hash(hash, intruder.getZoneCounter());
+        }
+        for(DynamicObject<?> dynamicObject : game.getGameMap().getDynamicObjects())
+        {
+            if(dynamicObject instanceof Pheromone)
+            {
+                hash = hash(hash, 0x100 | ((Pheromone) dynamicObject).getType().ordinal());
+            }
+            else if(dynamicObject instanceof Sound)
+            {
+                hash = hash(hash, ((Sound) dynamicObject).getType().ordinal());
+            }
+            hash = hash(hash, dynamicObject.getCenter());
+            hash = hash(hash, dynamicObject.getRadius());
+            hash = hash(hash, dynamicObject.getLifetime());
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, AgentContainer<?> agent)
+    {
+        hash = hash(hash, agent.getPosition());
+        hash = hash(hash, agent.getDirection());
+        hash = hash(hash, agent.getCooldown(AgentContainer.Cooldown.SPRINTING));
+        return hash(hash, agent.getCooldown(AgentContainer.Cooldown.PHEROMONE));
+    }
+
+}
@@ -0,0 +1,247 @@
+package Group9.replay;
+
+import Group9.Game;
+import Group9.agent.container.AgentContainer;
+import Group9.agent.factories.IAgentFactory;
+import Group9.map.GameMap;
+import Interop.Action.*;
+import Interop.Agent.Guard;
+import Interop.Agent.Intruder;
+import Interop.Geometry.Angle;
+import Interop.Geometry.Distance;
+import Interop.Percept.Smell.SmellPerceptType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays an action log written by the {@link ActionLogWriter} again: the game is set up from the recorded seed on the
+ * same map, and every turn is played with {@link Game#replayTurn} with the recorded actions. The agents of the game are
+ * never asked for an action and no percepts are generated, so a replay is only as slow as the engine itself.
+ *
+ * After every turn the state of the game is compared against the recorded hash, an {@link IllegalStateException} is
+ * thrown in the first turn that does not match.
+ *
+ * Note: A player is not thread-safe. The log is memory-mapped and has to be smaller than 2GB.
+ */
+public final class ActionLogPlayer {
+
+    private final MappedByteBuffer buffer;
+
+    private final long seed;
+    private final long mapIdentity;
+    private final boolean simultaneousMoves;
+
+    private final Game game;
+    private final Map<AgentContainer<?>, Integer> agentIndices = new IdentityHashMap<>();
+    private final double[] lastMove, lastSprint, lastRotate;
+
+    private int ticks = 0;
+    private int tickActions = 0;
+
+    /**
+     * @param path
+     * @param gameMap The map the game has been recorded on, a new one which has not been used for any other game.
+     * @throws IOException If the file cannot be read, or is not an action log of this version.
+     * @throws IllegalArgumentException If the log has been recorded on another map.
+     */
+    public ActionLogPlayer(Path path, GameMap gameMap) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if(this.buffer.remaining() < ActionLogFormat._HEADER_BYTES || this.buffer.getInt() != ActionLogFormat._MAGIC)
+        {
+            throw new IOException(String.format("%s is not an action log.", path));
+        }
+        final int version = this.buffer.getInt();
+        if(version != ActionLogFormat._VERSION)
+        {
+            throw new IOException(String.format("%s has version %d, but only version %d is supported.", path, version,
+                    ActionLogFormat._VERSION));
+        }
+
+        this.seed = this.buffer.getLong();
+        this.mapIdentity = this.buffer.getLong();
+        final int guards = this.buffer.getInt();
+        final int intruders = this.buffer.getInt();
+        this.simultaneousMoves = this.buffer.get() != 0;
+
+        if(ActionLogFormat.mapIdentity(gameMap) != this.mapIdentity)
+        {
+            throw new IllegalArgumentException(String.format("%s has been recorded on another map.", path));
+        }
+
+        this.game = new Game(gameMap, new ReplayAgentFactory(), false, this.seed);
+        this.game.setSimultaneousMoves(this.simultaneousMoves);
+        if(this.game.getGuards().size() != guards || this.game.getIntruders().size() != intruders)
+        {
+            throw new IllegalArgumentException(String.format("%s has been recorded with %d guards and %d intruders, but the game has %d and %d.",
+                    path, guards, intruders, this.game.getGuards().size(), this.game.getIntruders().size()));
+        }
+
+        int index = 0;
+        for(AgentContainer<?> agent : this.game.getGuards())
+        {
+            this.agentIndices.put(agent, index++);
+        }
+        for(AgentContainer<?> agent : this.game.getIntruders())
+        {
+            this.agentIndices.put(agent, index++);
+        }
+        this.lastMove = new double[index];
+        this.lastSprint = new double[index];
+        this.lastRotate = new double[index];
+        Arrays.fill(this.lastMove, Double.NaN);
+        Arrays.fill(this.lastSprint, Double.NaN);
+        Arrays.fill(this.lastRotate, Double.NaN);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isSimultaneousMoves() {
+        return simultaneousMoves;
+    }
+
+    /**
+     * @return The game the log is played in, it is at the state after the last turn that has been played.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return The amount of turns played so far.
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    public boolean hasNextTick()
+    {
+        return this.buffer.hasRemaining();
+    }
+
+    /**
+     * Plays the next turn of the log.
+     * @return The winner after the turn, otherwise null.
+     * @throws IllegalStateException If the game diverged from the recorded one.
+     */
+    public Game.Team playTick()
+    {
+        if(!hasNextTick())
+        {
+            throw new IllegalStateException(String.format("The log only contains %d turns.", this.ticks));
+        }
+
+        this.tickActions = (int) ReplayFormat.getVarLong(this.buffer);
+        final Game.Team winner = this.game.replayTurn(this::nextAction);
+        this.ticks++;
+
+        if(this.tickActions != 0)
+        {
+            throw new IllegalStateException(String.format("The replay diverged in turn %d: %d recorded actions have not been used.",
+                    this.ticks, this.tickActions));
+        }
+        if(this.buffer.getLong() != ActionLogFormat.stateHash(this.game))
+        {
+            throw new IllegalStateException(String.format("The replay diverged in turn %d: the state does not match the recorded one.",
+                    this.ticks));
+        }
+        return winner;
+    }
+
+    /**
+     * Plays all remaining turns of the log.
+     * @return The winner, otherwise null.
+     */
+    public Game.Team play()
+    {
+        Game.Team winner = this.game.getWinner();
+        while (hasNextTick())
+        {
+            winner = playTick();
+        }
+        return winner;
+    }
+
+    private Action nextAction(AgentContainer<?> agent)
+    {
+        if(this.tickActions-- == 0)
+        {
+            throw new IllegalStateException(String.format("The replay diverged in turn %d: more actions are needed than have been recorded.",
+                    this.ticks + 1));
+        }
+
+        final int index = this.agentIndices.get(agent);
+        final int action = this.buffer.get() & 0xFF;
+        switch (action & ActionLogFormat._KIND)
+        {
+            case ActionLogFormat._NO_ACTION: return new NoAction();
+            case ActionLogFormat._MOVE: return new Move(new Distance(readValue(action, this.lastMove, index)));
+            case ActionLogFormat._SPRINT: return new Sprint(new Distance(readValue(action, this.lastSprint, index)));
+            case ActionLogFormat._ROTATE: return new Rotate(Angle.fromRadians(readValue(action, this.lastRotate, index)));
+            case ActionLogFormat._YELL: return new Yell();
+            case ActionLogFormat._DROP_PHEROMONE:
+                return new DropPheromone(SmellPerceptType.values()[action >>> ActionLogFormat._TYPE_SHIFT]);
+            default:
+                throw new IllegalStateException(String.format("Unknown action %d in turn %d.", action, this.ticks + 1));
+        }
+    }
+
+    private double readValue(int action, double[] last, int index)
+    {
+        if((action & ActionLogFormat._REPEATED) == 0)
+        {
+            last[index] = this.buffer.getDouble();
+        }
+        return last[index];
+    }
+
+    /**
+     * Creates agents that are only there to be moved around by the replay, they cannot decide on anything themselves.
+     */
+    private static class ReplayAgentFactory implements IAgentFactory {
+
+        @Override
+        public List<Intruder> createIntruders(int amount)
+        {
+            List<Intruder> intruders = new ArrayList<>(amount);
+            for(int i = 0; i < amount; i++)
+            {
+                intruders.add(percepts -> {
+                    throw new IllegalStateException("The agents of a replay cannot decide on an action.");
+                });
+            }
+            return intruders;
+        }
+
+        @Override
+        public List<Guard> createGuards(int amount)
+        {
+            List<Guard> guards = new ArrayList<>(amount);
+            for(int i = 0; i < amount; i++)
+            {
+                guards.add(percepts -> {
+                    throw new IllegalStateException("The agents of a replay cannot decide on an action.");
+                });
+            }
+            return guards;
+        }
+
+    }
+
+}
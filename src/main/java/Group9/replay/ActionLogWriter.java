@@ -0,0 +1,242 @@
+package Group9.replay;
+
+import Group9.Game;
+import Group9.agent.container.AgentContainer;
+import Interop.Action.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Records a game as an action log: the seed, the map and the action of every agent in every turn, see
+ * {@link ActionLogFormat} for the layout and {@link ActionLogPlayer} to play it again. This is a lot smaller than a
+ * {@link ReplayWriter} recording (a few bytes per action instead of the state of every agent), but the game has to be
+ * simulated again to see any state.
+ *
+ * The writer listens to the actions of the game, {@link ActionLogWriter#record()} has to be called after every turn and
+ * stores the actions of the turn together with a hash of the state after it, so a replay that diverges from the recorded
+ * game is noticed in the turn it happens.
+ *
+ * Note: The game has to be recorded from its first turn, and its agents must not use any randomness besides the
+ * random sources handed to them by the game.
+ */
+public final class ActionLogWriter implements Game.ActionListener, Closeable {
+
+    private final static int _BUFFER_SIZE = 1 << 16;
+    // --- the most bytes a single action can take
+    private final static int _MAX_ACTION_BYTES = 1 + 8;
+
+    private final Game game;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(_BUFFER_SIZE);
+    private ByteBuffer tickBuffer = ByteBuffer.allocate(1024);
+
+    private final Map<AgentContainer<?>, Integer> agentIndices = new IdentityHashMap<>();
+    private final double[] lastMove, lastSprint, lastRotate;
+
+    private int tickActions = 0;
+    private int ticks = 0;
+    private long actions = 0;
+    private long bytes = ActionLogFormat._HEADER_BYTES;
+
+    /**
+     * @param path The file the log is written to, it is overwritten.
+     * @param game The game to record, it must not have played any turn yet.
+     * @throws IOException
+     */
+    public ActionLogWriter(Path path, Game game) throws IOException
+    {
+        if(game.getTurns() != 0)
+        {
+            throw new IllegalArgumentException(String.format("The game has to be recorded from its first turn, but it already played %d.",
+                    game.getTurns()));
+        }
+
+        this.game = game;
+        int index = 0;
+        for(AgentContainer<?> agent : game.getGuards())
+        {
+            this.agentIndices.put(agent, index++);
+        }
+        for(AgentContainer<?> agent : game.getIntruders())
+        {
+            this.agentIndices.put(agent, index++);
+        }
+        this.lastMove = new double[index];
+        this.lastSprint = new double[index];
+        this.lastRotate = new double[index];
+        Arrays.fill(this.lastMove, Double.NaN);
+        Arrays.fill(this.lastSprint, Double.NaN);
+        Arrays.fill(this.lastRotate, Double.NaN);
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        this.buffer.putInt(ActionLogFormat._MAGIC);
+        this.buffer.putInt(ActionLogFormat._VERSION);
+        this.buffer.putLong(game.getSeed());
+        this.buffer.putLong(ActionLogFormat.mapIdentity(game.getGameMap()));
+        this.buffer.putInt(game.getGuards().size());
+        this.buffer.putInt(game.getIntruders().size());
+        this.buffer.put((byte) (game.isSimultaneousMoves() ? 1 : 0));
+
+        game.setActionListener(this);
+    }
+
+    /**
+     * @return The amount of turns recorded so far.
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return The amount of actions recorded so far.
+     */
+    public long getActions() {
+        return actions;
+    }
+
+    /**
+     * @return The size of the log so far, including the turns that have not been flushed yet.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public void call(AgentContainer<?> agent, Action action)
+    {
+        if(this.tickBuffer.remaining() < _MAX_ACTION_BYTES)
+        {
+            ByteBuffer grown = ByteBuffer.allocate(this.tickBuffer.capacity() * 2);
+            this.tickBuffer.flip();
+            grown.put(this.tickBuffer);
+            this.tickBuffer = grown;
+        }
+
+        final int index = this.agentIndices.get(agent);
+        if(action instanceof NoAction)
+        {
+            this.tickBuffer.put((byte) ActionLogFormat._NO_ACTION);
+        }
+        else if(action instanceof Move)
+        {
+            writeValue(ActionLogFormat._MOVE, ((Move) action).getDistance().getValue(), this.lastMove, index);
+        }
+        else if(action instanceof Sprint)
+        {
+            writeValue(ActionLogFormat._SPRINT, ((Sprint) action).getDistance().getValue(), this.lastSprint, index);
+        }
+        else if(action instanceof Rotate)
+        {
+            writeValue(ActionLogFormat._ROTATE, ((Rotate) action).getAngle().getRadians(), this.lastRotate, index);
+        }
+        else if(action instanceof Yell)
+        {
+            this.tickBuffer.put((byte) ActionLogFormat._YELL);
+        }
+        else if(action instanceof DropPheromone)
+        {
+            this.tickBuffer.put((byte) (ActionLogFormat._DROP_PHEROMONE |
+                    (((DropPheromone) action).getType().ordinal() << ActionLogFormat._TYPE_SHIFT)));
+        }
+        else
+        {
+            throw new IllegalArgumentException(String.format("Tried to record an unsupported action: %s", action));
+        }
+        this.tickActions++;
+    }
+
+    private void writeValue(int kind, double value, double[] last, int index)
+    {
+        if(Double.doubleToLongBits(value) == Double.doubleToLongBits(last[index]))
+        {
+            this.tickBuffer.put((byte) (kind | ActionLogFormat._REPEATED));
+        }
+        else
+        {
+            this.tickBuffer.put((byte) kind);
+            this.tickBuffer.putDouble(value);
+            last[index] = value;
+        }
+    }
+
+    /**
+     * Records the actions of the last turn and the state of the game after it.
+     * @throws IOException
+     */
+    public void record() throws IOException
+    {
+        this.tickBuffer.flip();
+        final int length = ReplayFormat.varLongSize(this.tickActions) + this.tickBuffer.remaining() + 8;
+        if(this.buffer.remaining() < length)
+        {
+            flush();
+        }
+
+        if(this.buffer.remaining() >= length)
+        {
+            ReplayFormat.putVarLong(this.buffer, this.tickActions);
+            this.buffer.put(this.tickBuffer);
+            this.buffer.putLong(ActionLogFormat.stateHash(this.game));
+        }
+        else
+        {
+            // --- Note: The turn is bigger than the whole buffer, so it is written straight to the channel.
+            ByteBuffer tick = ByteBuffer.allocate(length);
+            ReplayFormat.putVarLong(tick, this.tickActions);
+            tick.put(this.tickBuffer);
+            tick.putLong(ActionLogFormat.stateHash(this.game));
+            tick.flip();
+            while (tick.hasRemaining())
+            {
+                this.channel.write(tick);
+            }
+        }
+
+        this.bytes += length;
+        this.actions += this.tickActions;
+        this.ticks++;
+        this.tickActions = 0;
+        this.tickBuffer.clear();
+    }
+
+    /**
+     * Writes all buffered turns to the file.
+     * @throws IOException
+     */
+    public void flush() throws IOException
+    {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining())
+        {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * Stops listening to the game and writes all buffered turns, actions of a turn that has not been recorded yet are
+     * dropped.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException
+    {
+        this.game.setActionListener(null);
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package Group9.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The constants and the variable-length encoding shared by the {@link ReplayWriter} and the {@link ReplayReader}.
+ *
+ * Layout (big-endian):
+ *  - header: magic, version, seed, guards, intruders, keyframe interval, quanta per unit
+ *  - frames: length of the frame, then the frame itself, see {@link ReplayWriter}
+ *
+ * All values of a frame are varints, signed ones are zigzag-encoded first, so small deltas take a single byte.
+ */
+final class ReplayFormat {
+
+    final static int _MAGIC = 0x47395250; // G9RP
+    final static int _VERSION = 1;
+    final static int _HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4 + 4;
+
+    // --- Note: Positions are stored in 1/1024 units and directions in 1/65536 turns, which is far below anything that
+    //  can be seen or matters for a replay, but keeps the deltas of a single turn within two bytes.
+    final static int _SCALE = 1024;
+    final static int _ANGLE_STEPS = 1 << 16;
+
+    final static byte _KEYFRAME = 1;
+    final static byte _DELTA = 2;
+
+    // --- which values of an agent changed since the last frame
+    final static int _X = 1;
+    final static int _Y = 1 << 1;
+    final static int _DIRECTION = 1 << 2;
+    final static int _SPRINT = 1 << 3;
+    final static int _PHEROMONE = 1 << 4;
+    final static int _INTRUDER = 1 << 5;
+
+    // --- the kind of a dynamic object is stored in the highest bit, its type in the others
+    final static int _PHEROMONE_OBJECT = 0x80;
+
+    private ReplayFormat() {}
+
+    static long quantize(double value)
+    {
+        return Math.round(value * _SCALE);
+    }
+
+    static double dequantize(long value)
+    {
+        return value / (double) _SCALE;
+    }
+
+    static int quantizeAngle(double x, double y)
+    {
+        return (int) Math.round(Math.atan2(y, x) / (Math.PI * 2) * _ANGLE_STEPS) & (_ANGLE_STEPS - 1);
+    }
+
+    static double dequantizeAngle(int angle)
+    {
+        return angle / (double) _ANGLE_STEPS * Math.PI * 2;
+    }
+
+    /**
+     * @return The shortest signed difference between two quantized angles.
+     */
+    static int angleDelta(int from, int to)
+    {
+        return (short) (to - from);
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static void putSignedVarLong(ByteBuffer buffer, long value)
+    {
+        putVarLong(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    static int varLongSize(long value)
+    {
+        int size = 1;
+        while ((value & ~0x7FL) != 0)
+        {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static long getVarLong(ByteBuffer buffer)
+    {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static long getSignedVarLong(ByteBuffer buffer)
+    {
+        final long value = getVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
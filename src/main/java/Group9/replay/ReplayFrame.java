@@ -0,0 +1,230 @@
+package Group9.replay;
+
+import Group9.Game;
+import Group9.agent.container.AgentContainer;
+import Group9.math.Vector2;
+import Interop.Percept.Smell.SmellPerceptType;
+import Interop.Percept.Sound.SoundPerceptType;
+
+import java.util.Arrays;
+
+/**
+ * The state of a game after a single turn as stored in a replay. The agents are numbered like in the replay: first
+ * the guards, then the intruders, each in the order of their list in the game.
+ *
+ * Positions and directions are quantized, see {@link ReplayFormat}, so they can differ from the game by up to 1/2048
+ * units and 1/131072 of a turn.
+ */
+public final class ReplayFrame {
+
+    private int turn = 0;
+    private Game.Team winner = null;
+    private final int guards;
+    private final int intruders;
+
+    // --- per agent, quantized
+    final long[] x, y;
+    final int[] angle;
+    final int[] sprint, pheromone;
+    final boolean[] captured;
+    final int[] zone;
+
+    // --- per dynamic object
+    private int dynamicObjects = 0;
+    private int[] kinds = new int[0];
+    private int[] sources = new int[0];
+    private long[] dynamicX = new long[0], dynamicY = new long[0];
+    private long[] radii = new long[0];
+    private int[] lifetimes = new int[0];
+
+    ReplayFrame(int guards, int intruders)
+    {
+        this.guards = guards;
+        this.intruders = intruders;
+        final int agents = guards + intruders;
+        this.x = new long[agents];
+        this.y = new long[agents];
+        this.angle = new int[agents];
+        this.sprint = new int[agents];
+        this.pheromone = new int[agents];
+        this.captured = new boolean[agents];
+        this.zone = new int[agents];
+    }
+
+    private ReplayFrame(ReplayFrame other)
+    {
+        this.turn = other.turn;
+        this.winner = other.winner;
+        this.guards = other.guards;
+        this.intruders = other.intruders;
+        this.x = other.x.clone();
+        this.y = other.y.clone();
+        this.angle = other.angle.clone();
+        this.sprint = other.sprint.clone();
+        this.pheromone = other.pheromone.clone();
+        this.captured = other.captured.clone();
+        this.zone = other.zone.clone();
+        this.dynamicObjects = other.dynamicObjects;
+        this.kinds = Arrays.copyOf(other.kinds, other.dynamicObjects);
+        this.sources = Arrays.copyOf(other.sources, other.dynamicObjects);
+        this.dynamicX = Arrays.copyOf(other.dynamicX, other.dynamicObjects);
+        this.dynamicY = Arrays.copyOf(other.dynamicY, other.dynamicObjects);
+        this.radii = Arrays.copyOf(other.radii, other.dynamicObjects);
+        this.lifetimes = Arrays.copyOf(other.lifetimes, other.dynamicObjects);
+    }
+
+    ReplayFrame copy()
+    {
+        return new ReplayFrame(this);
+    }
+
+    void setTurn(int turn, Game.Team winner)
+    {
+        this.turn = turn;
+        this.winner = winner;
+    }
+
+    void clearDynamicObjects(int capacity)
+    {
+        this.dynamicObjects = 0;
+        if(this.kinds.length < capacity)
+        {
+            this.kinds = new int[capacity];
+            this.sources = new int[capacity];
+            this.dynamicX = new long[capacity];
+            this.dynamicY = new long[capacity];
+            this.radii = new long[capacity];
+            this.lifetimes = new int[capacity];
+        }
+    }
+
+    void addDynamicObject(int kind, int source, long x, long y, long radius, int lifetime)
+    {
+        final int i = this.dynamicObjects++;
+        this.kinds[i] = kind;
+        this.sources[i] = source;
+        this.dynamicX[i] = x;
+        this.dynamicY[i] = y;
+        this.radii[i] = radius;
+        this.lifetimes[i] = lifetime;
+    }
+
+    /**
+     * @return The turn this frame has been recorded after, 0 for the state before the first turn.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * @return The winner, or null if the game was still running.
+     */
+    public Game.Team getWinner() {
+        return winner;
+    }
+
+    public int getGuards() {
+        return guards;
+    }
+
+    public int getIntruders() {
+        return intruders;
+    }
+
+    public int getAgents()
+    {
+        return guards + intruders;
+    }
+
+    public boolean isGuard(int agent)
+    {
+        return agent < guards;
+    }
+
+    public Vector2 getPosition(int agent)
+    {
+        return new Vector2(ReplayFormat.dequantize(x[agent]), ReplayFormat.dequantize(y[agent]));
+    }
+
+    public Vector2 getDirection(int agent)
+    {
+        final double theta = ReplayFormat.dequantizeAngle(angle[agent]);
+        return new Vector2(Math.cos(theta), Math.sin(theta));
+    }
+
+    public int getCooldown(int agent, AgentContainer.Cooldown cooldown)
+    {
+        return cooldown == AgentContainer.Cooldown.SPRINTING ? sprint[agent] : pheromone[agent];
+    }
+
+    /**
+     * @param agent
+     * @return Whether the intruder has been captured, always false for guards.
+     */
+    public boolean isCaptured(int agent)
+    {
+        return captured[agent];
+    }
+
+    /**
+     * @param agent
+     * @return The amount of turns the intruder has been in the target area, always 0 for guards.
+     */
+    public int getZoneCounter(int agent)
+    {
+        return zone[agent];
+    }
+
+    public int getDynamicObjects() {
+        return dynamicObjects;
+    }
+
+    public boolean isPheromone(int dynamicObject)
+    {
+        return (kinds[dynamicObject] & ReplayFormat._PHEROMONE_OBJECT) != 0;
+    }
+
+    /**
+     * @param dynamicObject
+     * @return The type of the sound, or null if the object is a pheromone.
+     */
+    public SoundPerceptType getSoundType(int dynamicObject)
+    {
+        return isPheromone(dynamicObject) ? null : SoundPerceptType.values()[kinds[dynamicObject]];
+    }
+
+    /**
+     * @param dynamicObject
+     * @return The type of the pheromone, or null if the object is a sound.
+     */
+    public SmellPerceptType getSmellType(int dynamicObject)
+    {
+        return isPheromone(dynamicObject) ?
+                SmellPerceptType.values()[kinds[dynamicObject] & ~ReplayFormat._PHEROMONE_OBJECT] : null;
+    }
+
+    /**
+     * @param dynamicObject
+     * @return The agent that made the object, or -1 if it is unknown.
+     */
+    public int getSource(int dynamicObject)
+    {
+        return sources[dynamicObject];
+    }
+
+    public Vector2 getDynamicObjectCenter(int dynamicObject)
+    {
+        return new Vector2(ReplayFormat.dequantize(dynamicX[dynamicObject]), ReplayFormat.dequantize(dynamicY[dynamicObject]));
+    }
+
+    public double getDynamicObjectRadius(int dynamicObject)
+    {
+        return ReplayFormat.dequantize(radii[dynamicObject]);
+    }
+
+    public int getDynamicObjectLifetime(int dynamicObject)
+    {
+        return lifetimes[dynamicObject];
+    }
+
+}
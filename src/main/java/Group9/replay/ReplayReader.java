@@ -0,0 +1,222 @@
+package Group9.replay;
+
+import Group9.Game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a replay written by the {@link ReplayWriter} from a memory-mapped file. Opening a replay only indexes where
+ * the frames start, the frames themselves are decoded when they are requested: a frame is decoded starting at the
+ * keyframe before it, or just from the frame before it when the frames are read in order.
+ *
+ * Note: A reader is not thread-safe. The replay has to be smaller than 2GB.
+ */
+public final class ReplayReader {
+
+    private final MappedByteBuffer buffer;
+
+    private final long seed;
+    private final int guards;
+    private final int intruders;
+    private final int keyframeInterval;
+
+    private final int[] offsets;
+    private final int[] keyframes;
+
+    // --- the last decoded frame, so frames that are read in order only need to apply a single delta
+    private final ReplayFrame state;
+    private int decoded = -1;
+
+    /**
+     * @param path
+     * @throws IOException If the file cannot be read, or is not a replay of this version.
+     */
+    public ReplayReader(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if(this.buffer.remaining() < ReplayFormat._HEADER_BYTES || this.buffer.getInt() != ReplayFormat._MAGIC)
+        {
+            throw new IOException(String.format("%s is not a replay.", path));
+        }
+        final int version = this.buffer.getInt();
+        if(version != ReplayFormat._VERSION)
+        {
+            throw new IOException(String.format("%s has version %d, but only version %d is supported.", path, version,
+                    ReplayFormat._VERSION));
+        }
+
+        this.seed = this.buffer.getLong();
+        this.guards = this.buffer.getInt();
+        this.intruders = this.buffer.getInt();
+        this.keyframeInterval = this.buffer.getInt();
+        final int scale = this.buffer.getInt();
+        if(scale != ReplayFormat._SCALE)
+        {
+            throw new IOException(String.format("%s uses %d quanta per unit, but only %d are supported.", path, scale,
+                    ReplayFormat._SCALE));
+        }
+
+        // --- index the frames, a frame that has not been written completely (e.g. the game crashed) is ignored
+        int[] offsets = new int[64];
+        int[] keyframes = new int[64];
+        int frames = 0;
+        int keyframe = -1;
+        while (this.buffer.hasRemaining())
+        {
+            final int start = this.buffer.position();
+            final long length;
+            try {
+                length = ReplayFormat.getVarLong(this.buffer);
+            } catch (RuntimeException e) {
+                break;
+            }
+            if(length <= 0 || length > this.buffer.remaining())
+            {
+                this.buffer.position(start);
+                break;
+            }
+
+            if(frames == offsets.length)
+            {
+                offsets = Arrays.copyOf(offsets, frames * 2);
+                keyframes = Arrays.copyOf(keyframes, frames * 2);
+            }
+            if(this.buffer.get(this.buffer.position()) == ReplayFormat._KEYFRAME)
+            {
+                keyframe = frames;
+            }
+            if(keyframe == -1)
+            {
+                throw new IOException(String.format("%s does not start with a keyframe.", path));
+            }
+
+            offsets[frames] = this.buffer.position();
+            keyframes[frames] = keyframe;
+            frames++;
+            this.buffer.position(this.buffer.position() + (int) length);
+        }
+
+        this.offsets = Arrays.copyOf(offsets, frames);
+        this.keyframes = Arrays.copyOf(keyframes, frames);
+        this.state = new ReplayFrame(this.guards, this.intruders);
+    }
+
+    /**
+     * @return The seed of the recorded game.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getGuards() {
+        return guards;
+    }
+
+    public int getIntruders() {
+        return intruders;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public int getFrameCount()
+    {
+        return this.offsets.length;
+    }
+
+    /**
+     * @param index
+     * @return The frame, it is not changed by reading other frames.
+     */
+    public ReplayFrame getFrame(int index)
+    {
+        if(index < 0 || index >= this.offsets.length)
+        {
+            throw new IndexOutOfBoundsException(String.format("Frame %d does not exist, the replay has %d frames.",
+                    index, this.offsets.length));
+        }
+
+        final int from = (this.decoded >= this.keyframes[index] && this.decoded <= index) ? this.decoded + 1 : this.keyframes[index];
+        for(int i = from; i <= index; i++)
+        {
+            decode(i);
+        }
+        this.decoded = index;
+        return this.state.copy();
+    }
+
+    private void decode(int index)
+    {
+        final ByteBuffer frame = this.buffer.duplicate();
+        frame.position(this.offsets[index]);
+
+        final boolean keyframe = frame.get() == ReplayFormat._KEYFRAME;
+        final int turn = (int) ReplayFormat.getVarLong(frame);
+        final int winner = (int) ReplayFormat.getVarLong(frame);
+        this.state.setTurn(turn, winner == 0 ? null : Game.Team.values()[winner - 1]);
+
+        final ReplayFrame s = this.state;
+        for(int i = 0; i < s.getAgents(); i++)
+        {
+            if(keyframe)
+            {
+                s.x[i] = ReplayFormat.getSignedVarLong(frame);
+                s.y[i] = ReplayFormat.getSignedVarLong(frame);
+                s.angle[i] = (int) ReplayFormat.getVarLong(frame);
+                s.sprint[i] = (int) ReplayFormat.getVarLong(frame);
+                s.pheromone[i] = (int) ReplayFormat.getVarLong(frame);
+                if(!s.isGuard(i))
+                {
+                    s.captured[i] = frame.get() != 0;
+                    s.zone[i] = (int) ReplayFormat.getVarLong(frame);
+                }
+                continue;
+            }
+
+            final int mask = frame.get();
+            if((mask & ReplayFormat._X) != 0) s.x[i] += ReplayFormat.getSignedVarLong(frame);
+            if((mask & ReplayFormat._Y) != 0) s.y[i] += ReplayFormat.getSignedVarLong(frame);
+            if((mask & ReplayFormat._DIRECTION) != 0)
+            {
+                s.angle[i] = (int) (s.angle[i] + ReplayFormat.getSignedVarLong(frame)) & (ReplayFormat._ANGLE_STEPS - 1);
+            }
+            if((mask & ReplayFormat._SPRINT) != 0) s.sprint[i] = (int) ReplayFormat.getVarLong(frame);
+            if((mask & ReplayFormat._PHEROMONE) != 0) s.pheromone[i] = (int) ReplayFormat.getVarLong(frame);
+            if((mask & ReplayFormat._INTRUDER) != 0)
+            {
+                s.captured[i] = frame.get() != 0;
+                s.zone[i] = (int) ReplayFormat.getVarLong(frame);
+            }
+        }
+
+        final int dynamicObjects = (int) ReplayFormat.getVarLong(frame);
+        s.clearDynamicObjects(dynamicObjects);
+        for(int i = 0; i < dynamicObjects; i++)
+        {
+            final int kind = frame.get() & 0xFF;
+            final int source = (int) ReplayFormat.getVarLong(frame) - 1;
+            long x = ReplayFormat.getSignedVarLong(frame);
+            long y = ReplayFormat.getSignedVarLong(frame);
+            if(source >= 0)
+            {
+                x += s.x[source];
+                y += s.y[source];
+            }
+            final long radius = ReplayFormat.getVarLong(frame);
+            final int lifetime = (int) ReplayFormat.getVarLong(frame);
+            s.addDynamicObject(kind, source, x, y, radius, lifetime);
+        }
+    }
+
+}
@@ -0,0 +1,320 @@
+package Group9.replay;
+
+import Group9.Game;
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.map.dynamic.DynamicObject;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.dynamic.Sound;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records a game into a compact binary replay, see {@link ReplayFormat} for the layout and {@link ReplayReader} to
+ * read it. The writer records the state of the game when it is created and then once every time
+ * {@link ReplayWriter#record()} is called, usually after every turn.
+ *
+ * Every {@link ReplayWriter#getKeyframeInterval()}-th frame is a keyframe that stores the full state of every agent. All
+ * other frames only store what changed since the frame before: one byte per agent with a bit for every value that
+ * changed, followed by the (quantized) deltas of these values. An agent that does not do anything therefore takes a
+ * single byte, an agent that moves around takes ~5 bytes. The dynamic objects (sounds and pheromones) are stored in
+ * every frame, relative to the position of the agent that made them.
+ *
+ * Frame (all numbers are varints, deltas and positions are zigzag-encoded):
+ *  - kind (keyframe or delta), turn, winner (0 = none, 1 + ordinal of the team)
+ *  - keyframe: per agent x, y, direction, sprint cooldown, pheromone cooldown, for intruders captured and zone counter
+ *  - delta: per agent the bit mask of the changed values, followed by the changed values as above (x, y and direction
+ *    as deltas)
+ *  - dynamic objects: count, then per object its kind, 1 + source agent (0 if unknown), x, y, radius and lifetime
+ *
+ * The frames are buffered and written through a {@link FileChannel}. A writer is not thread-safe, it should be used by
+ * the thread running the game.
+ */
+public final class ReplayWriter implements Closeable {
+
+    private final static int _BUFFER_SIZE = 1 << 16;
+    // --- the most bytes a single agent or dynamic object can take in a frame
+    private final static int _MAX_ENTRY_BYTES = 1 + 10 * 7;
+
+    private final Game game;
+    private final int keyframeInterval;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(_BUFFER_SIZE);
+    private ByteBuffer frameBuffer = ByteBuffer.allocate(_BUFFER_SIZE);
+
+    private final List<AgentContainer<?>> agents = new ArrayList<>();
+    private final Map<AgentContainer<?>, Integer> agentIndices = new IdentityHashMap<>();
+
+    private ReplayFrame previous;
+    private ReplayFrame current;
+
+    private int frames = 0;
+    private long bytes = ReplayFormat._HEADER_BYTES;
+
+    /**
+     * @param path The file the replay is written to, it is overwritten.
+     * @param game The game to record, its current state is recorded right away.
+     * @param keyframeInterval Every how many frames the full state is stored.
+     * @throws IOException
+     */
+    public ReplayWriter(Path path, Game game, int keyframeInterval) throws IOException
+    {
+        if(keyframeInterval < 1)
+        {
+            throw new IllegalArgumentException(String.format("The keyframe interval has to be positive, got %d.", keyframeInterval));
+        }
+
+        this.game = game;
+        this.keyframeInterval = keyframeInterval;
+        this.agents.addAll(game.getGuards());
+        this.agents.addAll(game.getIntruders());
+        for(int i = 0; i < this.agents.size(); i++)
+        {
+            this.agentIndices.put(this.agents.get(i), i);
+        }
+        this.previous = new ReplayFrame(game.getGuards().size(), game.getIntruders().size());
+        this.current = new ReplayFrame(game.getGuards().size(), game.getIntruders().size());
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        this.buffer.putInt(ReplayFormat._MAGIC);
+        this.buffer.putInt(ReplayFormat._VERSION);
+        this.buffer.putLong(game.getSeed());
+        this.buffer.putInt(game.getGuards().size());
+        this.buffer.putInt(game.getIntruders().size());
+        this.buffer.putInt(keyframeInterval);
+        this.buffer.putInt(ReplayFormat._SCALE);
+
+        record();
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * @return The amount of frames recorded so far.
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return The size of the replay so far, including the frames that have not been flushed yet.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Records the current state of the game as the next frame.
+     * @throws IOException
+     */
+    public void record() throws IOException
+    {
+        final boolean keyframe = this.frames % this.keyframeInterval == 0;
+        capture();
+
+        this.frameBuffer.clear();
+        this.frameBuffer.put(keyframe ? ReplayFormat._KEYFRAME : ReplayFormat._DELTA);
+        ReplayFormat.putVarLong(this.frameBuffer, this.current.getTurn());
+        ReplayFormat.putVarLong(this.frameBuffer, this.current.getWinner() == null ? 0 : this.current.getWinner().ordinal() + 1);
+
+        for(int i = 0; i < this.agents.size(); i++)
+        {
+            ensureFrameCapacity(_MAX_ENTRY_BYTES);
+            if(keyframe)
+            {
+                writeKeyframe(i);
+            }
+            else
+            {
+                writeDelta(i);
+            }
+        }
+
+        final List<DynamicObject<?>> dynamicObjects = this.game.getGameMap().getDynamicObjects();
+        ensureFrameCapacity(10);
+        ReplayFormat.putVarLong(this.frameBuffer, dynamicObjects.size());
+        for(DynamicObject<?> dynamicObject : dynamicObjects)
+        {
+            ensureFrameCapacity(_MAX_ENTRY_BYTES);
+            writeDynamicObject(dynamicObject);
+        }
+
+        this.frameBuffer.flip();
+        writeFrame(this.frameBuffer);
+
+        final ReplayFrame swap = this.previous;
+        this.previous = this.current;
+        this.current = swap;
+        this.frames++;
+    }
+
+    /**
+     * Quantizes the state of the game into the current frame.
+     */
+    private void capture()
+    {
+        this.current.setTurn(this.game.getTurns(), this.game.getWinner());
+        for(int i = 0; i < this.agents.size(); i++)
+        {
+            final AgentContainer<?> agent = this.agents.get(i);
+            this.current.x[i] = ReplayFormat.quantize(agent.getPosition().getX());
+            this.current.y[i] = ReplayFormat.quantize(agent.getPosition().getY());
+            this.current.angle[i] = ReplayFormat.quantizeAngle(agent.getDirection().getX(), agent.getDirection().getY());
+            this.current.sprint[i] = agent.getCooldown(AgentContainer.Cooldown.SPRINTING);
+            this.current.pheromone[i] = agent.getCooldown(AgentContainer.Cooldown.PHEROMONE);
+            if(agent instanceof IntruderContainer)
+            {
+                this.current.captured[i] = ((IntruderContainer) agent).isCaptured();
+                this.current.zone[i] = ((IntruderContainer) agent).getZoneCounter();
+            }
+        }
+    }
+
+    private void writeKeyframe(int i)
+    {
+        ReplayFormat.putSignedVarLong(this.frameBuffer, this.current.x[i]);
+        ReplayFormat.putSignedVarLong(this.frameBuffer, this.current.y[i]);
+        ReplayFormat.putVarLong(this.frameBuffer, this.current.angle[i]);
+        ReplayFormat.putVarLong(this.frameBuffer, this.current.sprint[i]);
+        ReplayFormat.putVarLong(this.frameBuffer, this.current.pheromone[i]);
+        if(!this.current.isGuard(i))
+        {
+            this.frameBuffer.put((byte) (this.current.captured[i] ? 1 : 0));
+            ReplayFormat.putVarLong(this.frameBuffer, this.current.zone[i]);
+        }
+    }
+
+    private void writeDelta(int i)
+    {
+        final ReplayFrame current = this.current, previous = this.previous;
+        int mask = 0;
+        if(current.x[i] != previous.x[i]) mask |= ReplayFormat._X;
+        if(current.y[i] != previous.y[i]) mask |= ReplayFormat._Y;
+        if(current.angle[i] != previous.angle[i]) mask |= ReplayFormat._DIRECTION;
+        if(current.sprint[i] != previous.sprint[i]) mask |= ReplayFormat._SPRINT;
+        if(current.pheromone[i] != previous.pheromone[i]) mask |= ReplayFormat._PHEROMONE;
+        if(current.captured[i] != previous.captured[i] || current.zone[i] != previous.zone[i]) mask |= ReplayFormat._INTRUDER;
+
+        this.frameBuffer.put((byte) mask);
+        if((mask & ReplayFormat._X) != 0) ReplayFormat.putSignedVarLong(this.frameBuffer, current.x[i] - previous.x[i]);
+        if((mask & ReplayFormat._Y) != 0) ReplayFormat.putSignedVarLong(this.frameBuffer, current.y[i] - previous.y[i]);
+        if((mask & ReplayFormat._DIRECTION) != 0)
+        {
+            ReplayFormat.putSignedVarLong(this.frameBuffer, ReplayFormat.angleDelta(previous.angle[i], current.angle[i]));
+        }
+        if((mask & ReplayFormat._SPRINT) != 0) ReplayFormat.putVarLong(this.frameBuffer, current.sprint[i]);
+        if((mask & ReplayFormat._PHEROMONE) != 0) ReplayFormat.putVarLong(this.frameBuffer, current.pheromone[i]);
+        if((mask & ReplayFormat._INTRUDER) != 0)
+        {
+            this.frameBuffer.put((byte) (current.captured[i] ? 1 : 0));
+            ReplayFormat.putVarLong(this.frameBuffer, current.zone[i]);
+        }
+    }
+
+    private void writeDynamicObject(DynamicObject<?> dynamicObject)
+    {
+        final int kind;
+        if(dynamicObject instanceof Pheromone)
+        {
+            kind = ReplayFormat._PHEROMONE_OBJECT | ((Pheromone) dynamicObject).getType().ordinal();
+        }
+        else if(dynamicObject instanceof Sound)
+        {
+            kind = ((Sound) dynamicObject).getType().ordinal();
+        }
+        else
+        {
+            throw new IllegalArgumentException(String.format("Unsupported DynamicObject: %s", dynamicObject.getClass().getName()));
+        }
+
+        final Integer source = dynamicObject.getSource() instanceof AgentContainer ? this.agentIndices.get(dynamicObject.getSource()) : null;
+        long x = ReplayFormat.quantize(dynamicObject.getCenter().getX());
+        long y = ReplayFormat.quantize(dynamicObject.getCenter().getY());
+        if(source != null)
+        {
+            x -= this.current.x[source];
+            y -= this.current.y[source];
+        }
+
+        this.frameBuffer.put((byte) kind);
+        ReplayFormat.putVarLong(this.frameBuffer, source == null ? 0 : source + 1);
+        ReplayFormat.putSignedVarLong(this.frameBuffer, x);
+        ReplayFormat.putSignedVarLong(this.frameBuffer, y);
+        ReplayFormat.putVarLong(this.frameBuffer, ReplayFormat.quantize(dynamicObject.getRadius()));
+        ReplayFormat.putVarLong(this.frameBuffer, Math.max(0, dynamicObject.getLifetime()));
+    }
+
+    private void ensureFrameCapacity(int bytes)
+    {
+        if(this.frameBuffer.remaining() < bytes)
+        {
+            ByteBuffer grown = ByteBuffer.allocate(this.frameBuffer.capacity() * 2);
+            this.frameBuffer.flip();
+            grown.put(this.frameBuffer);
+            this.frameBuffer = grown;
+        }
+    }
+
+    private void writeFrame(ByteBuffer frame) throws IOException
+    {
+        final int length = frame.remaining();
+        if(this.buffer.remaining() < length + 5)
+        {
+            flush();
+        }
+
+        ReplayFormat.putVarLong(this.buffer, length);
+        if(this.buffer.remaining() >= length)
+        {
+            this.buffer.put(frame);
+        }
+        else
+        {
+            // --- Note: The frame is bigger than the whole buffer, so it is written straight to the channel.
+            flush();
+            while (frame.hasRemaining())
+            {
+                this.channel.write(frame);
+            }
+        }
+        this.bytes += ReplayFormat.varLongSize(length) + length;
+    }
+
+    /**
+     * Writes all buffered frames to the file.
+     * @throws IOException
+     */
+    public void flush() throws IOException
+    {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining())
+        {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+}
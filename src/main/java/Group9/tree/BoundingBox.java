@@ -0,0 +1,136 @@
+package Group9.tree;
+
+import Group9.math.Vector2;
+
+/**
+ * Immutable axis-aligned bounding box. Used as the broad-phase for the {@link QuadTree}, checking two boxes for overlap
+ * is a handful of comparisons, whereas {@link PointContainer#intersect(PointContainer, PointContainer)} has to test
+ * every line of a polygon.
+ */
+public class BoundingBox {
+
+    private final double minX, minY;
+    private final double maxX, maxY;
+
+    public BoundingBox(double minX, double minY, double maxX, double maxY)
+    {
+        if(minX > maxX || minY > maxY)
+        {
+            throw new IllegalArgumentException(String.format("Invalid bounding box (%f, %f) -> (%f, %f).", minX, minY, maxX, maxY));
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    public double getMinX() {
+        return minX;
+    }
+
+    public double getMinY() {
+        return minY;
+    }
+
+    public double getMaxX() {
+        return maxX;
+    }
+
+    public double getMaxY() {
+        return maxY;
+    }
+
+    public double getWidth()
+    {
+        return maxX - minX;
+    }
+
+    public double getHeight()
+    {
+        return maxY - minY;
+    }
+
+    public boolean intersects(BoundingBox other)
+    {
+        return intersects(other.minX, other.minY, other.maxX, other.maxY);
+    }
+
+    public boolean intersects(double minX, double minY, double maxX, double maxY)
+    {
+        return this.minX <= maxX && this.maxX >= minX && this.minY <= maxY && this.maxY >= minY;
+    }
+
+    public boolean contains(BoundingBox other)
+    {
+        return this.minX <= other.minX && this.maxX >= other.maxX && this.minY <= other.minY && this.maxY >= other.maxY;
+    }
+
+    /**
+     * Returns the smallest bounding box that contains both boxes.
+     * @param other
+     * @return
+     */
+    public BoundingBox union(BoundingBox other)
+    {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY));
+    }
+
+    /**
+     * Calculates the bounding box of a point container.
+     * @param container
+     * @return
+     */
+    public static BoundingBox of(PointContainer container)
+    {
+        if(container instanceof PointContainer.Polygon)
+        {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for(Vector2 point : container.getAsPolygon().getPoints())
+            {
+                minX = Math.min(minX, point.getX());
+                minY = Math.min(minY, point.getY());
+                maxX = Math.max(maxX, point.getX());
+                maxY = Math.max(maxY, point.getY());
+            }
+            return new BoundingBox(minX, minY, maxX, maxY);
+        }
+        else if(container instanceof PointContainer.Circle)
+        {
+            PointContainer.Circle circle = container.getAsCircle();
+            return of(circle.getCenter(), circle.getRadius());
+        }
+        else if(container instanceof PointContainer.Line)
+        {
+            PointContainer.Line line = (PointContainer.Line) container;
+            return new BoundingBox(
+                    Math.min(line.getStart().getX(), line.getEnd().getX()), Math.min(line.getStart().getY(), line.getEnd().getY()),
+                    Math.max(line.getStart().getX(), line.getEnd().getX()), Math.max(line.getStart().getY(), line.getEnd().getY())
+            );
+        }
+
+        throw new IllegalArgumentException(String.format("Unsupported PointContainer: %s", container.getClass().getName()));
+    }
+
+    /**
+     * Bounding box of a circle with the given center and radius.
+     * @param center
+     * @param radius
+     * @return
+     */
+    public static BoundingBox of(Vector2 center, double radius)
+    {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getX() + radius, center.getY() + radius);
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" +
+                "minX=" + minX +
+                ", minY=" + minY +
+                ", maxX=" + maxX +
+                ", maxY=" + maxY +
+                '}';
+    }
+}
@@ -1,40 +1,25 @@
 package Group9.tree;
 
-import Group9.math.Vector2;
-
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 class Node<T> {
 
-    private final short NW = 0, NE = 1, SW = 2, SE = 3;
+    private final static short NW = 0, NE = 1, SW = 2, SE = 3;
 
     private List<Content<T>> content = new ArrayList<>();
     private Node<T>[] children;
 
-    private final Vector2 center;
-    private final double width, height;
+    private final BoundingBox bounds;
     private final int maxSize;
     private final int maxDepth;
 
-    private PointContainer.Polygon quadrilateral;
-
-    public Node(final Vector2 center, double width, double height, int maxSize, final int maxDepth)
+    public Node(final BoundingBox bounds, int maxSize, final int maxDepth)
     {
-        this.center = center;
-        this.width = width;
-        this.height = height;
+        this.bounds = bounds;
         this.maxSize = maxSize;
         this.maxDepth = maxDepth;
-
-        this.quadrilateral = new PointContainer.Polygon(
-                center.add(width / 2, height / 2),
-                center.add(width / 2, -height / 2),
-                center.add(-width / 2, -height / 2),
-                center.add(-width / 2, height / 2)
-        );
     }
 
     private boolean hasChildren()
@@ -46,9 +31,12 @@ class Node<T> {
     {
         if(this.hasChildren())
         {
-            for(short index : divide(container.getContainer(), this.children))
+            for(Node<T> child : this.children)
             {
-                this.children[index].add(container, depth + 1);
+                if(child.bounds.intersects(container.getBounds()))
+                {
+                    child.add(container, depth + 1);
+                }
             }
         }
         else if(this.content.size() + 1 <= maxSize || this.maxDepth == depth)
@@ -65,61 +53,77 @@ class Node<T> {
     private void split(Content<T> container, int depth)
     {
         this.children = new Node[4];
-        final double w = width / 2D;
-        final double h = height / 2D;
-        this.children[NE] = new Node<>(center.add(w, h), width, height, maxSize, maxDepth);
-        this.children[SE] = new Node<>(center.add(w, -h), width, height, maxSize, maxDepth);
-        this.children[SW] = new Node<>(center.add(-w, -h), width, height, maxSize, maxDepth);
-        this.children[NW] = new Node<>(center.add(-w, h), width, height, maxSize, maxDepth);
-
-        this.content.add(container);
-        for(Content<T> c : this.content)
-        {
-            for(short index : divide(c.getContainer(), this.children))
-            {
-                this.children[index].add(c, depth + 1);
-            }
-        }
+        final double minX = bounds.getMinX(), minY = bounds.getMinY();
+        final double maxX = bounds.getMaxX(), maxY = bounds.getMaxY();
+        final double midX = (minX + maxX) / 2D;
+        final double midY = (minY + maxY) / 2D;
+        this.children[NE] = new Node<>(new BoundingBox(midX, midY, maxX, maxY), maxSize, maxDepth);
+        this.children[SE] = new Node<>(new BoundingBox(midX, minY, maxX, midY), maxSize, maxDepth);
+        this.children[SW] = new Node<>(new BoundingBox(minX, minY, midX, midY), maxSize, maxDepth);
+        this.children[NW] = new Node<>(new BoundingBox(minX, midY, midX, maxY), maxSize, maxDepth);
+
+        List<Content<T>> content = this.content;
+        content.add(container);
         this.content = null;
 
-    }
-
-    private Set<Short> divide(PointContainer container, Node<T>[] c)
-    {
-        Set<Short> divisions = new HashSet<>();
-
-        if(PointContainer.intersect(container, c[NE].quadrilateral))
+        for(Content<T> c : content)
         {
-            divisions.add(NE);
+            this.add(c, depth);
         }
+    }
 
-        if(PointContainer.intersect(container, c[SE].quadrilateral))
+    /**
+     * Marks the id of every content whose bounding box overlaps with the given box. Content that spans several
+     * children is stored in each one of them, the bit set takes care of the duplicates.
+     */
+    void query(BoundingBox box, BitSet found)
+    {
+        if(!this.bounds.intersects(box))
         {
-            divisions.add(SE);
+            return;
         }
 
-        if(PointContainer.intersect(container, c[SW].quadrilateral))
+        if(this.hasChildren())
         {
-            divisions.add(SW);
+            for(Node<T> child : this.children)
+            {
+                child.query(box, found);
+            }
         }
-
-        if(PointContainer.intersect(container, c[NW].quadrilateral))
+        else
         {
-            divisions.add(NE);
+            for(Content<T> c : this.content)
+            {
+                if(c.getBounds().intersects(box))
+                {
+                    found.set(c.getId());
+                }
+            }
         }
-
-        return divisions;
     }
 
     static class Content<T> {
 
-        private T content;
-        private PointContainer container;
+        private final int id;
+        private final T content;
+        private final PointContainer container;
+        private final BoundingBox bounds;
 
-        public Content(T content, PointContainer container)
+        public Content(int id, T content, PointContainer container)
         {
+            this(id, content, container, BoundingBox.of(container));
+        }
+
+        public Content(int id, T content, PointContainer container, BoundingBox bounds)
+        {
+            this.id = id;
             this.content = content;
             this.container = container;
+            this.bounds = bounds;
+        }
+
+        public int getId() {
+            return id;
         }
 
         public T getContent() {
@@ -130,6 +134,9 @@ class Node<T> {
             return container;
         }
 
+        public BoundingBox getBounds() {
+            return bounds;
+        }
     }
 
 }
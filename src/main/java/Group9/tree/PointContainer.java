@@ -1,13 +1,9 @@
 package Group9.tree;
 
-import Group9.Game;
+import Group9.math.Geometry;
 import Group9.math.Vector2;
 
 import java.util.*;
-import java.util.function.Function;
-
-import static Group9.PiMath.geq;
-import static Group9.PiMath.leq;
 
 public abstract class PointContainer {
 
@@ -62,8 +58,9 @@ public abstract class PointContainer {
     public static class Polygon extends PointContainer {
 
         private Vector2[] points;
+        private double[] xs, ys;
         private Line[] lines;
-        private List<Vector2[]> triangles = new ArrayList<>();
+        private volatile List<Vector2[]> triangles = null;
 
         private double area = -1;
 
@@ -75,9 +72,18 @@ public abstract class PointContainer {
             }
 
             this.points = points;
+            this.xs = new double[this.points.length];
+            this.ys = new double[this.points.length];
             this.lines = new Line[this.points.length];
+            this.update();
+        }
+
+        private void update()
+        {
             for(int i = 0; i < this.points.length; i++)
             {
+                this.xs[i] = this.points[i].getX();
+                this.ys[i] = this.points[i].getY();
                 this.lines[i] = new Line(this.points[i], this.points[(i + 1) % this.points.length]);
             }
         }
@@ -108,12 +114,31 @@ public abstract class PointContainer {
             return this.lines;
         }
 
+        /**
+         * @return The x-coordinates of the points, for use with {@link Geometry}. Must not be modified.
+         */
+        public double[] getXs()
+        {
+            return this.xs;
+        }
+
+        /**
+         * @return The y-coordinates of the points, for use with {@link Geometry}. Must not be modified.
+         */
+        public double[] getYs()
+        {
+            return this.ys;
+        }
+
         public List<Vector2[]> getTriangles()
         {
 
-            //---
-            if(triangles.isEmpty())
+            // --- Note: Polygons of a map template are shared between games that run in parallel, so the triangles are
+            //  collected in a local list first and the field is only set once the list is complete.
+            List<Vector2[]> triangles = this.triangles;
+            if(triangles == null)
             {
+                triangles = new ArrayList<>();
                 //---
                 //TODO implememt https://www.geometrictools.com/Documentation/TriangulationByEarClipping.pdf
                 // very important
@@ -140,7 +165,7 @@ public abstract class PointContainer {
                                 //  for polygons with 4 points. ^^
                                 Line _02 = new Line(a, c);
                                 Vector2 randomPoint = new Vector2(_02.getStart().getX(), _02.getStart().getY()).add(
-                                        new Vector2.Random().normalise().mul(
+                                        new Vector2.Random(new SplittableRandom()).normalise().mul(
                                                 _02.getEnd().getX() - _02.getStart().getX(),
                                                 _02.getEnd().getY() - _02.getStart().getY()
                                         )
@@ -158,29 +183,44 @@ public abstract class PointContainer {
 
                 for(int i = 1; i <= this.points.length - 2; i++)
                 {
-                    this.triangles.add(new Vector2[] {
+                    triangles.add(new Vector2[] {
                             this.points[0], this.points[i], this.points[(i + 1)]
                     });
                 }
+                this.triangles = triangles;
             }
 
             return triangles;
         }
 
-        public Vector2 generateRandomLocation()
+        /**
+         * Replaces the triangles returned by {@link Polygon#getTriangles()}, e.g. with the ones stored in a compiled map.
+         * @param triangles Triangles that cover the polygon exactly.
+         */
+        public void setTriangles(List<Vector2[]> triangles)
+        {
+            this.triangles = triangles;
+        }
+
+        /**
+         * Samples a random point inside of the polygon.
+         * @param random The random source the point is sampled from.
+         * @return
+         */
+        public Vector2 generateRandomLocation(SplittableRandom random)
         {
             //--- follows: https://www.cs.princeton.edu/~funk/tog02.pdf @ 4.2
 
             // TODO if we wanted to make this actually uniform, we would need to calculate the area of the triangles
             //  and weight them appropriately... (low priority)
             List<Vector2[]> triangles = getTriangles();
-            Vector2[] triangle = triangles.get(Math.round(Game._RANDOM.nextFloat() * (triangles.size() - 1)));
+            Vector2[] triangle = triangles.get((int) Math.round(random.nextDouble() * (triangles.size() - 1)));
 
             Vector2 A = triangle[0];
             Vector2 B = triangle[1];
             Vector2 C = triangle[2];
-            double r1 = Game._RANDOM.nextDouble();
-            double r2 = Game._RANDOM.nextDouble();
+            double r1 = random.nextDouble();
+            double r2 = random.nextDouble();
 
             //--- P = A * sqrt(r1) + B * (1-r2)*sqrt(r1) + C * sqrt(r1)*r2
             final Vector2 r =  A.mul(1 - Math.sqrt(r1))
@@ -202,44 +242,16 @@ public abstract class PointContainer {
          */
         public boolean isPointInside(Vector2 point)
         {
-            for (Vector2[] e : getTriangles()) {
-                if (isInTriangle(e[0], e[1], e[2], point)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        private static boolean isInTriangle(Vector2 A, Vector2 B, Vector2 C, Vector2 P)
-        {
-            Vector2 v0 = C.sub(A);
-            Vector2 v1 = B.sub(A);
-            Vector2 v2 = P.sub(A);
-
-            double dot00 = v0.dot(v0);
-            double dot01 = v0.dot(v1);
-            double dot02 = v0.dot(v2);
-            double dot11 = v1.dot(v1);
-            double dot12 = v1.dot(v2);
-
-            double invDenom = 1D / (dot00 * dot11 - dot01 * dot01);
-            double u = (dot11 * dot02 - dot01 * dot12) * invDenom;
-            double v = (dot00 * dot12 - dot01 * dot02) * invDenom;
-
-            return (u >= 0) && (v >= 0) && (u + v < 1);
+            return Geometry.isPointInPolygon(this.xs, this.ys, point.getX(), point.getY());
         }
 
         @Override
         public void translate(Vector2 vector) {
-            this.triangles.clear();
+            this.triangles = null;
             for (int i = 0; i < this.points.length; i++) {
                 this.points[i] = this.points[i].add(vector);
             }
-
-            for(int i = 0; i < this.points.length; i++)
-            {
-                this.lines[i] = new Line(this.points[i], this.points[(i + 1) % this.points.length]);
-            }
+            this.update();
         }
 
         @Override
@@ -296,7 +308,7 @@ public abstract class PointContainer {
 
         public boolean isInside(Vector2 point)
         {
-            return center.distance(point) <= radius;
+            return Geometry.distance(center.getX(), center.getY(), point.getX(), point.getY()) <= radius;
         }
 
         public double getRadius() {
@@ -391,12 +403,7 @@ public abstract class PointContainer {
 
         public boolean isPointOnLine(Vector2 p)
         {
-            double length = this.start.distance(this.end);
-
-            double start_p = this.start.distance(p);
-            double end_p = this.end.distance(p);
-
-            return Math.abs(start_p + end_p - length) < 1E-9;
+            return Geometry.isPointOnSegment(start.getX(), start.getY(), end.getX(), end.getY(), p.getX(), p.getY());
         }
 
         public Vector2 getNormal()
@@ -448,50 +455,19 @@ public abstract class PointContainer {
             if(containerA instanceof Polygon && containerB instanceof Polygon)
             {
                 Polygon other = (polygon == containerB) ? (Polygon) containerA : (Polygon) containerB;
-                for(Line a : polygon.getLines()) {
-                    for(Line b : other.getLines())
-                    {
-                        if(intersect(a, b))
-                        {
-                            return true;
-                        }
-                    }
-                }
-
-                return Arrays.stream(polygon.getPoints()).anyMatch(other::isPointInside)
-                        || Arrays.stream(other.getPoints()).anyMatch(polygon::isPointInside);
+                return Geometry.polygonsIntersect(polygon.xs, polygon.ys, other.xs, other.ys);
             }
             else if(containerA instanceof Circle || containerB instanceof Circle)
             {
                 Circle circle = (containerA instanceof Circle) ? (Circle) containerA : (Circle) containerB;
-
-                if(polygon.isPointInside(circle.getCenter()))
-                {
-                    return true;
-                }
-
-                for(Line a : polygon.getLines())
-                {
-                    if(circleLineIntersect(circle, a).length != 0)
-                    {
-                        return true;
-                    }
-                }
-
-                return false;
+                return Geometry.polygonCircleIntersect(polygon.xs, polygon.ys,
+                        circle.getCenter().getX(), circle.getCenter().getY(), circle.getRadius());
             }
             else if(containerA instanceof Line || containerB instanceof Line)
             {
                 Line line = (containerA instanceof Line) ? (Line) containerA : (Line) containerB;
-                for(Line a : polygon.getLines())
-                {
-                    if(intersect(a, line))
-                    {
-                        return true;
-                    }
-                }
-
-                return (polygon.isPointInside(line.getStart()) || polygon.isPointInside(line.getEnd()));
+                return Geometry.polygonSegmentIntersect(polygon.xs, polygon.ys,
+                        line.getStart().getX(), line.getStart().getY(), line.getEnd().getX(), line.getEnd().getY());
             }
 
         }
@@ -500,7 +476,8 @@ public abstract class PointContainer {
             Circle a = (Circle) containerA;
             Circle b = (Circle) containerB;
 
-            return a.getCenter().distance(b.getCenter()) < Math.max(a.getRadius(), b.getRadius());
+            return Geometry.circlesIntersect(a.getCenter().getX(), a.getCenter().getY(), a.getRadius(),
+                    b.getCenter().getX(), b.getCenter().getY(), b.getRadius());
         }
         else if(containerA instanceof Line || containerB instanceof Line)
         {
@@ -509,12 +486,17 @@ public abstract class PointContainer {
             if(containerA instanceof Line && containerB instanceof Line)
             {
                 Line other = (line == containerA) ? (Line) containerB : (Line) containerA;
-                return PointContainer.twoLinesIntersect(line.getStart(), line.getEnd(), other.getStart(), other.getEnd()) != null;
+                return Geometry.segmentIntersection(
+                        line.getStart().getX(), line.getStart().getY(), line.getEnd().getX(), line.getEnd().getY(),
+                        other.getStart().getX(), other.getStart().getY(), other.getEnd().getX(), other.getEnd().getY(),
+                        new double[2], 0);
             }
             else if(containerA instanceof Circle || containerB instanceof Circle)
             {
                 Circle circle = (containerA instanceof Circle) ? (Circle) containerA : (Circle) containerB;
-                return circleLineIntersect(circle, line).length != 0;
+                return Geometry.circleSegmentIntersection(circle.getCenter().getX(), circle.getCenter().getY(), circle.getRadius(),
+                        line.getStart().getX(), line.getStart().getY(), line.getEnd().getX(), line.getEnd().getY(),
+                        new double[4], 0) != 0;
             }
 
         }
@@ -527,227 +509,46 @@ public abstract class PointContainer {
         Set<Vector2> intersectionPoints = new HashSet<>();
 
         if (pointContainer instanceof Line) {
-            intersectionPoints.add(twoLinesIntersect((Line) pointContainer,l));
-        } else if (pointContainer instanceof Circle) {
-            Collections.addAll(intersectionPoints, circleLineIntersect((Circle) pointContainer, l));
-        } else if (pointContainer instanceof Polygon) {
-            Polygon q = (Polygon) pointContainer;
-
-            for (Line ql : q.getLines()) {
-                Vector2 intersectPoint = twoLinesIntersect(ql, l);
-                if (intersectPoint != null) {
-                    intersectionPoints.add(intersectPoint);
-                }
-            }
-        }
-
-        return intersectionPoints;
-    }
-
-    private static Vector2[] circleLineIntersect(Circle circle, Line line)
-    {
-        Vector2 start = line.getStart().sub(circle.getCenter());
-        Vector2 end = line.getEnd().sub(circle.getCenter());
-
-        double dx = end.getX() - start.getX();
-        double dy = end.getY() - start.getY();
-
-        if(dx == 0 || dy == 0)
-        {
-            Line top = new Line(circle.getCenter(), circle.getCenter().add(new Vector2(0, 1).mul(circle.getRadius())));
-            Line right = new Line(circle.getCenter(), circle.getCenter().add(new Vector2(1, 0).mul(circle.getRadius())));
-            Line bottom = new Line(circle.getCenter(), circle.getCenter().add(new Vector2(0, -1).mul(circle.getRadius())));
-            Line left = new Line(circle.getCenter(), circle.getCenter().add(new Vector2(-1, 0).mul(circle.getRadius())));
-
-            if(twoLinesIntersect(line, top) != null)
+            // --- Note: Adds null if they do not intersect, kept for backwards compatibility.
+            double[] points = new double[2];
+            intersectionPoints.add(intersectionPoints(pointContainer, l.getStart().getX(), l.getStart().getY(),
+                    l.getEnd().getX(), l.getEnd().getY(), points) == 0 ? null : new Vector2(points[0], points[1]));
+        } else {
+            double[] points = new double[pointContainer instanceof Polygon ? ((Polygon) pointContainer).xs.length * 2 : 4];
+            final int count = intersectionPoints(pointContainer, l.getStart().getX(), l.getStart().getY(),
+                    l.getEnd().getX(), l.getEnd().getY(), points);
+            for(int i = 0; i < count; i++)
             {
-                return new Vector2[] {top.getEnd()};
+                intersectionPoints.add(new Vector2(points[i * 2], points[i * 2 + 1]));
             }
-            if(twoLinesIntersect(line, right) != null)
-            {
-                return new Vector2[] {right.getEnd()};
-            }
-            if(twoLinesIntersect(line, bottom) != null)
-            {
-                return new Vector2[] {bottom.getEnd()};
-            }
-            if(twoLinesIntersect(line, left) != null)
-            {
-                return new Vector2[] {left.getEnd()};
-            }
-
-            /*Line a = new Line(circle.getCenter(), circle.getCenter().add(line.getStart().sub(circle.getCenter()).normalise().mul(circle.getRadius())));
-            Line b = new Line(circle.getCenter(), circle.getCenter().add(line.getEnd().sub(circle.getCenter()).normalise().mul(circle.getRadius())));
-
-            if(twoLinesIntersect(line, a) != null)
-            {
-                return new Vector2[] {circle.getCenter().add(line.getStart().sub(circle.getCenter()).normalise().mul(circle.getRadius()))};
-            }
-
-            if(twoLinesIntersect(line, b) != null)
-            {
-                return new Vector2[] {circle.getCenter().add(line.getEnd().sub(circle.getCenter()).normalise().mul(circle.getRadius()))};
-            }*/
-
-            return new Vector2[0];
-            //return new Vector2[0];
-        }
-
-        double dr = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
-
-        double D = (start.getX() * end.getY()) - (end.getX() * start.getY());
-
-        double discriminant = Math.pow(circle.getRadius(), 2) * Math.pow(dr, 2) - Math.pow(D, 2);
-
-        if(discriminant < 0)
-        {
-            return new Vector2[0];
-        }
-
-        Function<Double, Double> sgn = x -> (x < 0 ? -1D : 1D);
-
-        if(discriminant == 0)
-        {
-            Vector2 candidate = new Vector2(
-                    (D * dy + sgn.apply(dy) * dx * Math.sqrt(discriminant)) / Math.pow(dr, 2),
-                    (-D * dx + Math.abs(dy) * Math.sqrt(discriminant)) / Math.pow(dr, 2)
-            ).add(circle.getCenter());
-
-            if(line.isPointOnLine(candidate))
-            {
-                return new Vector2[] { candidate };
-            }
-            return new Vector2[0];
-        }
-
-        Vector2 candidateA = new Vector2(
-                (D * dy + sgn.apply(dy) * dx * Math.sqrt(discriminant)) / Math.pow(dr, 2),
-                (-D * dx + Math.abs(dy) * Math.sqrt(discriminant)) / Math.pow(dr, 2)
-        ).add(circle.getCenter());
-        Vector2 candidateB = new Vector2(
-                (D * dy - sgn.apply(dy) * dx * Math.sqrt(discriminant)) / Math.pow(dr, 2),
-                (-D * dx - Math.abs(dy) * Math.sqrt(discriminant)) / Math.pow(dr, 2)
-        ).add(circle.getCenter());
-
-        boolean a = line.isPointOnLine(candidateA);
-        boolean b = line.isPointOnLine(candidateB);
-
-        if(a && b)
-        {
-            return new Vector2[] { candidateA, candidateB };
-        }
-        else if(a)
-        {
-            return new Vector2[] { candidateA };
-        }
-        else if(b)
-        {
-            return new Vector2[] { candidateB };
         }
 
-        return new Vector2[0];
+        return intersectionPoints;
     }
 
     /**
-     * Calculate whether 2 lines intersect with each other
-     * @param a_start start point of line 1.
-     * @param a_end end point of line 1.
-     * @param b_start start point of line 2.
-     * @param b_end end point of line 2.
-     * @return the vector that points to the intersection point, returns null when no intersection is found
+     * Allocation-free version of {@link PointContainer#intersectionPoints(PointContainer, Line)} for the line
+     * (x1, y1) -> (x2, y2). The same point might be reported more than once.
+     *
+     * @param out Receives the points as (x, y) pairs. Has to be able to hold 2 values for a line, 4 for a circle and
+     *            2 * the amount of points for a polygon.
+     * @return The amount of points.
      */
-    private static Vector2 twoLinesIntersect(Vector2 a_start, Vector2 a_end, Vector2 b_start, Vector2 b_end){
-        //http://mathworld.wolfram.com/Line-LineIntersection.html
-        double x1 = a_start.getX();
-        double y1 = a_start.getY();
-        double x2 = a_end.getX();
-        double y2 = a_end.getY();
-        double x3 = b_start.getX();
-        double y3 = b_start.getY();
-        double x4 = b_end.getX();
-        double y4 = b_end.getY();
-        double parallelDenominator = determinant(x1-x2, y1-y2, x3-x4, y3-y4);
-
-        if(parallelDenominator == 0.0){
-
-            // Note: when the lines are parallel we have to check whether they contain one another
-            // 1. First, we check if they share the same y-intercept, if they do not share the same intercept then
-            //      they are parallel but can not intercept one another.
-            // 2. Check if the start, end or both points are inside the other line.
-            // mx+b=y -> b = y-mx
-            double _a_y_intercept = a_start.getY() - (a_end.getY() - a_start.getY()) / (a_end.getX() - a_start.getX()) * a_start.getX();
-            double _b_y_intercept = b_start.getY() - (b_end.getY() - b_start.getY()) / (b_end.getX() - b_start.getX()) * b_start.getX();
-
-            //-- check y intercept
-            if(_a_y_intercept != _b_y_intercept || Double.isInfinite(_a_y_intercept) || Double.isInfinite(_b_y_intercept))
-            {
-                return null;
-            }
-
-            if(a_start.getX() >= b_start.getX() && a_end.getX() <= b_end.getX())
-            {
-                return a_start;
-            }
-            else if(a_start.getX() >= b_start.getX() && a_start.getX() <= b_end.getX() && a_end.getX() >= b_end.getX())
-            {
-                return a_start;
-            }
-            else if(a_start.getX() <= b_start.getX() && a_end.getX() >= b_start.getX() && a_end.getX() <= b_end.getX())
-            {
-                return b_end;
-            }
-
-            if (b_start.getX() >= a_start.getX() && b_end.getX() <= a_end.getX())
-            {
-                return b_start;
-            }
-            else if(b_start.getX() >= a_start.getX() && b_start.getX() <= a_end.getX() && b_end.getX() >= a_end.getX())
-            {
-                return b_start;
-            }
-            else if(b_start.getX() <= a_start.getX() && b_end.getX() >= a_start.getX() && b_end.getX() <= a_end.getX())
-            {
-                return b_end;
-            }
-
-            return null;
-        }
-
-        double determinantLine1 = determinant(x1, y1, x2, y2);
-        double determinantLine2 = determinant(x3, y3, x4, y4);
-        double xValue = determinant(determinantLine1, x1-x2, determinantLine2, x3-x4);
-        double yValue = determinant(determinantLine1, y1-y2, determinantLine2, y3-y4);
-        double xToCheck = xValue/parallelDenominator;
-        double yToCheck = yValue/parallelDenominator;
-
-        if (((geq(x1, xToCheck) && leq(x2, xToCheck)) || (geq(x2, xToCheck) && leq(x1, xToCheck))) && ((geq(y1, yToCheck) && leq(y2, yToCheck)) || (geq(y2, yToCheck) && leq(y1, yToCheck))))
-        {
-            if (((geq(x3, xToCheck) && leq(x4, xToCheck)) || (geq(x4, xToCheck) && leq(x3, xToCheck))) && ((geq(y3, yToCheck) && leq(y4, yToCheck)) || (geq(y4, yToCheck) && leq(y3, yToCheck)))) {
-                return new Vector2(xToCheck, yToCheck);
-            }
+    public static int intersectionPoints(PointContainer pointContainer, double x1, double y1, double x2, double y2, double[] out)
+    {
+        if (pointContainer instanceof Line) {
+            Line line = (Line) pointContainer;
+            return Geometry.segmentIntersection(
+                    line.getStart().getX(), line.getStart().getY(), line.getEnd().getX(), line.getEnd().getY(),
+                    x1, y1, x2, y2, out, 0) ? 1 : 0;
+        } else if (pointContainer instanceof Circle) {
+            Circle circle = (Circle) pointContainer;
+            return Geometry.circleSegmentIntersection(circle.getCenter().getX(), circle.getCenter().getY(), circle.getRadius(),
+                    x1, y1, x2, y2, out, 0);
+        } else if (pointContainer instanceof Polygon) {
+            Polygon polygon = (Polygon) pointContainer;
+            return Geometry.polygonSegmentIntersection(polygon.xs, polygon.ys, x1, y1, x2, y2, out, 0);
         }
-
-        return null;
-    }
-
-    private static Vector2 twoLinesIntersect(Line a, Line b) {
-        return twoLinesIntersect(a.getStart(), a.getEnd(), b.getStart(), b.getEnd());
-    }
-
-    /**
-     * matrix defined as
-     * | a b |
-     * | c d |
-     * note,
-     * @param x1 a or d
-     * @param y1 c or b
-     * @param x2 b or c
-     * @param y2 d or a
-     * @return The determinant of a 2x2 matrix
-     */
-    private static double determinant(double x1, double y1, double x2, double y2){
-        return (x1*y2)-(x2*y1);
+        return 0;
     }
 }
-
-
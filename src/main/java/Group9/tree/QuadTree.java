@@ -1,34 +1,145 @@
 package Group9.tree;
 
-import Group9.math.Vector2;
+import java.util.*;
 
+/**
+ * Immutable region quadtree over static content. The tree is built once from all values, and afterwards can only be
+ * queried, which also makes it safe to share between threads.
+ *
+ * Every query first collects all candidates whose bounding box overlaps the query region (broad-phase), and then, except
+ * for {@link QuadTree#queryRange(BoundingBox)}, checks the candidates with
+ * {@link PointContainer#intersect(PointContainer, PointContainer)} (narrow-phase). The results are always returned in
+ * the order in which the values were passed to the constructor, so the tree can be swapped in for a linear scan without
+ * changing the iteration order.
+ *
+ * @param <T>
+ */
 public class QuadTree<T> {
 
+    private final static int _DEFAULT_MAX_SIZE = 8;
+    private final static int _DEFAULT_MAX_DEPTH = 8;
+
     private final Node<T> root;
-    private final Vector2 translateToTreeOrigin;
-    private final Vector2 translateToRealOrigin;
+    private final List<Node.Content<T>> contents;
 
-    private TransferFunction<T> transferFunction;
+    public QuadTree(Collection<T> values, TransferFunction<T> transferFunction)
+    {
+        this(values, _DEFAULT_MAX_SIZE, _DEFAULT_MAX_DEPTH, transferFunction);
+    }
 
-    public QuadTree(int width, int height, int maxDepth, TransferFunction<T> transferFunction)
+    public QuadTree(Collection<T> values, int maxSize, int maxDepth, TransferFunction<T> transferFunction)
     {
-        this.translateToTreeOrigin = new Vector2(-width / 2D, -height / 2D);
-        this.translateToRealOrigin = this.translateToTreeOrigin.mul(-1, -1);
+        this(values, null, maxSize, maxDepth, transferFunction);
+    }
 
-        this.root = new Node<>(new Vector2(0, 0), width, height, 5, maxDepth);
-        this.transferFunction = transferFunction;
+    /**
+     * @param values
+     * @param boxes The precomputed bounding boxes of the values (in the same order), e.g. from a compiled map.
+     * @param transferFunction
+     */
+    public QuadTree(Collection<T> values, List<BoundingBox> boxes, TransferFunction<T> transferFunction)
+    {
+        this(values, boxes, _DEFAULT_MAX_SIZE, _DEFAULT_MAX_DEPTH, transferFunction);
     }
 
-    public void add(T value)
+    private QuadTree(Collection<T> values, List<BoundingBox> boxes, int maxSize, int maxDepth, TransferFunction<T> transferFunction)
     {
-        PointContainer pointContainer = null;
-        try {
-            pointContainer = transferFunction.transfer(value).clone();
-        } catch (CloneNotSupportedException e) {
-            e.printStackTrace();
+        List<Node.Content<T>> contents = new ArrayList<>(values.size());
+        BoundingBox bounds = null;
+        for(T value : values)
+        {
+            final PointContainer container = transferFunction.transfer(value);
+            Node.Content<T> content = new Node.Content<>(contents.size(), value, container,
+                    boxes == null ? BoundingBox.of(container) : boxes.get(contents.size()));
+            contents.add(content);
+            bounds = (bounds == null) ? content.getBounds() : bounds.union(content.getBounds());
         }
-        pointContainer.translate(this.translateToTreeOrigin);
-        this.root.add(new Node.Content<>(value, pointContainer), 1);
+
+        this.contents = Collections.unmodifiableList(contents);
+        this.root = new Node<>(bounds == null ? new BoundingBox(0, 0, 0, 0) : bounds, maxSize, maxDepth);
+        for(Node.Content<T> content : contents)
+        {
+            this.root.add(content, 1);
+        }
+    }
+
+    public int size()
+    {
+        return this.contents.size();
+    }
+
+    /**
+     * Returns all values whose bounding box overlaps with the given box. This is only the broad-phase, it returns a
+     * superset of the values that actually intersect the area.
+     * @param box
+     * @return
+     */
+    public List<T> queryRange(BoundingBox box)
+    {
+        List<T> result = new ArrayList<>();
+        BitSet found = candidates(box);
+        for(int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1))
+        {
+            result.add(this.contents.get(id).getContent());
+        }
+        return result;
+    }
+
+    public List<T> queryRange(double minX, double minY, double maxX, double maxY)
+    {
+        return queryRange(new BoundingBox(minX, minY, maxX, maxY));
+    }
+
+    /**
+     * Returns all values that intersect the given circle.
+     * @param circle
+     * @return
+     */
+    public List<T> queryCircle(PointContainer.Circle circle)
+    {
+        return query(circle);
+    }
+
+    /**
+     * Returns all values that overlap with the given polygon.
+     * @param polygon
+     * @return
+     */
+    public List<T> queryPolygon(PointContainer.Polygon polygon)
+    {
+        return query(polygon);
+    }
+
+    /**
+     * Returns all values that intersect the given segment.
+     * @param line
+     * @return
+     */
+    public List<T> queryLine(PointContainer.Line line)
+    {
+        return query(line);
+    }
+
+    private List<T> query(PointContainer area)
+    {
+        List<T> result = new ArrayList<>();
+        BitSet found = candidates(BoundingBox.of(area));
+        for(int id = found.nextSetBit(0); id >= 0; id = found.nextSetBit(id + 1))
+        {
+            Node.Content<T> content = this.contents.get(id);
+            if(PointContainer.intersect(content.getContainer(), area))
+            {
+                result.add(content.getContent());
+            }
+        }
+        return result;
+    }
+
+    private BitSet candidates(BoundingBox box)
+    {
+        BitSet found = new BitSet(this.contents.size());
+        this.root.query(box, found);
+        return found;
     }
 
     public interface TransferFunction<T> {
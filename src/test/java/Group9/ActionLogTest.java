@@ -0,0 +1,168 @@
+package Group9;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.parser.Parser;
+import Group9.replay.ActionLogPlayer;
+import Group9.replay.ActionLogWriter;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ActionLogTest extends SimpleUnitTest {
+
+    private final static String _MAP = "./src/main/java/Group9/map/maps/mazy.map";
+    private final static int _TURNS = 150;
+
+    public static void main(String[] args) {
+
+        it("ActionLogPlayer <same_game>", ActionLogTest::test_same_game);
+        it("ActionLogPlayer <same_game_simultaneous>", ActionLogTest::test_same_game_simultaneous);
+        it("ActionLogWriter <compact>", ActionLogTest::test_compact);
+        it("ActionLogPlayer <detects_divergence>", ActionLogTest::test_divergence);
+        it("ActionLogPlayer <other_map>", ActionLogTest::test_other_map);
+
+    }
+
+    private static Game record(Path path, boolean simultaneous)
+    {
+        Game game = new Game(Parser.parseFile(_MAP), new ShallowSpaceAgentFactory(), false, 42);
+        game.setSimultaneousMoves(simultaneous);
+        try (ActionLogWriter writer = new ActionLogWriter(path, game))
+        {
+            for(int i = 0; i < _TURNS && game.getWinner() == null; i++)
+            {
+                game.turn();
+                writer.record();
+            }
+            assertEqual(writer.getTicks(), game.getTurns(), 0);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return game;
+    }
+
+    private static List<AgentContainer<?>> agents(Game game)
+    {
+        List<AgentContainer<?>> agents = new ArrayList<>(game.getGuards());
+        agents.addAll(game.getIntruders());
+        return agents;
+    }
+
+    private static void assertSameGame(boolean simultaneous)
+    {
+        try {
+            Path path = Files.createTempFile("game", ".actions");
+            try {
+                Game recorded = record(path, simultaneous);
+                ActionLogPlayer player = new ActionLogPlayer(path, Parser.parseFile(_MAP));
+                assertTrue(player.isSimultaneousMoves() == simultaneous);
+                assertTrue(player.play() == recorded.getWinner());
+
+                Game replayed = player.getGame();
+                assertEqual(replayed.getTurns(), recorded.getTurns(), 0);
+                List<AgentContainer<?>> expected = agents(recorded), actual = agents(replayed);
+                for(int i = 0; i < expected.size(); i++)
+                {
+                    assertTrue(actual.get(i).getPosition().equals(expected.get(i).getPosition()),
+                            "the replay should end with the agents at exactly the same positions");
+                    assertTrue(actual.get(i).getDirection().equals(expected.get(i).getDirection()));
+                }
+                assertEqual(replayed.getGameMap().getDynamicObjects().size(), recorded.getGameMap().getDynamicObjects().size(), 0);
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_same_game() {
+        assertSameGame(false);
+    }
+
+    private static void test_same_game_simultaneous() {
+        assertSameGame(true);
+    }
+
+    private static void test_compact() {
+        try {
+            Path path = Files.createTempFile("game", ".actions");
+            try {
+                Game game = new Game(Parser.parseFile(_MAP), new ShallowSpaceAgentFactory(), false, 42);
+                long actions, bytes;
+                try (ActionLogWriter writer = new ActionLogWriter(path, game))
+                {
+                    for(int i = 0; i < _TURNS && game.getWinner() == null; i++)
+                    {
+                        game.turn();
+                        writer.record();
+                    }
+                    actions = writer.getActions();
+                    bytes = writer.getBytes();
+                }
+                assertEqual(Files.size(path), bytes, 0);
+                // --- Note: This includes the state hash of every turn.
+                final double perAction = Files.size(path) / (double) actions;
+                assertTrue(perAction < 8, String.format("expected a few bytes per action, got %.2f", perAction));
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_divergence() {
+        try {
+            Path path = Files.createTempFile("game", ".actions");
+            try {
+                record(path, false);
+                // --- changes the state hash of the last turn
+                byte[] bytes = Files.readAllBytes(path);
+                bytes[bytes.length - 1] ^= 1;
+                Files.write(path, bytes);
+
+                ActionLogPlayer player = new ActionLogPlayer(path, Parser.parseFile(_MAP));
+                boolean diverged = false;
+                try {
+                    player.play();
+                } catch (IllegalStateException e) {
+                    diverged = true;
+                }
+                assertTrue(diverged, "a state that does not match the recorded one should be detected");
+                assertEqual(player.getTicks(), player.getGame().getTurns(), 0);
+                assertTrue(!player.hasNextTick(), "the divergence should be detected in the last turn");
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_other_map() {
+        try {
+            Path path = Files.createTempFile("game", ".actions");
+            try {
+                record(path, false);
+                boolean rejected = false;
+                try {
+                    new ActionLogPlayer(path, Parser.parseFile("./src/main/java/Group9/map/maps/test_2.map"));
+                } catch (IllegalArgumentException e) {
+                    rejected = true;
+                }
+                assertTrue(rejected, "a log should only be played on the map it has been recorded on");
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -153,7 +153,7 @@ public class ActionTests extends SimpleUnitTest {
             GuardContainer sender = game.getGuards().get(0);
             GuardContainer receiver = game.getGuards().get(1);
 
-            receiver.moveTo(sender.getPosition().add(new Vector2.Random().normalise().mul(game.getGameMap().getGameSettings().getYellSoundRadius().getValue() * 0.8)));
+            receiver.moveTo(sender.getPosition().add(new Vector2.Random(game.getRandom()).normalise().mul(game.getGameMap().getGameSettings().getYellSoundRadius().getValue() * 0.8)));
         }
 
         // --- move agent way so he cannot hear the yell
@@ -0,0 +1,122 @@
+package Group9;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.AgentGrid;
+import Group9.agent.container.GuardContainer;
+import Group9.agent.factories.DummyAgentFactory;
+import Group9.map.GameMap;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Interop.Percept.Vision.FieldOfView;
+import Interop.Percept.Vision.ObjectPerceptType;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+public class AgentGridTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("AgentGrid::forEach <same_as_list>", AgentGridTest::test_same_as_list);
+        it("AgentGrid::forEach <fork>", AgentGridTest::test_fork);
+        it("AgentGrid::forEach <removed_agents>", AgentGridTest::test_removed_agents);
+        it("GameMap::getObjectPerceptsForAgent <sees_agent_in_other_cell>", AgentGridTest::test_sees_agent_in_other_cell);
+
+    }
+
+    private static Game game()
+    {
+        return new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), new DummyAgentFactory(false), false, 1);
+    }
+
+    private static void assertSameAsList(Game game, double x, double y, double radius)
+    {
+        for(AgentGrid.Layer layer : AgentGrid.Layer.values())
+        {
+            final List<? extends AgentContainer<?>> agents = layer == AgentGrid.Layer.GUARDS ? game.getGuards() : game.getIntruders();
+            Set<AgentContainer<?>> found = new HashSet<>();
+            game.getAgentGrid().forEach(layer, x, y, radius, e -> assertTrue(found.add(e), "an agent should only be found once"));
+            for(AgentContainer<?> agent : agents)
+            {
+                if(agent.getPosition().distance(new Vector2(x, y)) <= radius + AgentContainer._RADIUS)
+                {
+                    assertTrue(found.contains(agent), "an agent close to the point has not been found");
+                }
+            }
+            assertTrue(agents.containsAll(found), "the grid should only contain agents of the layer");
+        }
+    }
+
+    private static void test_same_as_list() {
+        Game game = game();
+        List<AgentContainer<?>> agents = new ArrayList<>(game.getGuards());
+        agents.addAll(game.getIntruders());
+
+        SplittableRandom random = new SplittableRandom(3);
+        for(int i = 0; i < 500; i++)
+        {
+            // --- some moves stay in the cell, some leave the map
+            final AgentContainer<?> agent = agents.get(random.nextInt(agents.size()));
+            if(random.nextBoolean())
+            {
+                agent.moveTo(new Vector2(random.nextDouble(-10, 130), random.nextDouble(-10, 130)));
+            }
+            else
+            {
+                agent.move(random.nextDouble(0, 2));
+            }
+            assertSameAsList(game, random.nextDouble(0, 120), random.nextDouble(0, 120), random.nextDouble(0, 20));
+            assertSameAsList(game, agent.getPosition().getX(), agent.getPosition().getY(), 0);
+        }
+    }
+
+    private static void test_fork() {
+        Game game = game();
+        Game fork = game.fork(1);
+
+        // --- moving the agents of the fork must not change the grid of the original game
+        for(AgentContainer<?> agent : fork.getIntruders())
+        {
+            agent.moveTo(new Vector2(60, 60));
+        }
+        assertSameAsList(fork, 60, 60, 1);
+        assertSameAsList(game, 60, 60, 1);
+        assertSameAsList(game, game.getIntruders().get(0).getPosition().getX(), game.getIntruders().get(0).getPosition().getY(), 1);
+    }
+
+    private static void test_removed_agents() {
+        Game game = game();
+        GuardContainer guard = game.getGuards().get(0);
+        game.getGuards().removeIf(e -> e != guard);
+        game.getIntruders().clear();
+        assertSameAsList(game, 60, 60, 200);
+
+        // --- a removed agent does not update the grid anymore, not even if it moves
+        GuardContainer removed = game.getGuards().remove(0);
+        removed.moveTo(new Vector2(60, 60));
+        assertSameAsList(game, 60, 60, 200);
+
+        game.getGuards().add(removed);
+        assertSameAsList(game, 60, 60, 1);
+    }
+
+    private static void test_sees_agent_in_other_cell() {
+        Game game = game();
+        GameMap gameMap = game.getGameMap();
+        GuardContainer guard = game.getGuards().get(0);
+        final double cellSize = game.getAgentGrid().getCellSize();
+
+        // --- right on the border of a cell, looking into the next one
+        guard.moveTo(new Vector2(60.5, cellSize * 3 - 0.1));
+        game.getIntruders().get(0).moveTo(guard.getPosition().add(guard.getDirection().mul(3, 3)));
+
+        FieldOfView fov = guard.getFOV(gameMap.getEffectAreas(guard));
+        assertTrue(gameMap.getObjectPerceptsForAgent(guard, fov, null).stream()
+                .anyMatch(e -> e.getType() == ObjectPerceptType.Intruder), "the intruder in the next cell should be seen");
+    }
+
+}
@@ -1,6 +1,8 @@
 package Group9;
 
 import Group9.agent.container.GuardContainer;
+import Group9.agent.factories.DefaultAgentFactory;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
 import Group9.map.parser.Parser;
 import Group9.math.Vector2;
 import SimpleUnitTest.SimpleUnitTest;
@@ -9,7 +11,8 @@ public class AgentMovementTest extends SimpleUnitTest {
 
     public static void main(String[] args) {
         it("Game::<check_if_agent_gets_stuck>", () -> {
-            Game game = new Game(Parser.parseFile("./src/test/java/Group9/movement_test_map.map"), false);
+            Game game = new Game(Parser.parseFile("./src/test/java/Group9/movement_test_map.map"), new DefaultAgentFactory(),
+                    false, 201402367609800L);
 
             GuardContainer guard = game.getGuards().get(0);
             Vector2 lastPosition = guard.getPosition().clone();
@@ -43,9 +46,22 @@ public class AgentMovementTest extends SimpleUnitTest {
             System.out.println("time: " + (System.currentTimeMillis() - time));
 
             assertTrue(max < STUCK_LIMIT, String.format("Agent got stuck after %d steps. Check seed to reproduce. " +
-                    "Seed: %d", step, Game._RANDOM_SEED));
+                    "Seed: %d", step, game.getSeed()));
 
         });
+
+        it("Game::<same_seed_same_game>", () -> {
+            Game a = new Game(Parser.parseFile("./src/test/java/Group9/movement_test_map.map"), new ShallowSpaceAgentFactory(), false, 42);
+            Game b = new Game(Parser.parseFile("./src/test/java/Group9/movement_test_map.map"), new ShallowSpaceAgentFactory(), false, 42);
+
+            for(int step = 0; step < 500; step++)
+            {
+                a.turn();
+                b.turn();
+                assertTrue(a.getGuards().get(0).getPosition().equals(b.getGuards().get(0).getPosition()),
+                        String.format("games with the same seed should not diverge, but did after %d steps", step));
+            }
+        });
     }
 
 
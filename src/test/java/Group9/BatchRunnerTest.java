@@ -0,0 +1,139 @@
+package Group9;
+
+import Group9.agent.factories.DummyAgentFactory;
+import Group9.agent.factories.IAgentFactory;
+import Group9.experiments.BatchRunner;
+import Group9.map.parser.BinaryMap;
+import Group9.map.parser.Parser;
+import Interop.Agent.Guard;
+import Interop.Agent.Intruder;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchRunnerTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("BatchRunner::Summary::add", BatchRunnerTest::test_summary_add);
+        it("BatchRunner::Summary::add <draws>", BatchRunnerTest::test_summary_draws);
+        it("BatchRunner::Summary::getConfidenceInterval", BatchRunnerTest::test_summary_confidence_interval);
+        it("BatchRunner::Result::toString", BatchRunnerTest::test_result_to_string);
+        it("BatchRunner::run <compiled_map>", BatchRunnerTest::test_compiled_map);
+        it("BatchRunner::run <agent_errors>", BatchRunnerTest::test_agent_errors);
+
+    }
+
+    private static void test_summary_add() {
+        BatchRunner.Summary summary = new BatchRunner.Summary(0);
+        summary.add(new BatchRunner.Result(0, Game.Team.GUARDS, 10, 1, 100));
+        summary.add(new BatchRunner.Result(1, Game.Team.GUARDS, 20, 2, 200));
+        summary.add(new BatchRunner.Result(2, Game.Team.INTRUDERS, 30, 0, 300));
+        summary.add(new BatchRunner.Result(3, null, 40, 0, 400));
+
+        assertEqual(summary.getGames(), 4, 0);
+        assertEqual(summary.getWins(Game.Team.GUARDS), 2, 0);
+        assertEqual(summary.getWins(Game.Team.INTRUDERS), 1, 0);
+        assertEqual(summary.getWinRate(Game.Team.GUARDS), 0.5, 1E-9);
+        assertEqual(summary.getAverageTurns(), 25, 1E-9);
+        assertEqual(summary.getAverageCaptures(), 0.75, 1E-9);
+    }
+
+    private static void test_summary_draws() {
+        BatchRunner.Summary summary = new BatchRunner.Summary(0);
+        summary.add(new BatchRunner.Result(0, Game.Team.DRAW, 1000, 0, 100));
+        summary.add(new BatchRunner.Result(1, Game.Team.GUARDS, 20, 1, 200));
+
+        assertEqual(summary.getWins(Game.Team.DRAW), 1, 0);
+        assertEqual(summary.getWins(Game.Team.GUARDS), 1, 0);
+        assertEqual(summary.getWins(Game.Team.INTRUDERS), 0, 0, "a draw should not count as a win of the intruders");
+    }
+
+    private static void test_summary_confidence_interval() {
+        BatchRunner.Summary summary = new BatchRunner.Summary(0);
+        for(int i = 0; i < 100; i++)
+        {
+            summary.add(new BatchRunner.Result(i, i < 50 ? Game.Team.GUARDS : Game.Team.INTRUDERS, 1, 0, 1));
+        }
+
+        // --- Wilson score interval for 50/100 is [0.404, 0.596]
+        double[] interval = summary.getConfidenceInterval(Game.Team.GUARDS);
+        assertEqual(interval[0], 0.4038, 1E-3);
+        assertEqual(interval[1], 0.5962, 1E-3);
+
+        // --- the interval must not leave [0, 1] even if one team wins every game
+        BatchRunner.Summary allGuards = new BatchRunner.Summary(0);
+        allGuards.add(new BatchRunner.Result(0, Game.Team.GUARDS, 1, 0, 1));
+        interval = allGuards.getConfidenceInterval(Game.Team.GUARDS);
+        assertTrue(interval[0] >= 0 && interval[1] <= 1 && interval[0] < interval[1]);
+    }
+
+    private static void test_result_to_string() {
+        assertTrue(new BatchRunner.Result(7, Game.Team.INTRUDERS, 12, 0, 345).toString().equals("7,INTRUDERS,12,0,345"));
+        assertTrue(new BatchRunner.Result(8, null, 12, 0, 345).toString().equals("8,NONE,12,0,345"));
+    }
+
+    private static void test_compiled_map() {
+        try {
+            Path map = Files.createTempFile("batch", BinaryMap._EXTENSION);
+            Path results = Files.createTempFile("batch", ".csv");
+            try {
+                // --- nobody moves, so every game ends at the turn limit
+                List<String> lines = new ArrayList<>(Files.readAllLines(Paths.get("./src/main/java/Group9/map/maps/test_2.map")));
+                lines.add("maxTurns = 5");
+                BinaryMap.write(Parser.parseTemplate(lines), map);
+
+                BatchRunner.Summary summary = new BatchRunner(map.toString(), new DummyAgentFactory(false), 4, 2, 0)
+                        .run(results);
+                assertEqual(summary.getGames(), 4, 0);
+                assertEqual(summary.getWins(Game.Team.DRAW), 4, 0);
+                assertEqual(summary.getAverageTurns(), 5, 0);
+            } finally {
+                Files.delete(map);
+                Files.delete(results);
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_agent_errors() {
+        try {
+            Path results = Files.createTempFile("batch", ".csv");
+            try {
+                // --- every guard fails with an error instead of an exception
+                IAgentFactory factory = new IAgentFactory() {
+                    @Override
+                    public List<Intruder> createIntruders(int amount) {
+                        return new DummyAgentFactory(false).createIntruders(amount);
+                    }
+
+                    @Override
+                    public List<Guard> createGuards(int amount) {
+                        List<Guard> guards = new ArrayList<>();
+                        for(int i = 0; i < amount; i++)
+                        {
+                            guards.add(percepts -> { throw new StackOverflowError("broken agent"); });
+                        }
+                        return guards;
+                    }
+                };
+
+                BatchRunner.Summary summary = new BatchRunner("./src/main/java/Group9/map/maps/test_2.map", factory, 3, 2, 0)
+                        .run(results);
+                assertEqual(summary.getGames(), 3, 0, "failed games should still be recorded");
+                assertEqual(summary.getWins(Game.Team.GUARDS) + summary.getWins(Game.Team.INTRUDERS), 0, 0);
+            } finally {
+                Files.delete(results);
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package Group9;
+
+import Group9.agent.container.GuardContainer;
+import Group9.agent.factories.DummyAgentFactory;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.GameMap;
+import Group9.map.MapTemplate;
+import Group9.map.VisionMode;
+import Group9.map.objects.MapObject;
+import Group9.map.objects.TeleportArea;
+import Group9.map.parser.BinaryMap;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Interop.Percept.Vision.FieldOfView;
+import Interop.Percept.Vision.ObjectPercept;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.Set;
+
+public class BinaryMapTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("BinaryMap::read(BinaryMap::write) <matches> Parser::parseTemplateFile", BinaryMapTest::test_round_trip);
+        it("BinaryMap::read <sees> same objects", BinaryMapTest::test_vision);
+        it("BinaryMap::read <plays> same game", BinaryMapTest::test_same_game);
+
+    }
+
+    private static MapTemplate compile(MapTemplate template)
+    {
+        try {
+            Path path = Files.createTempFile("map", BinaryMap._EXTENSION);
+            try {
+                BinaryMap.write(template, path);
+                return Parser.parseTemplateFile(path.toString());
+            } finally {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_round_trip() {
+        MapTemplate text = Parser.parseTemplateFile("./src/main/java/Group9/map/maps/test_2.map");
+        MapTemplate binary = compile(text);
+
+        assertEqual(binary.getRayConstant(), text.getRayConstant(), 0);
+        assertEqual(binary.getGameSettings().getNumGuards(), text.getGameSettings().getNumGuards(), 0);
+        assertEqual(binary.getGameSettings().getViewAngle().getRadians(), text.getGameSettings().getViewAngle().getRadians(), 0);
+        assertEqual(binary.getGameSettings().getSentryViewRange().getMax(), text.getGameSettings().getSentryViewRange().getMax(), 0);
+        assertEqual(binary.getGameSettings().getScenarioPercepts().getMaxRotationAngle().getRadians(),
+                text.getGameSettings().getScenarioPercepts().getMaxRotationAngle().getRadians(), 0);
+        assertTrue(binary.getGameSettings().getScenarioPercepts().getGameMode() == text.getGameSettings().getScenarioPercepts().getGameMode());
+
+        assertEqual(binary.getObjects().size(), text.getObjects().size(), 0);
+        for(int i = 0; i < text.getObjects().size(); i++)
+        {
+            MapObject expected = text.getObjects().get(i);
+            MapObject actual = binary.getObjects().get(i);
+            assertTrue(expected.getClass() == actual.getClass(), String.format("object %d should be a %s", i, expected.getClass()));
+            assertEqual(actual.getEffects().size(), expected.getEffects().size(), 0);
+            for(int p = 0; p < expected.getArea().getAsPolygon().getPoints().length; p++)
+            {
+                assertTrue(expected.getArea().getAsPolygon().getPoints()[p].equals(actual.getArea().getAsPolygon().getPoints()[p]));
+            }
+            if(expected instanceof TeleportArea)
+            {
+                assertEqual(binary.getObjects().indexOf(((TeleportArea) actual).getConnected()),
+                        text.getObjects().indexOf(((TeleportArea) expected).getConnected()), 0);
+            }
+        }
+    }
+
+    private static void test_vision() {
+        MapTemplate text = Parser.parseTemplateFile("./src/main/java/Group9/map/maps/mazy.map");
+        MapTemplate binary = compile(text);
+
+        GameMap textMap = new GameMap(text);
+        GameMap binaryMap = new GameMap(binary);
+        GuardContainer textGuard = new Game(textMap, new DummyAgentFactory(false), false, 0).getGuards().get(0);
+        GuardContainer binaryGuard = new Game(binaryMap, new DummyAgentFactory(false), false, 0).getGuards().get(0);
+        textMap.setVisionMode(VisionMode.GRID);
+        binaryMap.setVisionMode(VisionMode.GRID);
+
+        Random random = new Random(42);
+        for(int i = 0; i < 100; i++)
+        {
+            Vector2 position = new Vector2(1 + random.nextDouble() * 118, 1 + random.nextDouble() * 119);
+            double rotation = random.nextDouble() * Math.PI * 2;
+            textGuard.moveTo(position);
+            textGuard.rotate(rotation);
+            binaryGuard.moveTo(position);
+            binaryGuard.rotate(rotation);
+
+            FieldOfView fov = textGuard.getFOV(textMap.getEffectAreas(textGuard));
+            Set<ObjectPercept> expected = textMap.getObjectPerceptsForAgent(textGuard, fov, null);
+            Set<ObjectPercept> actual = binaryMap.getObjectPerceptsForAgent(binaryGuard, binaryGuard.getFOV(binaryMap.getEffectAreas(binaryGuard)), null);
+            assertEqual(actual.size(), expected.size(), 0);
+            assertTrue(actual.stream().allMatch(e -> expected.stream().anyMatch(o -> o.getType() == e.getType()
+                    && o.getPoint().getX() == e.getPoint().getX() && o.getPoint().getY() == e.getPoint().getY())),
+                    String.format("the compiled map should look exactly the same at %s", textGuard));
+        }
+    }
+
+    private static void test_same_game() {
+        MapTemplate text = Parser.parseTemplateFile("./src/test/java/Group9/movement_test_map.map");
+        MapTemplate binary = compile(text);
+
+        Game a = new Game(new GameMap(text), new ShallowSpaceAgentFactory(), false, 7);
+        Game b = new Game(new GameMap(binary), new ShallowSpaceAgentFactory(), false, 7);
+        for(int step = 0; step < 300; step++)
+        {
+            a.turn();
+            b.turn();
+            assertTrue(a.getGuards().get(0).getPosition().equals(b.getGuards().get(0).getPosition()),
+                    String.format("the compiled map should result in the same game, but diverged after %d steps", step));
+        }
+    }
+
+}
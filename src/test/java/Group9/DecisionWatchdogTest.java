@@ -0,0 +1,169 @@
+package Group9;
+
+import Group9.agent.container.GuardContainer;
+import Group9.agent.factories.IAgentFactory;
+import Group9.agent.watchdog.DecisionBudget;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Interop.Action.Move;
+import Interop.Action.NoAction;
+import Interop.Agent.Guard;
+import Interop.Agent.Intruder;
+import Interop.Geometry.Distance;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DecisionWatchdogTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("Game::setDecisionBudget <slow_agent_does_nothing>", DecisionWatchdogTest::test_slow_agent);
+        it("Game::setDecisionBudget <fast_agents>", DecisionWatchdogTest::test_fast_agents);
+        it("Game::setDecisionBudget <agent_exceptions>", DecisionWatchdogTest::test_exception);
+        it("Game::setDecisionBudget <never_on_two_threads>", DecisionWatchdogTest::test_ignores_interrupts);
+
+    }
+
+    /**
+     * Creates guards that take the given time for every decision and then move, and intruders that never move.
+     */
+    private static IAgentFactory factory(long sleepMillis, boolean fail)
+    {
+        return new IAgentFactory() {
+            @Override
+            public List<Intruder> createIntruders(int amount) {
+                List<Intruder> intruders = new ArrayList<>();
+                for(int i = 0; i < amount; i++) intruders.add(percepts -> new NoAction());
+                return intruders;
+            }
+
+            @Override
+            public List<Guard> createGuards(int amount) {
+                List<Guard> guards = new ArrayList<>();
+                for(int i = 0; i < amount; i++)
+                {
+                    guards.add(percepts -> {
+                        if(fail)
+                        {
+                            throw new IllegalStateException("broken agent");
+                        }
+                        try {
+                            Thread.sleep(sleepMillis);
+                        } catch (InterruptedException e) {
+                            return new NoAction();
+                        }
+                        return new Move(new Distance(0.5));
+                    });
+                }
+                return guards;
+            }
+        };
+    }
+
+    private static Game game(IAgentFactory factory)
+    {
+        return new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), factory, false, 42);
+    }
+
+    private static void test_slow_agent() {
+        Game game = game(factory(500, false));
+        game.setDecisionBudget(DecisionBudget.of(20, TimeUnit.MILLISECONDS));
+        final GuardContainer guard = game.getGuards().get(0);
+        final Vector2 position = guard.getPosition().clone();
+
+        final long start = System.nanoTime();
+        game.turn();
+        game.turn();
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // --- every guard runs out of time in the first turn, in the second one they are skipped right away
+        final int guards = game.getGuards().size();
+        assertTrue(millis < 20L * guards + 400, String.format("two turns took %dms", millis));
+        assertEqual(game.getBudgetViolations(), 2 * guards, 0);
+        assertEqual(game.getWatchdog().getUsage(guard).getViolations(), 2, 0);
+        assertEqual(game.getWatchdog().getUsage(guard).getDecisions(), 2, 0);
+        assertTrue(guard.getPosition().equals(position), "a guard that ran out of time should not move");
+        assertEqual(game.getMetrics().getBudgetViolations(), 2 * guards, 0);
+    }
+
+    private static void test_fast_agents() {
+        Game game = game(factory(0, false));
+        game.setDecisionBudget(DecisionBudget.of(1, TimeUnit.SECONDS));
+        final GuardContainer guard = game.getGuards().get(0);
+        final Vector2 position = guard.getPosition().clone();
+
+        for(int i = 0; i < 5; i++)
+        {
+            game.turn();
+        }
+
+        assertEqual(game.getBudgetViolations(), 0, 0);
+        assertEqual(game.getWatchdog().getUsage(guard).getDecisions(), 5, 0);
+        assertTrue(game.getWatchdog().getCpuNanos() >= 0);
+        assertTrue(!guard.getPosition().equals(position), "guards within their budget should move");
+    }
+
+    private static void test_exception() {
+        Game game = game(factory(0, true));
+        game.setDecisionBudget(DecisionBudget.of(1, TimeUnit.SECONDS));
+        try {
+            game.turn();
+            assertTrue(false, "the exception of an agent should be passed on");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().equals("broken agent"));
+        }
+    }
+
+    private static void test_ignores_interrupts() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+        Game game = game(new IAgentFactory() {
+            @Override
+            public List<Intruder> createIntruders(int amount) {
+                List<Intruder> intruders = new ArrayList<>();
+                for(int i = 0; i < amount; i++) intruders.add(percepts -> new NoAction());
+                return intruders;
+            }
+
+            @Override
+            public List<Guard> createGuards(int amount) {
+                // --- a single guard that takes 200ms for every decision, no matter how often it is interrupted
+                List<Guard> guards = new ArrayList<>();
+                guards.add(percepts -> {
+                    calls.incrementAndGet();
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                        while (System.nanoTime() < end)
+                        {
+                            try {
+                                Thread.sleep(5);
+                            } catch (InterruptedException ignored) {}
+                        }
+                        return new NoAction();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                });
+                for(int i = 1; i < amount; i++) guards.add(percepts -> new NoAction());
+                return guards;
+            }
+        });
+        game.setDecisionBudget(DecisionBudget.of(10, TimeUnit.MILLISECONDS));
+
+        final long start = System.nanoTime();
+        while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500))
+        {
+            game.turn();
+        }
+
+        assertEqual(maxRunning.get(), 1, 0, "an agent that ignores interrupts should never run two decisions at once");
+        assertTrue(calls.get() >= 2 && calls.get() <= 4, String.format("the agent has been called %d times", calls.get()));
+    }
+
+}
@@ -0,0 +1,136 @@
+package Group9;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.GuardContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.map.GameMap;
+import Group9.map.dynamic.DynamicObject;
+import Group9.map.dynamic.DynamicObjectGrid;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.dynamic.Sound;
+import Group9.map.parser.Parser;
+import Group9.math.Geometry;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import Interop.Geometry.Angle;
+import Interop.Geometry.Distance;
+import Interop.Percept.Smell.SmellPerceptType;
+import Interop.Percept.Sound.SoundPerceptType;
+import Interop.Percept.Vision.FieldOfView;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+public class DynamicObjectGridTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("DynamicObjectGrid::at <same_as_list>", DynamicObjectGridTest::test_same_as_list);
+        it("DynamicObjectGrid::anyMatch <same_as_list>", DynamicObjectGridTest::test_any_match);
+        it("GameMap::getDynamicObjects <updates_grid>", DynamicObjectGridTest::test_updates_grid);
+
+    }
+
+    private final static FieldOfView _FOV = new FieldOfView(new Distance(6), Angle.fromDegrees(45));
+
+    private static GameMap fill(SplittableRandom random, List<AgentContainer<?>> agents)
+    {
+        GameMap gameMap = Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map");
+        for(int i = 0; i < 10; i++)
+        {
+            agents.add(new GuardContainer(null, new Vector2(random.nextDouble(-5, 125), random.nextDouble(-5, 125)), new Vector2(1, 0), _FOV));
+            agents.add(new IntruderContainer(null, new Vector2(random.nextDouble(-5, 125), random.nextDouble(-5, 125)), new Vector2(1, 0), _FOV));
+        }
+        for(int i = 0; i < 300; i++)
+        {
+            AgentContainer<?> source = agents.get(random.nextInt(agents.size()));
+            source.moveTo(new Vector2(random.nextDouble(-5, 125), random.nextDouble(-5, 125)));
+            if(random.nextBoolean())
+            {
+                gameMap.getDynamicObjects().add(new Sound(SoundPerceptType.Noise, source, random.nextDouble(1, 30), 1));
+            }
+            else
+            {
+                gameMap.getDynamicObjects().add(new Pheromone(SmellPerceptType.Pheromone1, source, source.getPosition(), 5, 5));
+            }
+        }
+        return gameMap;
+    }
+
+    private static void test_same_as_list() {
+        SplittableRandom random = new SplittableRandom(1);
+        List<AgentContainer<?>> agents = new ArrayList<>();
+        GameMap gameMap = fill(random, agents);
+
+        for(int i = 0; i < 2000; i++)
+        {
+            AgentContainer<?> agent = agents.get(random.nextInt(agents.size()));
+            agent.moveTo(new Vector2(random.nextDouble(-10, 130), random.nextDouble(-10, 130)));
+
+            List<DynamicObject<?>> sounds = gameMap.getDynamicObjects().stream()
+                    .filter(e -> e instanceof Sound && agent.getPosition().distance(e.getCenter()) <= e.getRadius())
+                    .collect(Collectors.toList());
+            assertTrue(sounds.equals(gameMap.getDynamicObjectGrid().at(DynamicObjectGrid.Layer.SOUNDS, agent.getPosition()).stream()
+                    .filter(e -> agent.getPosition().distance(e.getCenter()) <= e.getRadius())
+                    .collect(Collectors.toList())), "the grid should find the same sounds in the same order");
+
+            List<DynamicObject<?>> smells = gameMap.getDynamicObjects().stream()
+                    .filter(e -> e instanceof Pheromone && agent.getClass() == e.getSource().getClass())
+                    .filter(e -> PointContainer.intersect(e.getAsCircle(), agent.getShape()))
+                    .collect(Collectors.toList());
+            assertTrue(smells.equals(gameMap.getDynamicObjectGrid().at(DynamicObjectGrid.Layer.pheromones(agent), agent.getPosition()).stream()
+                    .filter(e -> PointContainer.intersect(e.getAsCircle(), agent.getShape()))
+                    .collect(Collectors.toList())), "the grid should find the same pheromones of the team");
+        }
+    }
+
+    private static void test_any_match() {
+        SplittableRandom random = new SplittableRandom(2);
+        List<AgentContainer<?>> agents = new ArrayList<>();
+        GameMap gameMap = fill(random, agents);
+
+        int matches = 0;
+        for(int i = 0; i < 2000; i++)
+        {
+            final double x = random.nextDouble(-10, 130), y = random.nextDouble(-10, 130), radius = random.nextDouble(0.1, 8);
+            final DynamicObjectGrid.Layer layer = random.nextBoolean() ? DynamicObjectGrid.Layer.GUARD_PHEROMONES : DynamicObjectGrid.Layer.INTRUDER_PHEROMONES;
+            final boolean expected = gameMap.getDynamicObjects().stream()
+                    .filter(e -> DynamicObjectGrid.Layer.of(e) == layer)
+                    .anyMatch(e -> Geometry.circlesIntersect(e.getCenter().getX(), e.getCenter().getY(), e.getRadius(), x, y, radius));
+            final boolean actual = gameMap.getDynamicObjectGrid().anyMatch(layer, x, y, radius,
+                    e -> Geometry.circlesIntersect(e.getCenter().getX(), e.getCenter().getY(), e.getRadius(), x, y, radius));
+            assertTrue(expected == actual);
+            matches += actual ? 1 : 0;
+        }
+        assertTrue(matches > 0 && matches < 2000);
+    }
+
+    private static void test_updates_grid() {
+        SplittableRandom random = new SplittableRandom(3);
+        List<AgentContainer<?>> agents = new ArrayList<>();
+        GameMap gameMap = fill(random, agents);
+
+        Iterator<DynamicObject<?>> iterator = gameMap.getDynamicObjects().iterator();
+        while (iterator.hasNext())
+        {
+            if(iterator.next() instanceof Sound)
+            {
+                iterator.remove();
+            }
+        }
+        for(AgentContainer<?> agent : agents)
+        {
+            assertTrue(gameMap.getDynamicObjectGrid().at(DynamicObjectGrid.Layer.SOUNDS, agent.getPosition()).isEmpty(),
+                    "removed sounds should be removed from the grid");
+        }
+
+        gameMap.getDynamicObjects().clear();
+        assertTrue(!gameMap.getDynamicObjectGrid().anyMatch(DynamicObjectGrid.Layer.GUARD_PHEROMONES, 60, 60, 200, e -> true));
+        assertTrue(!gameMap.getDynamicObjectGrid().anyMatch(DynamicObjectGrid.Layer.INTRUDER_PHEROMONES, 60, 60, 200, e -> true));
+    }
+
+}
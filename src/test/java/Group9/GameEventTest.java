@@ -0,0 +1,146 @@
+package Group9;
+
+import Group9.agent.container.GuardContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.agent.factories.DummyAgentFactory;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.event.GameEvent;
+import Group9.map.GameMap;
+import Group9.map.GameSettings;
+import Group9.map.ViewRange;
+import Group9.map.objects.MapObject;
+import Group9.map.objects.Spawn;
+import Group9.map.objects.TargetArea;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import Interop.Geometry.Angle;
+import Interop.Geometry.Distance;
+import Interop.Percept.Scenario.GameMode;
+import Interop.Percept.Scenario.ScenarioPercepts;
+import Interop.Percept.Scenario.SlowDownModifiers;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameEventTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("Game::addEventListener <same_as_state>", () -> test_same_as_state(false));
+        it("Game::addEventListener <same_as_state_simultaneous>", () -> test_same_as_state(true));
+        it("Game::addEventListener <capture>", GameEventTest::test_capture);
+        it("Game::removeEventListener", GameEventTest::test_remove);
+
+    }
+
+    private static void test_same_as_state(boolean simultaneous) {
+        for(long seed = 1; seed <= 3; seed++)
+        {
+            Game game = new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), new ShallowSpaceAgentFactory(), false, seed);
+            game.setSimultaneousMoves(simultaneous);
+
+            final int[] executed = {0}, failed = {0}, captured = {0}, inZone = {0};
+            game.addEventListener(event -> {
+                assertEqual(event.getTurn(), game.getTurns(), 0, "events should be emitted in the turn they happen in");
+                if(event instanceof GameEvent.ActionExecuted) executed[0]++;
+                if(event instanceof GameEvent.ActionFailed) failed[0]++;
+                if(event instanceof GameEvent.Captured) captured[0]++;
+                if(event instanceof GameEvent.ZoneEntered) inZone[0]++;
+                if(event instanceof GameEvent.ZoneLeft) inZone[0]--;
+            });
+
+            for(int i = 0; i < 300 && game.getWinner() == null; i++)
+            {
+                game.turn();
+
+                assertEqual(executed[0] + failed[0], game.getMetrics().getActions(), 0);
+                assertEqual(failed[0], game.getMetrics().getFailedActions(), 0);
+                assertEqual(captured[0], game.getIntruders().stream().filter(IntruderContainer::isCaptured).count(), 0);
+                assertEqual(game.getCapturedIntruders(), captured[0], 0);
+                assertEqual(inZone[0], game.getIntruders().stream().filter(e -> e.getZoneCounter() > 0).count(), 0);
+            }
+        }
+    }
+
+    private static Game arena()
+    {
+        ScenarioPercepts scenarioPercepts = new ScenarioPercepts(GameMode.CaptureAllIntruders, new Distance(6),
+                Angle.fromRadians(1), new SlowDownModifiers(1, 1, 1),
+                new Distance(1), 1);
+        Distance one = new Distance(1);
+        List<MapObject> objects = new ArrayList<>();
+
+        objects.add(new Spawn.Guard(new PointContainer.Polygon(
+                new Vector2.Origin(), new Vector2(0, 5), new Vector2(1, 5), new Vector2(1, 0)
+        )));
+        objects.add(new Spawn.Intruder(new PointContainer.Polygon(
+                new Vector2.Origin(), new Vector2(0, 5), new Vector2(1, 5), new Vector2(1, 0)
+        )));
+        // --- out of reach
+        objects.add(new TargetArea(new PointContainer.Polygon(
+                new Vector2(100, 0), new Vector2(100, 1), new Vector2(101, 1), new Vector2(101, 0)
+        )));
+
+        GameMap gameMap = new GameMap(new GameSettings(scenarioPercepts, 100, 100, one, 3,
+                one, one, 1, 1, 2, new Distance(6), one, new Distance(6),
+                one, new ViewRange(0, 1), one, one, one, one, Angle.fromRadians(Math.PI / 2), 45, 1), objects);
+        return new Game(gameMap, new DummyAgentFactory(true), true);
+    }
+
+    private static void test_capture() {
+        Game game = arena();
+        IntruderContainer intruderA = game.getIntruders().get(0);
+        IntruderContainer intruderB = game.getIntruders().get(1);
+        intruderA.moveTo(new Vector2(0.5, 2));
+        intruderB.moveTo(new Vector2(50, 50));
+        GuardContainer guard = game.getGuards().get(0);
+        guard.moveTo(new Vector2(0.5, 0));
+
+        List<GameEvent> events = new ArrayList<>();
+        game.addEventListener(events::add);
+        assertTrue(game.turn() == null, "only one of the two intruders can be captured");
+        assertEqual(game.getCapturedIntruders(), 1, 0);
+
+        GameEvent.Captured capture = null;
+        int captureIndex = -1;
+        for(int i = 0; i < events.size(); i++)
+        {
+            if(events.get(i) instanceof GameEvent.Captured)
+            {
+                assertTrue(capture == null, "an intruder should only be captured once");
+                capture = (GameEvent.Captured) events.get(i);
+                captureIndex = i;
+            }
+        }
+        assertTrue(capture != null);
+        assertTrue(capture.getAgent() == guard && capture.getIntruder() == intruderA);
+        // --- e.g. the sound of the guard moving comes in between
+        GameEvent action = events.subList(captureIndex + 1, events.size()).stream()
+                .filter(e -> e instanceof GameEvent.ActionExecuted || e instanceof GameEvent.ActionFailed)
+                .findFirst().orElse(null);
+        assertTrue(action != null && action.getAgent() == guard, "the capture should be followed by the action of the guard");
+
+        // --- the guard stays next to the intruder, but it has already been captured
+        events.clear();
+        game.turn();
+        assertTrue(events.stream().noneMatch(e -> e instanceof GameEvent.Captured));
+        assertEqual(game.getCapturedIntruders(), 1, 0);
+    }
+
+    private static void test_remove() {
+        Game game = arena();
+        List<GameEvent> events = new ArrayList<>();
+        GameEvent.Listener listener = events::add;
+        game.addEventListener(listener);
+        game.turn();
+        assertTrue(!events.isEmpty());
+
+        events.clear();
+        game.removeEventListener(listener);
+        game.turn();
+        assertTrue(events.isEmpty());
+    }
+
+}
@@ -0,0 +1,109 @@
+package Group9;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.GuardContainer;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Interop.Percept.Smell.SmellPerceptType;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameForkTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("Game::fork <same_state>", GameForkTest::test_same_state);
+        it("Game::fork <does_not_change_original>", GameForkTest::test_independent);
+        it("Game::fork <deterministic_with_factory>", GameForkTest::test_deterministic);
+        it("Pheromone::clone <keeps_decay>", GameForkTest::test_pheromone_clone);
+
+    }
+
+    private static Game game()
+    {
+        Game game = new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), new ShallowSpaceAgentFactory(), false, 42);
+        for(int i = 0; i < 5; i++)
+        {
+            game.turn();
+        }
+        return game;
+    }
+
+    private static void test_same_state() {
+        Game game = game();
+        game.getGuards().get(0).addCooldown(AgentContainer.Cooldown.PHEROMONE, 3);
+        Game fork = game.fork(1);
+
+        assertEqual(fork.getTurns(), game.getTurns(), 0);
+        assertEqual(fork.getGuards().size(), game.getGuards().size(), 0);
+        for(int i = 0; i < game.getGuards().size(); i++)
+        {
+            GuardContainer original = game.getGuards().get(i), copy = fork.getGuards().get(i);
+            assertTrue(original != copy, "the agents should be copied");
+            assertTrue(original.getPosition().equals(copy.getPosition()) && original.getDirection().equals(copy.getDirection()));
+            for(AgentContainer.Cooldown cooldown : AgentContainer.Cooldown.values())
+            {
+                assertEqual(original.getCooldown(cooldown), copy.getCooldown(cooldown), 0, "the cooldowns should be copied");
+            }
+        }
+        assertEqual(fork.getGameMap().getDynamicObjects().size(), game.getGameMap().getDynamicObjects().size(), 0);
+        assertTrue(fork.getGameMap().getObjectTree() == game.getGameMap().getObjectTree(), "the map should be shared");
+        assertTrue(fork.getGameMap().getObjects().get(0) == game.getGameMap().getObjects().get(0));
+        assertTrue(fork.getGameMap().getDynamicObjects().stream().allMatch(e -> fork.getGuards().contains(e.getSource())
+                || fork.getIntruders().contains(e.getSource())), "the dynamic objects should belong to the copied agents");
+    }
+
+    private static void test_independent() {
+        Game game = game();
+        final int turns = game.getTurns();
+        final int dynamicObjects = game.getGameMap().getDynamicObjects().size();
+        List<Vector2> positions = new ArrayList<>();
+        game.getGuards().forEach(e -> positions.add(e.getPosition()));
+        game.getIntruders().forEach(e -> positions.add(e.getPosition()));
+
+        Game fork = game.fork(1, new ShallowSpaceAgentFactory());
+        for(int i = 0; i < 20 && fork.getWinner() == null; i++)
+        {
+            fork.turn();
+        }
+
+        assertEqual(game.getTurns(), turns, 0);
+        assertEqual(game.getGameMap().getDynamicObjects().size(), dynamicObjects, 0);
+        List<Vector2> after = new ArrayList<>();
+        game.getGuards().forEach(e -> after.add(e.getPosition()));
+        game.getIntruders().forEach(e -> after.add(e.getPosition()));
+        assertTrue(positions.equals(after), "playing the fork should not move the agents of the original");
+        assertTrue(fork.getTurns() > turns);
+    }
+
+    private static void test_deterministic() {
+        Game game = game();
+        Game a = game.fork(7, new ShallowSpaceAgentFactory());
+        Game b = game.fork(7, new ShallowSpaceAgentFactory());
+        for(int i = 0; i < 20 && a.getWinner() == null; i++)
+        {
+            assertTrue(a.turn() == b.turn());
+        }
+        for(int i = 0; i < a.getGuards().size(); i++)
+        {
+            assertTrue(a.getGuards().get(i).getPosition().equals(b.getGuards().get(i).getPosition()),
+                    "forks with the same seed should play the same game");
+        }
+    }
+
+    private static void test_pheromone_clone() {
+        Pheromone pheromone = new Pheromone(SmellPerceptType.Pheromone1, null, new Vector2(1, 1), 4, 4);
+        pheromone.setLifetime(2);
+        pheromone.setRadius(2);
+        Pheromone clone = pheromone.clone();
+        assertEqual(clone.getInitialRadius(), 4, 0);
+        assertEqual(clone.getInitialLifetime(), 4, 0);
+        assertEqual(clone.getRadius(), 2, 0);
+        assertTrue(clone.getCenter().equals(pheromone.getCenter()));
+    }
+
+}
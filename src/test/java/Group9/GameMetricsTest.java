@@ -0,0 +1,83 @@
+package Group9;
+
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.parser.Parser;
+import Group9.metrics.GameMetrics;
+import Group9.metrics.LatencyHistogram;
+import SimpleUnitTest.SimpleUnitTest;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+public class GameMetricsTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("LatencyHistogram::getPercentile", GameMetricsTest::test_percentile);
+        it("Game::getMetrics <records_turns>", GameMetricsTest::test_game);
+        it("GameMetrics::register <jmx>", GameMetricsTest::test_jmx);
+
+    }
+
+    private static void test_percentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 1; i <= 1000; i++)
+        {
+            histogram.record(i * 1000L);
+        }
+
+        assertEqual(histogram.getCount(), 1000, 0);
+        assertEqual(histogram.getMax(), 1000000, 0);
+        assertEqual(histogram.getMean(), 500500, 1E-9);
+        // --- the buckets are 1/8 of a power of two wide
+        assertEqual(histogram.getPercentile(0.5), 500000, 500000 / 8D);
+        assertEqual(histogram.getPercentile(0.99), 990000, 990000 / 8D);
+        assertEqual(histogram.getPercentile(1), 1000000, 0);
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(5);
+        other.add(histogram);
+        assertEqual(other.getCount(), 1001, 0);
+        assertEqual(other.getPercentile(0), 5, 0);
+    }
+
+    private static void test_game() {
+        Game game = new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), new ShallowSpaceAgentFactory(), false, 42);
+        final int agents = game.getGuards().size() + game.getIntruders().size();
+        for(int i = 0; i < 5; i++)
+        {
+            game.turn();
+        }
+
+        GameMetrics metrics = game.getMetrics();
+        assertEqual(metrics.getTurns(), 5, 0);
+        assertEqual(metrics.getHistogram(GameMetrics.Phase.VISION).getCount(), 5 * agents, 0);
+        assertEqual(metrics.getHistogram(GameMetrics.Phase.GUARD_DECISION).getCount(), 5 * game.getGuards().size(), 0);
+        assertEqual(metrics.getActions(), 5 * agents, 0);
+        assertTrue(metrics.getRaysCast() > 0, "vision should cast rays");
+        assertTrue(metrics.getIntersectionTests() > 0, "vision should test for intersections");
+        assertTrue(metrics.getPerceptsEmitted() > 0, "vision should emit percepts");
+        assertTrue(metrics.getFailedActions() <= metrics.getActions());
+        assertTrue(metrics.toString().contains("RAYS_CAST"));
+    }
+
+    private static void test_jmx() {
+        try {
+            GameMetrics metrics = new GameMetrics();
+            metrics.increment(GameMetrics.Counter.RAYS_CAST);
+            metrics.register("test");
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("Group9:type=GameMetrics,name=\"test\"");
+            assertTrue(server.isRegistered(name), "the metrics should be registered");
+            assertEqual((Long) server.getAttribute(name, "RaysCast"), 1, 0);
+
+            metrics.unregister();
+            assertTrue(!server.isRegistered(name), "the metrics should be unregistered");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
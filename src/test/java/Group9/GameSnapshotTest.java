@@ -0,0 +1,97 @@
+package Group9;
+
+import Group9.agent.container.GuardContainer;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class GameSnapshotTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("Game::getSnapshot <published_every_turn>", GameSnapshotTest::test_published);
+        it("GameSnapshot <does_not_change>", GameSnapshotTest::test_immutable);
+        it("Game::query <concurrent_reader>", GameSnapshotTest::test_concurrent_reader);
+
+    }
+
+    private static Game game(boolean queryIntent)
+    {
+        return new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), new ShallowSpaceAgentFactory(),
+                queryIntent, 42);
+    }
+
+    private static void test_published() {
+        assertTrue(game(false).getSnapshot() == null, "games without a queryIntent should not publish snapshots");
+
+        Game game = game(true);
+        assertEqual(game.getSnapshot().getTurn(), 0, 0);
+        assertEqual(game.getSnapshot().getGuards().size(), game.getGuards().size(), 0);
+        assertEqual(game.getSnapshot().getIntruders().size(), game.getIntruders().size(), 0);
+
+        game.turn();
+        assertEqual(game.getSnapshot().getTurn(), 1, 0);
+        assertTrue(game.getSnapshot().getGuards().get(0) != game.getGuards().get(0), "the snapshot should hold copies");
+    }
+
+    private static void test_immutable() {
+        Game game = game(true);
+        GameSnapshot snapshot = game.getSnapshot();
+        Vector2 position = snapshot.getGuards().get(0).getPosition().clone();
+
+        for(int i = 0; i < 10; i++)
+        {
+            game.turn();
+        }
+
+        assertTrue(snapshot.getGuards().get(0).getPosition().equals(position), "a snapshot should not follow the game");
+        assertTrue(snapshot.getTurn() == 0);
+        try {
+            snapshot.getGuards().clear();
+            assertTrue(false, "the lists of a snapshot should not be modifiable");
+        } catch (UnsupportedOperationException ignored) {}
+    }
+
+    private static void test_concurrent_reader() {
+        final Game game = game(true);
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final int[] lastTurn = { 0 };
+
+        Thread reader = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                game.query((snapshot) -> {
+                    if(snapshot.getTurn() < lastTurn[0])
+                    {
+                        failed.set(true);
+                    }
+                    lastTurn[0] = snapshot.getTurn();
+                    for(GuardContainer guard : snapshot.getGuards())
+                    {
+                        guard.getPosition().getX();
+                    }
+                });
+            }
+        });
+        reader.start();
+
+        for(int i = 0; i < 200 && game.getWinner() == null; i++)
+        {
+            game.turn();
+        }
+
+        reader.interrupt();
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        assertTrue(!failed.get(), "the reader should never see an older turn after a newer one");
+        assertEqual(game.getSnapshot().getTurn(), game.getTurns(), 0);
+    }
+
+}
@@ -0,0 +1,71 @@
+package Group9;
+
+import Group9.math.Geometry;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.Random;
+import java.util.Set;
+
+public class GeometryTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("Geometry::segmentIntersection", GeometryTest::test_segment_intersection);
+        it("Geometry::isPointInPolygon", GeometryTest::test_point_in_polygon);
+        it("Geometry::polygonsIntersect", GeometryTest::test_polygons_intersect);
+        it("PointContainer::intersectionPoints(double[]) <matches> PointContainer::intersectionPoints(Line)", GeometryTest::test_intersection_points_buffer);
+
+    }
+
+    private static void test_segment_intersection() {
+        double[] out = new double[2];
+        assertTrue(Geometry.segmentIntersection(-1, 0, 1, 0, 0, -1, 0, 1, out, 0));
+        assertEqual(out[0], 0, 1E-9);
+        assertEqual(out[1], 0, 1E-9);
+
+        assertTrue(!Geometry.segmentIntersection(-1, 0, 1, 0, -1, 1, 1, 1, out, 0), "parallel segments should not intersect");
+        assertTrue(!Geometry.segmentIntersection(-1, 0, 1, 0, 2, -1, 2, 1, out, 0), "disjoint segments should not intersect");
+    }
+
+    private static void test_point_in_polygon() {
+        double[] xs = { -1, -1, 1, 1 };
+        double[] ys = { -1, 1, 1, -1 };
+        assertTrue(Geometry.isPointInPolygon(xs, ys, 0, 0));
+        assertTrue(Geometry.isPointInPolygon(xs, ys, 0.9, -0.9));
+        assertTrue(!Geometry.isPointInPolygon(xs, ys, 1.1, 0));
+    }
+
+    private static void test_polygons_intersect() {
+        double[] xs = { -1, -1, 1, 1 };
+        double[] ys = { -1, 1, 1, -1 };
+        assertTrue(Geometry.polygonsIntersect(xs, ys, new double[] { 0, 0, 2, 2 }, new double[] { 0, 2, 2, 0 }));
+        assertTrue(Geometry.polygonsIntersect(xs, ys, new double[] { -0.5, -0.5, 0.5, 0.5 }, new double[] { -0.5, 0.5, 0.5, -0.5 }),
+                "a polygon inside of another one should intersect");
+        assertTrue(!Geometry.polygonsIntersect(xs, ys, new double[] { 2, 2, 3, 3 }, new double[] { 2, 3, 3, 2 }));
+    }
+
+    private static void test_intersection_points_buffer() {
+        PointContainer.Polygon polygon = new PointContainer.Polygon(
+                new Vector2(-2, -1), new Vector2(-1, 2), new Vector2(2, 1), new Vector2(1, -2));
+        double[] out = new double[polygon.getPoints().length * 2];
+
+        Random random = new Random(42);
+        for(int i = 0; i < 1000; i++)
+        {
+            Vector2 start = new Vector2(random.nextDouble() * 6 - 3, random.nextDouble() * 6 - 3);
+            Vector2 end = new Vector2(random.nextDouble() * 6 - 3, random.nextDouble() * 6 - 3);
+
+            Set<Vector2> expected = PointContainer.intersectionPoints(polygon, new PointContainer.Line(start, end));
+            int count = PointContainer.intersectionPoints(polygon, start.getX(), start.getY(), end.getX(), end.getY(), out);
+            for(int j = 0; j < count; j++)
+            {
+                assertTrue(expected.contains(new Vector2(out[j * 2], out[j * 2 + 1])),
+                        String.format("(%f, %f) should be an intersection point", out[j * 2], out[j * 2 + 1]));
+            }
+            assertTrue(count >= expected.size(), "every intersection point should be found");
+        }
+    }
+
+}
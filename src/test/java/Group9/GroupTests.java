@@ -8,9 +8,30 @@ public class GroupTests extends SimpleUnitTest {
         GraphTest.main(args);
         Vector2Test.main(args);
         PointContainerTest.main(args);
+        GeometryTest.main(args);
+        MapTemplateTest.main(args);
+        BinaryMapTest.main(args);
+        QuadTreeTest.main(args);
         AgentViewTesting.main(args);
+        VisionModeTest.main(args);
         GameWinningConditions.main(args);
         ActionTests.main(args);
         AgentMovementTest.main(args);
+        BatchRunnerTest.main(args);
+        GameSnapshotTest.main(args);
+        GameMetricsTest.main(args);
+        ScalingBenchmarkTest.main(args);
+        MapGeneratorTest.main(args);
+        DecisionWatchdogTest.main(args);
+        SimultaneousMovesTest.main(args);
+        GameForkTest.main(args);
+        ReplayTest.main(args);
+        TimelineTest.main(args);
+        ActionLogTest.main(args);
+        DynamicObjectGridTest.main(args);
+        TimerWheelTest.main(args);
+        GameEventTest.main(args);
+        AgentGridTest.main(args);
+        StalemateTest.main(args);
     }
 }
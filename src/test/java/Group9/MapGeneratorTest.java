@@ -0,0 +1,182 @@
+package Group9;
+
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.GameMap;
+import Group9.map.MapTemplate;
+import Group9.map.objects.*;
+import Group9.map.parser.MapGenerator;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class MapGeneratorTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("MapGenerator::generate <deterministic>", MapGeneratorTest::test_deterministic);
+        it("MapGenerator::generate <reachable>", MapGeneratorTest::test_reachable);
+        it("MapGenerator::write <parses_to_same_map>", MapGeneratorTest::test_write);
+        it("MapGenerator::generate <hundreds_of_agents>", MapGeneratorTest::test_many_agents);
+
+    }
+
+    private static MapGenerator generator(long seed)
+    {
+        return new MapGenerator(seed).columns(10).rows(8).guards(6).intruders(4)
+                .doorRate(0.3).windowRate(0.2).sentryTowers(3).teleports(2).shadedAreas(3);
+    }
+
+    private static void test_deterministic() {
+        MapTemplate a = generator(7).generate();
+        MapTemplate b = generator(7).generate();
+        MapTemplate c = generator(8).generate();
+
+        assertEqual(a.getObjects().size(), b.getObjects().size(), 0);
+        for(int i = 0; i < a.getObjects().size(); i++)
+        {
+            assertTrue(a.getObjects().get(i).getContainer().getAsPolygon().getCenter()
+                    .equals(b.getObjects().get(i).getContainer().getAsPolygon().getCenter()), "the same seed should generate the same map");
+        }
+        assertTrue(!generator(7).toLines().equals(generator(8).toLines()) && c.getObjects().size() > 0,
+                "another seed should generate another map");
+
+        assertEqual(count(a, Door.class) + count(a, Window.class) > 0 ? 1 : 0, 1, 0);
+        assertEqual(count(a, SentryTower.class), 3, 0);
+        assertEqual(count(a, TeleportArea.class), 4, 0);
+        assertEqual(count(a, ShadedArea.class), 3, 0);
+        assertEqual(count(a, TargetArea.class), 1, 0);
+        assertEqual(count(a, Spawn.Guard.class), 1, 0);
+        assertEqual(count(a, Spawn.Intruder.class), 1, 0);
+    }
+
+    private static void test_reachable() {
+        for(long seed = 0; seed < 5; seed++)
+        {
+            MapTemplate template = generator(seed).loopRate(0).generate();
+            MapObject guards = find(template, Spawn.Guard.class);
+            MapObject intruders = find(template, Spawn.Intruder.class);
+            MapObject target = find(template, TargetArea.class);
+
+            List<MapObject> walls = template.getObjects().stream().filter(e -> e instanceof Wall).collect(Collectors.toList());
+            for(MapObject object : new MapObject[] { guards, intruders, target })
+            {
+                assertTrue(walls.stream().noneMatch(e -> PointContainer.intersect(e.getContainer(), object.getContainer())),
+                        "spawns and the target area should be free of walls");
+            }
+
+            boolean[][] reached = flood(template, centre(guards));
+            assertTrue(reached(reached, centre(intruders)), "the intruder spawn should be reachable from the guard spawn");
+            assertTrue(reached(reached, centre(target)), "the target area should be reachable from the guard spawn");
+        }
+    }
+
+    private static void test_write() {
+        MapGenerator generator = generator(3);
+        MapTemplate generated = generator.generate();
+        try {
+            Path path = Files.createTempFile("generated", ".map");
+            try {
+                generator.write(path);
+                MapTemplate parsed = Parser.parseTemplateFile(path.toString());
+                assertEqual(parsed.getObjects().size(), generated.getObjects().size(), 0);
+                assertEqual(parsed.getGameSettings().getWidth(), generated.getGameSettings().getWidth(), 0);
+                assertEqual(parsed.getGameSettings().getNumGuards(), 6, 0);
+                for(int i = 0; i < parsed.getObjects().size(); i++)
+                {
+                    assertTrue(parsed.getObjects().get(i).getClass() == generated.getObjects().get(i).getClass(),
+                            "the parsed map should contain the same objects");
+                }
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_many_agents() {
+        MapGenerator generator = new MapGenerator(1).columns(40).rows(40).guards(150).intruders(100);
+        MapTemplate template = generator.generate();
+        assertTrue(template.getObjects().size() > 1000, "a 40x40 maze should have more than a thousand objects");
+
+        Game game = new Game(new GameMap(template), new ShallowSpaceAgentFactory(), false, 1);
+        for(int i = 0; i < 3; i++)
+        {
+            game.turn();
+        }
+        assertEqual(game.getGuards().size(), 150, 0);
+        assertEqual(game.getTurns(), 3, 0);
+    }
+
+    private static long count(MapTemplate template, Class<?> type)
+    {
+        return template.getObjects().stream().filter(type::isInstance).count();
+    }
+
+    private static MapObject find(MapTemplate template, Class<?> type)
+    {
+        return template.getObjects().stream().filter(type::isInstance).findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    private static Vector2 centre(MapObject object)
+    {
+        Vector2[] points = object.getContainer().getAsPolygon().getPoints();
+        Vector2 sum = new Vector2(0, 0);
+        for(Vector2 point : points)
+        {
+            sum = sum.add(point);
+        }
+        return sum.mul(1D / points.length);
+    }
+
+    // --- flood fill over a 0.5 grid, a cell is free if an agent (radius 0.5) standing on it does not touch a wall
+    private final static double _STEP = 0.5;
+
+    private static boolean[][] flood(MapTemplate template, Vector2 start)
+    {
+        final int width = (int) Math.ceil(template.getGameSettings().getWidth() / _STEP);
+        final int height = (int) Math.ceil(template.getGameSettings().getHeight() / _STEP);
+        final boolean[][] reached = new boolean[width][height];
+        final Deque<int[]> queue = new ArrayDeque<>();
+        final int[] first = { (int) (start.getX() / _STEP), (int) (start.getY() / _STEP) };
+        reached[first[0]][first[1]] = true;
+        queue.add(first);
+
+        while (!queue.isEmpty())
+        {
+            final int[] cell = queue.poll();
+            for(int[] d : new int[][] { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } })
+            {
+                final int x = cell[0] + d[0], y = cell[1] + d[1];
+                if(x < 0 || y < 0 || x >= width || y >= height || reached[x][y])
+                {
+                    continue;
+                }
+
+                PointContainer.Circle agent = new PointContainer.Circle(new Vector2(x * _STEP, y * _STEP), 0.5);
+                if(template.getObjectTree().queryCircle(agent).stream()
+                        .noneMatch(e -> e instanceof Wall && PointContainer.intersect(e.getContainer(), agent)))
+                {
+                    reached[x][y] = true;
+                    queue.add(new int[] { x, y });
+                }
+            }
+        }
+        return reached;
+    }
+
+    private static boolean reached(boolean[][] reached, Vector2 point)
+    {
+        return reached[(int) (point.getX() / _STEP)][(int) (point.getY() / _STEP)];
+    }
+
+}
@@ -0,0 +1,102 @@
+package Group9;
+
+import Group9.agent.factories.DummyAgentFactory;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.GameMap;
+import Group9.map.MapTemplate;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.objects.Wall;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import Interop.Percept.Smell.SmellPerceptType;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MapTemplateTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("MapTemplate::<shared_by_game_maps>", MapTemplateTest::test_shared);
+        it("GameMap::getObjects <does_not_modify> MapTemplate", MapTemplateTest::test_overlay_objects);
+        it("MapTemplate::<parallel_games>", MapTemplateTest::test_parallel_games);
+
+    }
+
+    private static void test_shared() {
+        MapTemplate template = Parser.parseTemplateFile("./src/main/java/Group9/map/maps/mazy.map");
+        GameMap a = new GameMap(template);
+        GameMap b = new GameMap(template);
+
+        assertTrue(a.getObjectTree() == template.getObjectTree() && b.getObjectTree() == template.getObjectTree(),
+                "game maps should share the indices of the template");
+        assertTrue(a.getObjects().get(0) == b.getObjects().get(0), "game maps should share the map objects");
+
+        new Game(a, new DummyAgentFactory(false), false);
+        new Game(b, new DummyAgentFactory(false), false);
+        a.getDynamicObjects().add(new Pheromone(SmellPerceptType.Pheromone1, null, new Vector2(1, 1), 1, 1));
+        assertEqual(a.getDynamicObjects().size(), 1, 0);
+        assertEqual(b.getDynamicObjects().size(), 0, 0);
+    }
+
+    private static void test_overlay_objects() {
+        MapTemplate template = Parser.parseTemplateFile("./src/main/java/Group9/map/maps/mazy.map");
+        GameMap a = new GameMap(template);
+        GameMap b = new GameMap(template);
+        final int size = template.getObjects().size();
+
+        a.getObjects().add(new Wall(new PointContainer.Polygon(new Vector2(1, 1), new Vector2(1, 2), new Vector2(2, 2), new Vector2(2, 1))));
+        assertEqual(a.getObjects().size(), size + 1, 0);
+        assertEqual(b.getObjects().size(), size, 0);
+        assertEqual(template.getObjects().size(), size, 0);
+        assertTrue(a.getObjectTree() != template.getObjectTree(), "the indices should be rebuilt for the modified map");
+        assertEqual(a.getObjectTree().size(), size + 1, 0);
+        assertTrue(b.getObjectTree() == template.getObjectTree(), "the other maps should keep using the template");
+
+        boolean modified;
+        try {
+            template.getObjects().clear();
+            modified = true;
+        } catch (UnsupportedOperationException e) {
+            modified = false;
+        }
+        assertTrue(!modified, "the objects of the template should not be modifiable");
+    }
+
+    private static void test_parallel_games() {
+        MapTemplate template = Parser.parseTemplateFile("./src/test/java/Group9/movement_test_map.map");
+
+        // --- the same seed has to result in the same game, no matter how many games share the template at the same time
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Vector2>> positions = new ArrayList<>();
+            for(int i = 0; i < 8; i++)
+            {
+                positions.add(executorService.submit(() -> {
+                    Game game = new Game(new GameMap(template), new ShallowSpaceAgentFactory(), false, 42);
+                    for(int turn = 0; turn < 200; turn++)
+                    {
+                        game.turn();
+                    }
+                    return game.getGuards().get(0).getPosition();
+                }));
+            }
+
+            Vector2 expected = positions.get(0).get();
+            for(Future<Vector2> position : positions)
+            {
+                assertTrue(position.get().equals(expected), "games sharing a template should not influence each other");
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package Group9;
+
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import Group9.tree.QuadTree;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class QuadTreeTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("QuadTree::new", QuadTreeTest::test_new);
+        it("QuadTree::queryRange", QuadTreeTest::test_queryRange);
+        it("QuadTree::queryCircle", QuadTreeTest::test_queryCircle);
+        it("QuadTree::queryPolygon", QuadTreeTest::test_queryPolygon);
+        it("QuadTree::queryLine", QuadTreeTest::test_queryLine);
+        it("QuadTree::<matches_linear_scan>", QuadTreeTest::test_matches_linear_scan);
+
+    }
+
+    private static PointContainer.Polygon square(double x, double y, double size)
+    {
+        return new PointContainer.Polygon(
+                new Vector2(x, y), new Vector2(x, y + size), new Vector2(x + size, y + size), new Vector2(x + size, y)
+        );
+    }
+
+    /**
+     * A 10x10 grid of 1x1 squares with a gap of 1 between them, i.e. the squares start at (2i, 2j).
+     */
+    private static QuadTree<PointContainer.Polygon> grid()
+    {
+        List<PointContainer.Polygon> squares = new ArrayList<>();
+        for(int i = 0; i < 10; i++)
+        {
+            for(int j = 0; j < 10; j++)
+            {
+                squares.add(square(i * 2, j * 2, 1));
+            }
+        }
+        return new QuadTree<>(squares, 2, 8, e -> e);
+    }
+
+    private static void test_new() {
+        assertEqual(grid().size(), 100);
+        assertEqual(new QuadTree<PointContainer.Polygon>(new ArrayList<>(), e -> e).queryRange(0, 0, 1, 1).size(), 0);
+    }
+
+    private static void test_queryRange() {
+        QuadTree<PointContainer.Polygon> tree = grid();
+
+        assertEqual(tree.queryRange(0, 0, 0.5, 0.5).size(), 1);
+        assertEqual(tree.queryRange(0, 0, 2.5, 0.5).size(), 2);
+        assertEqual(tree.queryRange(1.2, 1.2, 1.8, 1.8).size(), 0);
+        assertEqual(tree.queryRange(-100, -100, 100, 100).size(), 100);
+
+        // --- squares in the north-west quadrant have to be found too
+        assertEqual(tree.queryRange(0, 18, 0.5, 18.5).size(), 1);
+    }
+
+    private static void test_queryCircle() {
+        QuadTree<PointContainer.Polygon> tree = grid();
+
+        assertEqual(tree.queryCircle(new PointContainer.Circle(new Vector2(0.5, 0.5), 0.25)).size(), 1);
+        assertEqual(tree.queryCircle(new PointContainer.Circle(new Vector2(1.5, 1.5), 0.25)).size(), 0);
+
+        // --- the bounding box of the circle overlaps with four squares, but the circle itself does not
+        assertEqual(tree.queryCircle(new PointContainer.Circle(new Vector2(1.5, 1.5), 0.6)).size(), 0);
+        assertEqual(tree.queryCircle(new PointContainer.Circle(new Vector2(1.5, 0.5), 0.6)).size(), 2);
+    }
+
+    private static void test_queryPolygon() {
+        QuadTree<PointContainer.Polygon> tree = grid();
+
+        assertEqual(tree.queryPolygon(square(0.5, 0.5, 0.2)).size(), 1);
+        assertEqual(tree.queryPolygon(square(0.5, 0.5, 2)).size(), 4);
+        assertEqual(tree.queryPolygon(square(1.1, 1.1, 0.8)).size(), 0);
+    }
+
+    private static void test_queryLine() {
+        QuadTree<PointContainer.Polygon> tree = grid();
+
+        assertEqual(tree.queryLine(new PointContainer.Line(new Vector2(0.5, 0.5), new Vector2(18.5, 0.5))).size(), 10);
+        assertEqual(tree.queryLine(new PointContainer.Line(new Vector2(0.5, 1.5), new Vector2(18.5, 1.5))).size(), 0);
+        assertEqual(tree.queryLine(new PointContainer.Line(new Vector2(0.5, 0.5), new Vector2(18.5, 18.5))).size(), 10);
+    }
+
+    private static void test_matches_linear_scan() {
+        List<PointContainer.Polygon> squares = new ArrayList<>();
+        Random random = new Random(42);
+        for(int i = 0; i < 500; i++)
+        {
+            squares.add(square(random.nextDouble() * 100, random.nextDouble() * 100, 0.5 + random.nextDouble() * 5));
+        }
+        QuadTree<PointContainer.Polygon> tree = new QuadTree<>(squares, e -> e);
+
+        for(int i = 0; i < 200; i++)
+        {
+            PointContainer.Circle circle = new PointContainer.Circle(
+                    new Vector2(random.nextDouble() * 100, random.nextDouble() * 100), random.nextDouble() * 10);
+
+            List<PointContainer.Polygon> expected = new ArrayList<>();
+            for(PointContainer.Polygon square : squares)
+            {
+                if(PointContainer.intersect(square, circle))
+                {
+                    expected.add(square);
+                }
+            }
+
+            assertTrue(tree.queryCircle(circle).equals(expected), "tree and linear scan should return the same objects in the same order");
+        }
+    }
+
+}
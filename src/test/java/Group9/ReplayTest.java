@@ -0,0 +1,180 @@
+package Group9;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Group9.replay.ReplayFrame;
+import Group9.replay.ReplayReader;
+import Group9.replay.ReplayWriter;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class ReplayTest extends SimpleUnitTest {
+
+    private final static int _TURNS = 60;
+    private final static int _KEYFRAME_INTERVAL = 16;
+
+    public static void main(String[] args) {
+
+        it("ReplayWriter <round_trip>", ReplayTest::test_round_trip);
+        it("ReplayReader <seek>", ReplayTest::test_seek);
+        it("ReplayWriter <compact>", ReplayTest::test_compact);
+        it("ReplayReader <not_a_replay>", ReplayTest::test_not_a_replay);
+
+    }
+
+    private static class Recording {
+        final List<List<Vector2>> positions = new ArrayList<>();
+        final List<List<Vector2>> directions = new ArrayList<>();
+        final List<List<Integer>> cooldowns = new ArrayList<>();
+        final List<Integer> dynamicObjects = new ArrayList<>();
+        long bytes;
+        int agents;
+    }
+
+    private static Recording record(Path path)
+    {
+        Game game = new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), new ShallowSpaceAgentFactory(), false, 42);
+        Recording recording = new Recording();
+        try (ReplayWriter writer = new ReplayWriter(path, game, _KEYFRAME_INTERVAL))
+        {
+            snapshot(game, recording);
+            for(int i = 0; i < _TURNS && game.getWinner() == null; i++)
+            {
+                game.turn();
+                writer.record();
+                snapshot(game, recording);
+            }
+            recording.bytes = writer.getBytes();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        recording.agents = game.getGuards().size() + game.getIntruders().size();
+        return recording;
+    }
+
+    private static void snapshot(Game game, Recording recording)
+    {
+        List<AgentContainer<?>> agents = new ArrayList<>(game.getGuards());
+        agents.addAll(game.getIntruders());
+        List<Vector2> positions = new ArrayList<>(), directions = new ArrayList<>();
+        List<Integer> cooldowns = new ArrayList<>();
+        for(AgentContainer<?> agent : agents)
+        {
+            positions.add(agent.getPosition());
+            directions.add(agent.getDirection());
+            cooldowns.add(agent.getCooldown(AgentContainer.Cooldown.SPRINTING));
+            cooldowns.add(agent.getCooldown(AgentContainer.Cooldown.PHEROMONE));
+            cooldowns.add(agent instanceof IntruderContainer ? ((IntruderContainer) agent).getZoneCounter() : 0);
+        }
+        recording.positions.add(positions);
+        recording.directions.add(directions);
+        recording.cooldowns.add(cooldowns);
+        recording.dynamicObjects.add(game.getGameMap().getDynamicObjects().size());
+    }
+
+    private static void assertFrame(ReplayFrame frame, Recording recording, int index)
+    {
+        assertEqual(frame.getAgents(), recording.positions.get(index).size(), 0);
+        for(int i = 0; i < frame.getAgents(); i++)
+        {
+            Vector2 expected = recording.positions.get(index).get(i), actual = frame.getPosition(i);
+            assertEqual(actual.getX(), expected.getX(), 1D / 2048 + 1E-9);
+            assertEqual(actual.getY(), expected.getY(), 1D / 2048 + 1E-9);
+            assertEqual(frame.getDirection(i).distance(recording.directions.get(index).get(i).normalise()), 0, 1E-3);
+            assertEqual(frame.getCooldown(i, AgentContainer.Cooldown.SPRINTING), recording.cooldowns.get(index).get(i * 3), 0);
+            assertEqual(frame.getCooldown(i, AgentContainer.Cooldown.PHEROMONE), recording.cooldowns.get(index).get(i * 3 + 1), 0);
+            assertEqual(frame.getZoneCounter(i), recording.cooldowns.get(index).get(i * 3 + 2), 0);
+        }
+        assertEqual(frame.getDynamicObjects(), recording.dynamicObjects.get(index), 0);
+    }
+
+    private static void test_round_trip() {
+        try {
+            Path path = Files.createTempFile("game", ".replay");
+            try {
+                Recording recording = record(path);
+                ReplayReader reader = new ReplayReader(path);
+                assertEqual(reader.getSeed(), 42, 0);
+                assertEqual(reader.getKeyframeInterval(), _KEYFRAME_INTERVAL, 0);
+                assertEqual(reader.getFrameCount(), recording.positions.size(), 0);
+                for(int i = 0; i < reader.getFrameCount(); i++)
+                {
+                    ReplayFrame frame = reader.getFrame(i);
+                    assertEqual(frame.getTurn(), i, 0);
+                    assertFrame(frame, recording, i);
+                }
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_seek() {
+        try {
+            Path path = Files.createTempFile("game", ".replay");
+            try {
+                Recording recording = record(path);
+                ReplayReader reader = new ReplayReader(path);
+                SplittableRandom random = new SplittableRandom(1);
+                for(int i = 0; i < 50; i++)
+                {
+                    final int index = random.nextInt(reader.getFrameCount());
+                    assertFrame(reader.getFrame(index), recording, index);
+                }
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_compact() {
+        try {
+            Path path = Files.createTempFile("game", ".replay");
+            try {
+                Recording recording = record(path);
+                assertEqual(Files.size(path), recording.bytes, 0);
+                // --- Note: This includes the dynamic objects which are stored in full every frame, the agents alone take ~5 bytes.
+                final double perAgentTick = recording.bytes / (double) (recording.positions.size() * recording.agents);
+                assertTrue(perAgentTick < 12, String.format("expected a few bytes per agent and tick, got %.2f", perAgentTick));
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void test_not_a_replay() {
+        try {
+            Path path = Files.createTempFile("game", ".replay");
+            try {
+                Files.write(path, new byte[64]);
+                boolean failed = false;
+                try {
+                    new ReplayReader(path);
+                } catch (IOException e) {
+                    failed = true;
+                }
+                assertTrue(failed, "a file without the magic number should be rejected");
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package Group9;
+
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.experiments.ScalingBenchmark;
+import Group9.map.MapTemplate;
+import Group9.map.objects.MapObject;
+import Group9.map.objects.Spawn;
+import Group9.map.objects.TargetArea;
+import Group9.map.objects.Wall;
+import Group9.tree.PointContainer;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ScalingBenchmarkTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("ScalingBenchmark::Scenario::buildTemplate", ScalingBenchmarkTest::test_build_template);
+        it("ScalingBenchmark::run", ScalingBenchmarkTest::test_run);
+
+    }
+
+    private static void test_build_template() {
+        ScalingBenchmark.Scenario scenario = new ScalingBenchmark.Scenario("test", 60, 0.1, 8, 5);
+        MapTemplate template = scenario.buildTemplate(1);
+
+        assertEqual(template.getGameSettings().getWidth(), 60, 0);
+        assertEqual(template.getGameSettings().getNumGuards(), 8, 0);
+
+        List<MapObject> walls = template.getObjects().stream().filter(e -> e instanceof Wall).collect(Collectors.toList());
+        // --- the border is 4 walls, the rest covers ~10% of the inner area
+        final double covered = walls.stream().skip(4).mapToDouble(e -> e.getContainer().getArea()).sum();
+        assertEqual(covered / (58 * 58), 0.1, 0.01);
+
+        for(MapObject object : template.getObjects())
+        {
+            if(object instanceof Spawn || object instanceof TargetArea)
+            {
+                assertTrue(walls.stream().noneMatch(e -> PointContainer.intersect(e.getContainer(), object.getContainer())),
+                        "spawns and the target area should be free of walls");
+            }
+        }
+
+        assertEqual(scenario.buildTemplate(1).getObjects().size(), template.getObjects().size(), 0);
+    }
+
+    private static void test_run() {
+        ScalingBenchmark benchmark = new ScalingBenchmark(new ShallowSpaceAgentFactory(), 30);
+        ScalingBenchmark.Result result = benchmark.run(new ScalingBenchmark.Scenario("test", 40, 0.05, 2, 2));
+
+        assertEqual(result.getTurns(), 30, 0);
+        assertTrue(result.getGames() >= 1);
+        assertTrue(result.getTicksPerSecond() > 0);
+        assertTrue(result.getPerceptsPerSecond() > 0);
+        assertTrue(result.toCsv("label").startsWith("label,test,40,0.050,2,2,"));
+    }
+
+}
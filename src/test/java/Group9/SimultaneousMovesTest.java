@@ -0,0 +1,232 @@
+package Group9;
+
+import Group9.agent.container.GuardContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.agent.factories.IAgentFactory;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Group9.metrics.GameMetrics;
+import Interop.Action.DropPheromone;
+import Interop.Action.GuardAction;
+import Interop.Action.IntruderAction;
+import Interop.Action.Move;
+import Interop.Action.NoAction;
+import Interop.Action.Rotate;
+import Interop.Agent.Guard;
+import Interop.Agent.Intruder;
+import Interop.Geometry.Angle;
+import Interop.Geometry.Distance;
+import Interop.Percept.Smell.SmellPerceptType;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+public class SimultaneousMovesTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("Game::setSimultaneousMoves <same_state_for_all_agents>", SimultaneousMovesTest::test_frozen_state);
+        it("Game::setSimultaneousMoves <deterministic>", SimultaneousMovesTest::test_deterministic);
+        it("Game::setSimultaneousMoves <metrics>", SimultaneousMovesTest::test_metrics);
+        it("Game::setSimultaneousMoves <capture_after_moves>", SimultaneousMovesTest::test_capture_after_moves);
+        it("Game::setSimultaneousMoves <conflicting_pheromones>", SimultaneousMovesTest::test_conflicting_pheromones);
+
+    }
+
+    private static Game game(IAgentFactory factory)
+    {
+        return new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), factory, false, 42);
+    }
+
+    /**
+     * Guards that always move and remember how many sounds they heard in their first turn, the intruders stay still.
+     */
+    private static IAgentFactory listeningGuards(List<Integer> heard)
+    {
+        return new IAgentFactory() {
+            @Override
+            public List<Intruder> createIntruders(int amount) {
+                List<Intruder> intruders = new ArrayList<>();
+                for(int i = 0; i < amount; i++) intruders.add(percepts -> new NoAction());
+                return intruders;
+            }
+
+            @Override
+            public List<Guard> createGuards(int amount) {
+                List<Guard> guards = new ArrayList<>();
+                for(int i = 0; i < amount; i++)
+                {
+                    guards.add(percepts -> {
+                        synchronized (heard)
+                        {
+                            heard.add(percepts.getSounds().getAll().size());
+                        }
+                        return new Move(new Distance(0.5));
+                    });
+                }
+                return guards;
+            }
+        };
+    }
+
+    /**
+     * Every agent always does the action of its index.
+     */
+    private static IAgentFactory scripted(IntFunction<IntruderAction> intruderActions, IntFunction<GuardAction> guardActions)
+    {
+        return new IAgentFactory() {
+            @Override
+            public List<Intruder> createIntruders(int amount) {
+                List<Intruder> intruders = new ArrayList<>();
+                for(int i = 0; i < amount; i++)
+                {
+                    final IntruderAction action = intruderActions.apply(i);
+                    intruders.add(percepts -> action);
+                }
+                return intruders;
+            }
+
+            @Override
+            public List<Guard> createGuards(int amount) {
+                List<Guard> guards = new ArrayList<>();
+                for(int i = 0; i < amount; i++)
+                {
+                    final GuardAction action = guardActions.apply(i);
+                    guards.add(percepts -> action);
+                }
+                return guards;
+            }
+        };
+    }
+
+    /**
+     * Puts the first intruder the distance in front of the first guard, looking the same way, so the guard captures it
+     * once it is close enough.
+     */
+    private static void inFrontOfGuard(Game game, double distance)
+    {
+        GuardContainer guard = game.getGuards().get(0);
+        IntruderContainer intruder = game.getIntruders().get(0);
+        intruder.rotate(intruder.getDirection().angle(guard.getDirection()) - 0.01);
+        intruder.moveTo(guard.getPosition().add(guard.getDirection().mul(distance, distance)));
+    }
+
+    private static void test_frozen_state() {
+        // --- in a sequential turn the guards hear the guards that moved before them, the guards spawn close to each other
+        List<Integer> sequential = new ArrayList<>();
+        game(listeningGuards(sequential)).turn();
+        assertTrue(sequential.stream().anyMatch(e -> e > 0), "the guards should hear each other in a sequential turn");
+
+        List<Integer> simultaneous = new ArrayList<>();
+        Game game = game(listeningGuards(simultaneous));
+        game.setSimultaneousMoves(true);
+        game.turn();
+        assertEqual(simultaneous.size(), game.getGuards().size(), 0);
+        assertTrue(simultaneous.stream().allMatch(e -> e == 0), "all guards should perceive the world before anybody moved");
+
+        // --- the moves are executed after all agents decided, and their sounds are heard in the next turn
+        assertEqual(game.getActionSuccess().size(), game.getGuards().size() + game.getIntruders().size(), 0);
+        simultaneous.clear();
+        game.turn();
+        assertTrue(simultaneous.stream().anyMatch(e -> e > 0));
+    }
+
+    private static void test_deterministic() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            Game a = game(new ShallowSpaceAgentFactory());
+            Game b = game(new ShallowSpaceAgentFactory());
+            a.setSimultaneousMoves(single);
+            b.setSimultaneousMoves(many);
+
+            for(int i = 0; i < 30 && a.getWinner() == null; i++)
+            {
+                assertTrue(a.turn() == b.turn(), "both games should have the same winner");
+            }
+
+            for(int i = 0; i < a.getGuards().size(); i++)
+            {
+                GuardContainer guardA = a.getGuards().get(i), guardB = b.getGuards().get(i);
+                assertTrue(guardA.getPosition().equals(guardB.getPosition()) && guardA.getDirection().equals(guardB.getDirection()),
+                        "the same seed should result in the same game, no matter how many threads are used");
+            }
+            assertEqual(a.getGameMap().getDynamicObjects().size(), b.getGameMap().getDynamicObjects().size(), 0);
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    private static void test_capture_after_moves() {
+        // --- the guard moves into reach of the intruder, which only counts once the guard has moved
+        for(boolean simultaneous : new boolean[] { false, true })
+        {
+            Game game = game(scripted(i -> new NoAction(), i -> i == 0 ? new Move(new Distance(0.8)) : new NoAction()));
+            game.setSimultaneousMoves(simultaneous);
+            inFrontOfGuard(game, 1);
+            game.turn();
+            assertTrue(game.getActionSuccess().get(game.getGuards().get(0)));
+            assertEqual(game.getCapturedIntruders(), simultaneous ? 1 : 0, 0,
+                    "a simultaneous turn should capture against the positions after all moves");
+        }
+
+        // --- the intruder moves out of reach while the guard tries to capture it
+        Game game = game(scripted(i -> i == 0 ? new Move(new Distance(1)) : new NoAction(),
+                i -> i == 0 ? new Rotate(Angle.fromRadians(0)) : new NoAction()));
+        game.setSimultaneousMoves(true);
+        inFrontOfGuard(game, 0.3);
+        game.turn();
+        assertTrue(game.getActionSuccess().get(game.getIntruders().get(0)));
+        assertEqual(game.getCapturedIntruders(), 0, 0, "an intruder that moves out of reach should get away");
+    }
+
+    private static void test_conflicting_pheromones() {
+        // --- the first two guards drop the same pheromone right next to each other
+        for(boolean simultaneous : new boolean[] { false, true })
+        {
+            Game game = game(scripted(i -> new NoAction(),
+                    i -> i < 2 ? new DropPheromone(SmellPerceptType.Pheromone1) : new NoAction()));
+            game.setSimultaneousMoves(simultaneous);
+            GuardContainer first = game.getGuards().get(0), second = game.getGuards().get(1);
+            second.moveTo(first.getPosition().add(new Vector2(1, 0)));
+            game.turn();
+
+            final int dropped = game.getGameMap().getDynamicObjects(Pheromone.class).size();
+            if(simultaneous)
+            {
+                assertEqual(dropped, 0, 0, "neither of two overlapping pheromones should be dropped");
+                assertTrue(!game.getActionSuccess().get(first) && !game.getActionSuccess().get(second));
+            }
+            else
+            {
+                assertEqual(dropped, 1, 0, "the first pheromone should be dropped");
+                assertTrue(game.getActionSuccess().get(first) && !game.getActionSuccess().get(second));
+            }
+        }
+    }
+
+    private static void test_metrics() {
+        Game game = game(new ShallowSpaceAgentFactory());
+        game.setSimultaneousMoves(true);
+        for(int i = 0; i < 5; i++)
+        {
+            game.turn();
+        }
+
+        final GameMetrics metrics = game.getMetrics();
+        final long perceived = metrics.getHistogram(GameMetrics.Phase.GUARD_DECISION).getCount()
+                + metrics.getHistogram(GameMetrics.Phase.INTRUDER_DECISION).getCount();
+        assertEqual(metrics.getTurns(), 5, 0);
+        assertEqual(metrics.getHistogram(GameMetrics.Phase.VISION).getCount(), perceived, 0);
+        assertEqual(metrics.getHistogram(GameMetrics.Phase.GUARD_DECISION).getCount(), 5 * game.getGuards().size(), 0);
+        assertEqual(metrics.get(GameMetrics.Counter.ACTIONS), perceived, 0);
+        assertTrue(metrics.get(GameMetrics.Counter.RAYS_CAST) > 0, "the rays cast by the workers should be counted");
+    }
+
+}
@@ -0,0 +1,126 @@
+package Group9;
+
+import Group9.agent.RandomAgent;
+import Group9.agent.factories.DummyAgentFactory;
+import Group9.agent.factories.IAgentFactory;
+import Group9.map.GameMap;
+import Group9.map.MapTemplate;
+import Group9.map.parser.Parser;
+import Interop.Action.NoAction;
+import Interop.Agent.Guard;
+import Interop.Agent.Intruder;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class StalemateTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("Parser::parseTemplate <maxTurns, stalemateTurns>", StalemateTest::test_settings);
+        it("Game::run <turn_limit>", StalemateTest::test_turn_limit);
+        it("Game::run <repetition>", StalemateTest::test_repetition);
+        it("Game::run <no_progress>", StalemateTest::test_no_progress);
+        it("Game::fork <keeps_stalemate>", StalemateTest::test_fork);
+
+    }
+
+    private static MapTemplate template(int maxTurns, int stalemateTurns)
+    {
+        try {
+            List<String> lines = new ArrayList<>(Files.readAllLines(Paths.get("./src/main/java/Group9/map/maps/mazy.map")));
+            lines.add("maxTurns = " + maxTurns);
+            lines.add("stalemateTurns = " + stalemateTurns);
+            return Parser.parseTemplate(lines);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // --- the guards wander around, the intruders never move
+    private static final IAgentFactory _WANDERING_GUARDS = new IAgentFactory() {
+        @Override
+        public List<Intruder> createIntruders(int amount) {
+            List<Intruder> intruders = new ArrayList<>();
+            for(int i = 0; i < amount; i++)
+            {
+                intruders.add(percepts -> new NoAction());
+            }
+            return intruders;
+        }
+
+        @Override
+        public List<Guard> createGuards(int amount) {
+            return createGuards(amount, new SplittableRandom());
+        }
+
+        @Override
+        public List<Guard> createGuards(int amount, SplittableRandom random) {
+            List<Guard> guards = new ArrayList<>();
+            for(int i = 0; i < amount; i++)
+            {
+                guards.add(new RandomAgent(random.split()));
+            }
+            return guards;
+        }
+    };
+
+    private static void test_settings() {
+        MapTemplate template = template(100, 20);
+        assertEqual(template.getGameSettings().getMaxTurns(), 100, 0);
+        assertEqual(template.getGameSettings().getStalemateTurns(), 20, 0);
+
+        MapTemplate unlimited = Parser.parseTemplateFile("./src/main/java/Group9/map/maps/mazy.map");
+        assertEqual(unlimited.getGameSettings().getMaxTurns(), 0, 0, "a map without a limit should not have one");
+        assertEqual(unlimited.getGameSettings().getStalemateTurns(), 0, 0);
+    }
+
+    private static void test_turn_limit() {
+        Game game = new Game(new GameMap(template(25, 0)), new DummyAgentFactory(false), false, 1);
+        game.run();
+        assertTrue(game.getWinner() == Game.Team.DRAW);
+        assertTrue(game.getDrawReason() == Game.DrawReason.TURN_LIMIT);
+        assertEqual(game.getTurns(), 25, 0);
+    }
+
+    private static void test_repetition() {
+        // --- nobody moves, so every state after the first one is a repetition
+        Game game = new Game(new GameMap(template(0, 10)), new DummyAgentFactory(false), false, 1);
+        game.run();
+        assertTrue(game.getWinner() == Game.Team.DRAW);
+        assertTrue(game.getDrawReason() == Game.DrawReason.REPETITION);
+        assertEqual(game.getTurns(), 11, 0);
+    }
+
+    private static void test_no_progress() {
+        for(long seed = 1; seed <= 3; seed++)
+        {
+            Game game = new Game(new GameMap(template(10000, 50)), _WANDERING_GUARDS, false, seed);
+            game.run();
+            assertTrue(game.getWinner() == Game.Team.DRAW);
+            assertTrue(game.getDrawReason() == Game.DrawReason.NO_PROGRESS,
+                    "the guards keep on moving, but the intruders never get anywhere");
+            assertTrue(game.getTurns() < 10000);
+        }
+    }
+
+    private static void test_fork() {
+        Game game = new Game(new GameMap(template(0, 10)), new DummyAgentFactory(false), false, 1);
+        for(int i = 0; i < 5; i++)
+        {
+            game.turn();
+        }
+
+        Game fork = game.fork(1);
+        fork.run();
+        game.run();
+        assertEqual(fork.getTurns(), game.getTurns(), 0, "the fork should continue with the turns of the original game");
+        assertTrue(fork.getDrawReason() == game.getDrawReason());
+    }
+
+}
@@ -0,0 +1,117 @@
+package Group9;
+
+import Group9.agent.container.AgentContainer;
+import Group9.agent.container.IntruderContainer;
+import Group9.agent.factories.ShallowSpaceAgentFactory;
+import Group9.gui2.MainController;
+import Group9.gui2.Timeline;
+import Group9.map.dynamic.DynamicObject;
+import Group9.map.parser.Parser;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimelineTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("Timeline::get <same_as_snapshot>", TimelineTest::test_same_as_snapshot);
+        it("Timeline::append <memory_limit>", TimelineTest::test_memory_limit);
+        it("Timeline::get <clamped>", TimelineTest::test_clamped);
+
+    }
+
+    private static List<GameSnapshot> play(Timeline timeline, int turns)
+    {
+        Game game = new Game(Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map"), new ShallowSpaceAgentFactory(), true, 42);
+        List<GameSnapshot> snapshots = new ArrayList<>();
+        snapshots.add(game.getSnapshot());
+        timeline.append(game.getSnapshot());
+        for(int i = 0; i < turns && game.getWinner() == null; i++)
+        {
+            game.turn();
+            snapshots.add(game.getSnapshot());
+            timeline.append(game.getSnapshot());
+        }
+        return snapshots;
+    }
+
+    private static void assertAgent(AgentContainer<?> actual, AgentContainer<?> expected)
+    {
+        assertTrue(actual.getAgent() == expected.getAgent());
+        assertEqual(actual.getPosition().distance(expected.getPosition()), 0, 1E-4);
+        assertEqual(actual.getDirection().distance(expected.getDirection().normalise()), 0, 1E-3);
+        for(AgentContainer.Cooldown cooldown : AgentContainer.Cooldown.values())
+        {
+            assertEqual(actual.getCooldown(cooldown), expected.getCooldown(cooldown), 0, "the cooldowns should be restored");
+        }
+        assertTrue(actual.getNormalFOV() == expected.getNormalFOV());
+    }
+
+    private static void test_same_as_snapshot() {
+        Timeline timeline = new Timeline(8, Long.MAX_VALUE);
+        List<GameSnapshot> snapshots = play(timeline, 40);
+        assertEqual(timeline.getFirstFrame(), 0, 0);
+        assertEqual(timeline.getLastFrame(), snapshots.size() - 1, 0);
+
+        // --- backwards, so every frame has to be rebuilt without the ones before it
+        for(int frame = snapshots.size() - 1; frame >= 0; frame--)
+        {
+            GameSnapshot snapshot = snapshots.get(frame);
+            MainController.History history = timeline.get(frame);
+            assertEqual(history.guardContainers.size(), snapshot.getGuards().size(), 0);
+            assertEqual(history.intruderContainers.size(), snapshot.getIntruders().size(), 0);
+            for(int i = 0; i < snapshot.getGuards().size(); i++)
+            {
+                assertAgent(history.guardContainers.get(i), snapshot.getGuards().get(i));
+            }
+            for(int i = 0; i < snapshot.getIntruders().size(); i++)
+            {
+                IntruderContainer actual = history.intruderContainers.get(i), expected = snapshot.getIntruders().get(i);
+                assertAgent(actual, expected);
+                assertTrue(actual.isCaptured() == expected.isCaptured());
+                assertEqual(actual.getZoneCounter(), expected.getZoneCounter(), 0);
+            }
+
+            assertEqual(history.dynamicObjects.size(), snapshot.getDynamicObjects().size(), 0);
+            for(int i = 0; i < snapshot.getDynamicObjects().size(); i++)
+            {
+                DynamicObject<?> actual = history.dynamicObjects.get(i), expected = snapshot.getDynamicObjects().get(i);
+                assertTrue(actual.getClass() == expected.getClass());
+                assertEqual(actual.getCenter().distance(expected.getCenter()), 0, 1E-4);
+                assertEqual(actual.getRadius(), expected.getRadius(), 1E-4);
+                assertEqual(actual.getLifetime(), expected.getLifetime(), 0);
+            }
+        }
+    }
+
+    private static void test_memory_limit() {
+        Timeline unlimited = new Timeline(8, Long.MAX_VALUE);
+        play(unlimited, 80);
+        final long limit = unlimited.getBytes() / 3;
+
+        Timeline timeline = new Timeline(8, limit);
+        List<GameSnapshot> snapshots = play(timeline, 80);
+        assertTrue(timeline.getBytes() <= limit, "the timeline should stay within its memory limit");
+        assertTrue(timeline.getFirstFrame() > 0, "the oldest frames should have been dropped");
+        assertEqual(timeline.getFirstFrame() % 8, 0, 0);
+        assertEqual(timeline.getLastFrame(), snapshots.size() - 1, 0);
+
+        MainController.History last = timeline.get(timeline.getLastFrame());
+        assertEqual(last.guardContainers.get(0).getPosition().distance(snapshots.get(snapshots.size() - 1).getGuards().get(0).getPosition()), 0, 1E-4);
+    }
+
+    private static void test_clamped() {
+        Timeline timeline = new Timeline(4, Long.MAX_VALUE);
+        assertTrue(timeline.isEmpty());
+        assertTrue(timeline.get(0) == null);
+
+        List<GameSnapshot> snapshots = play(timeline, 10);
+        MainController.History after = timeline.get(1000);
+        assertEqual(after.guardContainers.get(0).getPosition().distance(snapshots.get(snapshots.size() - 1).getGuards().get(0).getPosition()), 0, 1E-4);
+        MainController.History before = timeline.get(-5);
+        assertEqual(before.guardContainers.get(0).getPosition().distance(snapshots.get(0).getGuards().get(0).getPosition()), 0, 1E-4);
+    }
+
+}
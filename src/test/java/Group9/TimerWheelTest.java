@@ -0,0 +1,88 @@
+package Group9;
+
+import Group9.map.GameMap;
+import Group9.map.dynamic.Pheromone;
+import Group9.map.dynamic.TimerWheel;
+import Group9.map.parser.Parser;
+import Group9.math.Vector2;
+import Interop.Percept.Smell.SmellPerceptType;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimerWheelTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("TimerWheel::advance <expires_in_tick>", TimerWheelTest::test_expires_in_tick);
+        it("GameMap::expireDynamicObjects <lifetime>", TimerWheelTest::test_lifetime);
+        it("GameMap::expireDynamicObjects <rescheduled>", TimerWheelTest::test_rescheduled);
+
+    }
+
+    private static void test_expires_in_tick() {
+        // --- starts smaller than the longest expiry, so it has to grow in between
+        TimerWheel<int[]> wheel = new TimerWheel<>(4, e -> e[0]);
+        for(int expiry = 1; expiry <= 100; expiry++)
+        {
+            wheel.schedule(new int[] { expiry });
+            wheel.schedule(new int[] { expiry });
+        }
+        assertEqual(wheel.size(), 200, 0);
+
+        for(int tick = 1; tick <= 100; tick++)
+        {
+            List<int[]> expired = new ArrayList<>();
+            wheel.advance(expired::add);
+            assertEqual(wheel.getTick(), tick, 0);
+            assertEqual(expired.size(), 2, 0);
+            for(int[] e : expired)
+            {
+                assertEqual(e[0], tick, 0, "an item should expire exactly in its tick");
+            }
+        }
+        assertEqual(wheel.size(), 0, 0);
+    }
+
+    private static void test_lifetime() {
+        GameMap gameMap = Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map");
+        Pheromone pheromone = new Pheromone(SmellPerceptType.Pheromone1, null, new Vector2(10, 10), 4, 4);
+        gameMap.getDynamicObjects().add(new Pheromone(SmellPerceptType.Pheromone2, null, new Vector2(20, 20), 4, 2));
+        gameMap.getDynamicObjects().add(pheromone);
+
+        assertEqual(gameMap.expireDynamicObjects(), 0, 0);
+        assertEqual(pheromone.getLifetime(), 3, 0);
+        assertEqual(pheromone.getRadius(), 3, 0, "the radius should shrink with the lifetime");
+
+        assertEqual(gameMap.expireDynamicObjects(), 1, 0);
+        assertEqual(gameMap.getDynamicObjects().size(), 1, 0);
+        assertTrue(gameMap.getDynamicObjects().get(0) == pheromone);
+
+        assertEqual(gameMap.expireDynamicObjects(), 0, 0);
+        assertEqual(gameMap.expireDynamicObjects(), 1, 0);
+        assertTrue(gameMap.getDynamicObjects().isEmpty());
+        assertEqual(pheromone.getLifetime(), 0, 0);
+    }
+
+    private static void test_rescheduled() {
+        GameMap gameMap = Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map");
+        Pheromone pheromone = new Pheromone(SmellPerceptType.Pheromone1, null, new Vector2(10, 10), 4, 2);
+        gameMap.getDynamicObjects().add(pheromone);
+        gameMap.expireDynamicObjects();
+        pheromone.setLifetime(3);
+
+        assertEqual(gameMap.expireDynamicObjects(), 0, 0, "an object should not expire in the tick it has been moved away from");
+        assertEqual(gameMap.expireDynamicObjects(), 0, 0);
+        assertEqual(pheromone.getLifetime(), 1, 0);
+        assertEqual(gameMap.expireDynamicObjects(), 1, 0);
+
+        // --- removed objects are left in the wheel, but must not be expired again
+        Pheromone removed = new Pheromone(SmellPerceptType.Pheromone1, null, new Vector2(10, 10), 4, 1);
+        gameMap.getDynamicObjects().add(removed);
+        gameMap.getDynamicObjects().remove(removed);
+        assertEqual(gameMap.expireDynamicObjects(), 0, 0);
+        assertEqual(removed.getLifetime(), 1, 0, "a removed object should keep its remaining lifetime");
+    }
+
+}
@@ -0,0 +1,164 @@
+package Group9;
+
+import Group9.agent.container.GuardContainer;
+import Group9.agent.factories.DummyAgentFactory;
+import Group9.map.GameMap;
+import Group9.map.VisionMode;
+import Group9.map.objects.MapObject;
+import Group9.map.objects.Wall;
+import Group9.map.parser.Parser;
+import Group9.map.vision.VisibilityPolygon;
+import Group9.math.Vector2;
+import Group9.tree.PointContainer;
+import Interop.Percept.Vision.FieldOfView;
+import Interop.Percept.Vision.ObjectPercept;
+import Interop.Percept.Vision.ObjectPerceptType;
+import SimpleUnitTest.SimpleUnitTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class VisionModeTest extends SimpleUnitTest {
+
+    public static void main(String[] args) {
+
+        it("VisionMode::GRID <matches> VisionMode::BRUTE_FORCE", () -> test_matches_brute_force(VisionMode.GRID));
+        it("VisibilityPolygon::cast <matches> GameMap::getObjectPerceptsInLine", VisionModeTest::test_visibility_polygon_cast);
+        it("VisibilityPolygon::getPolygon", VisionModeTest::test_visibility_polygon_outline);
+        it("VisionMode::VISIBILITY_POLYGON <sees> small objects", VisionModeTest::test_visibility_polygon_small_objects);
+        it("GameMap::setAdaptiveRays <matches> uniform rays", VisionModeTest::test_adaptive_rays);
+
+    }
+
+    private static void test_matches_brute_force(VisionMode mode) {
+        GameMap gameMap = Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map");
+        Game game = new Game(gameMap, new DummyAgentFactory(false), false);
+        GuardContainer guard = game.getGuards().get(0);
+
+        Random random = new Random(42);
+        for(int i = 0; i < 250; i++)
+        {
+            guard.moveTo(new Vector2(1 + random.nextDouble() * 118, 1 + random.nextDouble() * 119));
+            guard.rotate(random.nextDouble() * Math.PI * 2);
+            FieldOfView fov = guard.getFOV(gameMap.getEffectAreas(guard));
+
+            gameMap.setVisionMode(VisionMode.BRUTE_FORCE);
+            Set<ObjectPercept> expected = gameMap.getObjectPerceptsForAgent(guard, fov, null);
+            gameMap.setVisionMode(mode);
+            Set<ObjectPercept> actual = gameMap.getObjectPerceptsForAgent(guard, fov, null);
+
+            assertTrue(containsAll(expected, actual) && containsAll(actual, expected),
+                    String.format("%s and %s should perceive the same objects at %s", mode, VisionMode.BRUTE_FORCE, guard));
+        }
+    }
+
+    private static void test_visibility_polygon_cast() {
+        GameMap gameMap = Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map");
+        Game game = new Game(gameMap, new DummyAgentFactory(false), false);
+        GuardContainer guard = game.getGuards().get(0);
+
+        Random random = new Random(42);
+        for(int i = 0; i < 100; i++)
+        {
+            guard.moveTo(new Vector2(1 + random.nextDouble() * 118, 1 + random.nextDouble() * 119));
+            guard.rotate(random.nextDouble() * Math.PI * 2);
+            FieldOfView fov = guard.getFOV(gameMap.getEffectAreas(guard));
+
+            final double viewAngle = fov.getViewAngle().getRadians();
+            VisibilityPolygon polygon = new VisibilityPolygon(gameMap.getObjects(), guard.getPosition(),
+                    guard.getDirection().normalise().mul(fov.getRange().getValue()).rotated(-viewAngle / 2), viewAngle);
+
+            // --- the same rays have to produce the exact same percepts
+            for(Vector2[] ray : gameMap.getAgentVisionCone(guard, fov, null))
+            {
+                PointContainer.Line line = new PointContainer.Line(ray[0], ray[1], false);
+                Set<ObjectPercept> expected = gameMap.getObjectPerceptsInLine(gameMap.getObjects(), guard, fov, line);
+                Set<ObjectPercept> actual = gameMap.getObjectPerceptsInLineVisibility(polygon, guard, fov, line);
+                assertTrue(containsAll(expected, actual) && containsAll(actual, expected),
+                        String.format("visibility polygon and brute force should perceive the same objects at %s", guard));
+            }
+        }
+    }
+
+    private static void test_visibility_polygon_outline() {
+        // --- a 10x10 room seen from its centre, looking in every direction
+        List<MapObject> objects = new ArrayList<>();
+        objects.add(new Wall(new PointContainer.Polygon(new Vector2(-5, -5), new Vector2(-5, -6), new Vector2(5, -6), new Vector2(5, -5))));
+        objects.add(new Wall(new PointContainer.Polygon(new Vector2(-5, 5), new Vector2(-5, 6), new Vector2(5, 6), new Vector2(5, 5))));
+        objects.add(new Wall(new PointContainer.Polygon(new Vector2(-5, -5), new Vector2(-6, -5), new Vector2(-6, 5), new Vector2(-5, 5))));
+        objects.add(new Wall(new PointContainer.Polygon(new Vector2(5, -5), new Vector2(6, -5), new Vector2(6, 5), new Vector2(5, 5))));
+
+        VisibilityPolygon polygon = new VisibilityPolygon(objects, new Vector2(0, 0), new Vector2(20, 0), Math.PI * 2);
+        List<Vector2> points = polygon.getPolygon();
+        assertTrue(points.get(0).equals(new Vector2(0, 0)), "the outline should start at the origin");
+        for(Vector2 point : points.subList(1, points.size()))
+        {
+            // --- every point of the outline has to be on the inner side of one of the walls
+            assertTrue(Math.abs(Math.max(Math.abs(point.getX()), Math.abs(point.getY())) - 5) < 1E-9,
+                    String.format("%s should lie on the inside of the room", point));
+        }
+    }
+
+    private static void test_visibility_polygon_small_objects() {
+        GameMap gameMap = Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map");
+        Game game = new Game(gameMap, new DummyAgentFactory(false), false);
+        GuardContainer guard = game.getGuards().get(0);
+        FieldOfView fov = guard.getFOV(gameMap.getEffectAreas(guard));
+
+        // --- a wall so thin that it can fall in between the rays required by the specifications, and nothing else
+        gameMap.getObjects().clear();
+        game.getGuards().removeIf(e -> e != guard);
+        game.getIntruders().clear();
+        Vector2 far = guard.getPosition().add(guard.getDirection().normalise().mul(fov.getRange().getValue() * 0.9));
+        gameMap.getObjects().add(new Wall(new PointContainer.Polygon(
+                far.add(0.01, 0.01), far.add(-0.01, 0.01), far.add(-0.01, -0.01), far.add(0.01, -0.01))));
+
+        gameMap.setVisionMode(VisionMode.VISIBILITY_POLYGON);
+        Set<ObjectPercept> percepts = gameMap.getObjectPerceptsForAgent(guard, fov, null);
+        assertTrue(percepts.stream().anyMatch(e -> e.getType() == ObjectPerceptType.Wall),
+                "the thin wall in front of the guard should be seen");
+    }
+
+    private static void test_adaptive_rays() {
+        GameMap gameMap = Parser.parseFile("./src/main/java/Group9/map/maps/mazy.map");
+        Game game = new Game(gameMap, new DummyAgentFactory(false), false);
+        GuardContainer guard = game.getGuards().get(0);
+
+        int uniformPercepts = 0;
+        int adaptivePercepts = 0;
+        Random random = new Random(42);
+        for(int i = 0; i < 250; i++)
+        {
+            guard.moveTo(new Vector2(1 + random.nextDouble() * 118, 1 + random.nextDouble() * 119));
+            guard.rotate(random.nextDouble() * Math.PI * 2);
+            FieldOfView fov = guard.getFOV(gameMap.getEffectAreas(guard));
+
+            gameMap.setAdaptiveRays(false);
+            Set<ObjectPercept> uniform = gameMap.getObjectPerceptsForAgent(guard, fov, null);
+            gameMap.setAdaptiveRays(true);
+            Set<ObjectPercept> adaptive = gameMap.getObjectPerceptsForAgent(guard, fov, null);
+
+            // --- every adaptive ray is also a uniform ray, and every kind of object has to be found. Empty space at the end
+            //  of the range is sometimes rejected by the field of view due to rounding errors, so it is not an object
+            //  that can be relied on.
+            assertTrue(containsAll(uniform, adaptive), String.format("adaptive rays should be a subset of the uniform rays at %s", guard));
+            assertTrue(uniform.stream().filter(e -> e.getType() != ObjectPerceptType.EmptySpace)
+                            .allMatch(e -> adaptive.stream().anyMatch(o -> o.getType() == e.getType())),
+                    String.format("adaptive rays should perceive the same types of objects at %s", guard));
+
+            uniformPercepts += uniform.size();
+            adaptivePercepts += adaptive.size();
+        }
+        assertTrue(adaptivePercepts < uniformPercepts, "adaptive rays should cast fewer rays");
+    }
+
+    private static boolean containsAll(Set<ObjectPercept> a, Set<ObjectPercept> b)
+    {
+        return b.stream().allMatch(e -> a.stream().anyMatch(o -> o.getType() == e.getType()
+                && Math.abs(o.getPoint().getX() - e.getPoint().getX()) < 1E-6
+                && Math.abs(o.getPoint().getY() - e.getPoint().getY()) < 1E-6));
+    }
+
+}